@@ -0,0 +1,25 @@
+#!/usr/bin/env bash
+# Compares the startup of the shaded jar without and with the class-data-sharing (CDS) archive, and of the native
+# image if it has been built. Expects the artifacts of "mvn verify -Pshaded,cds" (and optionally "-Pnative") in
+# target and writes the results to target/startup-comparison.json.
+#
+# Usage: benchmark-startup.sh [runs]
+# All variants are measured with the same JDK, number of runs and arguments, see measure-startup.sh.
+set -euo pipefail
+
+runs="${1:-20}"
+
+cd "$(dirname "$0")"
+
+launcher=(sh target/teamscale-buildbreaker.sh)
+BUILDBREAKER_CDS=false ./measure-startup.sh target/startup-jar.json "$runs" "${launcher[@]}"
+BUILDBREAKER_CDS=true ./measure-startup.sh target/startup-cds.json "$runs" "${launcher[@]}"
+native="null"
+if [ -x target/teamscale-buildbreaker ]; then
+    ./measure-startup.sh target/startup-native.json "$runs" target/teamscale-buildbreaker
+    native=$(cat target/startup-native.json)
+fi
+
+printf '{"jar": %s, "cds": %s, "native": %s}\n' "$(cat target/startup-jar.json)" "$(cat target/startup-cds.json)" \
+    "$native" > target/startup-comparison.json
+echo "Results written to target/startup-comparison.json"
@@ -0,0 +1,32 @@
+package com.teamscale.buildbreaker.benchmarks;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Runs the benchmarks selected by the given JMH command line options. The GC profiler is always enabled, so that
+ * allocation rates are reported next to the timings and allocation regressions of parser and evaluator changes show
+ * up as well.
+ */
+public class BenchmarkMain {
+
+    private BenchmarkMain() {
+        // Prevent instantiation
+    }
+
+    public static void main(String... args) throws RunnerException {
+        CommandLineOptions commandLineOptions;
+        try {
+            commandLineOptions = new CommandLineOptions(args);
+        } catch (CommandLineOptionException e) {
+            System.err.println("Invalid options: " + e.getMessage());
+            System.exit(1);
+            return;
+        }
+        new Runner(new OptionsBuilder().parent(commandLineOptions).addProfiler(GCProfiler.class).build()).run();
+    }
+}
@@ -0,0 +1,129 @@
+package com.teamscale.buildbreaker.benchmarks;
+
+import com.teamscale.buildbreaker.evaluation.Finding;
+import com.teamscale.buildbreaker.evaluation.ProblemCategory;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Creates synthetic Teamscale responses and findings of a given size. Every third finding or metric is yellow, the
+ * others are red, and findings are spread over 100 files per directory, so the payloads resemble real responses.
+ */
+public class SyntheticPayloads {
+
+    private SyntheticPayloads() {
+        // Prevent instantiation
+    }
+
+    /**
+     * Creates a finding-churn response with plain finding arrays, as returned by the finding-churn list and by the
+     * delta endpoints up to Teamscale 2025.5. Half of the findings are added findings, the other half are in changed
+     * code.
+     */
+    public static byte[] plainArrayFindingsResponse(int findingCount) {
+        StringBuilder json = new StringBuilder("{\"addedFindings\":[");
+        appendFindings(json, 0, findingCount / 2);
+        json.append("],\"findingsInChangedCode\":[");
+        appendFindings(json, findingCount / 2, findingCount);
+        json.append("]}");
+        return json.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Creates a delta response with finding arrays wrapped in objects, as returned by the delta endpoints from
+     * Teamscale 2025.6 on. Half of the findings are added findings, the other half are in changed code.
+     */
+    public static byte[] wrappedFindingsResponse(int findingCount) {
+        StringBuilder json = new StringBuilder("{\"addedFindings\":{\"findings\":[");
+        appendFindings(json, 0, findingCount / 2);
+        json.append("]},\"findingsInChangedCode\":{\"findings\":[");
+        appendFindings(json, findingCount / 2, findingCount);
+        json.append("]}}");
+        return json.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static void appendFindings(StringBuilder json, int fromIndex, int toIndex) {
+        for (int i = fromIndex; i < toIndex; i++) {
+            if (i > fromIndex) {
+                json.append(',');
+            }
+            json.append("{\"id\":\"").append(findingId(i))
+                    .append("\",\"groupName\":\"Clones\",\"categoryName\":\"Redundancy\",")
+                    .append("\"message\":\"Clone with ").append(i % 5 + 2).append(" instances of length ")
+                    .append(i % 50 + 10).append("\",\"location\":{\"uniformPath\":\"").append(uniformPath(i))
+                    .append("\",\"rawStartLine\":").append(i % 500 + 1).append("},\"assessment\":\"")
+                    .append(rating(i)).append("\"}");
+        }
+    }
+
+    /**
+     * Creates a metric assessment response of Teamscale 2024.9 and above, which contains raw values instead of
+     * formatted ones.
+     */
+    public static String metricResponse(int metricCount) {
+        StringBuilder json = new StringBuilder("[{\"metrics\":{");
+        for (int i = 0; i < metricCount; i++) {
+            if (i > 0) {
+                json.append(',');
+            }
+            json.append("\"m").append(i).append("\":{\"displayName\":\"Metric ").append(i)
+                    .append("\",\"rating\":\"").append(rating(i)).append("\",")
+                    .append("\"metricThresholds\":{\"thresholdYellow\":10,\"thresholdRed\":20},");
+            if (i % 2 == 0) {
+                json.append("\"schemaEntry\":{\"valueType\":\"NUMERIC\"},\"value\":").append(i % 100 + 0.5);
+            } else {
+                json.append("\"schemaEntry\":{\"valueType\":\"ASSESSMENT\"},\"value\":{\"mapping\":[")
+                        .append(i % 7).append(',').append(i % 11).append(',').append(i % 13).append("]}");
+            }
+            json.append('}');
+        }
+        json.append("}}]");
+        return json.toString();
+    }
+
+    /**
+     * Creates a metric assessment response of Teamscale versions before 2024.9, which contains formatted values.
+     */
+    public static String metricResponsePreTS20249(int metricCount) {
+        StringBuilder json = new StringBuilder("[{\"metrics\":{");
+        for (int i = 0; i < metricCount; i++) {
+            if (i > 0) {
+                json.append(',');
+            }
+            json.append("\"m").append(i).append("\":{\"displayName\":\"Metric ").append(i)
+                    .append("\",\"rating\":\"").append(rating(i)).append("\",\"formattedTextValue\":\"")
+                    .append(i % 100).append("%\",\"metricThresholds\":{\"thresholdYellow\":\"10\",\"thresholdRed\":\"20\"}}");
+        }
+        json.append("}}]");
+        return json.toString();
+    }
+
+    /** Creates the given number of findings with the same contents as in the responses. */
+    public static List<Finding> findings(int findingCount) {
+        List<Finding> findings = new ArrayList<>(findingCount);
+        for (int i = 0; i < findingCount; i++) {
+            findings.add(new Finding(findingId(i), "Clones", "Redundancy",
+                    "Clone with " + (i % 5 + 2) + " instances of length " + (i % 50 + 10), uniformPath(i),
+                    ProblemCategory.fromRatingString(rating(i))));
+        }
+        return findings;
+    }
+
+    private static String findingId(int index) {
+        return String.format("%032X", index);
+    }
+
+    private static String uniformPath(int index) {
+        return "src/main/java/component" + index / 10000 + "/package" + index / 100 % 100 + "/File" + index % 100 +
+                ".java";
+    }
+
+    private static String rating(int index) {
+        if (index % 3 == 0) {
+            return "YELLOW";
+        }
+        return "RED";
+    }
+}
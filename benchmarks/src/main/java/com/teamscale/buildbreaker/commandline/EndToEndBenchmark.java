@@ -0,0 +1,194 @@
+package com.teamscale.buildbreaker.commandline;
+
+import com.teamscale.buildbreaker.commandline.SimulatedTeamscale.Phase;
+import com.teamscale.buildbreaker.commandline.SimulatedTeamscale.RequestArrival;
+import okhttp3.mockwebserver.MockWebServer;
+import picocli.CommandLine;
+import picocli.CommandLine.Command;
+import picocli.CommandLine.Option;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.function.ToLongFunction;
+
+/**
+ * Measures the wall-clock time of complete build-breaker runs against a {@link SimulatedTeamscale} server, broken down
+ * into the phases of a run.
+ * <p>
+ * The phase of a run at any point in time is the phase of the last request that arrived at the server, so the time
+ * spent processing a response is attributed to the phase of the request. The phases thus add up to the total time of
+ * the run.
+ */
+@Command(name = "end-to-end-benchmark", mixinStandardHelpOptions = true,
+        description = "Measures complete build-breaker runs against a simulated Teamscale server and reports the median wall-clock time of each phase.")
+public class EndToEndBenchmark implements Callable<Integer> {
+
+    /** The evaluation modes of the build-breaker. */
+    enum Mode {
+        COMMIT_DETAILS("--commit", SimulatedTeamscale.COMMIT, "--evaluate-findings"),
+        LINEAR_DELTA("--commit", SimulatedTeamscale.COMMIT, "--evaluate-findings",
+                "--base-revision", SimulatedTeamscale.BASE_COMMIT),
+        BRANCH_MERGE_DELTA("--commit", SimulatedTeamscale.COMMIT, "--evaluate-findings",
+                "--target-revision", SimulatedTeamscale.TARGET_COMMIT),
+        THRESHOLDS("--commit", SimulatedTeamscale.COMMIT, "--evaluate-thresholds", "--threshold-config", "default");
+
+        private final String[] arguments;
+
+        Mode(String... arguments) {
+            this.arguments = arguments;
+        }
+    }
+
+    @Option(names = {"--mode"}, split = ",",
+            description = "The modes to measure, separated by commas. Valid values: ${COMPLETION-CANDIDATES}. Default: all modes.")
+    List<Mode> modes = Arrays.asList(Mode.values());
+
+    @Option(names = {"--runs"}, description = "The number of measured runs per mode. Default: ${DEFAULT-VALUE}.")
+    int runs = 5;
+
+    @Option(names = {"--warmup-runs"}, description = "The number of runs per mode before the measured runs. Default: ${DEFAULT-VALUE}.")
+    int warmupRuns = 2;
+
+    @Option(names = {"--latency"}, paramLabel = "<iso-8601-duration>",
+            description = "The delay of each response of the simulated server. Default: ${DEFAULT-VALUE}.")
+    Duration latency = Duration.ofMillis(50);
+
+    @Option(names = {"--bandwidth"}, paramLabel = "<kilobytes-per-second>",
+            description = "The bandwidth with which the simulated server sends response bodies, 0 for unlimited. Default: ${DEFAULT-VALUE}.")
+    long bandwidthKilobytesPerSecond = 0;
+
+    @Option(names = {"--payload-size"}, paramLabel = "<count>",
+            description = "The number of findings in findings responses and of metrics in metric responses. Default: ${DEFAULT-VALUE}.")
+    int payloadSize = 1000;
+
+    @Option(names = {"--analysis-duration"}, paramLabel = "<iso-8601-duration>",
+            description = "The time after the start of a run after which the simulated server reports the analysis of the commit as finished. Default: ${DEFAULT-VALUE}.")
+    Duration analysisDuration = Duration.ZERO;
+
+    @Option(names = {"--analysis-poll-interval"}, paramLabel = "<iso-8601-duration>",
+            description = "Passed on to the build-breaker. Default: ${DEFAULT-VALUE}.")
+    Duration analysisPollInterval = Duration.ofSeconds(1);
+
+    public static void main(String... args) {
+        System.exit(new CommandLine(new EndToEndBenchmark()).execute(args));
+    }
+
+    @Override
+    public Integer call() throws Exception {
+        if (runs < 1 || warmupRuns < 0) {
+            throw new CommandLine.ParameterException(new CommandLine(this),
+                    "--runs must be positive and --warmup-runs must not be negative.");
+        }
+        PrintStream out = System.out;
+        out.println("Latency " + latency + ", bandwidth " +
+                (bandwidthKilobytesPerSecond > 0 ? bandwidthKilobytesPerSecond + " KB/s" : "unlimited") +
+                ", payload size " + payloadSize + ", analysis duration " + analysisDuration + ", " + runs + " runs");
+        out.println("Median wall-clock time in milliseconds:");
+        out.println(formatRow("Mode", Arrays.stream(Phase.values()).map(Phase::name).toArray(String[]::new), "TOTAL"));
+
+        SimulatedTeamscale teamscale = new SimulatedTeamscale(latency, bandwidthKilobytesPerSecond * 1024,
+                payloadSize, analysisDuration);
+        for (Mode mode : modes) {
+            MockWebServer server = new MockWebServer();
+            server.setDispatcher(teamscale);
+            server.start();
+            try {
+                out.println(measure(mode, server, teamscale));
+            } finally {
+                server.shutdown();
+            }
+        }
+        return 0;
+    }
+
+    private String measure(Mode mode, MockWebServer server, SimulatedTeamscale teamscale) {
+        List<String> arguments = new ArrayList<>(Arrays.asList("--server", server.url("/").toString(),
+                "--user", "benchmark", "--accesskey", "benchmark", "--project", "benchmark",
+                "--repository-url", "https://example.com/benchmark.git",
+                "--analysis-poll-interval", analysisPollInterval.toString(),
+                "--analysis-poll-max-interval", analysisPollInterval.toString()));
+        arguments.addAll(Arrays.asList(mode.arguments));
+
+        List<Map<Phase, Long>> measurements = new ArrayList<>();
+        for (int i = 0; i < warmupRuns + runs; i++) {
+            Map<Phase, Long> phaseNanos = run(arguments.toArray(new String[0]), teamscale);
+            if (i >= warmupRuns) {
+                measurements.add(phaseNanos);
+            }
+        }
+
+        String[] phaseMedians = new String[Phase.values().length];
+        for (Phase phase : Phase.values()) {
+            phaseMedians[phase.ordinal()] =
+                    formatMillis(median(measurements, phaseNanos -> phaseNanos.getOrDefault(phase, 0L)));
+        }
+        String total = formatMillis(median(measurements,
+                phaseNanos -> phaseNanos.values().stream().mapToLong(Long::longValue).sum()));
+        return formatRow(mode.name(), phaseMedians, total);
+    }
+
+    /** Runs the build-breaker once and returns the time spent in each phase. */
+    private static Map<Phase, Long> run(String[] arguments, SimulatedTeamscale teamscale) {
+        PrintStream originalOut = System.out;
+        // The output of the build-breaker is not of interest and would distort the measurement for large payloads
+        System.setOut(new PrintStream(new OutputStream() {
+            @Override
+            public void write(int b) {
+                // Discard
+            }
+
+            @Override
+            public void write(byte[] b, int off, int len) {
+                // Discard
+            }
+        }));
+        long startNanos = System.nanoTime();
+        int exitCode;
+        try {
+            teamscale.startRun(startNanos);
+            exitCode = BuildBreaker.run(arguments);
+        } finally {
+            System.setOut(originalOut);
+        }
+        long endNanos = System.nanoTime();
+        if (exitCode < 0) {
+            throw new IllegalStateException("The build-breaker failed with exit code " + exitCode);
+        }
+
+        Map<Phase, Long> phaseNanos = new EnumMap<>(Phase.class);
+        Phase phase = Phase.STARTUP;
+        long phaseStartNanos = startNanos;
+        for (RequestArrival arrival : teamscale.getArrivals()) {
+            phaseNanos.merge(phase, arrival.nanos - phaseStartNanos, Long::sum);
+            phase = arrival.phase;
+            phaseStartNanos = arrival.nanos;
+        }
+        phaseNanos.merge(phase, endNanos - phaseStartNanos, Long::sum);
+        return phaseNanos;
+    }
+
+    private static long median(List<Map<Phase, Long>> measurements,
+                               ToLongFunction<Map<Phase, Long>> value) {
+        long[] values = measurements.stream().mapToLong(value).sorted().toArray();
+        return values[(values.length - 1) / 2];
+    }
+
+    private static String formatMillis(long nanos) {
+        return String.valueOf(Duration.ofNanos(nanos).toMillis());
+    }
+
+    private static String formatRow(String mode, String[] phases, String total) {
+        StringBuilder row = new StringBuilder(String.format("%-20s", mode));
+        for (String phase : phases) {
+            row.append(String.format("%20s", phase));
+        }
+        return row.append(String.format("%10s", total)).toString();
+    }
+}
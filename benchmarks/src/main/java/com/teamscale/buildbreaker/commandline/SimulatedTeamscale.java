@@ -0,0 +1,171 @@
+package com.teamscale.buildbreaker.commandline;
+
+import com.teamscale.buildbreaker.benchmarks.SyntheticPayloads;
+import okhttp3.mockwebserver.Dispatcher;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.RecordedRequest;
+import okio.Buffer;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Answers the requests of a build-breaker run like a Teamscale server with the configured latency, bandwidth and
+ * payload size, and records when each request arrived.
+ * <p>
+ * The analysis of the evaluated commit is reported as finished once the configured time has passed since the start
+ * of the run. Before that, the analysis state reports the preceding commit as the last analyzed one.
+ */
+class SimulatedTeamscale extends Dispatcher {
+
+    /** The commit whose findings or metrics are evaluated. */
+    static final String COMMIT = "c0ffee";
+
+    /** The parent of {@link #COMMIT}, used as base revision of the linear delta. */
+    static final String BASE_COMMIT = "ba5e";
+
+    /** The commit on the target branch of the branch merge delta. */
+    static final String TARGET_COMMIT = "7a26e7";
+
+    private static final long COMMIT_TIMESTAMP = 1597845930000L;
+
+    /** The period in which the bandwidth of response bodies is limited. */
+    private static final long THROTTLE_PERIOD_MILLIS = 100;
+
+    private final Duration latency;
+    private final long bytesPerSecond;
+    private final Duration analysisDuration;
+
+    private final byte[] commitFindingsResponse;
+    private final byte[] deltaFindingsResponse;
+    private final byte[] metricResponse;
+
+    private final List<RequestArrival> arrivals = new ArrayList<>();
+    private long runStartNanos;
+
+    /**
+     * @param latency          the delay before the headers of each response are sent
+     * @param bytesPerSecond   the bandwidth with which response bodies are sent, or 0 for unlimited bandwidth
+     * @param payloadSize      the number of findings in findings responses and of metrics in metric responses
+     * @param analysisDuration the time after the start of a run after which the analysis of the commit is finished
+     */
+    SimulatedTeamscale(Duration latency, long bytesPerSecond, int payloadSize, Duration analysisDuration) {
+        this.latency = latency;
+        this.bytesPerSecond = bytesPerSecond;
+        this.analysisDuration = analysisDuration;
+        commitFindingsResponse = SyntheticPayloads.plainArrayFindingsResponse(payloadSize);
+        deltaFindingsResponse = SyntheticPayloads.wrappedFindingsResponse(payloadSize);
+        metricResponse = SyntheticPayloads.metricResponse(payloadSize).getBytes(StandardCharsets.UTF_8);
+    }
+
+    /** Marks the start of a run, which resets the recorded requests and the analysis state. */
+    synchronized void startRun(long startNanos) {
+        runStartNanos = startNanos;
+        arrivals.clear();
+    }
+
+    /** Returns the requests of the current run in the order of their arrival. */
+    synchronized List<RequestArrival> getArrivals() {
+        return new ArrayList<>(arrivals);
+    }
+
+    @Override
+    public MockResponse dispatch(RecordedRequest request) {
+        long arrivalNanos = System.nanoTime();
+        String path = request.getRequestUrl().encodedPath();
+        Phase phase = Phase.of(path);
+        synchronized (this) {
+            arrivals.add(new RequestArrival(arrivalNanos, phase));
+        }
+
+        switch (phase) {
+            case RESOLVE_REVISIONS:
+                return respond(revisionResponse(path).getBytes(StandardCharsets.UTF_8));
+            case WAIT_FOR_ANALYSIS:
+                if (path.endsWith("/post-commit-hook")) {
+                    return respond(new byte[0]);
+                }
+                return respond(analysisStateResponse(arrivalNanos).getBytes(StandardCharsets.UTF_8));
+            case EVALUATE_THRESHOLDS:
+                return respond(metricResponse);
+            case EVALUATE_FINDINGS:
+                if (path.endsWith("/finding-churn/list")) {
+                    return respond(commitFindingsResponse);
+                }
+                return respond(deltaFindingsResponse);
+            default:
+                return new MockResponse().setResponseCode(404);
+        }
+    }
+
+    private MockResponse respond(byte[] body) {
+        MockResponse response = new MockResponse()
+                .addHeader("Content-Type", "application/json")
+                .setHeadersDelay(latency.toMillis(), TimeUnit.MILLISECONDS)
+                .setBody(new Buffer().write(body));
+        if (bytesPerSecond > 0) {
+            response.throttleBody(Math.max(1, bytesPerSecond * THROTTLE_PERIOD_MILLIS / 1000), THROTTLE_PERIOD_MILLIS,
+                    TimeUnit.MILLISECONDS);
+        }
+        return response;
+    }
+
+    private static String revisionResponse(String path) {
+        if (path.contains("/revision/" + BASE_COMMIT + "/")) {
+            return "[{\"branchName\":\"main\",\"timestamp\":" + (COMMIT_TIMESTAMP - 1) + "}]";
+        }
+        if (path.contains("/revision/" + TARGET_COMMIT + "/")) {
+            return "[{\"branchName\":\"master\",\"timestamp\":" + (COMMIT_TIMESTAMP - 2) + "}]";
+        }
+        return "[{\"branchName\":\"main\",\"timestamp\":" + COMMIT_TIMESTAMP + "}]";
+    }
+
+    private synchronized String analysisStateResponse(long nowNanos) {
+        if (nowNanos - runStartNanos < analysisDuration.toNanos()) {
+            return "{\"timestamp\":" + (COMMIT_TIMESTAMP - 1) + ",\"state\":\"LIVE_ANALYSIS\"}";
+        }
+        return "{\"timestamp\":" + COMMIT_TIMESTAMP + ",\"state\":\"LIVE_ANALYSIS\"}";
+    }
+
+    /** The phases of a run, in the order in which they usually start. */
+    enum Phase {
+        /** Option parsing and client setup until the first request. */
+        STARTUP,
+        RESOLVE_REVISIONS,
+        WAIT_FOR_ANALYSIS,
+        EVALUATE_THRESHOLDS,
+        EVALUATE_FINDINGS,
+        UNKNOWN;
+
+        private static Phase of(String path) {
+            if (path.contains("/revision/")) {
+                return RESOLVE_REVISIONS;
+            }
+            if (path.contains("/branch-analysis-state/") || path.endsWith("/post-commit-hook")) {
+                return WAIT_FOR_ANALYSIS;
+            }
+            if (path.endsWith("/metric-assessments")) {
+                return EVALUATE_THRESHOLDS;
+            }
+            if (path.endsWith("/finding-churn/list") || path.endsWith("/findings/delta") ||
+                    path.endsWith("/merge-requests/finding-churn")) {
+                return EVALUATE_FINDINGS;
+            }
+            return UNKNOWN;
+        }
+    }
+
+    /** A request that arrived at the simulated server. */
+    static class RequestArrival {
+        final long nanos;
+        final Phase phase;
+
+        private RequestArrival(long nanos, Phase phase) {
+            this.nanos = nanos;
+            this.phase = phase;
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package com.teamscale.buildbreaker.evaluation;
+
+import com.teamscale.buildbreaker.benchmarks.SyntheticPayloads;
+import org.conqat.lib.commons.collections.Pair;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the evaluation of findings and the rendering of the result. Half of the findings are added findings, the
+ * other half are in changed code, and both yellow findings and findings in changed code are evaluated, so that every
+ * finding ends up in the result.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+@State(Scope.Benchmark)
+public class FindingsEvaluatorBenchmark {
+
+    @Param({"10", "1000", "100000", "1000000"})
+    public int findingCount;
+
+    private Pair<List<Finding>, List<Finding>> findings;
+    private FindingStore store;
+    private EvaluationResult result;
+
+    @Setup
+    public void createFindings() {
+        List<Finding> allFindings = SyntheticPayloads.findings(findingCount);
+        findings = Pair.createPair(allFindings.subList(0, findingCount / 2),
+                allFindings.subList(findingCount / 2, findingCount));
+        store = new FindingStore();
+        findings.getFirst().forEach(store::acceptAddedFinding);
+        findings.getSecond().forEach(store::acceptFindingInChangedCode);
+        result = new FindingsEvaluator().evaluate(findings, true, true);
+    }
+
+    @Benchmark
+    public EvaluationResult evaluate() {
+        return new FindingsEvaluator().evaluate(findings, true, true);
+    }
+
+    @Benchmark
+    public EvaluationResult evaluateStore() {
+        return new FindingsEvaluator().evaluate(store, true, true, ViolationListener.NONE);
+    }
+
+    @Benchmark
+    public String resultToString() {
+        return result.toString();
+    }
+}
@@ -0,0 +1,90 @@
+package com.teamscale.buildbreaker.teamscale_client;
+
+import com.teamscale.buildbreaker.benchmarks.SyntheticPayloads;
+import com.teamscale.buildbreaker.evaluation.Finding;
+import com.teamscale.buildbreaker.evaluation.FindingConsumer;
+import com.teamscale.buildbreaker.teamscale_client.exceptions.ParserException;
+import okio.BufferedSource;
+import okio.Okio;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures decoding of findings responses by {@link FindingsResponseParser}, which backs both the finding-churn list
+ * and the delta endpoints. The response is streamed from memory, so only decoding is measured, not I/O.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+@State(Scope.Benchmark)
+public class FindingsResponseParserBenchmark {
+
+    @Param({"10", "1000", "100000", "1000000"})
+    public int findingCount;
+
+    private byte[] plainArrayResponse;
+    private byte[] wrappedResponse;
+
+    @Setup
+    public void createPayloads() {
+        plainArrayResponse = SyntheticPayloads.plainArrayFindingsResponse(findingCount);
+        wrappedResponse = SyntheticPayloads.wrappedFindingsResponse(findingCount);
+    }
+
+    /**
+     * Sections that are plain finding arrays, as in the finding-churn list and in delta responses up to Teamscale
+     * 2025.5 (formerly the fallback path of the delta parsing).
+     */
+    @Benchmark
+    public void plainArraySections(Blackhole blackhole) throws IOException, ParserException {
+        FindingsResponseParser.parse(open(plainArrayResponse), new BlackholeConsumer(blackhole));
+    }
+
+    /**
+     * Sections that wrap the finding arrays in objects, as in delta responses from Teamscale 2025.6 on (formerly the
+     * fast path of the delta parsing).
+     */
+    @Benchmark
+    public void wrappedSections(Blackhole blackhole) throws IOException, ParserException {
+        FindingsResponseParser.parse(open(wrappedResponse), new BlackholeConsumer(blackhole));
+    }
+
+    private static BufferedSource open(byte[] response) {
+        return Okio.buffer(Okio.source(new ByteArrayInputStream(response)));
+    }
+
+    /** Consumes the findings without retaining them, like a streaming evaluation does. */
+    private static class BlackholeConsumer implements FindingConsumer {
+        private final Blackhole blackhole;
+
+        private BlackholeConsumer(Blackhole blackhole) {
+            this.blackhole = blackhole;
+        }
+
+        @Override
+        public void acceptAddedFinding(Finding finding) {
+            blackhole.consume(finding);
+        }
+
+        @Override
+        public void acceptFindingInChangedCode(Finding finding) {
+            blackhole.consume(finding);
+        }
+    }
+}
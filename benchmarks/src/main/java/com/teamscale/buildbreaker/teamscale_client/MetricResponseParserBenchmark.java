@@ -0,0 +1,51 @@
+package com.teamscale.buildbreaker.teamscale_client;
+
+import com.teamscale.buildbreaker.benchmarks.SyntheticPayloads;
+import com.teamscale.buildbreaker.evaluation.MetricViolation;
+import com.teamscale.buildbreaker.teamscale_client.exceptions.ParserException;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/** Measures parsing of metric assessment responses in the formats before and since Teamscale 2024.9. */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+@State(Scope.Benchmark)
+public class MetricResponseParserBenchmark {
+
+    @Param({"10", "1000", "100000", "1000000"})
+    public int metricCount;
+
+    private String response;
+    private String responsePreTS20249;
+
+    @Setup
+    public void createPayloads() {
+        response = SyntheticPayloads.metricResponse(metricCount);
+        responsePreTS20249 = SyntheticPayloads.metricResponsePreTS20249(metricCount);
+    }
+
+    @Benchmark
+    public List<MetricViolation> parseMetricResponse() throws ParserException {
+        return TeamscaleClient.parseMetricResponse(response);
+    }
+
+    @Benchmark
+    public List<MetricViolation> parseMetricResponsePreTS20249() throws ParserException {
+        return TeamscaleClient.parseMetricResponsePreTS20249(responsePreTS20249);
+    }
+}
@@ -0,0 +1,24 @@
+#!/usr/bin/env bash
+# Builds a native image that is optimized with a profile recorded from a representative run against a Teamscale
+# server. Profile-guided optimization requires GraalVM Enterprise Edition.
+#
+# The representative run evaluates findings and thresholds of the given commit, so that the recorded profile covers
+# revision resolution, analysis state polling and parsing of the finding and metric responses. It is configured by:
+#   TEAMSCALE_SERVER, TEAMSCALE_USER, ACCESS_KEY, TEAMSCALE_PROJECT, TEAMSCALE_COMMIT
+# Further arguments are passed on to the representative run.
+set -euo pipefail
+
+: "${TEAMSCALE_SERVER:?}" "${TEAMSCALE_USER:?}" "${ACCESS_KEY:?}" "${TEAMSCALE_PROJECT:?}" "${TEAMSCALE_COMMIT:?}"
+
+cd "$(dirname "$0")"
+
+./mvnw -B clean package -DskipTests -Pnative,native-pgo-instrument
+
+mkdir -p target/pgo
+# The instrumented image writes default.iprof to the working directory when it exits
+(cd target/pgo && ../teamscale-buildbreaker --server "$TEAMSCALE_SERVER" --user "$TEAMSCALE_USER" \
+    --accesskey "$ACCESS_KEY" --project "$TEAMSCALE_PROJECT" --commit "$TEAMSCALE_COMMIT" \
+    --evaluate-findings --evaluate-thresholds "$@") || echo "Representative run exited with status $?"
+
+# Without clean, so that the recorded profile in target/pgo is kept
+./mvnw -B package -DskipTests -Pnative,native-pgo
@@ -0,0 +1,33 @@
+#!/usr/bin/env bash
+# Measures startup time and peak RSS of the given command, so that they can be compared across releases. Runs the
+# command with --version (pure startup) and with --help (builds the full command spec and renders the usage help) and
+# writes the median wall-clock time and the maximum RSS of each to the given JSON file. One run of each is done
+# beforehand and not measured, so that the measured runs do not include reading the files from disk.
+#
+# Usage: measure-startup.sh <output-file> <runs> <command> [<arguments>...]
+#   e.g. measure-startup.sh target/startup-metrics.json 20 target/teamscale-buildbreaker
+# Requires GNU time (/usr/bin/time).
+set -euo pipefail
+
+output="$1"
+runs="$2"
+shift 2
+command=("$@")
+
+measure() {
+    local timings
+    timings=$(mktemp)
+    "${command[@]}" "$@" > /dev/null
+    for _ in $(seq "$runs"); do
+        /usr/bin/time -f "%e %M" -a -o "$timings" "${command[@]}" "$@" > /dev/null
+    done
+    # Median wall-clock time in milliseconds and maximum RSS in kilobytes
+    sort -n "$timings" | awk '{ time[NR] = $1; if ($2 > rss) rss = $2 }
+        END { printf "{\"medianMillis\": %d, \"maxRssKilobytes\": %d}", time[int((NR + 1) / 2)] * 1000, rss }'
+    rm -f "$timings"
+}
+
+version=$(measure --version)
+help=$(measure --help)
+printf '{"command": "%s", "runs": %d, "version": %s, "help": %s}\n' "${command[*]}" "$runs" "$version" "$help" \
+    | tee "$output"
@@ -0,0 +1,107 @@
+package com.teamscale.buildbreaker.commandline;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.DoubleSupplier;
+
+/**
+ * Decides how long to wait between two polls of the analysis state while waiting for a commit to be analyzed.
+ * <p>
+ * Polling starts with a short interval that grows exponentially up to a maximum, so commits that are analyzed quickly
+ * are noticed early while long waits do not put a steady load on Teamscale. As soon as the analyzed timestamp advances
+ * between polls, the remaining time until the requested commit is reached is estimated from the observed analysis
+ * speed and the next poll is scheduled accordingly. All delays are randomized by {@link #JITTER} to spread the polls of
+ * many concurrently waiting jobs, and never extend beyond the deadline.
+ */
+class AnalysisPollingStrategy {
+
+    /** Intervals are randomly varied by up to this fraction in both directions. */
+    private static final double JITTER = 0.2;
+
+    private static final double BACKOFF_MULTIPLIER = 2;
+
+    private final Duration initialInterval;
+    private final Duration maxInterval;
+    private final Instant deadline;
+    private final DoubleSupplier random;
+
+    private Duration backoffInterval;
+
+    private Instant firstPollTime;
+    private long firstAnalyzedTimestamp;
+    private Instant lastPollTime;
+    private long lastAnalyzedTimestamp;
+
+    AnalysisPollingStrategy(Duration initialInterval, Duration maxInterval, Instant deadline) {
+        this(initialInterval, maxInterval, deadline, () -> ThreadLocalRandom.current().nextDouble());
+    }
+
+    /**
+     * @param random supplies random numbers in [0, 1) for the jitter
+     */
+    AnalysisPollingStrategy(Duration initialInterval, Duration maxInterval, Instant deadline, DoubleSupplier random) {
+        this.initialInterval = initialInterval;
+        this.maxInterval = maxInterval;
+        this.deadline = deadline;
+        this.random = random;
+        this.backoffInterval = initialInterval;
+    }
+
+    /** Records the analyzed timestamp returned by a poll of the analysis state. */
+    void recordPoll(Instant pollTime, long analyzedTimestamp) {
+        if (firstPollTime == null) {
+            firstPollTime = pollTime;
+            firstAnalyzedTimestamp = analyzedTimestamp;
+        }
+        lastPollTime = pollTime;
+        lastAnalyzedTimestamp = analyzedTimestamp;
+    }
+
+    /**
+     * Estimates how long it will take until the requested timestamp is analyzed, based on how fast the analyzed
+     * timestamp advanced between the first and the last poll. Empty if no progress has been observed yet.
+     */
+    Optional<Duration> estimateRemainingTime(long requestedTimestamp) {
+        if (firstPollTime == null || lastAnalyzedTimestamp <= firstAnalyzedTimestamp) {
+            return Optional.empty();
+        }
+        if (lastAnalyzedTimestamp >= requestedTimestamp) {
+            return Optional.of(Duration.ZERO);
+        }
+        double analyzedMillisPerMilli = (double) (lastAnalyzedTimestamp - firstAnalyzedTimestamp) /
+                Math.max(1, Duration.between(firstPollTime, lastPollTime).toMillis());
+        return Optional.of(Duration.ofMillis((long) ((requestedTimestamp - lastAnalyzedTimestamp) / analyzedMillisPerMilli)));
+    }
+
+    /**
+     * Returns how long to wait before the next poll, or an empty optional if the deadline has been reached and
+     * polling should stop.
+     */
+    Optional<Duration> nextDelay(Instant now, long requestedTimestamp) {
+        Duration timeUntilDeadline = Duration.between(now, deadline);
+        if (timeUntilDeadline.isNegative() || timeUntilDeadline.isZero()) {
+            return Optional.empty();
+        }
+
+        Duration interval = estimateRemainingTime(requestedTimestamp).map(this::clampToBounds).orElse(backoffInterval);
+        backoffInterval = clampToBounds(Duration.ofMillis((long) (backoffInterval.toMillis() * BACKOFF_MULTIPLIER)));
+
+        Duration jitteredInterval = Duration.ofMillis((long) (interval.toMillis() * (1 + JITTER * (2 * random.getAsDouble() - 1))));
+        if (jitteredInterval.compareTo(timeUntilDeadline) > 0) {
+            return Optional.of(timeUntilDeadline);
+        }
+        return Optional.of(jitteredInterval);
+    }
+
+    private Duration clampToBounds(Duration interval) {
+        if (interval.compareTo(initialInterval) < 0) {
+            return initialInterval;
+        }
+        if (interval.compareTo(maxInterval) > 0) {
+            return maxInterval;
+        }
+        return interval;
+    }
+}
@@ -0,0 +1,15 @@
+package com.teamscale.buildbreaker.commandline;
+
+import picocli.CommandLine.Option;
+
+import java.nio.file.Path;
+
+class BaselineOptions {
+    @Option(names = {"--baseline"}, paramLabel = "<file>",
+            description = "A findings baseline written by an earlier run with --write-baseline. Findings in the baseline are ignored, so only findings that are newer than the baseline break the build.")
+    public Path baselineFile;
+
+    @Option(names = {"--write-baseline"},
+            description = "Instead of evaluating the findings, writes the IDs of all findings of this run to the --baseline file, replacing it if it exists. These findings then break neither this run nor later runs with this --baseline.")
+    public boolean writeBaseline;
+}
@@ -0,0 +1,213 @@
+package com.teamscale.buildbreaker.commandline;
+
+import com.teamscale.buildbreaker.commandline.exceptions.ExceptionToExitCodeMapper;
+import com.teamscale.buildbreaker.commandline.exceptions.InvalidParametersException;
+import com.teamscale.buildbreaker.commandline.exceptions.PrintExceptionMessageHandler;
+import okhttp3.Cache;
+import okhttp3.ConnectionPool;
+import okhttp3.OkHttpClient;
+import picocli.CommandLine;
+import picocli.CommandLine.Command;
+import picocli.CommandLine.Option;
+import picocli.CommandLine.Unmatched;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+@Command(name = "teamscale-buildbreaker batch", mixinStandardHelpOptions = true, version = "teamscale-buildbreaker 0.1",
+        description = "Evaluates many projects, commits or branches in a single process, sharing one connection pool to Teamscale.",
+        footer = "\nEach non-empty line of the input that does not start with # is one entry. An entry consists of the" +
+                " options of a single run, e.g. -p my-project --commit abc123 --evaluate-findings. All options that are not" +
+                " options of the batch command itself (e.g. --server, --user, --accesskey and the connection options) are" +
+                " shared by all entries and must not be repeated in the entries.\nThe output of each entry is printed in" +
+                " input order, followed by a summary. The exit code is -8 if at least one entry could not be evaluated," +
+                " otherwise it is the most severe exit code of all entries (1 before 2 before 0).")
+public class BatchBuildBreaker implements Callable<Integer> {
+
+    /** The first argument that selects the batch command instead of a single run. */
+    static final String COMMAND_NAME = "batch";
+
+    /** Exit code if at least one entry could not be evaluated. */
+    static final int EXIT_CODE_ENTRY_FAILED = -8;
+
+    /** How long idle connections of the shared pool are kept open. */
+    private static final long KEEP_ALIVE_MINUTES = 5;
+
+    @Option(names = {"--input"}, paramLabel = "<file>", defaultValue = "-",
+            description = "The file that contains one entry per line. Use - to read the entries from standard input. Default value is -.")
+    private String input = "-";
+
+    @Option(names = {"--max-concurrency"}, paramLabel = "<count>", defaultValue = "4",
+            description = "The maximum number of entries that are evaluated in parallel. Default value is 4.")
+    private int maxConcurrency = 4;
+
+    @Unmatched
+    private List<String> sharedArguments = new ArrayList<>();
+
+    private final InputStream in;
+    private final PrintStream out;
+
+    public BatchBuildBreaker() {
+        this(System.in, System.out);
+    }
+
+    BatchBuildBreaker(InputStream in, PrintStream out) {
+        this.in = in;
+        this.out = out;
+    }
+
+    /** Runs the batch command with the given arguments (without the leading {@link #COMMAND_NAME}). */
+    static int run(String... args) {
+        return new CommandLine(new BatchBuildBreaker()).setExecutionExceptionHandler(new PrintExceptionMessageHandler())
+                .setExitCodeExceptionMapper(new ExceptionToExitCodeMapper()).execute(args);
+    }
+
+    @Override
+    public Integer call() throws Exception {
+        if (maxConcurrency < 1) {
+            throw new InvalidParametersException("--max-concurrency must be positive.");
+        }
+        List<BatchEntry> entries = readEntries();
+        if (entries.isEmpty()) {
+            throw new InvalidParametersException("The batch input does not contain any entries.");
+        }
+
+        // Parsing is not thread-safe, so all entries are parsed before the evaluation starts
+        for (BatchEntry entry : entries) {
+            entry.parse(sharedArguments);
+        }
+
+        // Usually, all entries use the shared connection options, but an entry may also give its own
+        Map<String, OkHttpClient> okHttpClients = new LinkedHashMap<>();
+        for (BatchEntry entry : entries) {
+            if (entry.isParsed()) {
+                okHttpClients.computeIfAbsent(entry.getConnectionKey(), connectionKey ->
+                        entry.createOkHttpClient().newBuilder().connectionPool(
+                                new ConnectionPool(maxConcurrency, KEEP_ALIVE_MINUTES, TimeUnit.MINUTES)).build());
+            }
+        }
+        try {
+            evaluateAll(entries, okHttpClients);
+        } finally {
+            for (OkHttpClient okHttpClient : okHttpClients.values()) {
+                BuildBreaker.reportHttpCacheStatistics(okHttpClient.cache(), out);
+                shutDown(okHttpClient);
+            }
+        }
+        printSummary(entries);
+        return aggregateExitCode(entries);
+    }
+
+    private List<BatchEntry> readEntries() {
+        List<BatchEntry> entries = new ArrayList<>();
+        try (BufferedReader reader = openInput()) {
+            String line;
+            int lineNumber = 0;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                String options = line.trim();
+                if (!options.isEmpty() && !options.startsWith("#")) {
+                    entries.add(new BatchEntry(lineNumber, options));
+                }
+            }
+        } catch (IOException e) {
+            throw new InvalidParametersException("Could not read the batch input " + input + ": " + e.getMessage());
+        }
+        return entries;
+    }
+
+    private BufferedReader openInput() throws IOException {
+        if ("-".equals(input)) {
+            return new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+        }
+        return Files.newBufferedReader(Paths.get(input), StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Evaluates the entries with at most {@link #maxConcurrency} in parallel and prints the output of each entry in
+     * input order as soon as it and all entries before it are done. Each entry uses the client for its connection key.
+     */
+    private void evaluateAll(List<BatchEntry> entries, Map<String, OkHttpClient> okHttpClients) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(Math.min(maxConcurrency, entries.size()));
+        try {
+            List<Future<?>> evaluations = new ArrayList<>();
+            for (BatchEntry entry : entries) {
+                evaluations.add(executor.submit(() -> entry.evaluate(okHttpClients.get(entry.getConnectionKey()))));
+            }
+            for (int i = 0; i < entries.size(); i++) {
+                evaluations.get(i).get();
+                BatchEntry entry = entries.get(i);
+                out.println("=== Entry in line " + entry.lineNumber + ": " + entry.options);
+                entry.writeOutputTo(out);
+                out.println("=== Exit code of entry in line " + entry.lineNumber + ": " + entry.getExitCode());
+                out.println();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private void printSummary(List<BatchEntry> entries) {
+        out.println("Summary of " + entries.size() + " entries:");
+        for (BatchEntry entry : entries) {
+            String status;
+            if (entry.isFailed()) {
+                status = "failed";
+            } else if (entry.getExitCode() == 0) {
+                status = "no violations";
+            } else {
+                status = "violations detected";
+            }
+            out.println("  line " + entry.lineNumber + ": exit code " + entry.getExitCode() + " (" + status + ") " +
+                    entry.options);
+        }
+    }
+
+    private static int aggregateExitCode(List<BatchEntry> entries) {
+        boolean hasWarnings = false;
+        boolean hasErrors = false;
+        for (BatchEntry entry : entries) {
+            if (entry.isFailed()) {
+                return EXIT_CODE_ENTRY_FAILED;
+            }
+            hasErrors |= entry.getExitCode() == 1;
+            hasWarnings |= entry.getExitCode() == 2;
+        }
+        if (hasErrors) {
+            return 1;
+        }
+        if (hasWarnings) {
+            return 2;
+        }
+        return 0;
+    }
+
+    /** Releases the threads, connections and cache of a client that is no longer needed. */
+    static void shutDown(OkHttpClient okHttpClient) {
+        okHttpClient.dispatcher().executorService().shutdownNow();
+        okHttpClient.connectionPool().evictAll();
+        Cache cache = okHttpClient.cache();
+        if (cache != null) {
+            try {
+                cache.close();
+            } catch (IOException e) {
+                System.err.println("Could not close the HTTP cache: " + e.getMessage());
+            }
+        }
+    }
+}
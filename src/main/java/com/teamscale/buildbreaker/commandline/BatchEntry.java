@@ -0,0 +1,229 @@
+package com.teamscale.buildbreaker.commandline;
+
+import com.teamscale.buildbreaker.commandline.exceptions.BuildBreakerExceptionBase;
+import com.teamscale.buildbreaker.commandline.exceptions.ExceptionToExitCodeMapper;
+import com.teamscale.buildbreaker.commandline.exceptions.InvalidParametersException;
+import com.teamscale.buildbreaker.evaluation.EvaluationResult;
+import com.teamscale.buildbreaker.jfr.FlightRecording;
+import com.teamscale.buildbreaker.teamscale_client.TeamscaleClient;
+import com.teamscale.buildbreaker.teamscale_client.exceptions.CommitCouldNotBeResolvedException;
+import okhttp3.OkHttpClient;
+import picocli.CommandLine;
+import picocli.CommandLine.ParameterException;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * A single line of a batch input (or a single request to the daemon): the options of one {@link BuildBreaker} run
+ * together with its output and result. By default, the output is buffered so that entries evaluated in parallel can be
+ * printed one after the other.
+ */
+class BatchEntry {
+
+    /** The line of the batch input this entry was read from (1-based). */
+    final int lineNumber;
+
+    /** The entry-specific options as given in the batch input. */
+    final String options;
+
+    /** Buffers the output or {@code null} if the output is written to {@link #out} directly. */
+    private final ByteArrayOutputStream output;
+    private final PrintStream out;
+
+    /** The parsed entry or {@code null} if it could not be parsed. */
+    private BuildBreaker buildBreaker;
+
+    /** The evaluation result or {@code null} if the entry failed. */
+    private EvaluationResult result;
+
+    private int exitCode;
+
+    BatchEntry(int lineNumber, String options) {
+        this.lineNumber = lineNumber;
+        this.options = options;
+        this.output = new ByteArrayOutputStream();
+        this.out = new PrintStream(output, true);
+    }
+
+    /** Creates an entry that writes its output to the given stream directly. */
+    BatchEntry(String options, PrintStream out) {
+        this.lineNumber = 0;
+        this.options = options;
+        this.output = null;
+        this.out = out;
+    }
+
+    /**
+     * Parses the shared options followed by the entry-specific options like a command line of a single run. Parse
+     * errors are recorded as a failure of this entry.
+     * <p>
+     * Must not be called concurrently, since picocli injects the command spec into a static field of
+     * {@link BuildBreaker}.
+     */
+    void parse(List<String> sharedArguments) {
+        List<String> arguments = new ArrayList<>(sharedArguments);
+        try {
+            arguments.addAll(splitArguments(options));
+        } catch (InvalidParametersException e) {
+            recordFailure(e.getMessage(), e.getErrorCode());
+            return;
+        }
+        parseArguments(arguments);
+    }
+
+    /**
+     * Parses the given complete command line of a single run. Parse errors are recorded as a failure of this entry.
+     * Must not be called concurrently, like {@link #parse(List)}.
+     */
+    void parseArguments(List<String> arguments) {
+        try {
+            BuildBreaker parsedBuildBreaker = new BuildBreaker();
+            new CommandLine(parsedBuildBreaker).parseArgs(arguments.toArray(new String[0]));
+            parsedBuildBreaker.validateOptions();
+            buildBreaker = parsedBuildBreaker;
+        } catch (ParameterException e) {
+            recordFailure(e.getMessage(), e.getCommandLine().getCommandSpec().exitCodeOnInvalidInput());
+        } catch (BuildBreakerExceptionBase e) {
+            recordFailure(e.getMessage(), e.getErrorCode());
+        }
+    }
+
+    /** Whether the entry was parsed successfully and can be evaluated. */
+    boolean isParsed() {
+        return buildBreaker != null;
+    }
+
+    /** Creates an {@link OkHttpClient} from the connection options of this entry. */
+    OkHttpClient createOkHttpClient() {
+        return buildBreaker.createOkHttpClient();
+    }
+
+    /**
+     * See {@link BuildBreaker#getConnectionKey()}. Returns {@code null} if the entry could not be parsed, since it is
+     * not evaluated then.
+     */
+    String getConnectionKey() {
+        if (buildBreaker == null) {
+            return null;
+        }
+        return buildBreaker.getConnectionKey();
+    }
+
+    /** See {@link BuildBreaker#disableCommitDetection()}. */
+    void disableCommitDetection() {
+        if (buildBreaker != null) {
+            buildBreaker.disableCommitDetection();
+        }
+    }
+
+    /**
+     * Evaluates this entry using a client created from the given shared {@link OkHttpClient}.
+     */
+    void evaluate(OkHttpClient okHttpClient) {
+        evaluate(parsedBuildBreaker -> parsedBuildBreaker.createTeamscaleClient(okHttpClient, out));
+    }
+
+    /**
+     * Evaluates this entry using the client provided for its options. All failures are recorded as a failure of this
+     * entry, so other entries are evaluated regardless. If the entry requests a flight recording, it is recorded while
+     * the entry is evaluated. As the recording covers the whole JVM, it also contains the events of entries that are
+     * evaluated at the same time.
+     */
+    void evaluate(Function<BuildBreaker, TeamscaleClient> clientProvider) {
+        if (buildBreaker == null) {
+            return;
+        }
+        FlightRecording flightRecording = buildBreaker.startFlightRecordingIfRequested(out);
+        try {
+            buildBreaker.setTeamscaleClient(clientProvider.apply(buildBreaker));
+            result = buildBreaker.evaluate(out);
+            exitCode = result.toStatusCode();
+        } catch (CommitCouldNotBeResolvedException e) {
+            recordFailure(BuildBreaker.describeUnresolvableRevision(e), -5);
+        } catch (ParameterException e) {
+            recordFailure(e.getMessage(), e.getCommandLine().getCommandSpec().exitCodeOnInvalidInput());
+        } catch (Exception e) {
+            if (e instanceof InterruptedException) {
+                Thread.currentThread().interrupt();
+            }
+            recordFailure(e.getMessage(), new ExceptionToExitCodeMapper().getExitCode(e));
+        } finally {
+            BuildBreaker.stopFlightRecording(flightRecording, out);
+        }
+        buildBreaker.writeMetricsIfRequested(exitCode, out);
+    }
+
+    private void recordFailure(String message, int exitCode) {
+        out.println(message);
+        this.result = null;
+        this.exitCode = exitCode;
+    }
+
+    /** Whether the entry could not be evaluated, e.g. due to invalid options or communication problems. */
+    boolean isFailed() {
+        return result == null;
+    }
+
+    /** The exit code a single run with the options of this entry would have returned. */
+    int getExitCode() {
+        return exitCode;
+    }
+
+    /** The evaluation result or {@code null} if the entry failed. */
+    EvaluationResult getResult() {
+        return result;
+    }
+
+    /** Writes the buffered output of this entry to the given stream. */
+    void writeOutputTo(PrintStream target) throws IOException {
+        if (output == null) {
+            return;
+        }
+        output.writeTo(target);
+        target.flush();
+    }
+
+    /**
+     * Splits the options of an entry into arguments at whitespace. Single or double quotes group arguments that
+     * contain whitespace.
+     */
+    static List<String> splitArguments(String options) {
+        List<String> arguments = new ArrayList<>();
+        StringBuilder currentArgument = new StringBuilder();
+        boolean inArgument = false;
+        char quote = 0;
+        for (char character : options.toCharArray()) {
+            if (quote != 0) {
+                if (character == quote) {
+                    quote = 0;
+                } else {
+                    currentArgument.append(character);
+                }
+            } else if (character == '"' || character == '\'') {
+                quote = character;
+                inArgument = true;
+            } else if (Character.isWhitespace(character)) {
+                if (inArgument) {
+                    arguments.add(currentArgument.toString());
+                    currentArgument.setLength(0);
+                    inArgument = false;
+                }
+            } else {
+                currentArgument.append(character);
+                inArgument = true;
+            }
+        }
+        if (quote != 0) {
+            throw new InvalidParametersException("Unterminated quote in options: " + options);
+        }
+        if (inArgument) {
+            arguments.add(currentArgument.toString());
+        }
+        return arguments;
+    }
+}
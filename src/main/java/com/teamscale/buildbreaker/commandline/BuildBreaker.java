@@ -4,26 +4,45 @@ import com.teamscale.buildbreaker.commandline.autodetect_revision.EnvironmentVar
 import com.teamscale.buildbreaker.commandline.autodetect_revision.GitChecker;
 import com.teamscale.buildbreaker.commandline.autodetect_revision.SvnChecker;
 import com.teamscale.buildbreaker.commandline.exceptions.AnalysisNotFinishedException;
+import com.teamscale.buildbreaker.commandline.exceptions.BuildBreakerInternalException;
 import com.teamscale.buildbreaker.commandline.exceptions.ExceptionToExitCodeMapper;
 import com.teamscale.buildbreaker.commandline.exceptions.InvalidParametersException;
 import com.teamscale.buildbreaker.commandline.exceptions.PrintExceptionMessageHandler;
 import com.teamscale.buildbreaker.commandline.exceptions.SslConnectionFailureException;
 import com.teamscale.buildbreaker.evaluation.EvaluationResult;
-import com.teamscale.buildbreaker.evaluation.Finding;
+import com.teamscale.buildbreaker.evaluation.FindingConsumer;
+import com.teamscale.buildbreaker.evaluation.FindingsBaseline;
+import com.teamscale.buildbreaker.evaluation.FindingStore;
 import com.teamscale.buildbreaker.evaluation.FindingsEvaluator;
+import com.teamscale.buildbreaker.evaluation.FindingsSummary;
 import com.teamscale.buildbreaker.evaluation.MetricViolation;
 import com.teamscale.buildbreaker.evaluation.MetricsEvaluator;
+import com.teamscale.buildbreaker.evaluation.StreamingFindingsEvaluator;
+import com.teamscale.buildbreaker.evaluation.ViolationListener;
+import com.teamscale.buildbreaker.jfr.FlightRecording;
+import com.teamscale.buildbreaker.metrics.MetricsWriter;
+import com.teamscale.buildbreaker.metrics.RunMetrics;
+import com.teamscale.buildbreaker.metrics.RunMetrics.Counter;
+import com.teamscale.buildbreaker.metrics.RunMetrics.Phase;
+import com.teamscale.buildbreaker.metrics.RunMetrics.PhaseTimer;
+import com.teamscale.buildbreaker.report.Reports;
+import com.teamscale.buildbreaker.rules.GatingRules;
+import com.teamscale.buildbreaker.suppression.Suppressions;
 import com.teamscale.buildbreaker.teamscale_client.AnalysisState;
+import com.teamscale.buildbreaker.teamscale_client.PartitionedFindingsFetch;
+import com.teamscale.buildbreaker.teamscale_client.PersistentRevisionCache;
+import com.teamscale.buildbreaker.teamscale_client.ResiliencePolicies;
 import com.teamscale.buildbreaker.teamscale_client.TeamscaleClient;
+import com.teamscale.buildbreaker.teamscale_client.UniformPathFilter;
 import com.teamscale.buildbreaker.teamscale_client.exceptions.CommitCouldNotBeResolvedException;
 import com.teamscale.buildbreaker.teamscale_client.exceptions.HttpRedirectException;
 import com.teamscale.buildbreaker.teamscale_client.exceptions.HttpStatusCodeException;
 import com.teamscale.buildbreaker.teamscale_client.exceptions.ParserException;
 import com.teamscale.buildbreaker.teamscale_client.exceptions.RepositoryNotFoundException;
 import com.teamscale.buildbreaker.teamscale_client.exceptions.TooManyCommitsException;
+import okhttp3.Cache;
 import okhttp3.HttpUrl;
 import okhttp3.OkHttpClient;
-import org.conqat.lib.commons.collections.Pair;
 import org.conqat.lib.commons.string.StringUtils;
 import picocli.CommandLine;
 import picocli.CommandLine.ArgGroup;
@@ -34,18 +53,35 @@ import picocli.CommandLine.ParameterException;
 import picocli.CommandLine.Spec;
 
 import javax.net.ssl.SSLHandshakeException;
+import java.io.BufferedWriter;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.PrintStream;
+import java.io.Writer;
 import java.net.ConnectException;
 import java.net.UnknownHostException;
+import java.nio.charset.Charset;
+import java.nio.file.Path;
 import java.time.Duration;
-import java.time.LocalDateTime;
+import java.time.Instant;
 import java.time.ZoneOffset;
-import java.time.chrono.ChronoLocalDateTime;
 import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
 import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.function.Supplier;
 
 @Command(name = "teamscale-buildbreaker", mixinStandardHelpOptions = true, version = "teamscale-buildbreaker 0.1",
@@ -92,10 +128,21 @@ public class BuildBreaker implements Callable<Integer> {
             description = "The project ID or alias (NOT the project name!) relevant for the analysis.")
     private String project;
 
-    /** To get Metrics and Findings for a subpath of the project */
-    @Option(names = {"--uniform-path"}, defaultValue = "",
-            description = "Uniform path of requested file or directory.")
-    public String uniformPath;
+    /** To get Metrics and Findings for subpaths of the project */
+    @Option(names = {"--uniform-path", "--include-uniform-path"}, paramLabel = "<uniform-path>",
+            description = "Uniform path prefix of a requested file or directory. Can be given multiple times to evaluate findings in all of the given paths. Metric thresholds are evaluated for the deepest directory that contains all of them.")
+    public List<String> includedUniformPaths;
+
+    @Option(names = {"--exclude-uniform-path"}, paramLabel = "<uniform-path>",
+            description = "Uniform path prefix of a file or directory whose findings are not evaluated. Can be given multiple times. If both an included and an excluded path match a finding, the longer one decides.")
+    public List<String> excludedUniformPaths;
+
+    /** Compiled from {@link #includedUniformPaths} and {@link #excludedUniformPaths}. */
+    private UniformPathFilter uniformPathFilter = UniformPathFilter.ALL;
+
+    @Option(names = {"--suppressions"}, paramLabel = "<file>",
+            description = "A file of patterns for findings that are not evaluated, e.g. in generated code, one per line: <field>:<glob> or <field>:regex:<regex>, where the field is path, group, category or message. Reports how many findings each pattern suppressed.")
+    public Path suppressionsFile;
 
     @ArgGroup(multiplicity = "1")
     private CommitOptions commitOptions;
@@ -110,10 +157,57 @@ public class BuildBreaker implements Callable<Integer> {
             description = "The duration this tool will wait for analysis of the given commit to be finished in Teamscale, given in ISO-8601 format (e.g., PT20m for 20 minutes or PT30s for 30 seconds). This is useful when Teamscale starts analyzing at the same time this tool is called, and analysis is not yet finished. Default value is 20 minutes.")
     public Duration waitForAnalysisTimeoutDuration = Duration.ofMinutes(20);
 
+    @Option(names = {"--analysis-poll-interval"}, paramLabel = "<iso-8601-duration>",
+            description = "The initial interval in which the analysis state is queried while waiting for analysis of the given commit to be finished, given in ISO-8601 format. The interval grows exponentially up to --analysis-poll-max-interval. Once the analysis progresses, the next query is scheduled based on the estimated remaining analysis time instead. Default value is 1 second.")
+    public Duration analysisPollInterval = Duration.ofSeconds(1);
+
+    @Option(names = {"--analysis-poll-max-interval"}, paramLabel = "<iso-8601-duration>",
+            description = "The maximum interval in which the analysis state is queried while waiting for analysis of the given commit to be finished, given in ISO-8601 format. Default value is 30 seconds.")
+    public Duration analysisPollMaxInterval = Duration.ofSeconds(30);
+
     @Option(names = {"--repository-url"}, paramLabel = "<remote-repository-url>",
             description = "The URL of the remote repository where the analyzed commit originated. This is required in case a commit hook event should be sent to Teamscale for this repository if the repository URL cannot be established from the build environment.")
     public String remoteRepositoryUrl;
 
+    @Option(names = {"--concurrent-evaluation"},
+            description = "If this option is set and both --evaluate-thresholds and --evaluate-findings are active, the metric assessments and findings are requested from Teamscale in parallel instead of one after the other. The output of each evaluation is still printed as one block, thresholds first.")
+    public boolean concurrentEvaluation;
+
+    @Option(names = {"--fail-fast"},
+            description = "If this option is set, the build breaks as soon as the first error is known: findings are evaluated while they are received and the response is not read any further after the first finding that is an error. If the thresholds fail with an error, the findings are not evaluated at all. With --concurrent-evaluation, whichever evaluation fails first with an error cancels the other. The output then only lists the violations found up to that point.")
+    public boolean failFast;
+
+    @Option(names = {"--jfr"}, paramLabel = "<file>",
+            description = "Records the run with Java Flight Recorder and writes the recording to the given file when the run finishes. The recording contains events for each request to Teamscale, each parsed response and each evaluation next to the JVM's own events. In batch and daemon runs, the recording also contains the events of runs evaluated at the same time. Not supported by the native image.")
+    public Path flightRecordingFile;
+
+    @ArgGroup(exclusive = false)
+    private RevisionCacheOptions revisionCacheOptions;
+
+    @ArgGroup(exclusive = false)
+    private ResilienceOptions resilienceOptions;
+
+    @ArgGroup(exclusive = false)
+    private HttpCacheOptions httpCacheOptions;
+
+    @ArgGroup(exclusive = false)
+    private MetricsOptions metricsOptions;
+
+    @ArgGroup(exclusive = false)
+    private OutputOptions outputOptions;
+
+    @ArgGroup(exclusive = false)
+    private ReportOptions reportOptions;
+
+    @ArgGroup(exclusive = false)
+    private BaselineOptions baselineOptions;
+
+    @ArgGroup(exclusive = false)
+    private RulesOptions rulesOptions;
+
+    @ArgGroup(exclusive = false)
+    private PartitionOptions partitionOptions;
+
     @ArgGroup()
     private SslConnectionOptions sslConnectionOptions;
 
@@ -122,39 +216,297 @@ public class BuildBreaker implements Callable<Integer> {
      */
     String detectedCommit = null;
 
+    /** Whether the commit may be detected automatically if it is not given. */
+    private boolean commitDetectionEnabled = true;
+
     private TeamscaleClient teamscaleClient;
 
+    /** The rules read from the {@link RulesOptions#rulesFile}, or {@code null} if no rules are configured. */
+    private GatingRules gatingRules;
+
+    /** The configured and discovered findings partitions, or an empty list if the findings are not partitioned. */
+    private List<String> findingsPartitions = Collections.emptyList();
+
+    /** Compiled from the {@link #suppressionsFile}, or {@code null} if there is none. */
+    private Suppressions suppressions;
+
+    /** Receives the violations while they are evaluated, to write them to the {@link #reportOptions reports}. */
+    private ViolationListener violationListener = ViolationListener.NONE;
+
+    /** Collects the phase durations and requests of this run for the {@link MetricsOptions#metricsFile}. */
+    private final RunMetrics runMetrics = new RunMetrics();
+
+    /**
+     * The number of threads used for {@link #concurrentEvaluation}. One per evaluation section.
+     */
+    private static final int EVALUATION_THREADS = 2;
+
+    private static final long BYTES_PER_MEGABYTE = 1024 * 1024;
+
+    /** The size of the buffer through which evaluation results are printed. */
+    private static final int OUTPUT_BUFFER_SIZE = 64 * 1024;
+
     public static void main(String... args) {
+        // Not picocli subcommands, since the options required for a single run do not apply to them
+        if (args.length > 0 && BatchBuildBreaker.COMMAND_NAME.equals(args[0])) {
+            System.exit(BatchBuildBreaker.run(Arrays.copyOfRange(args, 1, args.length)));
+        }
+        if (args.length > 0 && DaemonServer.COMMAND_NAME.equals(args[0])) {
+            System.exit(DaemonServer.run(Arrays.copyOfRange(args, 1, args.length)));
+        }
+        if (args.length > 0 && DaemonClient.COMMAND_NAME.equals(args[0])) {
+            System.exit(DaemonClient.run(Arrays.copyOfRange(args, 1, args.length)));
+        }
+        System.exit(run(args));
+    }
+
+    /** Runs a single evaluation with the given arguments and returns the exit code. */
+    static int run(String... args) {
         // Just let PicoCLI handle everything. Main entry point for PicoCLI is the "call()" method.
-        int exitCode =
-                new CommandLine(new BuildBreaker()).setExecutionExceptionHandler(new PrintExceptionMessageHandler())
-                        .setExitCodeExceptionMapper(new ExceptionToExitCodeMapper()).execute(args);
-        System.exit(exitCode);
+        return new CommandLine(new BuildBreaker()).setExecutionExceptionHandler(new PrintExceptionMessageHandler())
+                .setExitCodeExceptionMapper(new ExceptionToExitCodeMapper()).execute(args);
     }
 
     @Override
     public Integer call() throws Exception {
+        validateOptions();
+        FlightRecording flightRecording = startFlightRecordingIfRequested(System.out);
+        try {
+            return evaluateWithNewClient();
+        } finally {
+            stopFlightRecording(flightRecording, System.out);
+        }
+    }
+
+    /** Evaluates with a {@link TeamscaleClient} created from the options, which is closed afterwards. */
+    private int evaluateWithNewClient() throws Exception {
+        OkHttpClient okHttpClient = createOkHttpClient();
+        initTeamscaleClient(okHttpClient);
+        int exitCode = 0;
+        try {
+            exitCode = evaluate(System.out).toStatusCode();
+            return exitCode;
+        } catch (CommitCouldNotBeResolvedException e) {
+            // We do not call fail here because we want to keep the old api of returning code -5
+            System.out.println(describeUnresolvableRevision(e));
+            exitCode = -5;
+            return exitCode;
+        } catch (Exception e) {
+            exitCode = new ExceptionToExitCodeMapper().getExitCode(e);
+            throw e;
+        } finally {
+            writeMetricsIfRequested(exitCode, System.out);
+            reportHttpCacheStatistics(okHttpClient.cache(), System.out);
+            // we must shut down OkHttp as otherwise it will leave threads running and
+            // prevent JVM shutdown
+            teamscaleClient.close();
+        }
+    }
+
+    /**
+     * Starts a flight recording if {@link #flightRecordingFile} is given. Returns {@code null} if no recording was
+     * requested or it could not be started, in which case the run continues without recording.
+     */
+    FlightRecording startFlightRecordingIfRequested(PrintStream out) {
+        if (flightRecordingFile == null) {
+            return null;
+        }
+        try {
+            return FlightRecording.start(flightRecordingFile);
+        } catch (IOException e) {
+            out.println(e.getMessage());
+            return null;
+        }
+    }
+
+    static void stopFlightRecording(FlightRecording flightRecording, PrintStream out) {
+        if (flightRecording == null) {
+            return;
+        }
+        try {
+            flightRecording.close();
+            out.println("Flight recording written to " + flightRecording.getFile());
+        } catch (IOException e) {
+            out.println("Failed to write the flight recording to " + flightRecording.getFile() + ": " + e.getMessage());
+        }
+    }
+
+    /** Fills in defaults for options that were not given and checks that the options are consistent. */
+    void validateOptions() {
         initDefaultOptions();
+        uniformPathFilter = UniformPathFilter.of(
+                includedUniformPaths == null ? Collections.emptyList() : includedUniformPaths,
+                excludedUniformPaths == null ? Collections.emptyList() : excludedUniformPaths);
         if (!findingEvalOptions.evaluateFindings && !thresholdEvalOptions.evaluateThresholds) {
             throw new InvalidParametersException(
                     "Please specify at least one of --evaluate-findings or --evaluate-thresholds, otherwise no evaluation will take place.");
         }
-        OkHttpClient okHttpClient = OkHttpClientUtils
+        if (analysisPollInterval.isNegative() || analysisPollInterval.isZero() ||
+                analysisPollMaxInterval.compareTo(analysisPollInterval) < 0) {
+            throw new InvalidParametersException(
+                    "--analysis-poll-interval must be positive and must not be greater than --analysis-poll-max-interval.");
+        }
+        validateResilienceOptions();
+        if (httpCacheOptions.maxSizeMegabytes <= 0) {
+            throw new InvalidParametersException("--http-cache-max-size must be positive.");
+        }
+        if (revisionCacheOptions.maxEntries < 1) {
+            throw new InvalidParametersException("--revision-cache-max-entries must be positive.");
+        }
+        if (outputOptions.summaryTopFiles < 0 || outputOptions.getMaxPrintedViolations() < 0) {
+            throw new InvalidParametersException("--summary-top-files and --max-printed-violations must not be negative.");
+        }
+        if (baselineOptions.writeBaseline && baselineOptions.baselineFile == null) {
+            throw new InvalidParametersException("--write-baseline requires the --baseline file to write.");
+        }
+        if (baselineOptions.writeBaseline && failFast) {
+            throw new InvalidParametersException("--write-baseline cannot be used with --fail-fast, since the baseline must contain all findings.");
+        }
+        gatingRules = readGatingRules();
+        suppressions = readSuppressions();
+        if (partitionOptions.maxConcurrentRequests < 1) {
+            throw new InvalidParametersException("--max-concurrent-partitions must be positive.");
+        }
+        findingsPartitions = determineFindingsPartitions();
+    }
+
+    /** Creates the {@link OkHttpClient} configured by the connection and HTTP cache options. */
+    OkHttpClient createOkHttpClient() {
+        return OkHttpClientUtils
                 .createClient(sslConnectionOptions.disableSslValidation, sslConnectionOptions.keyStorePath,
-                        sslConnectionOptions.keyStorePassword);
-        teamscaleClient = new TeamscaleClient(okHttpClient, teamscaleServerUrl, user, accessKey, project);
+                        sslConnectionOptions.keyStorePassword, httpCacheOptions.cacheDirectory,
+                        httpCacheOptions.maxSizeMegabytes * BYTES_PER_MEGABYTE);
+    }
+
+    /**
+     * Creates the {@link TeamscaleClient} used for the evaluation. The given {@link OkHttpClient} may be shared with
+     * other evaluations, in which case the {@link TeamscaleClient} must not be closed.
+     */
+    void initTeamscaleClient(OkHttpClient okHttpClient) {
+        setTeamscaleClient(createTeamscaleClient(okHttpClient, System.out));
+    }
+
+    /**
+     * Creates a {@link TeamscaleClient} configured by the server, project, revision cache and resilience options. Retries
+     * of its requests are reported to the given stream.
+     */
+    TeamscaleClient createTeamscaleClient(OkHttpClient okHttpClient, PrintStream out) {
+        TeamscaleClient client = new TeamscaleClient(okHttpClient, teamscaleServerUrl, user, accessKey, project);
+        if (revisionCacheOptions.cacheFile != null) {
+            client.setPersistentRevisionCache(
+                    new PersistentRevisionCache(revisionCacheOptions.cacheFile, revisionCacheOptions.maxEntries));
+        }
+        client.setResiliencePolicies(
+                new ResiliencePolicies(resilienceOptions.maxRetries, resilienceOptions.retryDelay,
+                        resilienceOptions.maxRetryDelay, resilienceOptions.jitterFactor,
+                        resilienceOptions.circuitBreakerFailureThreshold, resilienceOptions.circuitBreakerDelay, out));
+        if (isCollectingMetrics()) {
+            client.setRunMetrics(runMetrics);
+        }
+        return client;
+    }
+
+    /**
+     * Whether this run records metrics for the {@link MetricsOptions#metricsFile}. The {@link TeamscaleClient} of such a
+     * run records into the metrics of this run and must therefore not be shared with other runs.
+     */
+    boolean isCollectingMetrics() {
+        return metricsOptions.metricsFile != null;
+    }
+
+    /**
+     * Whether the {@link TeamscaleClient} of this run must not be shared with other runs, since it records into the
+     * metrics of this run or since {@link #failFast} cancels its pending requests.
+     */
+    boolean needsDedicatedClient() {
+        return isCollectingMetrics() || failFast;
+    }
+
+    /**
+     * Writes the metrics of this run to the {@link MetricsOptions#metricsFile}, if given. A failure to write them is
+     * reported but does not change the result of the run.
+     */
+    void writeMetricsIfRequested(int exitCode, PrintStream out) {
+        if (!isCollectingMetrics()) {
+            return;
+        }
+        try {
+            MetricsWriter.write(runMetrics, exitCode, metricsOptions.metricsFile, metricsOptions.format);
+        } catch (IOException e) {
+            out.println("Failed to write the metrics to " + metricsOptions.metricsFile + ": " + e.getMessage());
+        }
+    }
+
+    /** Sets the {@link TeamscaleClient} used for the evaluation, which may be shared with other evaluations. */
+    void setTeamscaleClient(TeamscaleClient teamscaleClient) {
+        this.teamscaleClient = teamscaleClient;
+    }
+
+    /**
+     * Identifies the options that {@link #createOkHttpClient()} depends on. Evaluations with the same key can share
+     * one {@link OkHttpClient}.
+     */
+    String getConnectionKey() {
+        return String.join("\n", String.valueOf(sslConnectionOptions.disableSslValidation),
+                String.valueOf(sslConnectionOptions.keyStorePath), String.valueOf(sslConnectionOptions.keyStorePassword),
+                String.valueOf(httpCacheOptions.cacheDirectory), String.valueOf(httpCacheOptions.maxSizeMegabytes));
+    }
+
+    /**
+     * Identifies the options that {@link #createTeamscaleClient(OkHttpClient, PrintStream)} depends on. Evaluations with the same
+     * key can share one {@link TeamscaleClient}.
+     */
+    String getTeamscaleClientKey() {
+        return String.join("\n", getConnectionKey(), String.valueOf(teamscaleServerUrl), user, accessKey, project,
+                String.valueOf(revisionCacheOptions.cacheFile), String.valueOf(revisionCacheOptions.maxEntries),
+                String.valueOf(resilienceOptions.maxRetries), String.valueOf(resilienceOptions.retryDelay),
+                String.valueOf(resilienceOptions.maxRetryDelay), String.valueOf(resilienceOptions.jitterFactor),
+                String.valueOf(resilienceOptions.circuitBreakerFailureThreshold),
+                String.valueOf(resilienceOptions.circuitBreakerDelay));
+    }
+
+    /**
+     * Disables detecting the commit from the environment and working directory of this process. Used when this process
+     * evaluates on behalf of another process, which must detect the commit itself.
+     */
+    void disableCommitDetection() {
+        commitDetectionEnabled = false;
+    }
+
+    /**
+     * Waits for the analysis and runs the configured evaluations, writing all progress and results to the given
+     * stream. Failures are reported by throwing a {@link ParameterException} or a subclass of
+     * {@link com.teamscale.buildbreaker.commandline.exceptions.BuildBreakerExceptionBase}.
+     *
+     * @throws CommitCouldNotBeResolvedException if a revision is not known to Teamscale
+     */
+    EvaluationResult evaluate(PrintStream out) throws Exception {
         EvaluationResult aggregatedResult = new EvaluationResult();
 
+        Reports reports = Reports.open(reportOptions.getReportFiles(), out);
+        violationListener = reports;
         try {
-            waitForAnalysisToFinish(determineBranchAndTimestamp());
+            try (PhaseTimer ignored = runMetrics.startPhase(Phase.RESOLVE_REVISIONS)) {
+                resolveRevisionsConcurrently();
+            }
+            waitForAnalysisToFinish(determineBranchAndTimestamp(), out);
+            if (concurrentEvaluation && thresholdEvalOptions.evaluateThresholds && findingEvalOptions.evaluateFindings) {
+                aggregatedResult.addAll(evaluateConcurrently(out));
+                return aggregatedResult;
+            }
+
             if (thresholdEvalOptions.evaluateThresholds) {
-                aggregatedResult.addAll(evaluateMetrics());
+                aggregatedResult.addAll(evaluateMetrics(out));
             }
 
             if (findingEvalOptions.evaluateFindings) {
-                aggregatedResult.addAll(evaluateFindings());
+                if (failFast && aggregatedResult.hasErrors()) {
+                    out.println("Skipping the findings evaluation, since the thresholds already failed (--fail-fast).");
+                } else {
+                    aggregatedResult.addAll(evaluateFindings(out));
+                }
             }
-            return aggregatedResult.toStatusCode();
+            return aggregatedResult;
         } catch (SSLHandshakeException e) {
             handleSslConnectionFailure(e);
         } catch (UnknownHostException e) {
@@ -169,56 +521,234 @@ public class BuildBreaker implements Callable<Integer> {
                     " Please use the correct URL for Teamscale instead.");
         } catch (HttpStatusCodeException e) {
             handleHttpStatusCodeException(e);
-        } catch (CommitCouldNotBeResolvedException e) {
-            // We do not call fail here because we want to keep the old api of returning code -5
-            System.out.println("Could not resolve revision " + e.getRevision() +
-                    " to a valid commit known to Teamscale (no commits returned or timestamp/branch name could not be extracted.)");
-            return -5;
         } catch (TooManyCommitsException e) {
             fail("Could not resolve revision " + e.getRevision() +
                     " to a valid commit known to Teamscale (too many commits returned): " + e.getCommitDescriptorsJson());
         } catch (IOException e) {
             fail("Encountered an error while communicating with Teamscale: " + e.getMessage());
         } finally {
-            // we must shut down OkHttp as otherwise it will leave threads running and
-            // prevent JVM shutdown
-            teamscaleClient.close();
+            violationListener = ViolationListener.NONE;
+            reports.close();
         }
-        return -9000; // Should never be reached
+        throw new BuildBreakerInternalException("Should never be reached");
+    }
+
+    static String describeUnresolvableRevision(CommitCouldNotBeResolvedException e) {
+        return "Could not resolve revision " + e.getRevision() +
+                " to a valid commit known to Teamscale (no commits returned or timestamp/branch name could not be extracted.)";
     }
 
-    private EvaluationResult evaluateFindings() throws IOException, TooManyCommitsException, HttpRedirectException, HttpStatusCodeException, CommitCouldNotBeResolvedException, ParserException, InterruptedException {
-        String currentBranchAndTimestamp = determineBranchAndTimestamp();
-        String targetBranchAndTimestamp = determineTargetBranchAndTimestamp();
-        String baseBranchAndTimestamp = determineBaseBranchAndTimestamp();
+    /**
+     * Runs the threshold and findings evaluation in parallel. Each evaluation writes its output into its own buffer,
+     * which is printed as one block once the evaluation is done. Results and output are merged in a fixed order
+     * (thresholds first), so the output is the same as for a sequential run.
+     * <p>
+     * With {@link #failFast}, the evaluation that finishes first with an error cancels the other one, including its
+     * request to Teamscale.
+     */
+    private EvaluationResult evaluateConcurrently(PrintStream out) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(EVALUATION_THREADS);
+        try {
+            ByteArrayOutputStream metricsOutput = new ByteArrayOutputStream();
+            ByteArrayOutputStream findingsOutput = new ByteArrayOutputStream();
+            CompletionService<EvaluationResult> completionService = new ExecutorCompletionService<>(executor);
+            Future<EvaluationResult> metricsResult =
+                    completionService.submit(() -> evaluateMetrics(new PrintStream(metricsOutput, true)));
+            Future<EvaluationResult> findingsResult =
+                    completionService.submit(() -> evaluateFindings(new PrintStream(findingsOutput, true)));
+
+            if (failFast) {
+                Future<EvaluationResult> firstResult = completionService.take();
+                if (!isFailedWithErrors(firstResult)) {
+                    // The other evaluation decides the outcome, so wait for it as usual
+                    return awaitSections(metricsResult, metricsOutput, findingsResult, findingsOutput, out);
+                }
+                teamscaleClient.cancelPendingRequests();
+                EvaluationResult aggregatedResult = new EvaluationResult();
+                if (firstResult == metricsResult) {
+                    findingsResult.cancel(true);
+                    aggregatedResult.addAll(awaitSection(metricsResult, metricsOutput, out));
+                    out.println("Skipped the findings evaluation, since the thresholds already failed (--fail-fast).");
+                } else {
+                    metricsResult.cancel(true);
+                    out.println("Skipped the threshold evaluation, since the findings already failed (--fail-fast).");
+                    aggregatedResult.addAll(awaitSection(findingsResult, findingsOutput, out));
+                }
+                return aggregatedResult;
+            }
+            return awaitSections(metricsResult, metricsOutput, findingsResult, findingsOutput, out);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static EvaluationResult awaitSections(Future<EvaluationResult> metricsResult, ByteArrayOutputStream metricsOutput, Future<EvaluationResult> findingsResult, ByteArrayOutputStream findingsOutput, PrintStream out) throws Exception {
+        EvaluationResult aggregatedResult = new EvaluationResult();
+        aggregatedResult.addAll(awaitSection(metricsResult, metricsOutput, out));
+        aggregatedResult.addAll(awaitSection(findingsResult, findingsOutput, out));
+        return aggregatedResult;
+    }
+
+    /** Whether the given completed evaluation succeeded with at least one error. */
+    private static boolean isFailedWithErrors(Future<EvaluationResult> completedResult) throws InterruptedException {
+        try {
+            return completedResult.get().hasErrors();
+        } catch (ExecutionException e) {
+            // Reported when the result is awaited
+            return false;
+        }
+    }
+
+    /**
+     * Waits for the given evaluation to finish and prints its buffered output, even if it failed. Exceptions thrown by
+     * the evaluation are rethrown unwrapped so they are handled like in a sequential run.
+     */
+    private static EvaluationResult awaitSection(Future<EvaluationResult> result, ByteArrayOutputStream output, PrintStream out) throws Exception {
+        try {
+            return getUnwrapped(result);
+        } finally {
+            output.writeTo(out);
+            out.flush();
+        }
+    }
+
+    /**
+     * Waits for the given future and rethrows the exception it failed with unwrapped, so it can be handled as if the
+     * task had been run in the calling thread.
+     */
+    private static <T> T getUnwrapped(Future<T> future) throws Exception {
+        try {
+            return future.get();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof Exception) {
+                throw (Exception) e.getCause();
+            }
+            throw new BuildBreakerInternalException("Task failed unexpectedly: " + e.getCause(), e.getCause());
+        }
+    }
+
+    /**
+     * Resolves all revisions that will be needed during this run (the current commit and the target or base
+     * revision) to branch and timestamp in parallel, so their round trips overlap. {@link TeamscaleClient} caches
+     * the results and deduplicates requests for the same revision, so the later calls to
+     * {@link #determineBranchAndTimestamp()} and friends return immediately.
+     */
+    private void resolveRevisionsConcurrently() throws Exception {
+        Set<String> revisions = new LinkedHashSet<>();
+        if (!StringUtils.isEmpty(commitOptions.commit)) {
+            revisions.add(commitOptions.commit);
+        } else if (StringUtils.isEmpty(commitOptions.branchAndTimestamp)) {
+            String commit = detectCommit();
+            if (commit != null) {
+                revisions.add(commit);
+            }
+        }
+        if (findingEvalOptions.evaluateFindings) {
+            if (!StringUtils.isEmpty(findingEvalOptions.targetRevision)) {
+                revisions.add(findingEvalOptions.targetRevision);
+            }
+            if (!StringUtils.isEmpty(findingEvalOptions.baseRevision)) {
+                revisions.add(findingEvalOptions.baseRevision);
+            }
+        }
+        if (revisions.size() < 2) {
+            // Nothing to parallelize, the revision is resolved when it is needed
+            return;
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(revisions.size());
+        try {
+            List<Future<String>> resolutions = new ArrayList<>();
+            for (String revision : revisions) {
+                resolutions.add(executor.submit(() -> teamscaleClient.fetchTimestampForRevision(revision)));
+            }
+            for (Future<String> resolution : resolutions) {
+                getUnwrapped(resolution);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private EvaluationResult evaluateFindings(PrintStream out) throws IOException, TooManyCommitsException, HttpRedirectException, HttpStatusCodeException, CommitCouldNotBeResolvedException, ParserException, InterruptedException {
+        String currentBranchAndTimestamp;
+        String targetBranchAndTimestamp;
+        String baseBranchAndTimestamp;
+        try (PhaseTimer ignored = runMetrics.startPhase(Phase.RESOLVE_REVISIONS)) {
+            currentBranchAndTimestamp = determineBranchAndTimestamp();
+            targetBranchAndTimestamp = determineTargetBranchAndTimestamp();
+            baseBranchAndTimestamp = determineBaseBranchAndTimestamp();
+        }
 
         if (!StringUtils.isEmpty(targetBranchAndTimestamp) && !StringUtils.isEmpty(baseBranchAndTimestamp)) {
             throw new InvalidParametersException("Cannot use both --target-revision/--target-branch-and-timestamp and --base-revision/--base-branch-and-timestamp options at the same time.");
         }
 
-        Pair<List<Finding>, List<Finding>> findingAssessments;
+        FindingsFetch fetch;
         if (StringUtils.isEmpty(targetBranchAndTimestamp) && StringUtils.isEmpty(baseBranchAndTimestamp)) {
-            System.out.println("Evaluating findings for the current commit...");
-            findingAssessments = teamscaleClient.fetchFindingsUsingCommitDetails(currentBranchAndTimestamp, uniformPath);
+            out.println("Evaluating findings for the current commit...");
+            if (!findingsPartitions.isEmpty()) {
+                out.println("Ignoring the findings partitions, since they only apply with --target-revision or" +
+                        " --base-revision. The findings of the current commit are requested at once.");
+            }
+            fetch = consumer -> teamscaleClient.fetchFindingsUsingCommitDetails(currentBranchAndTimestamp, uniformPathFilter, consumer);
         } else if (!StringUtils.isEmpty(targetBranchAndTimestamp)) {
-            waitForAnalysisToFinish(targetBranchAndTimestamp);
-            System.out.println("Evaluating findings by comparing the current commit with target commit '" +
+            waitForAnalysisToFinish(targetBranchAndTimestamp, out);
+            out.println("Evaluating findings by comparing the current commit with target commit '" +
                     targetBranchAndTimestamp + "'...");
-            findingAssessments = teamscaleClient.fetchFindingsUsingBranchMergeDelta(currentBranchAndTimestamp, targetBranchAndTimestamp, uniformPath);
+            fetch = partitioned((filter, consumer) -> teamscaleClient.fetchFindingsUsingBranchMergeDelta(currentBranchAndTimestamp, targetBranchAndTimestamp, filter, consumer), out);
         } else {
-            waitForAnalysisToFinish(baseBranchAndTimestamp);
-            System.out.println("Evaluating findings by aggregating the findings from the base commit '" +
+            waitForAnalysisToFinish(baseBranchAndTimestamp, out);
+            out.println("Evaluating findings by aggregating the findings from the base commit '" +
                     baseBranchAndTimestamp + "' up to the current commit '" + currentBranchAndTimestamp + "' ...");
-            findingAssessments = teamscaleClient.fetchFindingsUsingLinearDelta(baseBranchAndTimestamp, currentBranchAndTimestamp, uniformPath);
+            fetch = partitioned((filter, consumer) -> teamscaleClient.fetchFindingsUsingLinearDelta(baseBranchAndTimestamp, currentBranchAndTimestamp, filter, consumer), out);
+        }
+
+        if (suppressions != null) {
+            Suppressions filter = suppressions;
+            FindingsFetch unsuppressedFetch = fetch;
+            fetch = consumer -> unsuppressedFetch.fetch(filter.filter(consumer));
+        }
+        if (baselineOptions.writeBaseline) {
+            return writeBaseline(fetch, out);
+        }
+        FindingsBaseline baseline = null;
+        if (baselineOptions.baselineFile != null) {
+            baseline = readBaseline();
+            FindingsBaseline filter = baseline;
+            FindingsFetch unfilteredFetch = fetch;
+            fetch = consumer -> unfilteredFetch.fetch(filter.filter(consumer));
         }
 
-        EvaluationResult findingsResult = new FindingsEvaluator()
-                .evaluate(findingAssessments, findingEvalOptions.failOnYellowFindings,
-                        findingEvalOptions.failOnModified);
-        System.out.println(findingsResult);
+        EvaluationResult findingsResult;
+        if (failFast && gatingRules == null) {
+            findingsResult = evaluateFindingsWhileFetching(fetch, out);
+        } else {
+            FindingStore findings = new FindingStore();
+            try (PhaseTimer ignored = runMetrics.startPhase(Phase.FETCH_FINDINGS)) {
+                fetch.fetch(findings);
+            }
+            try (PhaseTimer ignored = runMetrics.startPhase(Phase.EVALUATE_FINDINGS)) {
+                if (gatingRules != null) {
+                    findingsResult = gatingRules.evaluateFindings(findings, rulesOptions.parallel, violationListener);
+                } else {
+                    findingsResult = new FindingsEvaluator()
+                            .evaluate(findings, findingEvalOptions.failOnYellowFindings,
+                                    findingEvalOptions.failOnModified, violationListener);
+                }
+            }
+        }
+        if (suppressions != null) {
+            suppressions.writeStatisticsTo(out);
+        }
+        if (baseline != null) {
+            out.println("Ignored " + baseline.getIgnoredFindings() + " findings that are in the baseline " +
+                    baselineOptions.baselineFile + ".");
+        }
+        printResult(findingsResult, out);
 
         if (findingsResult.toStatusCode() > 0) {
-            System.out.println(
+            out.println(
                     "More detailed information about these findings is available in Teamscale's web interface at " +
                             buildFindingsUiUrl(targetBranchAndTimestamp, baseBranchAndTimestamp, currentBranchAndTimestamp));
         }
@@ -226,6 +756,132 @@ public class BuildBreaker implements Callable<Integer> {
         return findingsResult;
     }
 
+    /**
+     * Evaluates the findings while they are being decoded and stops reading the response at the first error. Since
+     * fetching and evaluating are interleaved, the whole time is attributed to {@link Phase#FETCH_FINDINGS}.
+     */
+    private EvaluationResult evaluateFindingsWhileFetching(FindingsFetch fetch, PrintStream out) throws IOException, HttpRedirectException, HttpStatusCodeException, ParserException {
+        StreamingFindingsEvaluator evaluator = new StreamingFindingsEvaluator(findingEvalOptions.failOnYellowFindings,
+                findingEvalOptions.failOnModified, true, violationListener);
+        try (PhaseTimer ignored = runMetrics.startPhase(Phase.FETCH_FINDINGS)) {
+            fetch.fetch(evaluator);
+        }
+        if (evaluator.isDone()) {
+            out.println("Stopped evaluating findings at the first error (--fail-fast). Further findings may exist.");
+        }
+        return evaluator.getResult();
+    }
+
+    private GatingRules readGatingRules() {
+        if (rulesOptions.rulesFile == null) {
+            return null;
+        }
+        try {
+            return GatingRules.read(rulesOptions.rulesFile);
+        } catch (IOException e) {
+            throw new InvalidParametersException(
+                    "Could not read the rules " + rulesOptions.rulesFile + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * Returns a fetch of the findings in the {@link #uniformPathFilter} with the given delta request, which is sent
+     * once per partition if {@link #findingsPartitions} are configured and once for the whole scope otherwise.
+     */
+    private FindingsFetch partitioned(PartitionedFindingsFetch.PartitionFetch deltaFetch, PrintStream out) {
+        if (findingsPartitions.isEmpty()) {
+            return consumer -> deltaFetch.fetch(uniformPathFilter, consumer);
+        }
+        return consumer -> {
+            out.println("Requesting the findings in " + findingsPartitions.size() + " partitions...");
+            PartitionedFindingsFetch partitionedFetch = new PartitionedFindingsFetch(uniformPathFilter,
+                    findingsPartitions, partitionOptions.maxConcurrentRequests);
+            partitionedFetch.fetch(deltaFetch, consumer);
+            if (partitionedFetch.getDuplicateFindings() > 0) {
+                out.println("Skipped " + partitionedFetch.getDuplicateFindings() +
+                        " findings that were received for more than one partition.");
+            }
+        };
+    }
+
+    private List<String> determineFindingsPartitions() {
+        List<String> partitions = new ArrayList<>();
+        if (partitionOptions.partitions != null) {
+            partitions.addAll(partitionOptions.partitions);
+        }
+        if (partitionOptions.discoveryDirectory != null) {
+            try {
+                partitions.addAll(PartitionedFindingsFetch.discoverPartitions(partitionOptions.discoveryDirectory,
+                        uniformPathFilter.getCommonUniformPath()));
+            } catch (IOException e) {
+                throw new InvalidParametersException("Could not discover the findings partitions in " +
+                        partitionOptions.discoveryDirectory + ": " + e.getMessage());
+            }
+            if (partitions.isEmpty()) {
+                throw new InvalidParametersException(
+                        "The directory " + partitionOptions.discoveryDirectory + " contains no findings partitions.");
+            }
+        }
+        return partitions;
+    }
+
+    private Suppressions readSuppressions() {
+        if (suppressionsFile == null) {
+            return null;
+        }
+        try {
+            return Suppressions.read(suppressionsFile);
+        } catch (IOException e) {
+            throw new InvalidParametersException(
+                    "Could not read the suppressions " + suppressionsFile + ": " + e.getMessage());
+        }
+    }
+
+    private FindingsBaseline readBaseline() {
+        try {
+            return FindingsBaseline.read(baselineOptions.baselineFile);
+        } catch (IOException e) {
+            throw new InvalidParametersException(
+                    "Could not read the findings baseline " + baselineOptions.baselineFile + ": " + e.getMessage());
+        }
+    }
+
+    /** Writes the IDs of all findings to the {@link BaselineOptions#baselineFile} instead of evaluating them. */
+    private EvaluationResult writeBaseline(FindingsFetch fetch, PrintStream out) throws IOException, HttpRedirectException, HttpStatusCodeException, ParserException {
+        FindingsBaseline.Recorder recorder = new FindingsBaseline.Recorder();
+        try (PhaseTimer ignored = runMetrics.startPhase(Phase.FETCH_FINDINGS)) {
+            fetch.fetch(recorder);
+        }
+        int writtenFindings = recorder.write(baselineOptions.baselineFile);
+        out.println("Wrote " + writtenFindings + " findings to the baseline " + baselineOptions.baselineFile +
+                ". They are not evaluated.");
+        return new EvaluationResult();
+    }
+
+    /** Fetches findings from Teamscale and passes them to the given consumer. */
+    @FunctionalInterface
+    private interface FindingsFetch {
+        void fetch(FindingConsumer consumer) throws IOException, HttpRedirectException, HttpStatusCodeException, ParserException;
+    }
+
+    /**
+     * Prints the violations of the given result as configured by the {@link #outputOptions}. Large results are written
+     * through a buffer instead of line by line.
+     */
+    private void printResult(EvaluationResult result, PrintStream out) throws IOException {
+        // Not closed, since that would close the given stream
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, Charset.defaultCharset()), OUTPUT_BUFFER_SIZE);
+        if (outputOptions.summary) {
+            FindingsSummary findingsSummary = result.summarizeFindings();
+            if (!findingsSummary.isEmpty()) {
+                findingsSummary.writeTo(writer, outputOptions.summaryTopFiles);
+                writer.write("\n");
+            }
+        }
+        result.writeTo(writer, outputOptions.getMaxPrintedViolations());
+        writer.flush();
+    }
+
     private HttpUrl buildFindingsUiUrl(String targetBranchAndTimestamp, String baseBranchAndTimestamp, String currentBranchAndTimestamp) {
         HttpUrl.Builder urlBuilder;
         if (StringUtils.isEmpty(targetBranchAndTimestamp) && StringUtils.isEmpty(baseBranchAndTimestamp)) {
@@ -253,21 +909,65 @@ public class BuildBreaker implements Callable<Integer> {
         return urlBuilder.build();
     }
 
-    private EvaluationResult evaluateMetrics() throws IOException, HttpRedirectException, HttpStatusCodeException, TooManyCommitsException, CommitCouldNotBeResolvedException, ParserException {
-        System.out.println("Evaluating thresholds...");
-        String currentBranchAndTimestamp = determineBranchAndTimestamp();
-        List<MetricViolation> metricAssessments = teamscaleClient.fetchMetricAssessments(currentBranchAndTimestamp, thresholdEvalOptions.thresholdConfig, uniformPath);
-        EvaluationResult metricResult =
-                new MetricsEvaluator().evaluate(metricAssessments, thresholdEvalOptions.failOnYellowMetrics);
-        System.out.println(metricResult);
-        if (metricResult.toStatusCode() > 0) {
-            HttpUrl.Builder urlBuilder = teamscaleServerUrl.newBuilder().addPathSegment("metrics.html")
-                    .fragment("/" + project + "?t=" + currentBranchAndTimestamp);
-            System.out.println(
-                    "More detailed information about these metrics is available in Teamscale's web interface at " +
-                            urlBuilder.build());
+    private EvaluationResult evaluateMetrics(PrintStream out) throws IOException, HttpRedirectException, HttpStatusCodeException, TooManyCommitsException, CommitCouldNotBeResolvedException, ParserException {
+        out.println("Evaluating thresholds...");
+        String currentBranchAndTimestamp;
+        try (PhaseTimer ignored = runMetrics.startPhase(Phase.RESOLVE_REVISIONS)) {
+            currentBranchAndTimestamp = determineBranchAndTimestamp();
+        }
+        List<MetricViolation> metricAssessments;
+        try (PhaseTimer ignored = runMetrics.startPhase(Phase.FETCH_METRICS)) {
+            metricAssessments = teamscaleClient.fetchMetricAssessments(currentBranchAndTimestamp, thresholdEvalOptions.thresholdConfig, uniformPathFilter);
+        }
+        try (PhaseTimer ignored = runMetrics.startPhase(Phase.EVALUATE_METRICS)) {
+            EvaluationResult metricResult;
+            if (gatingRules != null) {
+                metricResult = gatingRules.evaluateMetrics(metricAssessments, violationListener);
+            } else {
+                metricResult = new MetricsEvaluator().evaluate(metricAssessments,
+                        thresholdEvalOptions.failOnYellowMetrics, violationListener);
+            }
+            printResult(metricResult, out);
+            if (metricResult.toStatusCode() > 0) {
+                HttpUrl.Builder urlBuilder = teamscaleServerUrl.newBuilder().addPathSegment("metrics.html")
+                        .fragment("/" + project + "?t=" + currentBranchAndTimestamp);
+                out.println(
+                        "More detailed information about these metrics is available in Teamscale's web interface at " +
+                                urlBuilder.build());
+            }
+            return metricResult;
+        }
+    }
+
+    /**
+     * Prints how many requests were answered from the HTTP cache, including those that Teamscale confirmed with 304
+     * Not Modified.
+     */
+    static void reportHttpCacheStatistics(Cache cache, PrintStream out) {
+        if (cache == null) {
+            return;
+        }
+        int hits = cache.hitCount();
+        int misses = cache.requestCount() - hits;
+        out.println("HTTP cache: " + hits + " hits, " + misses + " misses.");
+    }
+
+    private void validateResilienceOptions() {
+        if (resilienceOptions.maxRetries < 0 || resilienceOptions.circuitBreakerFailureThreshold < 0) {
+            throw new InvalidParametersException(
+                    "--http-max-retries and --circuit-breaker-failure-threshold must not be negative.");
+        }
+        if (resilienceOptions.retryDelay.isNegative() || resilienceOptions.retryDelay.isZero() ||
+                resilienceOptions.maxRetryDelay.compareTo(resilienceOptions.retryDelay) < 0) {
+            throw new InvalidParametersException(
+                    "--http-retry-delay must be positive and must not be greater than --http-retry-max-delay.");
+        }
+        if (resilienceOptions.jitterFactor < 0 || resilienceOptions.jitterFactor >= 1) {
+            throw new InvalidParametersException("--http-retry-jitter must be at least 0 and less than 1.");
+        }
+        if (resilienceOptions.circuitBreakerDelay.isNegative() || resilienceOptions.circuitBreakerDelay.isZero()) {
+            throw new InvalidParametersException("--circuit-breaker-delay must be positive.");
         }
-        return metricResult;
     }
 
     private void initDefaultOptions() {
@@ -280,23 +980,57 @@ public class BuildBreaker implements Callable<Integer> {
         if (thresholdEvalOptions == null) {
             thresholdEvalOptions = new ThresholdEvalOptions();
         }
+        if (revisionCacheOptions == null) {
+            revisionCacheOptions = new RevisionCacheOptions();
+        }
+        if (resilienceOptions == null) {
+            resilienceOptions = new ResilienceOptions();
+        }
+        if (httpCacheOptions == null) {
+            httpCacheOptions = new HttpCacheOptions();
+        }
+        if (metricsOptions == null) {
+            metricsOptions = new MetricsOptions();
+        }
+        if (outputOptions == null) {
+            outputOptions = new OutputOptions();
+        }
+        if (reportOptions == null) {
+            reportOptions = new ReportOptions();
+        }
+        if (baselineOptions == null) {
+            baselineOptions = new BaselineOptions();
+        }
+        if (rulesOptions == null) {
+            rulesOptions = new RulesOptions();
+        }
+        if (partitionOptions == null) {
+            partitionOptions = new PartitionOptions();
+        }
+    }
+
+    private void waitForAnalysisToFinish(String branchAndTimestampToWaitFor, PrintStream out) throws IOException, InterruptedException, HttpRedirectException, HttpStatusCodeException {
+        try (PhaseTimer ignored = runMetrics.startPhase(Phase.WAIT_FOR_ANALYSIS)) {
+            waitForAnalysisToFinishUntimed(branchAndTimestampToWaitFor, out);
+        }
     }
 
-    private void waitForAnalysisToFinish(String branchAndTimestampToWaitFor) throws IOException, InterruptedException, HttpRedirectException, HttpStatusCodeException {
+    private void waitForAnalysisToFinishUntimed(String branchAndTimestampToWaitFor, PrintStream out) throws IOException, InterruptedException, HttpRedirectException, HttpStatusCodeException {
         String[] split = branchAndTimestampToWaitFor.split(":", 2);
         String branch = split[0];
         long requestedTimestamp = Long.parseLong(split[1]);
-        LocalDateTime timeout = LocalDateTime.now().plus(waitForAnalysisTimeoutDuration);
-        AnalysisState analysisState = teamscaleClient.fetchAnalysisState(branch);
+        Instant timeout = Instant.now().plus(waitForAnalysisTimeoutDuration);
+        AnalysisState analysisState = fetchAnalysisState(branch);
         boolean analysisFinished = analysisState.timestamp >= requestedTimestamp;
         if (!analysisFinished) {
-            System.out.println(
+            out.println(
                     "The commit that should be evaluated has not yet been analyzed on the Teamscale instance. Triggering Teamscale commit hook on repository.");
-            triggerCommitHook();
-            System.out.println("Start querying the analysis state for '" + branchAndTimestampToWaitFor + "' every ten seconds until it has been analyzed or the timeout is reached at " +
+            triggerCommitHook(out);
+            out.println("Start querying the analysis state for '" + branchAndTimestampToWaitFor + "' in intervals between " +
+                    analysisPollInterval + " and " + analysisPollMaxInterval + " until it has been analyzed or the timeout is reached at " +
                     DateTimeFormatter.RFC_1123_DATE_TIME.format(timeout.atZone(ZoneOffset.UTC)) +
                             ". You can change this timeout using --wait-for-analysis-timeout.");
-            analysisState = waitForCommitBeingAnalyzed(analysisState, branch, requestedTimestamp, timeout);
+            analysisState = waitForCommitBeingAnalyzed(analysisState, branch, requestedTimestamp, timeout, out);
             analysisFinished = analysisState.timestamp >= requestedTimestamp;
         }
 
@@ -311,34 +1045,51 @@ public class BuildBreaker implements Callable<Integer> {
         }
     }
 
-    private void triggerCommitHook() throws HttpRedirectException, HttpStatusCodeException {
+    private void triggerCommitHook(PrintStream out) throws HttpRedirectException, HttpStatusCodeException {
         try {
             teamscaleClient.triggerCommitHookEvent(remoteRepositoryUrl);
-            System.out.println("Commit hook triggered successfully.");
+            out.println("Commit hook triggered successfully.");
         } catch (RepositoryNotFoundException e) {
-            System.out.println(
+            out.println(
                     "Failed to automatically detect the remote repository URL. Please specify it manually via --repository-url to enable sending a commit hook event to Teamscale.");
         } catch (IOException e) {
-            System.out.println("Failure when trying to send the commit hook event to Teamscale: " + e);
+            out.println("Failure when trying to send the commit hook event to Teamscale: " + e);
         }
     }
 
-    private AnalysisState waitForCommitBeingAnalyzed(AnalysisState analysisState, String branch, long requestedTimestamp, ChronoLocalDateTime<?> timeout) throws InterruptedException, HttpRedirectException, HttpStatusCodeException, IOException {
+    private AnalysisState waitForCommitBeingAnalyzed(AnalysisState analysisState, String branch, long requestedTimestamp, Instant timeout, PrintStream out) throws InterruptedException, HttpRedirectException, HttpStatusCodeException, IOException {
+        AnalysisPollingStrategy pollingStrategy =
+                new AnalysisPollingStrategy(analysisPollInterval, analysisPollMaxInterval, timeout);
+        pollingStrategy.recordPoll(Instant.now(), analysisState.timestamp);
         boolean analysisFinished = false;
-        while (!analysisFinished && LocalDateTime.now().isBefore(timeout)) {
-            Thread.sleep(Duration.ofSeconds(10).toMillis());
-            analysisState = teamscaleClient.fetchAnalysisState(branch);
+        Optional<Duration> delay = pollingStrategy.nextDelay(Instant.now(), requestedTimestamp);
+        while (!analysisFinished && delay.isPresent()) {
+            Thread.sleep(delay.get().toMillis());
+            analysisState = fetchAnalysisState(branch);
+            pollingStrategy.recordPoll(Instant.now(), analysisState.timestamp);
             analysisFinished = analysisState.timestamp >= requestedTimestamp;
             String logMessage = "Current analysis state: state=" + analysisState.state
                     + ", last processed timestamp=" + analysisState.timestamp;
             if (analysisState.rollbackId != null) {
                 logMessage += ", rollback id=" + analysisState.rollbackId;
             }
-            System.out.println(logMessage);
+            if (!analysisFinished) {
+                Optional<Duration> remainingTime = pollingStrategy.estimateRemainingTime(requestedTimestamp);
+                if (remainingTime.isPresent()) {
+                    logMessage += ", estimated remaining time=" + remainingTime.get().withNanos(0);
+                }
+            }
+            out.println(logMessage);
+            delay = pollingStrategy.nextDelay(Instant.now(), requestedTimestamp);
         }
         return analysisState;
     }
 
+    private AnalysisState fetchAnalysisState(String branch) throws IOException, HttpRedirectException, HttpStatusCodeException {
+        runMetrics.increment(Counter.ANALYSIS_POLLS);
+        return teamscaleClient.fetchAnalysisState(branch);
+    }
+
     private String determineBranchAndTimestamp() throws IOException, TooManyCommitsException, HttpRedirectException, HttpStatusCodeException, CommitCouldNotBeResolvedException {
         if (!StringUtils.isEmpty(commitOptions.commit)) {
             return teamscaleClient.fetchTimestampForRevision(commitOptions.commit);
@@ -358,6 +1109,9 @@ public class BuildBreaker implements Callable<Integer> {
     }
 
     private String detectCommit() {
+        if (!commitDetectionEnabled) {
+            return detectedCommit;
+        }
         List<Supplier<String>> commitDetectionStrategies =
                 List.of(() -> detectedCommit, EnvironmentVariableChecker::findCommit, GitChecker::findCommit,
                         SvnChecker::findRevision);
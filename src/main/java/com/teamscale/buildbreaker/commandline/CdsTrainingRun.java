@@ -0,0 +1,83 @@
+package com.teamscale.buildbreaker.commandline;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Training run for the class-data-sharing (CDS) archive of the shaded jar. Performs representative runs of
+ * {@link BuildBreaker} against a local server that answers with canned Teamscale responses, so that the classes for
+ * option parsing, HTTP communication, response parsing and evaluation are loaded and end up in the archive.
+ * <p>
+ * Run it with {@code -XX:ArchiveClassesAtExit=<archive>} and the same class path as the runs that should use the
+ * archive. It is not reachable from {@link BuildBreaker#main} and thus not part of the native image.
+ */
+public class CdsTrainingRun {
+
+    private static final String ANALYSIS_STATE_RESPONSE = "{\"timestamp\":1597845940000,\"state\":\"LIVE_ANALYSIS\"}";
+
+    private static final String METRIC_RESPONSE = "[{\"metrics\":{\"m1\":{\"displayName\":\"Clone Coverage\"," +
+            "\"rating\":\"RED\",\"formattedTextValue\":\"50%\"," +
+            "\"metricThresholds\":{\"thresholdYellow\":\"10\",\"thresholdRed\":\"20\"}}}}]";
+
+    private static final String FINDING = "{\"id\":\"F1\",\"groupName\":\"Clones\",\"categoryName\":\"Redundancy\"," +
+            "\"message\":\"Clone with 2 instances\",\"location\":{\"uniformPath\":\"src/Main.java\"},\"assessment\":\"RED\"}";
+
+    private static final String COMMIT_FINDINGS_RESPONSE =
+            "{\"addedFindings\":[" + FINDING + "],\"findingsInChangedCode\":[" + FINDING + "]}";
+
+    private static final String DELTA_FINDINGS_RESPONSE = "{\"addedFindings\":{\"findings\":[" + FINDING +
+            "]},\"findingsInChangedCode\":{\"findings\":[" + FINDING + "]}}";
+
+    private CdsTrainingRun() {
+        // Prevent instantiation
+    }
+
+    public static void main(String... args) throws IOException {
+        HttpServer server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        server.createContext("/", CdsTrainingRun::respond);
+        server.start();
+        try {
+            String serverUrl = "http://localhost:" + server.getAddress().getPort() + "/";
+            // Thresholds and findings of a single commit
+            BuildBreaker.run("--server", serverUrl, "--user", "training", "--accesskey", "training",
+                    "--project", "training", "--branch-and-timestamp", "main:1597845930000",
+                    "--evaluate-thresholds", "--threshold-config", "default", "--evaluate-findings");
+            // Findings of a commit range, which are parsed from the delta format
+            BuildBreaker.run("--server", serverUrl, "--user", "training", "--accesskey", "training",
+                    "--project", "training", "--branch-and-timestamp", "main:1597845930000", "--evaluate-findings",
+                    "--base-branch-and-timestamp", "main:1597845920000");
+        } finally {
+            server.stop(0);
+        }
+    }
+
+    private static void respond(HttpExchange exchange) throws IOException {
+        String path = exchange.getRequestURI().getPath();
+        String body;
+        if (path.contains("/branch-analysis-state/")) {
+            body = ANALYSIS_STATE_RESPONSE;
+        } else if (path.endsWith("/metric-assessments")) {
+            body = METRIC_RESPONSE;
+        } else if (path.endsWith("/finding-churn/list")) {
+            body = COMMIT_FINDINGS_RESPONSE;
+        } else if (path.endsWith("/findings/delta") || path.endsWith("/merge-requests/finding-churn")) {
+            body = DELTA_FINDINGS_RESPONSE;
+        } else {
+            exchange.sendResponseHeaders(404, -1);
+            exchange.close();
+            return;
+        }
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().add("Content-Type", "application/json");
+        exchange.sendResponseHeaders(200, bytes.length);
+        try (OutputStream responseBody = exchange.getResponseBody()) {
+            responseBody.write(bytes);
+        }
+    }
+}
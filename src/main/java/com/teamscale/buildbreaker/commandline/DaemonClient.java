@@ -0,0 +1,228 @@
+package com.teamscale.buildbreaker.commandline;
+
+import com.teamscale.buildbreaker.commandline.DaemonProtocol.DaemonAddress;
+import com.teamscale.buildbreaker.commandline.autodetect_revision.EnvironmentVariableChecker;
+import com.teamscale.buildbreaker.commandline.autodetect_revision.GitChecker;
+import com.teamscale.buildbreaker.commandline.autodetect_revision.SvnChecker;
+import com.teamscale.buildbreaker.commandline.exceptions.InvalidParametersException;
+import picocli.CommandLine.Model.CommandSpec;
+import picocli.CommandLine.Model.OptionSpec;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import java.util.function.Supplier;
+
+/**
+ * Forwards the options of a single run to a running {@link DaemonServer} and prints its output.
+ * <p>
+ * This is intentionally not a picocli command: all options except {@code --daemon-file} are passed through unchanged
+ * and only parsed by the daemon. The commit and the repository URL are detected here if they are not given, since the
+ * daemon does not run in the checkout or environment of the build. If the daemon cannot be reached, the run is
+ * performed in this process instead, so builds do not break just because the daemon is not running.
+ */
+class DaemonClient {
+
+    /** The first argument that selects the client command instead of a single run. */
+    static final String COMMAND_NAME = "client";
+
+    private static final String DAEMON_FILE_OPTION = "--daemon-file";
+
+    /** The option whose value is a keystore path followed by a semicolon and the keystore's password. */
+    private static final String KEYSTORE_OPTION = "--trusted-keystore";
+
+    /** Options whose value is a file or directory that the run reads or writes. */
+    private static final List<String> FILE_OPTIONS =
+            Arrays.asList("--metrics-file", "--sarif-report", "--junit-report", "--json-report", "--baseline",
+                    "--rules", "--suppressions", "--discover-findings-partitions", "--revision-cache",
+                    "--http-cache-dir", "--jfr", KEYSTORE_OPTION);
+
+    private DaemonClient() {
+        // Prevent instantiation
+    }
+
+    /** Runs the client with the given arguments (without the leading {@link #COMMAND_NAME}). */
+    static int run(String... args) {
+        List<String> arguments = new ArrayList<>(Arrays.asList(args));
+        Path daemonFile = extractDaemonFile(arguments);
+        if (daemonFile == null) {
+            InvalidParametersException e =
+                    new InvalidParametersException("Missing required option: '" + DAEMON_FILE_OPTION + "=<file>'");
+            System.err.println(e.getMessage());
+            return e.getErrorCode();
+        }
+        if (isHelpOrVersionRequested(arguments)) {
+            return BuildBreaker.run(arguments.toArray(new String[0]));
+        }
+        addDetectedRevision(arguments);
+        resolveFiles(arguments);
+
+        DaemonAddress address;
+        Socket socket;
+        try {
+            address = DaemonProtocol.readDaemonFile(daemonFile);
+            socket = new Socket(InetAddress.getLoopbackAddress(), address.port);
+        } catch (IOException e) {
+            System.err.println("Could not reach the daemon (" + e.getMessage() + "), evaluating in this process.");
+            return BuildBreaker.run(arguments.toArray(new String[0]));
+        }
+        try {
+            return forward(socket, address.token, arguments, System.out);
+        } catch (IOException e) {
+            System.err.println("Lost the connection to the daemon: " + e.getMessage());
+            return -1;
+        }
+    }
+
+    /**
+     * Sends the arguments to the daemon connected to the given socket, copies its output to the given stream and
+     * returns the exit code of the run. Closes the socket.
+     */
+    static int forward(Socket socket, String token, List<String> arguments, OutputStream out) throws IOException {
+        try (Socket connection = socket;
+             DataOutputStream requestOut = new DataOutputStream(new BufferedOutputStream(connection.getOutputStream()));
+             DataInputStream responseIn = new DataInputStream(new BufferedInputStream(connection.getInputStream()))) {
+            DaemonProtocol.writeRequest(requestOut, token, arguments);
+            return DaemonProtocol.readResponse(responseIn, out);
+        }
+    }
+
+    /** Removes the {@code --daemon-file} option from the arguments and returns its value. */
+    private static Path extractDaemonFile(List<String> arguments) {
+        for (int i = 0; i < arguments.size(); i++) {
+            String argument = arguments.get(i);
+            if (argument.startsWith(DAEMON_FILE_OPTION + "=")) {
+                arguments.remove(i);
+                return Paths.get(argument.substring(DAEMON_FILE_OPTION.length() + 1));
+            }
+            if (argument.equals(DAEMON_FILE_OPTION) && i + 1 < arguments.size()) {
+                arguments.remove(i);
+                return Paths.get(arguments.remove(i));
+            }
+        }
+        return null;
+    }
+
+    private static boolean isHelpOrVersionRequested(List<String> arguments) {
+        return arguments.stream().anyMatch(argument -> Arrays.asList("-h", "--help", "-V", "--version").contains(argument));
+    }
+
+    /**
+     * Adds the commit and repository URL detected from the environment and working directory of this process unless
+     * they are given explicitly.
+     */
+    private static void addDetectedRevision(List<String> arguments) {
+        CommandSpec spec = CommandSpec.forAnnotatedObject(new BuildBreaker());
+        if (!hasOption(spec, arguments, "-c", "--commit") && !hasOption(spec, arguments, "-b", "--branch-and-timestamp")) {
+            String commit = detect(List.of(EnvironmentVariableChecker::findCommit, GitChecker::findCommit,
+                    SvnChecker::findRevision));
+            if (commit != null) {
+                arguments.add("--commit");
+                arguments.add(commit);
+            }
+        }
+        if (!hasOption(spec, arguments, null, "--repository-url")) {
+            String repositoryUrl = detect(List.of(GitChecker::findRepoUrl, SvnChecker::findRepoUrl));
+            if (repositoryUrl != null) {
+                arguments.add("--repository-url");
+                arguments.add(repositoryUrl);
+            }
+        }
+    }
+
+    /**
+     * Makes relative files like the --metrics-file absolute, since the daemon would otherwise resolve them
+     * against its own working directory.
+     */
+    static void resolveFiles(List<String> arguments) {
+        for (int i = 0; i < arguments.size(); i++) {
+            String argument = arguments.get(i);
+            for (String option : FILE_OPTIONS) {
+                if (argument.startsWith(option + "=")) {
+                    arguments.set(i, option + "=" + resolveFile(option, argument.substring(option.length() + 1)));
+                } else if (argument.equals(option) && i + 1 < arguments.size()) {
+                    arguments.set(i + 1, resolveFile(option, arguments.get(i + 1)));
+                }
+            }
+        }
+    }
+
+    /** Makes the file in the value of the given option absolute, keeping the password of a keystore. */
+    private static String resolveFile(String option, String value) {
+        int passwordSeparator = value.indexOf(';');
+        if (option.equals(KEYSTORE_OPTION) && passwordSeparator >= 0) {
+            return Paths.get(value.substring(0, passwordSeparator)).toAbsolutePath() + value.substring(passwordSeparator);
+        }
+        return Paths.get(value).toAbsolutePath().toString();
+    }
+
+    /**
+     * Whether the given option is among the arguments, following picocli's rules: the values of other options are
+     * skipped, and a short option may be given with an attached value or within a cluster of short options.
+     */
+    static boolean hasOption(CommandSpec spec, List<String> arguments, String shortName, String longName) {
+        for (int i = 0; i < arguments.size(); i++) {
+            String argument = arguments.get(i);
+            if (argument.equals("--")) {
+                // Only positional parameters follow
+                return false;
+            }
+            int separator = argument.indexOf('=');
+            String name = separator < 0 ? argument : argument.substring(0, separator);
+            if (name.equals(longName) || name.equals(shortName)) {
+                return true;
+            }
+            OptionSpec option = name.startsWith("-") ? spec.findOption(name) : null;
+            if (option != null) {
+                if (separator < 0 && takesValue(option)) {
+                    i++;
+                }
+                continue;
+            }
+            if (shortName != null && isShortOptionCluster(spec, argument, shortName)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Whether the given argument, e.g. {@code -tc<commit>}, is a cluster of short options that contains the given one.
+     * The first option in the cluster that takes a value consumes the rest of the argument.
+     */
+    private static boolean isShortOptionCluster(CommandSpec spec, String argument, String shortName) {
+        if (!argument.startsWith("-") || argument.startsWith("--")) {
+            return false;
+        }
+        for (int i = 1; i < argument.length(); i++) {
+            String name = "-" + argument.charAt(i);
+            if (name.equals(shortName)) {
+                return true;
+            }
+            OptionSpec option = spec.findOption(name);
+            if (option == null || takesValue(option)) {
+                return false;
+            }
+        }
+        return false;
+    }
+
+    private static boolean takesValue(OptionSpec option) {
+        return option.arity().max() > 0;
+    }
+
+    private static String detect(List<Supplier<String>> detectionStrategies) {
+        return detectionStrategies.stream().map(Supplier::get).filter(Objects::nonNull).findFirst().orElse(null);
+    }
+}
@@ -0,0 +1,183 @@
+package com.teamscale.buildbreaker.commandline;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The wire format between {@link DaemonClient} and {@link DaemonServer}.
+ * <p>
+ * A request consists of the protocol version, the secret token from the daemon file and the command line arguments of
+ * a single run. The response is a sequence of frames, each starting with a type byte: {@link #OUTPUT_FRAME}s carry a
+ * chunk of the output as it is produced and the final {@link #EXIT_FRAME} carries the exit code.
+ * <p>
+ * The daemon file contains the port on which the daemon listens on the loopback interface and the token that clients
+ * must send. It is only readable by its owner, so only the user who started the daemon can use it.
+ */
+final class DaemonProtocol {
+
+    private static final int VERSION = 1;
+
+    private static final byte OUTPUT_FRAME = 1;
+    private static final byte EXIT_FRAME = 2;
+
+    private DaemonProtocol() {
+        // Prevent instantiation
+    }
+
+    /** The content of a daemon file. */
+    static class DaemonAddress {
+        final int port;
+        final String token;
+
+        DaemonAddress(int port, String token) {
+            this.port = port;
+            this.token = token;
+        }
+    }
+
+    static void writeDaemonFile(Path daemonFile, DaemonAddress address) throws IOException {
+        Path directory = daemonFile.toAbsolutePath().getParent();
+        Files.createDirectories(directory);
+        Path temporaryFile = Files.createTempFile(directory, daemonFile.getFileName().toString(), ".tmp");
+        try {
+            try {
+                Files.setPosixFilePermissions(temporaryFile, PosixFilePermissions.fromString("rw-------"));
+            } catch (UnsupportedOperationException e) {
+                // Not a POSIX file system, the file keeps the default permissions of the directory
+            }
+            Files.write(temporaryFile, (address.port + "\n" + address.token + "\n").getBytes(StandardCharsets.UTF_8));
+            Files.move(temporaryFile, daemonFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temporaryFile);
+        }
+    }
+
+    static DaemonAddress readDaemonFile(Path daemonFile) throws IOException {
+        List<String> lines = Files.readAllLines(daemonFile, StandardCharsets.UTF_8);
+        if (lines.size() < 2) {
+            throw new IOException("The daemon file " + daemonFile + " is incomplete");
+        }
+        try {
+            return new DaemonAddress(Integer.parseInt(lines.get(0).trim()), lines.get(1).trim());
+        } catch (NumberFormatException e) {
+            throw new IOException("The daemon file " + daemonFile + " does not contain a valid port", e);
+        }
+    }
+
+    static void writeRequest(DataOutputStream out, String token, List<String> arguments) throws IOException {
+        out.writeInt(VERSION);
+        out.writeUTF(token);
+        out.writeInt(arguments.size());
+        for (String argument : arguments) {
+            out.writeUTF(argument);
+        }
+        out.flush();
+    }
+
+    /**
+     * Reads a request and returns its arguments.
+     *
+     * @throws IOException if the request is malformed or does not carry the expected token
+     */
+    static List<String> readRequest(DataInputStream in, String expectedToken) throws IOException {
+        int version = in.readInt();
+        if (version != VERSION) {
+            throw new IOException("Unsupported protocol version " + version);
+        }
+        String token = in.readUTF();
+        if (!constantTimeEquals(token, expectedToken)) {
+            throw new IOException("Invalid token");
+        }
+        int argumentCount = in.readInt();
+        if (argumentCount < 0) {
+            throw new IOException("Invalid argument count " + argumentCount);
+        }
+        List<String> arguments = new ArrayList<>();
+        for (int i = 0; i < argumentCount; i++) {
+            arguments.add(in.readUTF());
+        }
+        return arguments;
+    }
+
+    private static boolean constantTimeEquals(String actual, String expected) {
+        byte[] actualBytes = actual.getBytes(StandardCharsets.UTF_8);
+        byte[] expectedBytes = expected.getBytes(StandardCharsets.UTF_8);
+        int difference = actualBytes.length ^ expectedBytes.length;
+        for (int i = 0; i < actualBytes.length && i < expectedBytes.length; i++) {
+            difference |= actualBytes[i] ^ expectedBytes[i];
+        }
+        return difference == 0;
+    }
+
+    /** Returns a stream that sends everything written to it as output frames. */
+    static OutputStream outputFrameStream(DataOutputStream out) {
+        return new OutputStream() {
+            @Override
+            public void write(int b) throws IOException {
+                write(new byte[]{(byte) b}, 0, 1);
+            }
+
+            @Override
+            public void write(byte[] bytes, int offset, int length) throws IOException {
+                if (length == 0) {
+                    return;
+                }
+                synchronized (out) {
+                    out.writeByte(OUTPUT_FRAME);
+                    out.writeInt(length);
+                    out.write(bytes, offset, length);
+                }
+            }
+
+            @Override
+            public void flush() throws IOException {
+                out.flush();
+            }
+        };
+    }
+
+    static void writeExitCode(DataOutputStream out, int exitCode) throws IOException {
+        synchronized (out) {
+            out.writeByte(EXIT_FRAME);
+            out.writeInt(exitCode);
+            out.flush();
+        }
+    }
+
+    /**
+     * Copies all output frames of a response to the given stream and returns the exit code.
+     *
+     * @throws IOException if the response ends before the exit code has been received
+     */
+    static int readResponse(DataInputStream in, OutputStream target) throws IOException {
+        byte[] buffer = new byte[8192];
+        while (true) {
+            byte frameType = in.readByte();
+            if (frameType == EXIT_FRAME) {
+                return in.readInt();
+            }
+            if (frameType != OUTPUT_FRAME) {
+                throw new IOException("Unexpected frame type " + frameType);
+            }
+            int remaining = in.readInt();
+            while (remaining > 0) {
+                int read = in.read(buffer, 0, Math.min(buffer.length, remaining));
+                if (read < 0) {
+                    throw new IOException("Response ended unexpectedly");
+                }
+                target.write(buffer, 0, read);
+                remaining -= read;
+            }
+            target.flush();
+        }
+    }
+}
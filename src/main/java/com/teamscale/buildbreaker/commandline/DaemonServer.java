@@ -0,0 +1,208 @@
+package com.teamscale.buildbreaker.commandline;
+
+import com.teamscale.buildbreaker.commandline.DaemonProtocol.DaemonAddress;
+import com.teamscale.buildbreaker.commandline.exceptions.ExceptionToExitCodeMapper;
+import com.teamscale.buildbreaker.commandline.exceptions.InvalidParametersException;
+import com.teamscale.buildbreaker.commandline.exceptions.PrintExceptionMessageHandler;
+import com.teamscale.buildbreaker.teamscale_client.TeamscaleClient;
+import okhttp3.OkHttpClient;
+import picocli.CommandLine;
+import picocli.CommandLine.Command;
+import picocli.CommandLine.Option;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketTimeoutException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+@Command(name = "teamscale-buildbreaker daemon", mixinStandardHelpOptions = true, version = "teamscale-buildbreaker 0.1",
+        description = "Keeps connections to Teamscale and resolved revisions in memory and evaluates the runs requested" +
+                " by 'teamscale-buildbreaker client' invocations, which saves the startup and connection setup of each run.",
+        footer = "\nThe daemon listens on the loopback interface only. The port and a secret token are written to the" +
+                " daemon file, which only the user who started the daemon can read. Clients must pass the same daemon" +
+                " file.\nThe daemon stops when it has been idle for the idle timeout or when the daemon file is deleted.")
+public class DaemonServer implements Callable<Integer> {
+
+    /** The first argument that selects the daemon command instead of a single run. */
+    static final String COMMAND_NAME = "daemon";
+
+    /** How often the daemon checks whether it should stop while no client connects. */
+    private static final Duration MAX_ACCEPT_TIMEOUT = Duration.ofSeconds(1);
+
+    /** How long a connected client may take to send its request. */
+    private static final int REQUEST_READ_TIMEOUT_MILLIS = 10_000;
+
+    private static final int TOKEN_BYTES = 32;
+
+    /** Requests are parsed one at a time, since picocli injects the command spec into a static field. */
+    private static final Object PARSE_LOCK = new Object();
+
+    @Option(names = {"--daemon-file"}, paramLabel = "<file>", required = true,
+            description = "The file to which the port and the secret token of the daemon are written.")
+    private Path daemonFile;
+
+    @Option(names = {"--idle-timeout"}, paramLabel = "<iso-8601-duration>", defaultValue = "PT1H",
+            description = "The daemon stops after it has not received any request for this duration. Default value is PT1H.")
+    private Duration idleTimeout = Duration.ofHours(1);
+
+    @Option(names = {"--max-concurrency"}, paramLabel = "<count>", defaultValue = "8",
+            description = "The maximum number of requests that are evaluated in parallel. Default value is 8.")
+    private int maxConcurrency = 8;
+
+    /** Clients shared by all requests with the same connection options. */
+    private final Map<String, OkHttpClient> okHttpClients = new ConcurrentHashMap<>();
+
+    /** Clients shared by all requests with the same server, project and client options. */
+    private final Map<String, TeamscaleClient> teamscaleClients = new ConcurrentHashMap<>();
+
+    private final AtomicInteger activeRequests = new AtomicInteger();
+    private volatile Instant lastActivity = Instant.now();
+
+    /** Runs the daemon with the given arguments (without the leading {@link #COMMAND_NAME}). */
+    static int run(String... args) {
+        return new CommandLine(new DaemonServer()).setExecutionExceptionHandler(new PrintExceptionMessageHandler())
+                .setExitCodeExceptionMapper(new ExceptionToExitCodeMapper()).execute(args);
+    }
+
+    @Override
+    public Integer call() throws Exception {
+        if (maxConcurrency < 1) {
+            throw new InvalidParametersException("--max-concurrency must be positive.");
+        }
+        if (idleTimeout.isNegative() || idleTimeout.isZero()) {
+            throw new InvalidParametersException("--idle-timeout must be positive.");
+        }
+
+        try (ServerSocket serverSocket = new ServerSocket(0, 50, InetAddress.getLoopbackAddress())) {
+            String token = createToken();
+            DaemonProtocol.writeDaemonFile(daemonFile, new DaemonAddress(serverSocket.getLocalPort(), token));
+            Thread deleteDaemonFileOnExit = new Thread(this::deleteDaemonFile);
+            Runtime.getRuntime().addShutdownHook(deleteDaemonFileOnExit);
+            System.out.println("Daemon listening on port " + serverSocket.getLocalPort() + ", daemon file: " + daemonFile);
+
+            ExecutorService executor = Executors.newFixedThreadPool(maxConcurrency);
+            try {
+                serve(serverSocket, token, executor);
+            } finally {
+                executor.shutdown();
+                executor.awaitTermination(Long.MAX_VALUE, TimeUnit.MILLISECONDS);
+                deleteDaemonFile();
+                Runtime.getRuntime().removeShutdownHook(deleteDaemonFileOnExit);
+                okHttpClients.values().forEach(BatchBuildBreaker::shutDown);
+            }
+        }
+        System.out.println("Daemon stopped.");
+        return 0;
+    }
+
+    private static String createToken() {
+        byte[] bytes = new byte[TOKEN_BYTES];
+        new SecureRandom().nextBytes(bytes);
+        StringBuilder token = new StringBuilder();
+        for (byte b : bytes) {
+            token.append(String.format("%02x", b));
+        }
+        return token.toString();
+    }
+
+    private void serve(ServerSocket serverSocket, String token, ExecutorService executor) throws IOException {
+        long acceptTimeout = Math.min(MAX_ACCEPT_TIMEOUT.toMillis(), Math.max(1, idleTimeout.toMillis()));
+        serverSocket.setSoTimeout((int) acceptTimeout);
+        while (true) {
+            try {
+                Socket socket = serverSocket.accept();
+                activeRequests.incrementAndGet();
+                executor.execute(() -> handle(socket, token));
+            } catch (SocketTimeoutException e) {
+                if (shouldStop()) {
+                    return;
+                }
+            }
+        }
+    }
+
+    private boolean shouldStop() {
+        if (!Files.exists(daemonFile)) {
+            System.out.println("Daemon file was deleted, stopping.");
+            return true;
+        }
+        if (activeRequests.get() == 0 && Duration.between(lastActivity, Instant.now()).compareTo(idleTimeout) >= 0) {
+            System.out.println("Daemon was idle for " + idleTimeout + ", stopping.");
+            return true;
+        }
+        return false;
+    }
+
+    private void handle(Socket socket, String token) {
+        try (Socket connection = socket;
+             DataInputStream in = new DataInputStream(new BufferedInputStream(connection.getInputStream()));
+             DataOutputStream out = new DataOutputStream(new BufferedOutputStream(connection.getOutputStream()))) {
+            connection.setSoTimeout(REQUEST_READ_TIMEOUT_MILLIS);
+            List<String> arguments;
+            try {
+                arguments = DaemonProtocol.readRequest(in, token);
+            } catch (IOException e) {
+                System.err.println("Rejected a request: " + e.getMessage());
+                return;
+            }
+            PrintStream requestOut = new PrintStream(DaemonProtocol.outputFrameStream(out), true, "UTF-8");
+            int exitCode = evaluate(arguments, requestOut);
+            requestOut.flush();
+            DaemonProtocol.writeExitCode(out, exitCode);
+        } catch (IOException e) {
+            System.err.println("Could not answer a request: " + e.getMessage());
+        } finally {
+            lastActivity = Instant.now();
+            activeRequests.decrementAndGet();
+        }
+    }
+
+    /** Evaluates a single run with the given arguments, reusing the clients of earlier runs with the same options. */
+    private int evaluate(List<String> arguments, PrintStream out) {
+        BatchEntry entry = new BatchEntry(String.join(" ", arguments), out);
+        synchronized (PARSE_LOCK) {
+            entry.parseArguments(arguments);
+        }
+        // The working directory and environment of the daemon are not those of the client
+        entry.disableCommitDetection();
+        entry.evaluate(buildBreaker -> {
+            OkHttpClient okHttpClient = okHttpClients.computeIfAbsent(buildBreaker.getConnectionKey(),
+                    connectionKey -> buildBreaker.createOkHttpClient());
+            if (buildBreaker.needsDedicatedClient()) {
+                // Used by this run only. Not closed, since that would shut down the shared client.
+                return buildBreaker.createTeamscaleClient(okHttpClient, out);
+            }
+            // Shared by concurrent runs, so its retries cannot be attributed to one run and are reported by the daemon
+            return teamscaleClients.computeIfAbsent(buildBreaker.getTeamscaleClientKey(),
+                    key -> buildBreaker.createTeamscaleClient(okHttpClient, System.err));
+        });
+        return entry.getExitCode();
+    }
+
+    private void deleteDaemonFile() {
+        try {
+            Files.deleteIfExists(daemonFile);
+        } catch (IOException e) {
+            System.err.println("Could not delete the daemon file " + daemonFile + ": " + e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,16 @@
+package com.teamscale.buildbreaker.commandline;
+
+import picocli.CommandLine.Option;
+
+import java.nio.file.Path;
+
+class HttpCacheOptions {
+    @Option(names = {"--http-cache-dir"}, paramLabel = "<directory>",
+            description = "A directory in which responses from Teamscale are cached across runs. Cached responses are always revalidated with Teamscale" +
+                    " (via ETag or Last-Modified), so Teamscale only sends responses that changed. Should not be shared by concurrent runs.")
+    public Path cacheDirectory;
+
+    @Option(names = {"--http-cache-max-size"}, paramLabel = "<megabytes>", defaultValue = "50",
+            description = "The maximum size of the --http-cache-dir in megabytes. The least recently used responses are evicted first. Default value is 50.")
+    public long maxSizeMegabytes = 50;
+}
@@ -0,0 +1,17 @@
+package com.teamscale.buildbreaker.commandline;
+
+import com.teamscale.buildbreaker.metrics.MetricsFormat;
+import picocli.CommandLine.Option;
+
+import java.nio.file.Path;
+
+class MetricsOptions {
+    @Option(names = {"--metrics-file"}, paramLabel = "<file>",
+            description = "A file to which the duration of each phase of the run, the timings of each request to Teamscale (DNS, connect, TLS, time to first byte, body transfer, processing)," +
+                    " retries, HTTP and revision cache hits and transferred bytes are written after the run, so CI systems can track where the time goes. The file is replaced if it exists.")
+    public Path metricsFile;
+
+    @Option(names = {"--metrics-format"}, paramLabel = "<format>", defaultValue = "JSON",
+            description = "The format of the --metrics-file. Valid values: ${COMPLETION-CANDIDATES}. OPENMETRICS can be read by Prometheus and most CI metric collectors. Default value is JSON.")
+    public MetricsFormat format = MetricsFormat.JSON;
+}
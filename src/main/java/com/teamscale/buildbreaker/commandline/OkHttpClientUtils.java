@@ -2,7 +2,10 @@ package com.teamscale.buildbreaker.commandline;
 
 import com.teamscale.buildbreaker.commandline.exceptions.BuildBreakerInternalException;
 import com.teamscale.buildbreaker.commandline.exceptions.KeystoreException;
+import okhttp3.Cache;
+import okhttp3.Interceptor;
 import okhttp3.OkHttpClient;
+import okhttp3.Response;
 
 import javax.net.ssl.SSLContext;
 import javax.net.ssl.SSLSocketFactory;
@@ -11,6 +14,7 @@ import javax.net.ssl.TrustManagerFactory;
 import javax.net.ssl.X509TrustManager;
 import java.io.FileInputStream;
 import java.io.IOException;
+import java.nio.file.Path;
 import java.security.GeneralSecurityException;
 import java.security.KeyManagementException;
 import java.security.KeyStore;
@@ -34,6 +38,19 @@ public class OkHttpClientUtils {
      */
     public static OkHttpClient createClient(boolean disableSslValidation, String trustStorePath,
                                             String trustStorePassword) {
+        return createClient(disableSslValidation, trustStorePath, trustStorePassword, null, 0);
+    }
+
+    /**
+     * Creates the {@link OkHttpClient} based on the given connection settings.
+     *
+     * @param trustStorePath     May be null if no trust store should be used.
+     * @param trustStorePassword May be null if no trust store should be used.
+     * @param cacheDirectory     May be null if responses should not be cached.
+     * @param maxCacheSize       The maximum size of the cache in bytes.
+     */
+    public static OkHttpClient createClient(boolean disableSslValidation, String trustStorePath,
+                                            String trustStorePassword, Path cacheDirectory, long maxCacheSize) {
         OkHttpClient.Builder builder = new OkHttpClient.Builder();
 
         setSensibleTimeouts(builder);
@@ -45,10 +62,33 @@ public class OkHttpClientUtils {
         if (disableSslValidation) {
             disableSslValidation(builder);
         }
+        if (cacheDirectory != null) {
+            configureCache(builder, cacheDirectory, maxCacheSize);
+        }
 
         return builder.build();
     }
 
+    /**
+     * Configures a disk cache for responses. Since analysis states and assessments change without notice, cached
+     * responses must never be used without asking Teamscale first. Responses that Teamscale sends with an ETag or
+     * Last-Modified header are therefore stored as "no-cache", so OkHttp revalidates them with a conditional request
+     * and reuses the cached body only if Teamscale answers with 304 Not Modified.
+     */
+    private static void configureCache(OkHttpClient.Builder builder, Path cacheDirectory, long maxCacheSize) {
+        builder.cache(new Cache(cacheDirectory.toFile(), maxCacheSize));
+        builder.addNetworkInterceptor(OkHttpClientUtils::forceRevalidation);
+    }
+
+    private static Response forceRevalidation(Interceptor.Chain chain) throws IOException {
+        Response response = chain.proceed(chain.request());
+        boolean hasValidator = response.header("ETag") != null || response.header("Last-Modified") != null;
+        if (!hasValidator || response.cacheControl().noStore()) {
+            return response;
+        }
+        return response.newBuilder().header("Cache-Control", "no-cache").removeHeader("Expires").build();
+    }
+
     /**
      * Reads the keystore at the given path and configures the builder so the {@link OkHttpClient} will accept the
      * certificates stored in the keystore.
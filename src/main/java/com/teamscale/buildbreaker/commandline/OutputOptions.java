@@ -0,0 +1,33 @@
+package com.teamscale.buildbreaker.commandline;
+
+import picocli.CommandLine.Option;
+
+class OutputOptions {
+    @Option(names = {"--summary"},
+            description = "Prints a summary of the finding violations before the violations themselves: their number per finding group, category and top-level directory, and the files with the most violations." +
+                    " Unless --max-printed-violations is given, only the first 100 violations are listed.")
+    public boolean summary;
+
+    @Option(names = {"--summary-top-files"}, paramLabel = "<count>", defaultValue = "10",
+            description = "The number of files with the most violations that are listed in the --summary. Default value is 10.")
+    public int summaryTopFiles = 10;
+
+    @Option(names = {"--max-printed-violations"}, paramLabel = "<count>",
+            description = "The maximum number of violations per evaluation that are listed individually. Warnings are omitted before errors. Omitted violations are only counted." +
+                    " Default value is 100 with --summary and unlimited otherwise.")
+    public Integer maxPrintedViolations;
+
+    /** The number of violations listed in summary mode if {@link #maxPrintedViolations} is not given. */
+    private static final int DEFAULT_MAX_PRINTED_VIOLATIONS_IN_SUMMARY = 100;
+
+    /** The effective maximum number of violations that are listed individually. */
+    int getMaxPrintedViolations() {
+        if (maxPrintedViolations != null) {
+            return maxPrintedViolations;
+        }
+        if (summary) {
+            return DEFAULT_MAX_PRINTED_VIOLATIONS_IN_SUMMARY;
+        }
+        return Integer.MAX_VALUE;
+    }
+}
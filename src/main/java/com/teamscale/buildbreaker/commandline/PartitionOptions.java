@@ -0,0 +1,20 @@
+package com.teamscale.buildbreaker.commandline;
+
+import picocli.CommandLine.Option;
+
+import java.nio.file.Path;
+import java.util.List;
+
+class PartitionOptions {
+    @Option(names = {"--findings-partition"}, paramLabel = "<uniform-path>",
+            description = "Uniform path prefix of a partition of the findings. Can be given multiple times. If given, the findings delta is requested separately for each partition, in parallel, instead of with one large request. Only findings in the partitions are evaluated.")
+    public List<String> partitions;
+
+    @Option(names = {"--discover-findings-partitions"}, paramLabel = "<directory>",
+            description = "A local directory, e.g. the repository checkout, whose entries are used as --findings-partition. The uniform path of each entry is its name below the common --uniform-path.")
+    public Path discoveryDirectory;
+
+    @Option(names = {"--max-concurrent-partitions"}, paramLabel = "<count>", defaultValue = "4",
+            description = "The maximum number of partitions whose findings are requested at the same time. Default value is 4.")
+    public int maxConcurrentRequests = 4;
+}
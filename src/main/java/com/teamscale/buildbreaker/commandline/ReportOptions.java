@@ -0,0 +1,37 @@
+package com.teamscale.buildbreaker.commandline;
+
+import com.teamscale.buildbreaker.report.ReportFormat;
+import picocli.CommandLine.Option;
+
+import java.nio.file.Path;
+import java.util.EnumMap;
+import java.util.Map;
+
+class ReportOptions {
+    @Option(names = {"--sarif-report"}, paramLabel = "<file>",
+            description = "A file to which all violations are written in SARIF 2.1.0 format, e.g. for code review tools. The file is replaced if it exists.")
+    public Path sarifFile;
+
+    @Option(names = {"--junit-report"}, paramLabel = "<file>",
+            description = "A file to which all violations are written as failed test cases in JUnit XML format, e.g. for test dashboards of CI systems. The file is replaced if it exists.")
+    public Path junitFile;
+
+    @Option(names = {"--json-report"}, paramLabel = "<file>",
+            description = "A file to which all violations are written in JSON format. The file is replaced if it exists.")
+    public Path jsonFile;
+
+    /** The requested report files by their format. */
+    Map<ReportFormat, Path> getReportFiles() {
+        Map<ReportFormat, Path> files = new EnumMap<>(ReportFormat.class);
+        if (sarifFile != null) {
+            files.put(ReportFormat.SARIF, sarifFile);
+        }
+        if (junitFile != null) {
+            files.put(ReportFormat.JUNIT, junitFile);
+        }
+        if (jsonFile != null) {
+            files.put(ReportFormat.JSON, jsonFile);
+        }
+        return files;
+    }
+}
@@ -0,0 +1,34 @@
+package com.teamscale.buildbreaker.commandline;
+
+import picocli.CommandLine.Option;
+
+import java.time.Duration;
+
+class ResilienceOptions {
+    @Option(names = {"--http-max-retries"}, paramLabel = "<count>", defaultValue = "3",
+            description = "How often a request to Teamscale that failed with a network error or a temporary server error (HTTP 429, 502, 503 or 504) is retried." +
+                    " Only requests that read data are retried. 0 disables retries. Default value is 3.")
+    public int maxRetries = 3;
+
+    @Option(names = {"--http-retry-delay"}, paramLabel = "<iso-8601-duration>", defaultValue = "PT1S",
+            description = "The delay before the first retry of a failed request, given in ISO-8601 format. The delay doubles with every further retry up to --http-retry-max-delay." +
+                    " If Teamscale sends a Retry-After header, that delay is used instead. Default value is 1 second.")
+    public Duration retryDelay = Duration.ofSeconds(1);
+
+    @Option(names = {"--http-retry-max-delay"}, paramLabel = "<iso-8601-duration>", defaultValue = "PT30S",
+            description = "The maximum delay between two attempts of a failed request, given in ISO-8601 format. This also limits delays requested by Teamscale via Retry-After. Default value is 30 seconds.")
+    public Duration maxRetryDelay = Duration.ofSeconds(30);
+
+    @Option(names = {"--http-retry-jitter"}, paramLabel = "<factor>", defaultValue = "0.25",
+            description = "The fraction by which retry delays are randomly varied, so that many builds do not retry at the same moment. Must be at least 0 and less than 1. Default value is 0.25.")
+    public double jitterFactor = 0.25;
+
+    @Option(names = {"--circuit-breaker-failure-threshold"}, paramLabel = "<count>", defaultValue = "5",
+            description = "The number of consecutive failed request attempts after which no further requests are sent to Teamscale and the build fails." +
+                    " This keeps builds from adding load to a Teamscale server that keeps failing. 0 disables the circuit breaker. Default value is 5.")
+    public int circuitBreakerFailureThreshold = 5;
+
+    @Option(names = {"--circuit-breaker-delay"}, paramLabel = "<iso-8601-duration>", defaultValue = "PT1M",
+            description = "How long no requests are sent to Teamscale after the --circuit-breaker-failure-threshold has been reached, given in ISO-8601 format. Default value is 1 minute.")
+    public Duration circuitBreakerDelay = Duration.ofMinutes(1);
+}
@@ -0,0 +1,17 @@
+package com.teamscale.buildbreaker.commandline;
+
+import picocli.CommandLine.Option;
+
+import java.nio.file.Path;
+
+class RevisionCacheOptions {
+    @Option(names = {"--revision-cache"}, paramLabel = "<cache-file>",
+            description = "A file in which the branch and timestamp of resolved revisions are cached across runs." +
+                    " Subsequent runs for the same Teamscale server, project and revision (e.g. in further stages of the same pipeline)" +
+                    " then skip resolving the revision. The file may be shared by several concurrent runs on the same machine.")
+    public Path cacheFile;
+
+    @Option(names = {"--revision-cache-max-entries"}, paramLabel = "<count>", defaultValue = "10000",
+            description = "The maximum number of revisions kept in the --revision-cache. The least recently used revisions are evicted first. Default value is 10000.")
+    public int maxEntries = 10000;
+}
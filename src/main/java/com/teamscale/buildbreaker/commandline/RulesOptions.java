@@ -0,0 +1,15 @@
+package com.teamscale.buildbreaker.commandline;
+
+import picocli.CommandLine.Option;
+
+import java.nio.file.Path;
+
+class RulesOptions {
+    @Option(names = {"--rules"}, paramLabel = "<file>",
+            description = "A JSON file of gating rules, e.g. to fail if there are more than 5 red findings under a path or to warn on findings of a category in changed code. The rules replace the evaluation by --fail-on-yellow-findings, --fail-on-modified-code-findings and --fail-on-yellow-metrics.")
+    public Path rulesFile;
+
+    @Option(names = {"--parallel-rule-evaluation"},
+            description = "Evaluates the rules on all available processors if there are many findings.")
+    public boolean parallel;
+}
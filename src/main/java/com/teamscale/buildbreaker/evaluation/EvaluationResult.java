@@ -1,54 +1,135 @@
 package com.teamscale.buildbreaker.evaluation;
 
-import org.conqat.lib.commons.collections.SetMap;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
 
 import static com.teamscale.buildbreaker.evaluation.ProblemCategory.ERROR;
 import static com.teamscale.buildbreaker.evaluation.ProblemCategory.WARNING;
 
+/**
+ * The violations found by an evaluation. The violations are kept as the {@link Finding}, {@link MetricViolation} and
+ * {@link RuleViolation} objects they were found in and are only formatted as text when the result is written, since
+ * large results are often only summarized or only their status code matters.
+ */
 public class EvaluationResult {
 
-    private final SetMap<ProblemCategory, String> problemsByCategory = new SetMap<>();
+    /** The warnings and errors in the order they were added. Violations without a problem are only counted. */
+    private final List<Object> warnings = new ArrayList<>();
+    private final List<Object> errors = new ArrayList<>();
+    private final int[] countsByCategory = new int[ProblemCategory.values().length];
 
-    public void addViolation(ProblemCategory problemCategory, String violationMessage) {
-        problemsByCategory.add(problemCategory, violationMessage);
+    /** Adds a finding as a violation of its assessment. */
+    public void addViolation(Finding finding) {
+        add(finding.assessment, finding);
+    }
+
+    /** Adds a metric as a violation of its rating. */
+    public void addViolation(MetricViolation metricViolation) {
+        add(metricViolation.rating, metricViolation);
+    }
+
+    /** Adds a violated gating rule as a violation of its severity. */
+    public void addViolation(RuleViolation ruleViolation) {
+        add(ruleViolation.severity, ruleViolation);
+    }
+
+    private void add(ProblemCategory problemCategory, Object violation) {
+        countsByCategory[problemCategory.ordinal()]++;
+        if (problemCategory == ERROR) {
+            errors.add(violation);
+        } else if (problemCategory == WARNING) {
+            warnings.add(violation);
+        }
+    }
+
+    /**
+     * Summarizes all findings that were added as errors or warnings. The summary is built on each call, so only runs
+     * with a summarized output pay for it.
+     */
+    public FindingsSummary summarizeFindings() {
+        FindingsSummary summary = new FindingsSummary();
+        addFindings(summary, warnings);
+        addFindings(summary, errors);
+        return summary;
+    }
+
+    private static void addFindings(FindingsSummary summary, List<Object> violations) {
+        for (Object violation : violations) {
+            if (violation instanceof Finding) {
+                summary.add((Finding) violation);
+            }
+        }
+    }
+
+    /** The number of violations of the given category. */
+    public int getViolationCount(ProblemCategory problemCategory) {
+        return countsByCategory[problemCategory.ordinal()];
     }
 
     @Override
     public String toString() {
+        StringBuilder sb = new StringBuilder();
+        try {
+            writeTo(sb, Integer.MAX_VALUE);
+        } catch (IOException e) {
+            throw new AssertionError("StringBuilder does not throw IOExceptions", e);
+        }
+        return sb.toString().trim();
+    }
+
+    /**
+     * Writes the violations like {@link #toString()}, but lists at most the given number of violations. Errors take
+     * precedence in the budget, so warnings are omitted first, even though warnings are listed before errors. Omitted
+     * violations are only counted and never formatted.
+     */
+    public void writeTo(Appendable out, int maxViolations) throws IOException {
         if (!hasWarnings() && !hasErrors()) {
-            return "No violations detected";
+            out.append("No violations detected\n");
+            return;
         }
-        StringBuilder sb = new StringBuilder();
+        int maxWarnings = Math.max(0, maxViolations - errors.size());
         if (hasWarnings()) {
-            sb.append("*WARNINGS*\n");
-            for (String warning : problemsByCategory.getCollection(WARNING)) {
-                sb.append(warning);
-                sb.append("\n");
-            }
+            out.append("*WARNINGS*\n");
+            writeViolations(out, warnings, maxWarnings, "warnings");
         }
         if (hasErrors()) {
             if (hasWarnings()) {
-                sb.append("\n");
+                out.append("\n");
             }
-            sb.append("*ERRORS*\n");
-            for (String s : problemsByCategory.getCollection(ERROR)) {
-                sb.append(s);
-                sb.append("\n");
+            out.append("*ERRORS*\n");
+            writeViolations(out, errors, maxViolations, "errors");
+        }
+    }
+
+    private static void writeViolations(Appendable out, List<Object> violations, int maxViolations, String kind) throws IOException {
+        int written = 0;
+        for (Object violation : violations) {
+            if (written == maxViolations) {
+                out.append("... and ").append(String.valueOf(violations.size() - written)).append(" more ")
+                        .append(kind).append("\n");
+                return;
             }
+            out.append(violation.toString());
+            out.append("\n");
+            written++;
         }
-        return sb.toString().trim();
     }
 
     public void addAll(EvaluationResult other) {
-        problemsByCategory.addAll(other.problemsByCategory);
+        warnings.addAll(other.warnings);
+        errors.addAll(other.errors);
+        for (int i = 0; i < countsByCategory.length; i++) {
+            countsByCategory[i] += other.countsByCategory[i];
+        }
     }
 
     private boolean hasWarnings() {
-        return problemsByCategory.containsCollection(WARNING);
+        return !warnings.isEmpty();
     }
 
-    private boolean hasErrors() {
-        return problemsByCategory.containsCollection(ERROR);
+    public boolean hasErrors() {
+        return !errors.isEmpty();
     }
 
     public int toStatusCode() {
@@ -60,4 +141,4 @@ public class EvaluationResult {
         }
         return 0;
     }
-}
\ No newline at end of file
+}
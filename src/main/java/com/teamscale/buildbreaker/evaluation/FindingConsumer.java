@@ -0,0 +1,22 @@
+package com.teamscale.buildbreaker.evaluation;
+
+/**
+ * Receives findings one by one while a findings response is being decoded, so callers do not have to wait for (or
+ * hold) the complete response before processing it.
+ */
+public interface FindingConsumer {
+
+    /** Called for each finding that was newly added. */
+    void acceptAddedFinding(Finding finding);
+
+    /** Called for each finding located in changed code. */
+    void acceptFindingInChangedCode(Finding finding);
+
+    /**
+     * Whether this consumer needs no further findings. Checked after each finding; once it returns {@code true}, the
+     * rest of the response is not read.
+     */
+    default boolean isDone() {
+        return false;
+    }
+}
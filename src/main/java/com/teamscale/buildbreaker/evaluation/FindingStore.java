@@ -0,0 +1,107 @@
+package com.teamscale.buildbreaker.evaluation;
+
+import java.util.Arrays;
+
+/**
+ * Stores findings column by column instead of as {@link Finding} objects. Groups, categories, messages and uniform
+ * paths repeat a lot in large deltas, so they are {@linkplain StringDictionary dictionary-encoded} into int columns and
+ * each distinct string is kept once. The assessment and the section (added or in changed code) take a byte each. IDs
+ * are unique per finding, so they are stored as they are. A finding thus takes about 22 bytes plus its ID, instead of a
+ * {@link Finding} with six strings of its own.
+ * <p>
+ * Filled by the response decoders as a {@link FindingConsumer}. {@link #get(int)} recreates a {@link Finding} on
+ * demand, e.g. for the few findings that are reported as violations. Not thread-safe.
+ */
+public class FindingStore implements FindingConsumer {
+
+    private static final ProblemCategory[] ASSESSMENTS = ProblemCategory.values();
+
+    private static final int INITIAL_CAPACITY = 256;
+
+    private final StringDictionary groups = new StringDictionary();
+    private final StringDictionary categories = new StringDictionary();
+    private final StringDictionary messages = new StringDictionary();
+    private final StringDictionary uniformPaths = new StringDictionary();
+
+    private String[] ids = new String[INITIAL_CAPACITY];
+    private int[] groupCodes = new int[INITIAL_CAPACITY];
+    private int[] categoryCodes = new int[INITIAL_CAPACITY];
+    private int[] messageCodes = new int[INITIAL_CAPACITY];
+    private int[] uniformPathCodes = new int[INITIAL_CAPACITY];
+    private byte[] assessments = new byte[INITIAL_CAPACITY];
+    /** Whether each finding is in changed code (1) or added (0). */
+    private byte[] inChangedCode = new byte[INITIAL_CAPACITY];
+    private int size;
+
+    @Override
+    public void acceptAddedFinding(Finding finding) {
+        add(finding, (byte) 0);
+    }
+
+    @Override
+    public void acceptFindingInChangedCode(Finding finding) {
+        add(finding, (byte) 1);
+    }
+
+    private void add(Finding finding, byte section) {
+        if (size == ids.length) {
+            grow();
+        }
+        ids[size] = finding.id;
+        groupCodes[size] = groups.encode(finding.group);
+        categoryCodes[size] = categories.encode(finding.category);
+        messageCodes[size] = messages.encode(finding.message);
+        uniformPathCodes[size] = uniformPaths.encode(finding.uniformPath);
+        assessments[size] = (byte) finding.assessment.ordinal();
+        inChangedCode[size] = section;
+        size++;
+    }
+
+    private void grow() {
+        int capacity = ids.length * 2;
+        ids = Arrays.copyOf(ids, capacity);
+        groupCodes = Arrays.copyOf(groupCodes, capacity);
+        categoryCodes = Arrays.copyOf(categoryCodes, capacity);
+        messageCodes = Arrays.copyOf(messageCodes, capacity);
+        uniformPathCodes = Arrays.copyOf(uniformPathCodes, capacity);
+        assessments = Arrays.copyOf(assessments, capacity);
+        inChangedCode = Arrays.copyOf(inChangedCode, capacity);
+    }
+
+    /** The number of stored findings. */
+    public int size() {
+        return size;
+    }
+
+    /** The assessment of the finding at the given index, without recreating the finding. */
+    public ProblemCategory getAssessment(int index) {
+        return ASSESSMENTS[assessments[index]];
+    }
+
+    /** Whether the finding at the given index is in changed code rather than added. */
+    public boolean isInChangedCode(int index) {
+        return inChangedCode[index] != 0;
+    }
+
+    /** The group of the finding at the given index, without recreating the finding. */
+    public String getGroup(int index) {
+        return groups.decode(groupCodes[index]);
+    }
+
+    /** The category of the finding at the given index, without recreating the finding. */
+    public String getCategory(int index) {
+        return categories.decode(categoryCodes[index]);
+    }
+
+    /** The uniform path of the finding at the given index, without recreating the finding. */
+    public String getUniformPath(int index) {
+        return uniformPaths.decode(uniformPathCodes[index]);
+    }
+
+    /** Recreates the finding at the given index. */
+    public Finding get(int index) {
+        return new Finding(ids[index], groups.decode(groupCodes[index]), categories.decode(categoryCodes[index]),
+                messages.decode(messageCodes[index]), uniformPaths.decode(uniformPathCodes[index]),
+                getAssessment(index));
+    }
+}
@@ -0,0 +1,201 @@
+package com.teamscale.buildbreaker.evaluation;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * A set of finding IDs whose findings are known and should not break the build, e.g. all findings of a legacy branch
+ * at the time the build-breaker was adopted.
+ * <p>
+ * The IDs are stored as sorted 64-bit hashes after a small header, so a baseline of a million findings takes 8 MB on
+ * disk. The file is read into a buffer in one piece and searched in place, so reading a baseline does not parse it. The
+ * file is not memory-mapped, since a mapping keeps the file open until it is garbage collected, which prevents
+ * replacing the baseline on Windows, e.g. in a later run of the daemon. Two IDs with the same hash are practically impossible for the number of findings of a
+ * project.
+ */
+public class FindingsBaseline {
+
+    /** "TSBL" */
+    private static final int MAGIC = 0x5453424C;
+    private static final int VERSION = 1;
+    private static final int HEADER_BYTES = 16;
+
+    private final ByteBuffer hashes;
+    private final int size;
+    private int ignoredFindings;
+
+    private FindingsBaseline(ByteBuffer hashes, int size) {
+        this.hashes = hashes;
+        this.size = size;
+    }
+
+    /** Reads the baseline in the given file. */
+    public static FindingsBaseline read(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long fileSize = channel.size();
+            if (fileSize < HEADER_BYTES) {
+                throw new IOException("The file is not a findings baseline.");
+            }
+            if (fileSize > Integer.MAX_VALUE) {
+                throw new IOException("The findings baseline is truncated or corrupt.");
+            }
+            ByteBuffer buffer = ByteBuffer.allocate((int) fileSize);
+            while (buffer.hasRemaining()) {
+                if (channel.read(buffer) < 0) {
+                    throw new IOException("The findings baseline is truncated or corrupt.");
+                }
+            }
+            if (buffer.getInt(0) != MAGIC) {
+                throw new IOException("The file is not a findings baseline.");
+            }
+            if (buffer.getInt(4) != VERSION) {
+                throw new IOException("The findings baseline was written by an incompatible version.");
+            }
+            int size = buffer.getInt(8);
+            if (size < 0 || fileSize != HEADER_BYTES + (long) size * Long.BYTES) {
+                throw new IOException("The findings baseline is truncated or corrupt.");
+            }
+            buffer.position(HEADER_BYTES);
+            return new FindingsBaseline(buffer.slice(), size);
+        }
+    }
+
+    /**
+     * Writes a baseline of the given finding IDs, given as {@linkplain #hash(String) hashes}, to the given file,
+     * replacing it if it exists. The first {@code count} hashes are sorted in place. Returns the number of distinct
+     * IDs written.
+     */
+    static int write(Path file, long[] idHashes, int count) throws IOException {
+        Arrays.sort(idHashes, 0, count);
+        int distinct = 0;
+        for (int i = 0; i < count; i++) {
+            if (distinct == 0 || idHashes[distinct - 1] != idHashes[i]) {
+                idHashes[distinct++] = idHashes[i];
+            }
+        }
+        Path parent = file.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        try (DataOutputStream output = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(file)))) {
+            output.writeInt(MAGIC);
+            output.writeInt(VERSION);
+            output.writeInt(distinct);
+            output.writeInt(0);
+            for (int i = 0; i < distinct; i++) {
+                output.writeLong(idHashes[i]);
+            }
+        }
+        return distinct;
+    }
+
+    /** The number of finding IDs in this baseline. */
+    public int size() {
+        return size;
+    }
+
+    /** Whether the finding with the given ID is in this baseline. */
+    public boolean contains(String findingId) {
+        long hash = hash(findingId);
+        int low = 0;
+        int high = size - 1;
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            long middleHash = hashes.getLong(middle * Long.BYTES);
+            if (middleHash < hash) {
+                low = middle + 1;
+            } else if (middleHash > hash) {
+                high = middle - 1;
+            } else {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Returns a consumer that passes all findings that are not in this baseline on to the given consumer and counts
+     * the others as {@linkplain #getIgnoredFindings() ignored}.
+     */
+    public FindingConsumer filter(FindingConsumer consumer) {
+        return new FindingConsumer() {
+            @Override
+            public void acceptAddedFinding(Finding finding) {
+                if (contains(finding.id)) {
+                    ignoredFindings++;
+                } else {
+                    consumer.acceptAddedFinding(finding);
+                }
+            }
+
+            @Override
+            public void acceptFindingInChangedCode(Finding finding) {
+                if (contains(finding.id)) {
+                    ignoredFindings++;
+                } else {
+                    consumer.acceptFindingInChangedCode(finding);
+                }
+            }
+
+            @Override
+            public boolean isDone() {
+                return consumer.isDone();
+            }
+        };
+    }
+
+    /** The number of findings that were dropped by {@link #filter(FindingConsumer)} since they are in this baseline. */
+    public int getIgnoredFindings() {
+        return ignoredFindings;
+    }
+
+    /** A 64-bit FNV-1a hash of the ID, finished with the MurmurHash3 mix for an even distribution of the bits. */
+    static long hash(String findingId) {
+        long hash = 0xcbf29ce484222325L;
+        for (int i = 0; i < findingId.length(); i++) {
+            hash ^= findingId.charAt(i);
+            hash *= 0x100000001b3L;
+        }
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+
+    /** Records the IDs of all findings it receives, to {@linkplain #write(Path) write} them as a baseline. */
+    public static class Recorder implements FindingConsumer {
+        private long[] idHashes = new long[1024];
+        private int count;
+
+        @Override
+        public void acceptAddedFinding(Finding finding) {
+            record(finding);
+        }
+
+        @Override
+        public void acceptFindingInChangedCode(Finding finding) {
+            record(finding);
+        }
+
+        private void record(Finding finding) {
+            if (count == idHashes.length) {
+                idHashes = Arrays.copyOf(idHashes, count * 2);
+            }
+            idHashes[count++] = hash(finding.id);
+        }
+
+        /** Writes the recorded IDs as a baseline to the given file and returns the number of distinct IDs. */
+        public int write(Path file) throws IOException {
+            return FindingsBaseline.write(file, idHashes, count);
+        }
+    }
+}
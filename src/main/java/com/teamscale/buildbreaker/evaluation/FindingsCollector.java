@@ -0,0 +1,27 @@
+package com.teamscale.buildbreaker.evaluation;
+
+import org.conqat.lib.commons.collections.Pair;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/** Collects streamed findings into lists. */
+public class FindingsCollector implements FindingConsumer {
+    private final List<Finding> addedFindings = new ArrayList<>();
+    private final List<Finding> findingsInChangedCode = new ArrayList<>();
+
+    @Override
+    public void acceptAddedFinding(Finding finding) {
+        addedFindings.add(finding);
+    }
+
+    @Override
+    public void acceptFindingInChangedCode(Finding finding) {
+        findingsInChangedCode.add(finding);
+    }
+
+    /** The added findings (first) and findings in changed code (second). */
+    public Pair<List<Finding>, List<Finding>> getFindings() {
+        return Pair.createPair(addedFindings, findingsInChangedCode);
+    }
+}
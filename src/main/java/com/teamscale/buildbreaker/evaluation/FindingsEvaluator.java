@@ -1,26 +1,74 @@
 package com.teamscale.buildbreaker.evaluation;
 
+import com.teamscale.buildbreaker.jfr.FlightEvents;
 import org.conqat.lib.commons.collections.Pair;
 
-import java.util.ArrayList;
 import java.util.List;
 
 public class FindingsEvaluator {
 
     public EvaluationResult evaluate(Pair<List<Finding>, List<Finding>> findings, boolean failOnYellowFindings, boolean includeChangedCode) {
+        return evaluate(findings, failOnYellowFindings, includeChangedCode, ViolationListener.NONE);
+    }
+
+    /** Evaluates the findings and passes each violation to the given listener as soon as it has been found. */
+    public EvaluationResult evaluate(Pair<List<Finding>, List<Finding>> findings, boolean failOnYellowFindings, boolean includeChangedCode, ViolationListener listener) {
+        Object event = FlightEvents.beginEvaluation();
         EvaluationResult evaluationResult = new EvaluationResult();
+        int inputs = findings.getFirst().size();
+        int violations = 0;
 
-        List<Finding> findingsToEvaluate = new ArrayList<>(findings.getFirst());
+        for (Finding finding : findings.getFirst()) {
+            if (finding.assessment.isViolation(failOnYellowFindings)) {
+                addViolation(finding, evaluationResult, listener);
+                violations++;
+            }
+        }
         if (includeChangedCode) {
-            findingsToEvaluate.addAll(findings.getSecond());
+            inputs += findings.getSecond().size();
+            for (Finding finding : findings.getSecond()) {
+                if (finding.assessment.isViolation(failOnYellowFindings)) {
+                    addViolation(finding, evaluationResult, listener);
+                    violations++;
+                }
+            }
         }
+        commit(event, inputs, violations, evaluationResult);
+        return evaluationResult;
+    }
 
-        for (Finding finding : findingsToEvaluate) {
-            if (finding.assessment == ProblemCategory.WARNING && !failOnYellowFindings) {
+    /**
+     * Evaluates the findings in the given store like {@link #evaluate(Pair, boolean, boolean, ViolationListener)}. Only
+     * the findings that are violations are recreated as {@link Finding} objects.
+     */
+    public EvaluationResult evaluate(FindingStore findings, boolean failOnYellowFindings, boolean includeChangedCode, ViolationListener listener) {
+        Object event = FlightEvents.beginEvaluation();
+        EvaluationResult evaluationResult = new EvaluationResult();
+        int inputs = 0;
+        int violations = 0;
+
+        for (int i = 0; i < findings.size(); i++) {
+            if (findings.isInChangedCode(i) && !includeChangedCode) {
                 continue;
             }
-            evaluationResult.addViolation(finding.assessment, finding.toString());
+            inputs++;
+            if (findings.getAssessment(i).isViolation(failOnYellowFindings)) {
+                addViolation(findings.get(i), evaluationResult, listener);
+                violations++;
+            }
         }
+        commit(event, inputs, violations, evaluationResult);
         return evaluationResult;
     }
+
+    private static void addViolation(Finding finding, EvaluationResult evaluationResult, ViolationListener listener) {
+        evaluationResult.addViolation(finding);
+        listener.onFindingViolation(finding);
+    }
+
+    private static void commit(Object event, int inputs, int violations, EvaluationResult evaluationResult) {
+        if (event != null) {
+            FlightEvents.commitEvaluation(event, "findings", inputs, violations, evaluationResult.toStatusCode());
+        }
+    }
 }
@@ -0,0 +1,174 @@
+package com.teamscale.buildbreaker.evaluation;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+
+/**
+ * Aggregates finding violations in a single pass for a summarized output: the number of violations per finding group,
+ * category and top-level directory, and the files with the most violations. Memory use is bounded regardless of the
+ * number of findings: each grouping keeps at most {@link #MAX_KEYS} distinct keys and counts the rest as
+ * {@link #OTHER}, and files are tracked with the Space-Saving algorithm in at most {@link #MAX_TRACKED_FILES} entries.
+ * File counts are therefore exact as long as there are at most that many distinct files, and upper bounds otherwise.
+ */
+public class FindingsSummary {
+
+    /** The maximum number of distinct groups, categories and directories that are counted separately. */
+    static final int MAX_KEYS = 1000;
+
+    /** The maximum number of files whose violations are counted. */
+    static final int MAX_TRACKED_FILES = 1000;
+
+    /** Key under which violations beyond {@link #MAX_KEYS} are counted. */
+    static final String OTHER = "<other>";
+
+    /** Directory of files that are not in any directory. */
+    static final String ROOT_DIRECTORY = "<root>";
+
+    private int errors;
+    private int warnings;
+    private final Map<String, int[]> countsByGroup = new HashMap<>();
+    private final Map<String, int[]> countsByCategory = new HashMap<>();
+    private final Map<String, int[]> countsByDirectory = new HashMap<>();
+
+    private final Map<String, TrackedFile> trackedFilesByPath = new HashMap<>();
+    /** The tracked files ordered by count, so the one with the lowest count can be replaced. */
+    private final TreeSet<TrackedFile> trackedFiles = new TreeSet<>();
+    private long trackedFileSequence;
+
+    /** Counts the given finding, which has been reported as a violation. */
+    public void add(Finding finding) {
+        if (finding.assessment == ProblemCategory.ERROR) {
+            errors++;
+        } else {
+            warnings++;
+        }
+        increment(countsByGroup, finding.group, 1);
+        increment(countsByCategory, finding.category, 1);
+        increment(countsByDirectory, topLevelDirectory(finding.uniformPath), 1);
+        addToFile(finding.uniformPath, 1);
+    }
+
+    /** Adds all counts of the other summary to this one. */
+    public void addAll(FindingsSummary other) {
+        errors += other.errors;
+        warnings += other.warnings;
+        other.countsByGroup.forEach((group, count) -> increment(countsByGroup, group, count[0]));
+        other.countsByCategory.forEach((category, count) -> increment(countsByCategory, category, count[0]));
+        other.countsByDirectory.forEach((directory, count) -> increment(countsByDirectory, directory, count[0]));
+        for (TrackedFile file : other.trackedFiles) {
+            addToFile(file.uniformPath, file.count);
+        }
+    }
+
+    /** Whether no violations have been counted. */
+    public boolean isEmpty() {
+        return errors + warnings == 0;
+    }
+
+    private static void increment(Map<String, int[]> counts, String key, int amount) {
+        int[] count = counts.get(key);
+        if (count == null) {
+            if (counts.size() >= MAX_KEYS) {
+                key = OTHER;
+                count = counts.get(key);
+            }
+            if (count == null) {
+                count = new int[1];
+                counts.put(key, count);
+            }
+        }
+        count[0] += amount;
+    }
+
+    private static String topLevelDirectory(String uniformPath) {
+        int separator = uniformPath.indexOf('/');
+        if (separator < 0) {
+            return ROOT_DIRECTORY;
+        }
+        return uniformPath.substring(0, separator);
+    }
+
+    private void addToFile(String uniformPath, int amount) {
+        TrackedFile file = trackedFilesByPath.get(uniformPath);
+        if (file == null && trackedFiles.size() >= MAX_TRACKED_FILES) {
+            // Space-Saving: the new file takes over the entry and count of the file with the lowest count
+            file = trackedFiles.pollFirst();
+            trackedFilesByPath.remove(file.uniformPath);
+            file = new TrackedFile(uniformPath, file.count, trackedFileSequence++);
+            trackedFilesByPath.put(uniformPath, file);
+        } else if (file == null) {
+            file = new TrackedFile(uniformPath, 0, trackedFileSequence++);
+            trackedFilesByPath.put(uniformPath, file);
+        } else {
+            trackedFiles.remove(file);
+        }
+        file.count += amount;
+        trackedFiles.add(file);
+    }
+
+    /**
+     * Writes the summary, listing at most the given number of files with the most violations.
+     */
+    public void writeTo(Appendable out, int maxFiles) throws IOException {
+        out.append("*SUMMARY*\n");
+        out.append(String.valueOf(errors + warnings)).append(" finding violations (")
+                .append(String.valueOf(errors)).append(" errors, ")
+                .append(String.valueOf(warnings)).append(" warnings)\n");
+        writeCounts(out, "By group:", countsByGroup);
+        writeCounts(out, "By category:", countsByCategory);
+        writeCounts(out, "By top-level directory:", countsByDirectory);
+        if (maxFiles <= 0) {
+            return;
+        }
+        out.append("Files with the most violations:\n");
+        int written = 0;
+        for (TrackedFile file : trackedFiles.descendingSet()) {
+            if (written++ == maxFiles) {
+                break;
+            }
+            out.append('\t').append(file.uniformPath).append(": ").append(String.valueOf(file.count)).append('\n');
+        }
+    }
+
+    private static void writeCounts(Appendable out, String title, Map<String, int[]> counts) throws IOException {
+        List<Map.Entry<String, int[]>> entries = new ArrayList<>(counts.entrySet());
+        entries.sort((first, second) -> {
+            int byCount = Integer.compare(second.getValue()[0], first.getValue()[0]);
+            if (byCount != 0) {
+                return byCount;
+            }
+            return first.getKey().compareTo(second.getKey());
+        });
+        out.append(title).append('\n');
+        for (Map.Entry<String, int[]> entry : entries) {
+            out.append('\t').append(entry.getKey()).append(": ").append(String.valueOf(entry.getValue()[0]))
+                    .append('\n');
+        }
+    }
+
+    /** A file tracked by the Space-Saving algorithm. Ordered by count and then by the order of tracking. */
+    private static class TrackedFile implements Comparable<TrackedFile> {
+        private final String uniformPath;
+        private final long sequence;
+        private int count;
+
+        private TrackedFile(String uniformPath, int count, long sequence) {
+            this.uniformPath = uniformPath;
+            this.count = count;
+            this.sequence = sequence;
+        }
+
+        @Override
+        public int compareTo(TrackedFile other) {
+            int byCount = Integer.compare(count, other.count);
+            if (byCount != 0) {
+                return byCount;
+            }
+            return Long.compare(sequence, other.sequence);
+        }
+    }
+}
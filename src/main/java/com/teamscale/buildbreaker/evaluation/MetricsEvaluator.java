@@ -1,16 +1,31 @@
 package com.teamscale.buildbreaker.evaluation;
 
+import com.teamscale.buildbreaker.jfr.FlightEvents;
+
 import java.util.List;
 
 public class MetricsEvaluator {
 
     public EvaluationResult evaluate(List<MetricViolation> metricViolations, boolean failOnYellow) {
+        return evaluate(metricViolations, failOnYellow, ViolationListener.NONE);
+    }
+
+    /** Evaluates the metrics and passes each violation to the given listener as soon as it has been found. */
+    public EvaluationResult evaluate(List<MetricViolation> metricViolations, boolean failOnYellow, ViolationListener listener) {
+        Object event = FlightEvents.beginEvaluation();
         EvaluationResult evaluationResult = new EvaluationResult();
+        int violations = 0;
         for (MetricViolation metricViolation : metricViolations) {
-            if (metricViolation.rating == ProblemCategory.WARNING && !failOnYellow) {
+            if (!metricViolation.rating.isViolation(failOnYellow)) {
                 continue;
             }
-            evaluationResult.addViolation(metricViolation.rating, metricViolation.toString());
+            evaluationResult.addViolation(metricViolation);
+            listener.onMetricViolation(metricViolation);
+            violations++;
+        }
+        if (event != null) {
+            FlightEvents.commitEvaluation(event, "metrics", metricViolations.size(), violations,
+                    evaluationResult.toStatusCode());
         }
         return evaluationResult;
     }
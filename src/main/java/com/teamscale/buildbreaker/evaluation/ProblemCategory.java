@@ -14,4 +14,12 @@ public enum ProblemCategory {
                 return NO_PROBLEM;
         }
     }
+
+    /**
+     * Whether a finding or metric of this category violates the thresholds: errors always do, warnings only if yellow
+     * ones should fail the build.
+     */
+    public boolean isViolation(boolean failOnYellow) {
+        return this == ERROR || (this == WARNING && failOnYellow);
+    }
 }
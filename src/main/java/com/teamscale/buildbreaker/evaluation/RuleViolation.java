@@ -0,0 +1,35 @@
+package com.teamscale.buildbreaker.evaluation;
+
+import java.util.List;
+
+/** A gating rule that matched more findings or metrics than it allows. */
+public class RuleViolation {
+    public final String ruleName;
+    public final ProblemCategory severity;
+    public final int matchCount;
+    public final int maxCount;
+    /** The first matching {@link Finding findings} or {@link MetricViolation metrics}, to show what the rule found. */
+    public final List<Object> examples;
+
+    public RuleViolation(String ruleName, ProblemCategory severity, int matchCount, int maxCount, List<Object> examples) {
+        this.ruleName = ruleName;
+        this.severity = severity;
+        this.matchCount = matchCount;
+        this.maxCount = maxCount;
+        this.examples = examples;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        sb.append("Rule '").append(ruleName).append("': ").append(matchCount).append(" matches, at most ")
+                .append(maxCount).append(" allowed");
+        for (Object example : examples) {
+            sb.append("\n\t").append(example.toString().replace("\n", "\n\t"));
+        }
+        if (examples.size() < matchCount) {
+            sb.append("\n\t... and ").append(matchCount - examples.size()).append(" more");
+        }
+        return sb.toString();
+    }
+}
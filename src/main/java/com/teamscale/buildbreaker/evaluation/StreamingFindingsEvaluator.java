@@ -0,0 +1,65 @@
+package com.teamscale.buildbreaker.evaluation;
+
+/**
+ * Evaluates findings like {@link FindingsEvaluator}, but one by one while they are being decoded, so they are never
+ * collected. In fail-fast mode, the evaluator is {@linkplain #isDone() done} as soon as a finding has been evaluated as
+ * an error, since further findings cannot change the outcome of the evaluation anymore.
+ */
+public class StreamingFindingsEvaluator implements FindingConsumer {
+
+    private final boolean failOnYellowFindings;
+    private final boolean includeChangedCode;
+    private final boolean failFast;
+    private final ViolationListener listener;
+
+    private final EvaluationResult evaluationResult = new EvaluationResult();
+    private boolean errorFound;
+
+    public StreamingFindingsEvaluator(boolean failOnYellowFindings, boolean includeChangedCode, boolean failFast) {
+        this(failOnYellowFindings, includeChangedCode, failFast, ViolationListener.NONE);
+    }
+
+    /** Creates an evaluator that passes each violation to the given listener as soon as it has been found. */
+    public StreamingFindingsEvaluator(boolean failOnYellowFindings, boolean includeChangedCode, boolean failFast, ViolationListener listener) {
+        this.failOnYellowFindings = failOnYellowFindings;
+        this.includeChangedCode = includeChangedCode;
+        this.failFast = failFast;
+        this.listener = listener;
+    }
+
+    @Override
+    public void acceptAddedFinding(Finding finding) {
+        evaluate(finding);
+    }
+
+    @Override
+    public void acceptFindingInChangedCode(Finding finding) {
+        if (includeChangedCode) {
+            evaluate(finding);
+        }
+    }
+
+    private void evaluate(Finding finding) {
+        if (isDone() || !finding.assessment.isViolation(failOnYellowFindings)) {
+            return;
+        }
+        evaluationResult.addViolation(finding);
+        listener.onFindingViolation(finding);
+        if (finding.assessment == ProblemCategory.ERROR) {
+            errorFound = true;
+        }
+    }
+
+    @Override
+    public boolean isDone() {
+        return failFast && errorFound;
+    }
+
+    /**
+     * The result of the evaluation so far. If the evaluator {@linkplain #isDone() is done}, it contains only the
+     * violations up to the first error.
+     */
+    public EvaluationResult getResult() {
+        return evaluationResult;
+    }
+}
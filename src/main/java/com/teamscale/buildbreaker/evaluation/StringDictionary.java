@@ -0,0 +1,68 @@
+package com.teamscale.buildbreaker.evaluation;
+
+import java.util.Arrays;
+
+/**
+ * Assigns each distinct string a dense int code, so columns can store repeated strings as ints and each distinct
+ * string is kept only once. Uses open addressing over an int table, so no entry objects or boxed codes are allocated.
+ * Not thread-safe.
+ */
+class StringDictionary {
+
+    private String[] strings = new String[16];
+    private int size;
+    /** Code + 1 of the string in each slot, 0 for empty slots. The length is a power of two. */
+    private int[] table = new int[32];
+
+    /** Returns the code of the given string, adding it if it is not in the dictionary yet. */
+    int encode(String string) {
+        int mask = table.length - 1;
+        int slot = mix(string.hashCode()) & mask;
+        while (table[slot] != 0) {
+            int code = table[slot] - 1;
+            if (strings[code].equals(string)) {
+                return code;
+            }
+            slot = (slot + 1) & mask;
+        }
+        int code = size++;
+        if (code == strings.length) {
+            strings = Arrays.copyOf(strings, code * 2);
+        }
+        strings[code] = string;
+        table[slot] = code + 1;
+        if (size * 2 > table.length) {
+            rehash();
+        }
+        return code;
+    }
+
+    /** Returns the string with the given code. */
+    String decode(int code) {
+        return strings[code];
+    }
+
+    /** The number of distinct strings. */
+    int size() {
+        return size;
+    }
+
+    private void rehash() {
+        int[] newTable = new int[table.length * 2];
+        int mask = newTable.length - 1;
+        for (int code = 0; code < size; code++) {
+            int slot = mix(strings[code].hashCode()) & mask;
+            while (newTable[slot] != 0) {
+                slot = (slot + 1) & mask;
+            }
+            newTable[slot] = code + 1;
+        }
+        table = newTable;
+    }
+
+    /** Spreads the bits of the hash code, since only its lowest bits select the slot. */
+    private static int mix(int hashCode) {
+        int hash = hashCode * 0x9E3779B9;
+        return hash ^ (hash >>> 16);
+    }
+}
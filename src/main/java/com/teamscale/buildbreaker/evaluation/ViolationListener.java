@@ -0,0 +1,23 @@
+package com.teamscale.buildbreaker.evaluation;
+
+/**
+ * Is notified of each violation as soon as an evaluator has found it, e.g. to write it to a report without collecting
+ * the violations first. Implementations must be thread-safe, since the thresholds and findings may be evaluated
+ * concurrently.
+ */
+public interface ViolationListener {
+
+    /** Ignores all violations. */
+    ViolationListener NONE = new ViolationListener() {
+    };
+
+    /** Called for each finding that the evaluator reports as a violation. */
+    default void onFindingViolation(Finding finding) {
+        // Ignored by default
+    }
+
+    /** Called for each metric whose threshold is violated. */
+    default void onMetricViolation(MetricViolation violation) {
+        // Ignored by default
+    }
+}
@@ -0,0 +1,30 @@
+package com.teamscale.buildbreaker.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/** A pass of an evaluator over the findings or metric assessments of a run. */
+@Name("com.teamscale.buildbreaker.Evaluation")
+@Label("Evaluation")
+@Category({"Teamscale Build-Breaker", "Evaluation"})
+@Description("A pass of an evaluator over the findings or metric assessments of a run.")
+@StackTrace(false)
+public class EvaluationEvent extends Event {
+
+    @Label("Evaluator")
+    public String evaluator;
+
+    @Label("Inputs")
+    @Description("The number of evaluated findings or metric assessments.")
+    public int inputs;
+
+    @Label("Violations")
+    public int violations;
+
+    @Label("Status Code")
+    public int statusCode;
+}
@@ -0,0 +1,116 @@
+package com.teamscale.buildbreaker.jfr;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Creates and commits the {@link RequestEvent}s, {@link ParseEvent}s and {@link EvaluationEvent}s of a run. Events are
+ * only created while a {@link FlightRecording} is active, so the event classes, and with them the {@code jdk.jfr}
+ * module, are never loaded otherwise. This keeps runs on Java 9 and 10, which lack {@code jdk.jfr}, working.
+ * <p>
+ * The {@code begin} methods return an opaque handle, which is {@code null} if no event is recorded, and the
+ * {@code commit} methods accept {@code null} handles, so callers need not reference the event classes themselves.
+ */
+public final class FlightEvents {
+
+    /** The number of active recordings. Batch entries and daemon runs may record concurrently. */
+    private static final AtomicInteger activeRecordings = new AtomicInteger();
+
+    private FlightEvents() {
+        // static helpers only
+    }
+
+    /** Whether the events of a run are recorded, i.e. whether a {@link FlightRecording} is active. */
+    public static boolean isRecording() {
+        return activeRecordings.get() > 0;
+    }
+
+    /** Called by a {@link FlightRecording} when it is started. */
+    static void recordingStarted() {
+        activeRecordings.incrementAndGet();
+    }
+
+    /** Called by a {@link FlightRecording} when it is stopped. */
+    static void recordingStopped() {
+        activeRecordings.decrementAndGet();
+    }
+
+    /** Begins an {@link EvaluationEvent} if the events are recorded. */
+    public static Object beginEvaluation() {
+        if (!isRecording()) {
+            return null;
+        }
+        EvaluationEvent event = new EvaluationEvent();
+        event.begin();
+        return event;
+    }
+
+    /** Ends and, if it passes the recording's settings, commits an event begun by {@link #beginEvaluation()}. */
+    public static void commitEvaluation(Object handle, String evaluator, int inputs, int violations, int statusCode) {
+        if (handle == null) {
+            return;
+        }
+        EvaluationEvent event = (EvaluationEvent) handle;
+        event.end();
+        if (event.shouldCommit()) {
+            event.evaluator = evaluator;
+            event.inputs = inputs;
+            event.violations = violations;
+            event.statusCode = statusCode;
+            event.commit();
+        }
+    }
+
+    /** Begins a {@link ParseEvent} if the events are recorded. */
+    public static Object beginParse() {
+        if (!isRecording()) {
+            return null;
+        }
+        ParseEvent event = new ParseEvent();
+        event.begin();
+        return event;
+    }
+
+    /** Ends and, if it passes the recording's settings, commits an event begun by {@link #beginParse()}. */
+    public static void commitParse(Object handle, String response, String format, int items) {
+        if (handle == null) {
+            return;
+        }
+        ParseEvent event = (ParseEvent) handle;
+        event.end();
+        if (event.shouldCommit()) {
+            event.response = response;
+            event.format = format;
+            event.items = items;
+            event.commit();
+        }
+    }
+
+    /** Begins a {@link RequestEvent} if the events are recorded. */
+    public static Object beginRequest() {
+        if (!isRecording()) {
+            return null;
+        }
+        RequestEvent event = new RequestEvent();
+        event.begin();
+        return event;
+    }
+
+    /** Ends and, if it passes the recording's settings, commits an event begun by {@link #beginRequest()}. */
+    public static void commitRequest(Object handle, String endpoint, String method, int statusCode, int attempts,
+                                     long bytesSent, long bytesReceived) {
+        if (handle == null) {
+            return;
+        }
+        RequestEvent event = (RequestEvent) handle;
+        event.end();
+        if (event.shouldCommit()) {
+            event.endpoint = endpoint;
+            event.method = method;
+            event.statusCode = statusCode;
+            event.attempts = attempts;
+            event.bytesSent = bytesSent;
+            event.bytesReceived = bytesReceived;
+            event.commit();
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package com.teamscale.buildbreaker.jfr;
+
+import jdk.jfr.Configuration;
+import jdk.jfr.Recording;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.text.ParseException;
+
+/**
+ * A Java Flight Recorder recording of a single run, which contains the {@link RequestEvent}s, {@link ParseEvent}s and
+ * {@link EvaluationEvent}s next to the JVM's own events. Uses the {@code profile} settings of the JDK, which include
+ * method sampling.
+ */
+public class FlightRecording implements AutoCloseable {
+
+    private static final String SETTINGS = "profile";
+
+    private final Recording recording;
+    private final Path file;
+
+    private FlightRecording(Recording recording, Path file) {
+        this.recording = recording;
+        this.file = file;
+    }
+
+    /**
+     * Starts a recording that is written to the given file when it is closed.
+     *
+     * Only while the recording is active, {@link FlightEvents} creates events.
+     *
+     * @throws IOException if the recording could not be started, e.g. because Java Flight Recorder is not available
+     */
+    public static FlightRecording start(Path file) throws IOException {
+        if (System.getProperty("org.graalvm.nativeimage.imagecode") != null) {
+            throw new IOException("Java Flight Recorder is not supported by the native image. Please use the jar.");
+        }
+        if (!ModuleLayer.boot().findModule("jdk.jfr").isPresent()) {
+            throw new IOException("Java Flight Recorder is not available in this Java runtime. It requires Java 11 or newer.");
+        }
+        try {
+            Recording recording = new Recording(Configuration.getConfiguration(SETTINGS));
+            recording.setName("teamscale-buildbreaker");
+            recording.start();
+            FlightEvents.recordingStarted();
+            return new FlightRecording(recording, file);
+        } catch (ParseException | IllegalStateException | SecurityException e) {
+            throw new IOException("Could not start a flight recording: " + e.getMessage(), e);
+        }
+    }
+
+    /** The file to which the recording is written. */
+    public Path getFile() {
+        return file;
+    }
+
+    /** Stops the recording and writes it to its file, replacing the file if it exists. */
+    @Override
+    public void close() throws IOException {
+        FlightEvents.recordingStopped();
+        try {
+            recording.stop();
+            Path parent = file.toAbsolutePath().getParent();
+            if (parent != null) {
+                Files.createDirectories(parent);
+            }
+            recording.dump(file);
+        } finally {
+            recording.close();
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package com.teamscale.buildbreaker.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * The parsing of a Teamscale response. For streamed responses, this includes reading the body from the network, since
+ * parsing and reading are interleaved.
+ */
+@Name("com.teamscale.buildbreaker.Parse")
+@Label("Response Parsing")
+@Category({"Teamscale Build-Breaker", "Parsing"})
+@Description("The parsing of a Teamscale response. For streamed responses, this includes reading the body from the network.")
+@StackTrace(false)
+public class ParseEvent extends Event {
+
+    /** {@link #response} of findings responses. */
+    public static final String FINDINGS = "findings";
+
+    /** {@link #response} of metric assessment responses. */
+    public static final String METRIC_ASSESSMENTS = "metric-assessments";
+
+    @Label("Response")
+    public String response;
+
+    @Label("Format")
+    @Description("The variant of the response format, which depends on the Teamscale version.")
+    public String format;
+
+    @Label("Items")
+    @Description("The number of findings or metric assessments that were read.")
+    public int items;
+}
@@ -0,0 +1,39 @@
+package com.teamscale.buildbreaker.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/** A request to a Teamscale endpoint, including its retries and the processing of the response body. */
+@Name("com.teamscale.buildbreaker.Request")
+@Label("Teamscale Request")
+@Category({"Teamscale Build-Breaker", "HTTP"})
+@Description("A request to a Teamscale endpoint, including its retries and the processing of the response body.")
+@StackTrace(false)
+public class RequestEvent extends Event {
+
+    @Label("Endpoint")
+    public String endpoint;
+
+    @Label("Method")
+    public String method;
+
+    @Label("Status Code")
+    @Description("The HTTP status code of the final attempt or 0 if no response was received.")
+    public int statusCode;
+
+    @Label("Attempts")
+    public int attempts;
+
+    @Label("Bytes Sent")
+    @DataAmount
+    public long bytesSent;
+
+    @Label("Bytes Received")
+    @DataAmount
+    public long bytesReceived;
+}
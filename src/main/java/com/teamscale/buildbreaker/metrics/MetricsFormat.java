@@ -0,0 +1,9 @@
+package com.teamscale.buildbreaker.metrics;
+
+/** The file formats in which {@link RunMetrics} can be written. */
+public enum MetricsFormat {
+    /** A JSON object with all phases, counters and requests of the run. */
+    JSON,
+    /** The OpenMetrics text format, with requests aggregated per endpoint. */
+    OPENMETRICS
+}
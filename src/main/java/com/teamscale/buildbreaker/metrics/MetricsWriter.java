@@ -0,0 +1,216 @@
+package com.teamscale.buildbreaker.metrics;
+
+import com.squareup.moshi.JsonWriter;
+import com.teamscale.buildbreaker.metrics.RequestMetrics.CacheStatus;
+import com.teamscale.buildbreaker.metrics.RunMetrics.Counter;
+import com.teamscale.buildbreaker.metrics.RunMetrics.Phase;
+import okio.Okio;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Writes {@link RunMetrics} to a file. Durations are written in milliseconds to JSON and in seconds to OpenMetrics,
+ * following the conventions of each format.
+ */
+public class MetricsWriter {
+
+    private static final String PREFIX = "teamscale_buildbreaker_";
+
+    private MetricsWriter() {
+        // Prevent instantiation
+    }
+
+    /** Writes the metrics of a run with the given exit code to the given file, replacing it if it exists. */
+    public static void write(RunMetrics metrics, int exitCode, Path file, MetricsFormat format) throws IOException {
+        Path parent = file.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        switch (format) {
+            case JSON:
+                writeJson(metrics, exitCode, file);
+                break;
+            case OPENMETRICS:
+                writeOpenMetrics(metrics, exitCode, file);
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown metrics format " + format);
+        }
+    }
+
+    private static void writeJson(RunMetrics metrics, int exitCode, Path file) throws IOException {
+        List<RequestMetrics> requests = metrics.getRequests();
+        try (JsonWriter json = JsonWriter.of(Okio.buffer(Okio.sink(file)))) {
+            json.setIndent("  ");
+            json.beginObject();
+            json.name("exitCode").value(exitCode);
+            json.name("totalMillis").value(toMillis(metrics.getElapsedNanos()));
+
+            json.name("phaseMillis").beginObject();
+            for (Phase phase : Phase.values()) {
+                json.name(toName(phase)).value(toMillis(metrics.getPhaseNanos(phase)));
+            }
+            json.endObject();
+
+            json.name("counters").beginObject();
+            for (Map.Entry<String, Long> counter : collectCounters(metrics, requests).entrySet()) {
+                json.name(counter.getKey()).value(counter.getValue());
+            }
+            json.endObject();
+
+            json.name("requests").beginArray();
+            for (RequestMetrics request : requests) {
+                json.beginObject();
+                json.name("endpoint").value(request.endpoint);
+                json.name("statusCode").value(request.getStatusCode());
+                json.name("attempts").value(request.getAttempts());
+                json.name("cache").value(toName(request.getCacheStatus()));
+                json.name("totalMillis").value(toMillis(request.getTotalNanos()));
+                json.name("dnsMillis").value(toMillis(request.getDnsNanos()));
+                json.name("connectMillis").value(toMillis(request.getConnectNanos()));
+                json.name("tlsMillis").value(toMillis(request.getTlsNanos()));
+                json.name("timeToFirstByteMillis").value(toMillis(request.getTimeToFirstByteNanos()));
+                json.name("bodyMillis").value(toMillis(request.getBodyNanos()));
+                json.name("processingMillis").value(toMillis(request.getProcessingNanos()));
+                json.name("bytesSent").value(request.getBytesSent());
+                json.name("bytesReceived").value(request.getBytesReceived());
+                json.endObject();
+            }
+            json.endArray();
+            json.endObject();
+        }
+    }
+
+    private static void writeOpenMetrics(RunMetrics metrics, int exitCode, Path file) throws IOException {
+        List<RequestMetrics> requests = metrics.getRequests();
+        try (Writer writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            writeType(writer, "exit_code", "gauge", "The exit code of the run.");
+            writeSample(writer, "exit_code", "", exitCode);
+            writeType(writer, "run_duration_seconds", "gauge", "The wall-clock time of the run.");
+            writeSample(writer, "run_duration_seconds", "", toSeconds(metrics.getElapsedNanos()));
+
+            writeType(writer, "phase_duration_seconds", "gauge", "The time spent in each phase of the run.");
+            for (Phase phase : Phase.values()) {
+                writeSample(writer, "phase_duration_seconds", label("phase", toName(phase)),
+                        toSeconds(metrics.getPhaseNanos(phase)));
+            }
+
+            for (Map.Entry<String, Long> counter : collectCounters(metrics, requests).entrySet()) {
+                writeType(writer, counter.getKey(), "counter", null);
+                writeSample(writer, counter.getKey() + "_total", "", counter.getValue());
+            }
+
+            Map<String, long[]> stagesByEndpoint = new LinkedHashMap<>();
+            Map<String, long[]> bytesByEndpoint = new LinkedHashMap<>();
+            for (RequestMetrics request : requests) {
+                long[] stages = stagesByEndpoint.computeIfAbsent(request.endpoint, endpoint -> new long[7]);
+                stages[0] += request.getTotalNanos();
+                stages[1] += request.getDnsNanos();
+                stages[2] += request.getConnectNanos();
+                stages[3] += request.getTlsNanos();
+                stages[4] += request.getTimeToFirstByteNanos();
+                stages[5] += request.getBodyNanos();
+                stages[6] += request.getProcessingNanos();
+                long[] bytes = bytesByEndpoint.computeIfAbsent(request.endpoint, endpoint -> new long[3]);
+                bytes[0]++;
+                bytes[1] += request.getBytesSent();
+                bytes[2] += request.getBytesReceived();
+            }
+            String[] stageNames = {"total", "dns", "connect", "tls", "first_byte", "body", "processing"};
+            writeType(writer, "request_duration_seconds", "gauge",
+                    "The time spent in each stage of the requests to an endpoint, summed over all requests.");
+            for (Map.Entry<String, long[]> endpoint : stagesByEndpoint.entrySet()) {
+                for (int i = 0; i < stageNames.length; i++) {
+                    writeSample(writer, "request_duration_seconds",
+                            label("endpoint", endpoint.getKey()) + "," + label("stage", stageNames[i]),
+                            toSeconds(endpoint.getValue()[i]));
+                }
+            }
+            writeType(writer, "endpoint_requests", "counter", "The number of requests to an endpoint.");
+            for (Map.Entry<String, long[]> endpoint : bytesByEndpoint.entrySet()) {
+                writeSample(writer, "endpoint_requests_total", label("endpoint", endpoint.getKey()),
+                        endpoint.getValue()[0]);
+            }
+            writeType(writer, "sent_bytes", "counter", "The bytes of request bodies sent to an endpoint.");
+            for (Map.Entry<String, long[]> endpoint : bytesByEndpoint.entrySet()) {
+                writeSample(writer, "sent_bytes_total", label("endpoint", endpoint.getKey()), endpoint.getValue()[1]);
+            }
+            writeType(writer, "received_bytes", "counter", "The bytes of response bodies received from an endpoint.");
+            for (Map.Entry<String, long[]> endpoint : bytesByEndpoint.entrySet()) {
+                writeSample(writer, "received_bytes_total", label("endpoint", endpoint.getKey()),
+                        endpoint.getValue()[2]);
+            }
+            writer.write("# EOF\n");
+        }
+    }
+
+    /** Collects the counters of the run and those derived from its requests. */
+    private static Map<String, Long> collectCounters(RunMetrics metrics, List<RequestMetrics> requests) {
+        long retries = 0;
+        long httpCacheHits = 0;
+        long httpCacheMisses = 0;
+        for (RequestMetrics request : requests) {
+            retries += Math.max(0, request.getAttempts() - 1);
+            if (request.getCacheStatus() == CacheStatus.HIT || request.getCacheStatus() == CacheStatus.CONDITIONAL_HIT) {
+                httpCacheHits++;
+            } else if (request.getCacheStatus() == CacheStatus.MISS) {
+                httpCacheMisses++;
+            }
+        }
+        Map<String, Long> counters = new LinkedHashMap<>();
+        counters.put("requests", (long) requests.size());
+        counters.put("request_retries", retries);
+        counters.put("http_cache_hits", httpCacheHits);
+        counters.put("http_cache_misses", httpCacheMisses);
+        for (Counter counter : Counter.values()) {
+            counters.put(toName(counter), metrics.getCount(counter));
+        }
+        return counters;
+    }
+
+    private static void writeType(Writer writer, String name, String type, String help) throws IOException {
+        writer.write("# TYPE " + PREFIX + name + " " + type + "\n");
+        if (help != null) {
+            writer.write("# HELP " + PREFIX + name + " " + help + "\n");
+        }
+    }
+
+    private static void writeSample(Writer writer, String name, String labels, double value) throws IOException {
+        writer.write(PREFIX + name);
+        if (!labels.isEmpty()) {
+            writer.write("{" + labels + "}");
+        }
+        writer.write(" " + formatValue(value) + "\n");
+    }
+
+    private static String formatValue(double value) {
+        if (value == Math.rint(value)) {
+            return String.valueOf((long) value);
+        }
+        return String.format(Locale.ENGLISH, "%.6f", value);
+    }
+
+    private static String label(String name, String value) {
+        return name + "=\"" + value.replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n") + "\"";
+    }
+
+    private static String toName(Enum<?> value) {
+        return value.name().toLowerCase(Locale.ENGLISH);
+    }
+
+    private static long toMillis(long nanos) {
+        return nanos / 1_000_000;
+    }
+
+    private static double toSeconds(long nanos) {
+        return nanos / 1e9;
+    }
+}
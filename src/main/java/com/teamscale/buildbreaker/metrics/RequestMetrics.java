@@ -0,0 +1,126 @@
+package com.teamscale.buildbreaker.metrics;
+
+/**
+ * The metrics of a single logical request to Teamscale, including all of its retries. The network timings are
+ * recorded by the {@link RequestMetricsListener} of the HTTP client and add up over all attempts.
+ * <p>
+ * A request is recorded by a single thread at a time: the thread that sends it, and OkHttp calls the listener on that
+ * thread as well.
+ */
+public class RequestMetrics {
+
+    /** Whether and how a response was served from the HTTP cache. */
+    public enum CacheStatus {
+        /** No HTTP cache is configured or the response is not cacheable. */
+        NONE,
+        /** Served from the cache without contacting Teamscale. */
+        HIT,
+        /** Served from the cache after Teamscale confirmed it is still valid (304 Not Modified). */
+        CONDITIONAL_HIT,
+        /** Sent by Teamscale and stored in the cache. */
+        MISS
+    }
+
+    /** Identifies the Teamscale service, without project or revision, e.g. {@code metric-assessments}. */
+    public final String endpoint;
+
+    /** The HTTP status code of the final response or 0 if no response was received. */
+    int statusCode;
+    int attempts;
+    CacheStatus cacheStatus = CacheStatus.NONE;
+    long totalNanos;
+    long dnsNanos;
+    long connectNanos;
+    long tlsNanos;
+    long timeToFirstByteNanos;
+    long bodyNanos;
+    long processingNanos;
+    long bytesSent;
+    long bytesReceived;
+
+    // Set by the listener to compute the durations above
+    long callStartNanos;
+    long dnsStartNanos;
+    long connectStartNanos;
+    long tlsStartNanos;
+    long bodyStartNanos;
+
+    public RequestMetrics(String endpoint) {
+        this.endpoint = endpoint;
+    }
+
+    /** Records the start of another attempt to send the request. */
+    public void recordAttempt() {
+        attempts++;
+    }
+
+    /** Records the final response of the request. */
+    public void recordResponse(int statusCode, CacheStatus cacheStatus) {
+        this.statusCode = statusCode;
+        this.cacheStatus = cacheStatus;
+    }
+
+    /**
+     * Records the time in which the response body was read and decoded. For streamed responses, this overlaps with
+     * the download of the body.
+     */
+    public void recordProcessing(long nanos) {
+        processingNanos += nanos;
+    }
+
+    /** Records the time from sending the request until the response has been processed completely. */
+    public void recordTotal(long nanos) {
+        totalNanos = nanos;
+    }
+
+    public int getStatusCode() {
+        return statusCode;
+    }
+
+    public int getAttempts() {
+        return attempts;
+    }
+
+    public CacheStatus getCacheStatus() {
+        return cacheStatus;
+    }
+
+    public long getTotalNanos() {
+        return totalNanos;
+    }
+
+    public long getDnsNanos() {
+        return dnsNanos;
+    }
+
+    public long getConnectNanos() {
+        return connectNanos;
+    }
+
+    /** The time of the TLS handshakes. This is part of the {@link #getConnectNanos() connect time}. */
+    public long getTlsNanos() {
+        return tlsNanos;
+    }
+
+    /** The time from starting the (last) attempt until the response headers started to arrive. */
+    public long getTimeToFirstByteNanos() {
+        return timeToFirstByteNanos;
+    }
+
+    /** The time in which the response body was downloaded. */
+    public long getBodyNanos() {
+        return bodyNanos;
+    }
+
+    public long getProcessingNanos() {
+        return processingNanos;
+    }
+
+    public long getBytesSent() {
+        return bytesSent;
+    }
+
+    public long getBytesReceived() {
+        return bytesReceived;
+    }
+}
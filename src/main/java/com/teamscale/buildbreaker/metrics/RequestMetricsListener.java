@@ -0,0 +1,96 @@
+package com.teamscale.buildbreaker.metrics;
+
+import okhttp3.Call;
+import okhttp3.EventListener;
+import okhttp3.Handshake;
+import okhttp3.Protocol;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.Proxy;
+import java.util.List;
+
+/**
+ * Records the network timings and transferred bytes of a call into the {@link RequestMetrics} attached to its request
+ * as tag. Calls without such a tag are not recorded.
+ */
+public class RequestMetricsListener extends EventListener {
+
+    /** Creates a listener for every call whose request carries {@link RequestMetrics}. */
+    public static final EventListener.Factory FACTORY = call -> {
+        RequestMetrics metrics = call.request().tag(RequestMetrics.class);
+        if (metrics == null) {
+            return EventListener.NONE;
+        }
+        return new RequestMetricsListener(metrics);
+    };
+
+    private final RequestMetrics metrics;
+
+    private RequestMetricsListener(RequestMetrics metrics) {
+        this.metrics = metrics;
+    }
+
+    @Override
+    public void callStart(Call call) {
+        metrics.callStartNanos = System.nanoTime();
+    }
+
+    @Override
+    public void dnsStart(Call call, String domainName) {
+        metrics.dnsStartNanos = System.nanoTime();
+    }
+
+    @Override
+    public void dnsEnd(Call call, String domainName, List<InetAddress> inetAddressList) {
+        metrics.dnsNanos += System.nanoTime() - metrics.dnsStartNanos;
+    }
+
+    @Override
+    public void connectStart(Call call, InetSocketAddress inetSocketAddress, Proxy proxy) {
+        metrics.connectStartNanos = System.nanoTime();
+    }
+
+    @Override
+    public void secureConnectStart(Call call) {
+        metrics.tlsStartNanos = System.nanoTime();
+    }
+
+    @Override
+    public void secureConnectEnd(Call call, Handshake handshake) {
+        metrics.tlsNanos += System.nanoTime() - metrics.tlsStartNanos;
+    }
+
+    @Override
+    public void connectEnd(Call call, InetSocketAddress inetSocketAddress, Proxy proxy, Protocol protocol) {
+        metrics.connectNanos += System.nanoTime() - metrics.connectStartNanos;
+    }
+
+    @Override
+    public void connectFailed(Call call, InetSocketAddress inetSocketAddress, Proxy proxy, Protocol protocol,
+                              IOException ioe) {
+        metrics.connectNanos += System.nanoTime() - metrics.connectStartNanos;
+    }
+
+    @Override
+    public void requestBodyEnd(Call call, long byteCount) {
+        metrics.bytesSent += byteCount;
+    }
+
+    @Override
+    public void responseHeadersStart(Call call) {
+        metrics.timeToFirstByteNanos = System.nanoTime() - metrics.callStartNanos;
+    }
+
+    @Override
+    public void responseBodyStart(Call call) {
+        metrics.bodyStartNanos = System.nanoTime();
+    }
+
+    @Override
+    public void responseBodyEnd(Call call, long byteCount) {
+        metrics.bodyNanos += System.nanoTime() - metrics.bodyStartNanos;
+        metrics.bytesReceived += byteCount;
+    }
+}
@@ -0,0 +1,99 @@
+package com.teamscale.buildbreaker.metrics;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Collects where the time of a single run goes: the duration of its phases, every request sent to Teamscale and a few
+ * counters. Safe for concurrent use, so phases and requests that run in parallel can record into the same instance.
+ * Phases that run in parallel or several times (e.g. waiting for the analysis of several commits) add up.
+ */
+public class RunMetrics {
+
+    /** The phases of a run. */
+    public enum Phase {
+        RESOLVE_REVISIONS,
+        WAIT_FOR_ANALYSIS,
+        FETCH_METRICS,
+        EVALUATE_METRICS,
+        FETCH_FINDINGS,
+        EVALUATE_FINDINGS
+    }
+
+    /** Events that are counted during a run. */
+    public enum Counter {
+        /** Queries of the analysis state, including the first one. */
+        ANALYSIS_POLLS,
+        /** Revisions that had already been resolved by this process. */
+        REVISION_CACHE_HITS,
+        /** Revisions that had been resolved by an earlier run and were read from the persistent revision cache. */
+        PERSISTENT_REVISION_CACHE_HITS
+    }
+
+    private final long startNanos = System.nanoTime();
+    private final Map<Phase, LongAdder> phaseNanos = new EnumMap<>(Phase.class);
+    private final Map<Counter, LongAdder> counters = new EnumMap<>(Counter.class);
+    private final List<RequestMetrics> requests = new ArrayList<>();
+
+    public RunMetrics() {
+        // Filled completely up front, so the maps are only read afterwards and need no synchronization
+        for (Phase phase : Phase.values()) {
+            phaseNanos.put(phase, new LongAdder());
+        }
+        for (Counter counter : Counter.values()) {
+            counters.put(counter, new LongAdder());
+        }
+    }
+
+    /** Starts timing the given phase. The phase ends when the returned timer is closed. */
+    public PhaseTimer startPhase(Phase phase) {
+        return new PhaseTimer(phase, System.nanoTime());
+    }
+
+    /** Increments the given counter by one. */
+    public void increment(Counter counter) {
+        counters.get(counter).increment();
+    }
+
+    /** Records a finished request. */
+    public synchronized void addRequest(RequestMetrics request) {
+        requests.add(request);
+    }
+
+    /** The time since this instance was created, i.e. since the start of the run. */
+    public long getElapsedNanos() {
+        return System.nanoTime() - startNanos;
+    }
+
+    public long getPhaseNanos(Phase phase) {
+        return phaseNanos.get(phase).sum();
+    }
+
+    public long getCount(Counter counter) {
+        return counters.get(counter).sum();
+    }
+
+    /** The requests recorded so far, in the order in which they finished. */
+    public synchronized List<RequestMetrics> getRequests() {
+        return new ArrayList<>(requests);
+    }
+
+    /** Measures a phase from its creation until it is closed. */
+    public class PhaseTimer implements AutoCloseable {
+        private final Phase phase;
+        private final long phaseStartNanos;
+
+        private PhaseTimer(Phase phase, long phaseStartNanos) {
+            this.phase = phase;
+            this.phaseStartNanos = phaseStartNanos;
+        }
+
+        @Override
+        public void close() {
+            phaseNanos.get(phase).add(System.nanoTime() - phaseStartNanos);
+        }
+    }
+}
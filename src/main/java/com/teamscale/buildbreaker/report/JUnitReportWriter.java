@@ -0,0 +1,84 @@
+package com.teamscale.buildbreaker.report;
+
+import com.teamscale.buildbreaker.evaluation.Finding;
+import com.teamscale.buildbreaker.evaluation.MetricViolation;
+import com.teamscale.buildbreaker.evaluation.ProblemCategory;
+
+import javax.xml.stream.XMLOutputFactory;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Writes each violation as a failed test case of a JUnit XML test suite, so CI test dashboards list them. The
+ * {@code tests} and {@code failures} attributes of the suite are omitted, since they would have to be known before
+ * the first test case is written. CI systems count the test cases themselves.
+ */
+class JUnitReportWriter implements ReportWriter {
+
+    private static final String SUITE_NAME = "teamscale-buildbreaker";
+
+    private final Writer writer;
+    private final XMLStreamWriter xml;
+
+    JUnitReportWriter(Path file) throws IOException {
+        writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8);
+        try {
+            xml = XMLOutputFactory.newInstance().createXMLStreamWriter(writer);
+            xml.writeStartDocument(StandardCharsets.UTF_8.name(), "1.0");
+            xml.writeStartElement("testsuites");
+            xml.writeAttribute("name", SUITE_NAME);
+            xml.writeStartElement("testsuite");
+            xml.writeAttribute("name", SUITE_NAME);
+        } catch (XMLStreamException e) {
+            writer.close();
+            throw new IOException("Could not write the JUnit XML report: " + e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public void writeFinding(Finding finding) throws IOException {
+        writeFailedTestCase("findings." + finding.group, finding.category + " in " + finding.uniformPath + " (" + finding.id + ")",
+                finding.assessment, finding.message, finding.toString());
+    }
+
+    @Override
+    public void writeMetricViolation(MetricViolation violation) throws IOException {
+        writeFailedTestCase("thresholds", violation.displayName, violation.rating,
+                violation.displayName + " is " + violation.formattedTextValue, violation.toString());
+    }
+
+    private void writeFailedTestCase(String className, String name, ProblemCategory category, String message, String details) throws IOException {
+        try {
+            xml.writeStartElement("testcase");
+            xml.writeAttribute("classname", className);
+            xml.writeAttribute("name", name);
+            xml.writeStartElement("failure");
+            xml.writeAttribute("type", category.name());
+            xml.writeAttribute("message", message);
+            xml.writeCharacters(details);
+            xml.writeEndElement();
+            xml.writeEndElement();
+        } catch (XMLStreamException e) {
+            throw new IOException("Could not write the JUnit XML report: " + e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            xml.writeEndElement();
+            xml.writeEndElement();
+            xml.writeEndDocument();
+            xml.close();
+        } catch (XMLStreamException e) {
+            throw new IOException("Could not write the JUnit XML report: " + e.getMessage(), e);
+        } finally {
+            writer.close();
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package com.teamscale.buildbreaker.report;
+
+import com.squareup.moshi.JsonWriter;
+import com.teamscale.buildbreaker.evaluation.Finding;
+import com.teamscale.buildbreaker.evaluation.MetricViolation;
+import com.teamscale.buildbreaker.evaluation.ProblemCategory;
+import okio.Okio;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Locale;
+
+/**
+ * Writes violations as a JSON object with a {@code violations} array, followed by the number of errors and warnings,
+ * which are counted while writing.
+ */
+class JsonReportWriter implements ReportWriter {
+
+    private final JsonWriter json;
+    private int errors;
+    private int warnings;
+
+    JsonReportWriter(Path file) throws IOException {
+        json = JsonWriter.of(Okio.buffer(Okio.sink(file)));
+        json.beginObject();
+        json.name("violations").beginArray();
+    }
+
+    @Override
+    public void writeFinding(Finding finding) throws IOException {
+        count(finding.assessment);
+        json.beginObject();
+        json.name("type").value("finding");
+        json.name("severity").value(toName(finding.assessment));
+        json.name("id").value(finding.id);
+        json.name("group").value(finding.group);
+        json.name("category").value(finding.category);
+        json.name("message").value(finding.message);
+        json.name("uniformPath").value(finding.uniformPath);
+        json.endObject();
+    }
+
+    @Override
+    public void writeMetricViolation(MetricViolation violation) throws IOException {
+        count(violation.rating);
+        json.beginObject();
+        json.name("type").value("metric");
+        json.name("severity").value(toName(violation.rating));
+        json.name("metric").value(violation.displayName);
+        json.name("value").value(violation.formattedTextValue);
+        json.name("yellowThreshold").value(violation.yellowThreshold);
+        json.name("redThreshold").value(violation.redThreshold);
+        json.endObject();
+    }
+
+    private void count(ProblemCategory category) {
+        if (category == ProblemCategory.ERROR) {
+            errors++;
+        } else if (category == ProblemCategory.WARNING) {
+            warnings++;
+        }
+    }
+
+    private static String toName(ProblemCategory category) {
+        return category.name().toLowerCase(Locale.ENGLISH);
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            json.endArray();
+            json.name("errors").value(errors);
+            json.name("warnings").value(warnings);
+            json.endObject();
+        } finally {
+            json.close();
+        }
+    }
+}
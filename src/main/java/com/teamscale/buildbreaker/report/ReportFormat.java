@@ -0,0 +1,46 @@
+package com.teamscale.buildbreaker.report;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+/** The formats in which violations can be reported. */
+public enum ReportFormat {
+
+    /** For code review tools and code scanning dashboards. */
+    SARIF("SARIF") {
+        @Override
+        ReportWriter open(Path file) throws IOException {
+            return new SarifReportWriter(file);
+        }
+    },
+
+    /** For test dashboards of CI systems. */
+    JUNIT("JUnit XML") {
+        @Override
+        ReportWriter open(Path file) throws IOException {
+            return new JUnitReportWriter(file);
+        }
+    },
+
+    /** For custom tooling. */
+    JSON("JSON") {
+        @Override
+        ReportWriter open(Path file) throws IOException {
+            return new JsonReportWriter(file);
+        }
+    };
+
+    private final String displayName;
+
+    ReportFormat(String displayName) {
+        this.displayName = displayName;
+    }
+
+    /** Creates a writer that writes a report in this format to the given file, replacing it if it exists. */
+    abstract ReportWriter open(Path file) throws IOException;
+
+    @Override
+    public String toString() {
+        return displayName;
+    }
+}
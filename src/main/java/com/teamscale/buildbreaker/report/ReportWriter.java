@@ -0,0 +1,24 @@
+package com.teamscale.buildbreaker.report;
+
+import com.teamscale.buildbreaker.evaluation.Finding;
+import com.teamscale.buildbreaker.evaluation.MetricViolation;
+
+import java.io.Closeable;
+import java.io.IOException;
+
+/**
+ * Writes violations to a report file one by one as they are found. Implementations only keep constant state, so the
+ * size of a report is not limited by the available memory. Not thread-safe.
+ */
+public interface ReportWriter extends Closeable {
+
+    /** Writes a finding that has been reported as a violation. */
+    void writeFinding(Finding finding) throws IOException;
+
+    /** Writes a metric whose threshold is violated. */
+    void writeMetricViolation(MetricViolation violation) throws IOException;
+
+    /** Completes the report and closes the file. */
+    @Override
+    void close() throws IOException;
+}
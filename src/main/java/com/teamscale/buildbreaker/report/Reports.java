@@ -0,0 +1,110 @@
+package com.teamscale.buildbreaker.report;
+
+import com.teamscale.buildbreaker.evaluation.Finding;
+import com.teamscale.buildbreaker.evaluation.MetricViolation;
+import com.teamscale.buildbreaker.evaluation.ViolationListener;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Streams the violations of a run to all requested report files while they are evaluated. A report that cannot be
+ * written is abandoned with a message, so reports never change the outcome of the run. Thread-safe.
+ */
+public class Reports implements ViolationListener, AutoCloseable {
+
+    private final List<Report> reports = new ArrayList<>();
+    private final PrintStream out;
+
+    private Reports(PrintStream out) {
+        this.out = out;
+    }
+
+    /**
+     * Opens a report for each of the given formats and files. Failures are printed to the given stream, which also
+     * receives failures while writing the reports.
+     */
+    public static Reports open(Map<ReportFormat, Path> files, PrintStream out) {
+        Reports reports = new Reports(out);
+        files.forEach((format, file) -> {
+            try {
+                Path parent = file.toAbsolutePath().getParent();
+                if (parent != null) {
+                    Files.createDirectories(parent);
+                }
+                reports.reports.add(new Report(format, file, format.open(file)));
+            } catch (IOException e) {
+                out.println("Failed to write the " + format + " report to " + file + ": " + e.getMessage());
+            }
+        });
+        return reports;
+    }
+
+    @Override
+    public synchronized void onFindingViolation(Finding finding) {
+        Iterator<Report> iterator = reports.iterator();
+        while (iterator.hasNext()) {
+            Report report = iterator.next();
+            try {
+                report.writer.writeFinding(finding);
+            } catch (IOException e) {
+                abandon(report, e);
+                iterator.remove();
+            }
+        }
+    }
+
+    @Override
+    public synchronized void onMetricViolation(MetricViolation violation) {
+        Iterator<Report> iterator = reports.iterator();
+        while (iterator.hasNext()) {
+            Report report = iterator.next();
+            try {
+                report.writer.writeMetricViolation(violation);
+            } catch (IOException e) {
+                abandon(report, e);
+                iterator.remove();
+            }
+        }
+    }
+
+    private void abandon(Report report, IOException e) {
+        out.println("Failed to write the " + report.format + " report to " + report.file + ": " + e.getMessage());
+        try {
+            report.writer.close();
+        } catch (IOException closeException) {
+            // The failure has already been reported
+        }
+    }
+
+    /** Completes all reports. */
+    @Override
+    public synchronized void close() {
+        for (Report report : reports) {
+            try {
+                report.writer.close();
+            } catch (IOException e) {
+                out.println("Failed to write the " + report.format + " report to " + report.file + ": " + e.getMessage());
+            }
+        }
+        reports.clear();
+    }
+
+    private static class Report {
+        private final ReportFormat format;
+        private final Path file;
+        private final ReportWriter writer;
+
+        private Report(ReportFormat format, Path file, ReportWriter writer) {
+            this.format = format;
+            this.file = file;
+            this.writer = writer;
+        }
+    }
+}
@@ -0,0 +1,94 @@
+package com.teamscale.buildbreaker.report;
+
+import com.squareup.moshi.JsonWriter;
+import com.teamscale.buildbreaker.evaluation.Finding;
+import com.teamscale.buildbreaker.evaluation.MetricViolation;
+import com.teamscale.buildbreaker.evaluation.ProblemCategory;
+import okio.Okio;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+/**
+ * Writes violations as the results of a single run of a <a href="https://docs.oasis-open.org/sarif/sarif/v2.1.0/">SARIF
+ * 2.1.0</a> log. Findings are located at their uniform path, which is relative to the project root, and carry their
+ * Teamscale ID as a partial fingerprint, so code review tools can track them across runs. Metric violations are not
+ * located in a file.
+ */
+class SarifReportWriter implements ReportWriter {
+
+    private static final String TOOL_NAME = "teamscale-buildbreaker";
+    private static final String TOOL_URI = "https://github.com/cqse/teamscale-build-breaker";
+
+    private final JsonWriter json;
+
+    SarifReportWriter(Path file) throws IOException {
+        json = JsonWriter.of(Okio.buffer(Okio.sink(file)));
+        json.beginObject();
+        json.name("$schema").value("https://json.schemastore.org/sarif-2.1.0.json");
+        json.name("version").value("2.1.0");
+        json.name("runs").beginArray();
+        json.beginObject();
+        json.name("tool").beginObject();
+        json.name("driver").beginObject();
+        json.name("name").value(TOOL_NAME);
+        json.name("informationUri").value(TOOL_URI);
+        json.endObject();
+        json.endObject();
+        json.name("results").beginArray();
+    }
+
+    @Override
+    public void writeFinding(Finding finding) throws IOException {
+        json.beginObject();
+        json.name("ruleId").value(finding.category);
+        json.name("level").value(toLevel(finding.assessment));
+        json.name("message").beginObject().name("text").value(finding.message).endObject();
+        json.name("locations").beginArray().beginObject();
+        json.name("physicalLocation").beginObject();
+        json.name("artifactLocation").beginObject().name("uri").value(finding.uniformPath).endObject();
+        json.endObject();
+        json.endObject().endArray();
+        json.name("partialFingerprints").beginObject().name("teamscaleFindingId").value(finding.id).endObject();
+        json.name("properties").beginObject().name("group").value(finding.group).endObject();
+        json.endObject();
+    }
+
+    @Override
+    public void writeMetricViolation(MetricViolation violation) throws IOException {
+        json.beginObject();
+        json.name("ruleId").value("metric/" + violation.displayName);
+        json.name("level").value(toLevel(violation.rating));
+        json.name("message").beginObject().name("text").value(violation.displayName + " is " +
+                violation.formattedTextValue + " (thresholds yellow/red: " + formatThreshold(violation.yellowThreshold) +
+                "/" + formatThreshold(violation.redThreshold) + ")").endObject();
+        json.endObject();
+    }
+
+    private static String toLevel(ProblemCategory category) {
+        switch (category) {
+            case ERROR:
+                return "error";
+            case WARNING:
+                return "warning";
+            default:
+                return "note";
+        }
+    }
+
+    private static String formatThreshold(String threshold) {
+        return threshold.isEmpty() ? "-" : threshold;
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            json.endArray();
+            json.endObject();
+            json.endArray();
+            json.endObject();
+        } finally {
+            json.close();
+        }
+    }
+}
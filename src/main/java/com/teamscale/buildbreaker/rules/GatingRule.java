@@ -0,0 +1,70 @@
+package com.teamscale.buildbreaker.rules;
+
+import com.teamscale.buildbreaker.evaluation.FindingStore;
+import com.teamscale.buildbreaker.evaluation.MetricViolation;
+import com.teamscale.buildbreaker.evaluation.ProblemCategory;
+
+/**
+ * A compiled gating rule: a matcher for either findings or metrics and the number of matches it allows. Criteria that
+ * are {@code null} match everything.
+ */
+class GatingRule {
+
+    /** Which findings a rule applies to. */
+    enum Section {
+        ADDED,
+        CHANGED,
+        ANY
+    }
+
+    final String name;
+    final ProblemCategory severity;
+    final int maxCount;
+
+    /** Whether this rule matches metrics instead of findings. */
+    final boolean metricRule;
+
+    final ProblemCategory assessment;
+    final Section section;
+    final String pathPrefix;
+    final String group;
+    final String category;
+    final String metric;
+
+    GatingRule(String name, ProblemCategory severity, int maxCount, boolean metricRule, ProblemCategory assessment,
+               Section section, String pathPrefix, String group, String category, String metric) {
+        this.name = name;
+        this.severity = severity;
+        this.maxCount = maxCount;
+        this.metricRule = metricRule;
+        this.assessment = assessment;
+        this.section = section;
+        this.pathPrefix = pathPrefix;
+        this.group = group;
+        this.category = category;
+        this.metric = metric;
+    }
+
+    /** Whether this rule matches the finding at the given index. Checks the cheap criteria first. */
+    boolean matches(FindingStore findings, int index) {
+        if (metricRule) {
+            return false;
+        }
+        if (assessment != null && findings.getAssessment(index) != assessment) {
+            return false;
+        }
+        if (section == Section.ADDED && findings.isInChangedCode(index) ||
+                section == Section.CHANGED && !findings.isInChangedCode(index)) {
+            return false;
+        }
+        return (pathPrefix == null || findings.getUniformPath(index).startsWith(pathPrefix)) &&
+                (group == null || group.equals(findings.getGroup(index))) &&
+                (category == null || category.equals(findings.getCategory(index)));
+    }
+
+    /** Whether this rule matches the given metric assessment. */
+    boolean matches(MetricViolation violation) {
+        return metricRule && (assessment == null || violation.rating == assessment) &&
+                (metric == null || metric.equals(violation.displayName));
+    }
+}
@@ -0,0 +1,221 @@
+package com.teamscale.buildbreaker.rules;
+
+import com.teamscale.buildbreaker.evaluation.EvaluationResult;
+import com.teamscale.buildbreaker.evaluation.FindingStore;
+import com.teamscale.buildbreaker.evaluation.MetricViolation;
+import com.teamscale.buildbreaker.evaluation.ProblemCategory;
+import com.teamscale.buildbreaker.evaluation.RuleViolation;
+import com.teamscale.buildbreaker.evaluation.ViolationListener;
+import com.teamscale.buildbreaker.jfr.FlightEvents;
+import okio.BufferedSource;
+import okio.Okio;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.IntFunction;
+
+/**
+ * Gating rules that replace the {@link com.teamscale.buildbreaker.evaluation.FindingsEvaluator} and
+ * {@link com.teamscale.buildbreaker.evaluation.MetricsEvaluator}. All rules are evaluated in a single pass over the
+ * findings or metrics, counting the matches of each rule in a primitive array. A rule that matches more than its
+ * maximum count is a violation of the rule's severity.
+ * <p>
+ * Large finding stores can be evaluated in parallel on the common fork/join pool. Each task counts a range of the
+ * findings and the counts are summed, so the result is the same as for a sequential pass.
+ */
+public class GatingRules {
+
+    /** The number of matches kept per rule to show what a violated rule found. */
+    static final int MAX_EXAMPLES = 5;
+
+    /** Ranges of findings up to this size are counted sequentially when evaluating in parallel. */
+    static final int PARALLEL_THRESHOLD = 16 * 1024;
+
+    private final List<GatingRule> rules;
+
+    GatingRules(List<GatingRule> rules) {
+        this.rules = rules;
+    }
+
+    /**
+     * Reads the rules from the given rules file.
+     *
+     * @throws IOException if the file cannot be read or is not a valid rules file
+     */
+    public static GatingRules read(Path file) throws IOException {
+        try (BufferedSource source = Okio.buffer(Okio.source(file))) {
+            return new GatingRules(GatingRulesParser.parse(source));
+        }
+    }
+
+    /** The number of rules. */
+    public int size() {
+        return rules.size();
+    }
+
+    /**
+     * Evaluates the finding rules against all findings in the given store, using the common fork/join pool if
+     * {@code parallel} is set and the store is large. The listener receives the findings that match violated rules.
+     */
+    public EvaluationResult evaluateFindings(FindingStore findings, boolean parallel, ViolationListener listener) {
+        Object event = FlightEvents.beginEvaluation();
+        Tally tally;
+        if (parallel && findings.size() > PARALLEL_THRESHOLD) {
+            tally = ForkJoinPool.commonPool().invoke(new CountTask(findings, 0, findings.size()));
+        } else {
+            tally = count(findings, 0, findings.size());
+        }
+        boolean[] violated = findViolatedRules(tally);
+        EvaluationResult result = toResult(tally, violated, findings::get);
+        if (listener != ViolationListener.NONE) {
+            for (int i = 0; i < findings.size(); i++) {
+                if (matchesAny(violated, findings, i)) {
+                    listener.onFindingViolation(findings.get(i));
+                }
+            }
+        }
+        commit(event, "finding-rules", findings.size(), result);
+        return result;
+    }
+
+    /** Evaluates the metric rules against the given metric assessments. */
+    public EvaluationResult evaluateMetrics(List<MetricViolation> metricViolations, ViolationListener listener) {
+        Object event = FlightEvents.beginEvaluation();
+        Tally tally = new Tally(rules.size());
+        for (int i = 0; i < metricViolations.size(); i++) {
+            MetricViolation violation = metricViolations.get(i);
+            for (int rule = 0; rule < rules.size(); rule++) {
+                if (rules.get(rule).matches(violation)) {
+                    tally.record(rule, i);
+                }
+            }
+        }
+        boolean[] violated = findViolatedRules(tally);
+        EvaluationResult result = toResult(tally, violated, metricViolations::get);
+        for (MetricViolation violation : metricViolations) {
+            for (int rule = 0; rule < rules.size(); rule++) {
+                if (violated[rule] && rules.get(rule).matches(violation)) {
+                    listener.onMetricViolation(violation);
+                    break;
+                }
+            }
+        }
+        commit(event, "metric-rules", metricViolations.size(), result);
+        return result;
+    }
+
+    private Tally count(FindingStore findings, int start, int end) {
+        Tally tally = new Tally(rules.size());
+        int ruleCount = rules.size();
+        for (int i = start; i < end; i++) {
+            for (int rule = 0; rule < ruleCount; rule++) {
+                if (rules.get(rule).matches(findings, i)) {
+                    tally.record(rule, i);
+                }
+            }
+        }
+        return tally;
+    }
+
+    /** Creates a rule violation for each violated rule, looking up its examples by their index. */
+    private EvaluationResult toResult(Tally tally, boolean[] violated, IntFunction<Object> inputs) {
+        EvaluationResult result = new EvaluationResult();
+        for (int rule = 0; rule < rules.size(); rule++) {
+            if (!violated[rule]) {
+                continue;
+            }
+            List<Object> examples = new ArrayList<>();
+            for (int e = 0; e < tally.exampleCounts[rule]; e++) {
+                examples.add(inputs.apply(tally.examples[rule][e]));
+            }
+            GatingRule gatingRule = rules.get(rule);
+            result.addViolation(new RuleViolation(gatingRule.name, gatingRule.severity, tally.counts[rule],
+                    gatingRule.maxCount, examples));
+        }
+        return result;
+    }
+
+    private boolean[] findViolatedRules(Tally tally) {
+        boolean[] violated = new boolean[rules.size()];
+        for (int rule = 0; rule < rules.size(); rule++) {
+            violated[rule] = tally.counts[rule] > rules.get(rule).maxCount;
+        }
+        return violated;
+    }
+
+    private boolean matchesAny(boolean[] violated, FindingStore findings, int index) {
+        for (int rule = 0; rule < rules.size(); rule++) {
+            if (violated[rule] && rules.get(rule).matches(findings, index)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static void commit(Object event, String evaluator, int inputs, EvaluationResult result) {
+        if (event != null) {
+            FlightEvents.commitEvaluation(event, evaluator, inputs, result.getViolationCount(ProblemCategory.ERROR) +
+                    result.getViolationCount(ProblemCategory.WARNING), result.toStatusCode());
+        }
+    }
+
+    /** The number of matches of each rule and the indices of its first matches. */
+    private static class Tally {
+        private final int[] counts;
+        private final int[][] examples;
+        private final int[] exampleCounts;
+
+        private Tally(int ruleCount) {
+            counts = new int[ruleCount];
+            examples = new int[ruleCount][MAX_EXAMPLES];
+            exampleCounts = new int[ruleCount];
+        }
+
+        private void record(int rule, int index) {
+            counts[rule]++;
+            if (exampleCounts[rule] < MAX_EXAMPLES) {
+                examples[rule][exampleCounts[rule]++] = index;
+            }
+        }
+
+        /** Adds the tally of the directly following range of findings. */
+        private void addFollowing(Tally following) {
+            for (int rule = 0; rule < counts.length; rule++) {
+                counts[rule] += following.counts[rule];
+                for (int e = 0; e < following.exampleCounts[rule] && exampleCounts[rule] < MAX_EXAMPLES; e++) {
+                    examples[rule][exampleCounts[rule]++] = following.examples[rule][e];
+                }
+            }
+        }
+    }
+
+    /** Counts the matches in a range of findings, splitting it while it is large. */
+    private class CountTask extends RecursiveTask<Tally> {
+        private final FindingStore findings;
+        private final int start;
+        private final int end;
+
+        private CountTask(FindingStore findings, int start, int end) {
+            this.findings = findings;
+            this.start = start;
+            this.end = end;
+        }
+
+        @Override
+        protected Tally compute() {
+            if (end - start <= PARALLEL_THRESHOLD) {
+                return count(findings, start, end);
+            }
+            int middle = (start + end) >>> 1;
+            CountTask second = new CountTask(findings, middle, end);
+            second.fork();
+            Tally tally = new CountTask(findings, start, middle).compute();
+            tally.addFollowing(second.join());
+            return tally;
+        }
+    }
+}
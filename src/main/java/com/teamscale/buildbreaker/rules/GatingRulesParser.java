@@ -0,0 +1,181 @@
+package com.teamscale.buildbreaker.rules;
+
+import com.squareup.moshi.JsonDataException;
+import com.squareup.moshi.JsonEncodingException;
+import com.squareup.moshi.JsonReader;
+import com.teamscale.buildbreaker.evaluation.ProblemCategory;
+import okio.BufferedSource;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Reads a rules file of the form
+ *
+ * <pre>
+ * {"rules": [
+ *   {"name": "No red findings in core", "severity": "error", "maxCount": 5,
+ *    "findings": {"assessment": "red", "section": "any", "pathPrefix": "src/core/"}},
+ *   {"severity": "warning", "findings": {"category": "Naming", "section": "changed"}},
+ *   {"metrics": {"metric": "Clone Coverage", "rating": "red"}}
+ * ]}
+ * </pre>
+ * <p>
+ * A rule matches either findings or metrics. All criteria are optional. Rules default to severity {@code error} and a
+ * {@code maxCount} of 0, and finding rules default to the {@code added} findings.
+ */
+class GatingRulesParser {
+
+    private static final JsonReader.Options ROOT_NAMES = JsonReader.Options.of("rules");
+    private static final JsonReader.Options RULE_NAMES =
+            JsonReader.Options.of("name", "severity", "maxCount", "findings", "metrics");
+    private static final JsonReader.Options FINDING_NAMES =
+            JsonReader.Options.of("assessment", "section", "pathPrefix", "group", "category");
+    private static final JsonReader.Options METRIC_NAMES = JsonReader.Options.of("metric", "rating");
+
+    private GatingRulesParser() {
+        // Prevent instantiation
+    }
+
+    /**
+     * Reads the rules from the given source.
+     *
+     * @throws IOException if the rules cannot be read or are invalid. The message describes the problem.
+     */
+    static List<GatingRule> parse(BufferedSource source) throws IOException {
+        JsonReader reader = JsonReader.of(source);
+        List<GatingRule> rules = new ArrayList<>();
+        try {
+            reader.beginObject();
+            while (reader.hasNext()) {
+                if (reader.selectName(ROOT_NAMES) == 0) {
+                    reader.beginArray();
+                    while (reader.hasNext()) {
+                        rules.add(readRule(reader, rules.size() + 1));
+                    }
+                    reader.endArray();
+                } else {
+                    reader.skipName();
+                    reader.skipValue();
+                }
+            }
+            reader.endObject();
+        } catch (JsonDataException | JsonEncodingException e) {
+            throw new IOException("Invalid rules file: " + e.getMessage(), e);
+        }
+        return rules;
+    }
+
+    private static GatingRule readRule(JsonReader reader, int number) throws IOException {
+        String name = "Rule " + number;
+        ProblemCategory severity = ProblemCategory.ERROR;
+        int maxCount = 0;
+        Boolean metricRule = null;
+        ProblemCategory assessment = null;
+        GatingRule.Section section = GatingRule.Section.ADDED;
+        String pathPrefix = null;
+        String group = null;
+        String category = null;
+        String metric = null;
+
+        reader.beginObject();
+        while (reader.hasNext()) {
+            int property = reader.selectName(RULE_NAMES);
+            switch (property) {
+                case 0:
+                    name = reader.nextString();
+                    break;
+                case 1:
+                    severity = readRating(reader, "error", "warning");
+                    break;
+                case 2:
+                    maxCount = reader.nextInt();
+                    if (maxCount < 0) {
+                        throw new IOException("Invalid rules file: maxCount must not be negative at " + reader.getPath());
+                    }
+                    break;
+                case 3:
+                case 4:
+                    if (metricRule != null) {
+                        throw new IOException("Invalid rules file: " + name + " must match either findings or metrics");
+                    }
+                    metricRule = property == 4;
+                    reader.beginObject();
+                    while (reader.hasNext()) {
+                        if (metricRule) {
+                            switch (reader.selectName(METRIC_NAMES)) {
+                                case 0:
+                                    metric = reader.nextString();
+                                    break;
+                                case 1:
+                                    assessment = readRating(reader, "red", "yellow");
+                                    break;
+                                default:
+                                    throw unknownName(reader);
+                            }
+                            continue;
+                        }
+                        switch (reader.selectName(FINDING_NAMES)) {
+                            case 0:
+                                assessment = readRating(reader, "red", "yellow");
+                                break;
+                            case 1:
+                                section = readSection(reader);
+                                break;
+                            case 2:
+                                pathPrefix = reader.nextString();
+                                break;
+                            case 3:
+                                group = reader.nextString();
+                                break;
+                            case 4:
+                                category = reader.nextString();
+                                break;
+                            default:
+                                throw unknownName(reader);
+                        }
+                    }
+                    reader.endObject();
+                    break;
+                default:
+                    throw unknownName(reader);
+            }
+        }
+        reader.endObject();
+        if (metricRule == null) {
+            throw new IOException("Invalid rules file: " + name + " must match findings or metrics");
+        }
+        return new GatingRule(name, severity, maxCount, metricRule, assessment, section, pathPrefix, group, category,
+                metric);
+    }
+
+    /** Reads a value that is either the name of an {@link ProblemCategory#ERROR} or a {@link ProblemCategory#WARNING}. */
+    private static ProblemCategory readRating(JsonReader reader, String errorName, String warningName)
+            throws IOException {
+        String value = reader.nextString();
+        if (value.equalsIgnoreCase(errorName)) {
+            return ProblemCategory.ERROR;
+        }
+        if (value.equalsIgnoreCase(warningName)) {
+            return ProblemCategory.WARNING;
+        }
+        throw new IOException("Invalid rules file: expected " + errorName + " or " + warningName + " but was " + value +
+                " at " + reader.getPath());
+    }
+
+    private static IOException unknownName(JsonReader reader) throws IOException {
+        return new IOException("Invalid rules file: unknown property " + reader.nextName() + " at " + reader.getPath());
+    }
+
+    private static GatingRule.Section readSection(JsonReader reader) throws IOException {
+        String value = reader.nextString();
+        for (GatingRule.Section section : GatingRule.Section.values()) {
+            if (section.name().equalsIgnoreCase(value)) {
+                return section;
+            }
+        }
+        throw new IOException("Invalid rules file: expected added, changed or any but was " + value + " at " +
+                reader.getPath());
+    }
+}
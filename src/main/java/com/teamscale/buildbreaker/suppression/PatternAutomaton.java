@@ -0,0 +1,286 @@
+package com.teamscale.buildbreaker.suppression;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Matches a string against any number of patterns at once. The patterns are compiled into a single nondeterministic
+ * automaton (one branch per pattern), which is turned into a deterministic one lazily while strings are matched: each
+ * deterministic state is the set of nondeterministic states reachable with the characters read so far, and its
+ * transitions are computed once per character and then cached. Matching therefore takes time proportional to the
+ * length of the string, regardless of the number of patterns, and stops at the first character after which no pattern
+ * can match anymore. For plain strings, the automaton is a trie of the patterns.
+ * <p>
+ * At most {@link #MAX_CACHED_STATES} deterministic states are cached. If a set of patterns needs more, the cache is
+ * cleared and rebuilt on demand, so memory stays bounded at the cost of recomputing transitions.
+ * <p>
+ * Not thread-safe, since matching extends the cache.
+ */
+class PatternAutomaton {
+
+    /** The maximum number of deterministic states that are cached. */
+    static final int MAX_CACHED_STATES = 10_000;
+
+    private static final int[] NO_PATTERNS = new int[0];
+
+    /** Characters below this get their transitions cached in an array rather than a map. */
+    private static final int ASCII = 128;
+
+    private int size;
+
+    /** The pattern that matches if a string ends in the state, or -1. */
+    private int[] matchedPatterns = new int[64];
+
+    /** The sorted, inclusive ranges of characters on which a character state moves to its {@link #next} state. */
+    private int[][] characterRanges = new int[64][];
+
+    /** The successor of a character state, or the first epsilon successor of a split state. */
+    private int[] next = new int[64];
+
+    /** The second epsilon successor of a split state. */
+    private int[] alternatives = new int[64];
+
+    private int[] starts = new int[16];
+    private int startCount;
+
+    private final Map<StateSet, DfaState> cache = new HashMap<>();
+    private DfaState start;
+
+    private int[] visitedGeneration = new int[0];
+    private int generation;
+    private int[] stack = new int[0];
+
+    /** Adds a state in which the given pattern matches. */
+    int addMatch(int pattern) {
+        int state = add();
+        matchedPatterns[state] = pattern;
+        return state;
+    }
+
+    /** Adds a state that moves to the given state on any character in the given ranges. */
+    int addCharacter(int[] ranges, int nextState) {
+        int state = add();
+        characterRanges[state] = ranges;
+        next[state] = nextState;
+        return state;
+    }
+
+    /** Adds a state that moves to both given states without reading a character. The first may be set later. */
+    int addSplit(int first, int second) {
+        int state = add();
+        next[state] = first;
+        alternatives[state] = second;
+        return state;
+    }
+
+    /** Sets the first successor of a split state, for loops whose body is compiled after the split. */
+    void setFirst(int split, int first) {
+        next[split] = first;
+    }
+
+    /** Adds the start state of a compiled pattern. */
+    void addPattern(int startState) {
+        if (startCount == starts.length) {
+            starts = Arrays.copyOf(starts, startCount * 2);
+        }
+        starts[startCount++] = startState;
+        cache.clear();
+        start = null;
+    }
+
+    private int add() {
+        if (size == next.length) {
+            int capacity = size * 2;
+            matchedPatterns = Arrays.copyOf(matchedPatterns, capacity);
+            characterRanges = Arrays.copyOf(characterRanges, capacity);
+            next = Arrays.copyOf(next, capacity);
+            alternatives = Arrays.copyOf(alternatives, capacity);
+        }
+        matchedPatterns[size] = -1;
+        characterRanges[size] = null;
+        next[size] = -1;
+        alternatives[size] = -1;
+        return size++;
+    }
+
+    /** Returns the patterns that match the whole given string, in ascending order. */
+    int[] match(String value) {
+        if (start == null) {
+            start = intern(closure(starts, startCount));
+        }
+        DfaState state = start;
+        for (int i = 0; i < value.length(); i++) {
+            if (state.states.length == 0) {
+                return NO_PATTERNS;
+            }
+            state = step(state, value.charAt(i));
+        }
+        return state.matchedPatterns;
+    }
+
+    private DfaState step(DfaState state, char character) {
+        DfaState target = state.transition(character);
+        if (target != null) {
+            return target;
+        }
+        if (cache.size() >= MAX_CACHED_STATES) {
+            cache.clear();
+            start = null;
+            state = intern(state.states);
+        }
+        target = intern(move(state.states, character));
+        state.setTransition(character, target);
+        return target;
+    }
+
+    /** The character and match states reachable from the given states by reading the given character. */
+    private int[] move(int[] states, char character) {
+        int[] targets = new int[states.length];
+        int count = 0;
+        for (int state : states) {
+            int[] ranges = characterRanges[state];
+            if (ranges != null && contains(ranges, character)) {
+                targets[count++] = next[state];
+            }
+        }
+        return closure(targets, count);
+    }
+
+    private static boolean contains(int[] ranges, char character) {
+        for (int i = 0; i < ranges.length; i += 2) {
+            if (character < ranges[i]) {
+                return false;
+            }
+            if (character <= ranges[i + 1]) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * The sorted character and match states reachable from the given states without reading a character. Split
+     * states only lead to other states and are left out, so equal sets of reachable states are equal arrays.
+     */
+    private int[] closure(int[] states, int count) {
+        if (visitedGeneration.length < size || generation == Integer.MAX_VALUE) {
+            visitedGeneration = new int[size];
+            stack = new int[size];
+            generation = 0;
+        }
+        generation++;
+        int[] result = new int[Math.min(size, 16)];
+        int resultCount = 0;
+        int stackSize = 0;
+        for (int i = 0; i < count; i++) {
+            stackSize = push(states[i], stackSize);
+        }
+        while (stackSize > 0) {
+            int state = stack[--stackSize];
+            if (characterRanges[state] != null || matchedPatterns[state] >= 0) {
+                if (resultCount == result.length) {
+                    result = Arrays.copyOf(result, resultCount * 2);
+                }
+                result[resultCount++] = state;
+            } else {
+                stackSize = push(alternatives[state], stackSize);
+                stackSize = push(next[state], stackSize);
+            }
+        }
+        int[] closure = Arrays.copyOf(result, resultCount);
+        Arrays.sort(closure);
+        return closure;
+    }
+
+    /** Pushes the given state unless it has been visited in this closure, so each state is pushed at most once. */
+    private int push(int state, int stackSize) {
+        if (state < 0 || visitedGeneration[state] == generation) {
+            return stackSize;
+        }
+        visitedGeneration[state] = generation;
+        stack[stackSize] = state;
+        return stackSize + 1;
+    }
+
+    private DfaState intern(int[] states) {
+        StateSet key = new StateSet(states);
+        DfaState state = cache.get(key);
+        if (state == null) {
+            state = new DfaState(states, collectMatchedPatterns(states));
+            cache.put(key, state);
+        }
+        return state;
+    }
+
+    private int[] collectMatchedPatterns(int[] states) {
+        int[] patterns = new int[states.length];
+        int count = 0;
+        for (int state : states) {
+            if (matchedPatterns[state] >= 0) {
+                patterns[count++] = matchedPatterns[state];
+            }
+        }
+        if (count == 0) {
+            return NO_PATTERNS;
+        }
+        patterns = Arrays.copyOf(patterns, count);
+        Arrays.sort(patterns);
+        return patterns;
+    }
+
+    /** A set of nondeterministic states as the key of the cache. */
+    private static class StateSet {
+        private final int[] states;
+        private final int hashCode;
+
+        private StateSet(int[] states) {
+            this.states = states;
+            this.hashCode = Arrays.hashCode(states);
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            return other instanceof StateSet && Arrays.equals(states, ((StateSet) other).states);
+        }
+
+        @Override
+        public int hashCode() {
+            return hashCode;
+        }
+    }
+
+    /** A state of the deterministic automaton with its cached transitions. */
+    private static class DfaState {
+        private final int[] states;
+        private final int[] matchedPatterns;
+        private final DfaState[] asciiTransitions = new DfaState[ASCII];
+        private Map<Character, DfaState> otherTransitions;
+
+        private DfaState(int[] states, int[] matchedPatterns) {
+            this.states = states;
+            this.matchedPatterns = matchedPatterns;
+        }
+
+        private DfaState transition(char character) {
+            if (character < ASCII) {
+                return asciiTransitions[character];
+            }
+            if (otherTransitions == null) {
+                return null;
+            }
+            return otherTransitions.get(character);
+        }
+
+        private void setTransition(char character, DfaState target) {
+            if (character < ASCII) {
+                asciiTransitions[character] = target;
+                return;
+            }
+            if (otherTransitions == null) {
+                otherTransitions = new HashMap<>();
+            }
+            otherTransitions.put(character, target);
+        }
+    }
+}
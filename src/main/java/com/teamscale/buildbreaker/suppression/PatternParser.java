@@ -0,0 +1,362 @@
+package com.teamscale.buildbreaker.suppression;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Parses globs and regular expressions and compiles them into a {@link PatternAutomaton}. Both always match the whole
+ * string, like {@link String#matches(String)}.
+ * <p>
+ * Regular expressions support the subset of the Java syntax that an automaton can match: literals, escaped
+ * characters, {@code .}, character classes (including ranges, negation, {@code \d}, {@code \w} and {@code \s}),
+ * groups, {@code |}, {@code *}, {@code +} and {@code ?}, as well as {@code ^} and {@code $} at the start and end.
+ * Other constructs, e.g. bounded repetitions or back references, are rejected.
+ * <p>
+ * In globs, {@code ?} matches any single character, {@code *} any number of characters and {@code [...]} any character
+ * of the class ({@code [!...]} negates it). In path globs, {@code ?} and {@code *} do not match {@code /}, {@code **}
+ * matches any number of characters including {@code /}, and {@code **}{@code /} matches any number of directories.
+ */
+class PatternParser {
+
+    private static final int MAX_CHARACTER = Character.MAX_VALUE;
+
+    private static final int[] ANY = {0, MAX_CHARACTER};
+    private static final int[] NOT_SLASH = {0, '/' - 1, '/' + 1, MAX_CHARACTER};
+    private static final int[] DIGIT = {'0', '9'};
+    private static final int[] WORD = {'0', '9', 'A', 'Z', '_', '_', 'a', 'z'};
+    private static final int[] WHITESPACE = {'\t', '\r', ' ', ' '};
+
+    private static final Node EMPTY = (automaton, next) -> next;
+
+    private final String pattern;
+    private int position;
+
+    private PatternParser(String pattern) {
+        this.pattern = pattern;
+    }
+
+    /**
+     * Compiles the given regular expression into the automaton, leading to the given state if it matches.
+     *
+     * @throws IllegalArgumentException if the expression is invalid or not supported
+     */
+    static void addRegex(PatternAutomaton automaton, String regex, int matchState) {
+        PatternParser parser = new PatternParser(regex);
+        Node node = parser.parseAlternation();
+        if (parser.position < regex.length()) {
+            throw parser.error("Unmatched )");
+        }
+        automaton.addPattern(node.compile(automaton, matchState));
+    }
+
+    /**
+     * Compiles the given glob into the automaton, leading to the given state if it matches.
+     *
+     * @throws IllegalArgumentException if the glob is invalid
+     */
+    static void addGlob(PatternAutomaton automaton, String glob, boolean pathGlob, int matchState) {
+        automaton.addPattern(new PatternParser(glob).parseGlob(pathGlob).compile(automaton, matchState));
+    }
+
+    private Node parseGlob(boolean pathGlob) {
+        int[] singleCharacter = pathGlob ? NOT_SLASH : ANY;
+        List<Node> parts = new ArrayList<>();
+        while (position < pattern.length()) {
+            char character = pattern.charAt(position++);
+            switch (character) {
+                case '*':
+                    if (pathGlob && consume('*')) {
+                        if (consume('/')) {
+                            parts.add(optional(concatenation(Arrays.asList(star(characters(ANY)),
+                                    characters(single('/'))))));
+                        } else {
+                            parts.add(star(characters(ANY)));
+                        }
+                    } else {
+                        parts.add(star(characters(singleCharacter)));
+                    }
+                    break;
+                case '?':
+                    parts.add(characters(singleCharacter));
+                    break;
+                case '[':
+                    parts.add(characters(parseCharacterClass('!')));
+                    break;
+                case '\\':
+                    if (position == pattern.length()) {
+                        throw error("Trailing \\");
+                    }
+                    parts.add(characters(single(pattern.charAt(position++))));
+                    break;
+                default:
+                    parts.add(characters(single(character)));
+            }
+        }
+        return concatenation(parts);
+    }
+
+    private Node parseAlternation() {
+        List<Node> alternatives = new ArrayList<>();
+        alternatives.add(parseConcatenation());
+        while (consume('|')) {
+            alternatives.add(parseConcatenation());
+        }
+        if (alternatives.size() == 1) {
+            return alternatives.get(0);
+        }
+        return (automaton, next) -> {
+            int start = alternatives.get(alternatives.size() - 1).compile(automaton, next);
+            for (int i = alternatives.size() - 2; i >= 0; i--) {
+                start = automaton.addSplit(alternatives.get(i).compile(automaton, next), start);
+            }
+            return start;
+        };
+    }
+
+    private Node parseConcatenation() {
+        List<Node> parts = new ArrayList<>();
+        while (position < pattern.length() && pattern.charAt(position) != '|' && pattern.charAt(position) != ')') {
+            parts.add(parseRepetition());
+        }
+        return concatenation(parts);
+    }
+
+    private Node parseRepetition() {
+        Node node = parseAtom();
+        while (position < pattern.length()) {
+            char character = pattern.charAt(position);
+            if (character == '*') {
+                node = star(node);
+            } else if (character == '+') {
+                node = plus(node);
+            } else if (character == '?') {
+                node = optional(node);
+            } else if (character == '{') {
+                throw error("Bounded repetitions are not supported");
+            } else {
+                break;
+            }
+            position++;
+        }
+        return node;
+    }
+
+    private Node parseAtom() {
+        char character = pattern.charAt(position++);
+        switch (character) {
+            case '(':
+                if (consume('?') && !consume(':')) {
+                    throw error("Only non-capturing groups (?:...) are supported");
+                }
+                Node group = parseAlternation();
+                if (!consume(')')) {
+                    throw error("Unclosed group");
+                }
+                return group;
+            case '[':
+                return characters(parseCharacterClass('^'));
+            case '.':
+                return characters(ANY);
+            case '\\':
+                return characters(parseEscape());
+            case '^':
+                if (position == 1) {
+                    return EMPTY;
+                }
+                throw error("^ is only supported at the start");
+            case '$':
+                if (position == pattern.length()) {
+                    return EMPTY;
+                }
+                throw error("$ is only supported at the end");
+            case '*':
+            case '+':
+            case '?':
+            case '{':
+                throw error("Nothing to repeat");
+            default:
+                return characters(single(character));
+        }
+    }
+
+    /** Parses a character class after its opening bracket. */
+    private int[] parseCharacterClass(char negation) {
+        boolean negated = consume(negation);
+        List<int[]> ranges = new ArrayList<>();
+        boolean first = true;
+        while (true) {
+            if (position == pattern.length()) {
+                throw error("Unclosed character class");
+            }
+            char character = pattern.charAt(position++);
+            if (character == ']' && !first) {
+                break;
+            }
+            first = false;
+            if (character == '\\') {
+                int[] escaped = parseEscape();
+                if (escaped.length > 2 || escaped[0] != escaped[1]) {
+                    ranges.add(escaped);
+                    continue;
+                }
+                character = (char) escaped[0];
+            } else if (character == '[') {
+                throw error("Nested character classes are not supported");
+            }
+            char last = character;
+            if (position + 1 < pattern.length() && pattern.charAt(position) == '-' &&
+                    pattern.charAt(position + 1) != ']') {
+                position++;
+                last = pattern.charAt(position++);
+                if (last == '\\') {
+                    int[] escaped = parseEscape();
+                    if (escaped.length > 2 || escaped[0] != escaped[1]) {
+                        throw error("Invalid range");
+                    }
+                    last = (char) escaped[0];
+                }
+                if (last < character) {
+                    throw error("Invalid range");
+                }
+            }
+            ranges.add(new int[]{character, last});
+        }
+        int[] union = union(ranges);
+        return negated ? complement(union) : union;
+    }
+
+    /** Parses an escape sequence after its backslash. */
+    private int[] parseEscape() {
+        if (position == pattern.length()) {
+            throw error("Trailing \\");
+        }
+        char character = pattern.charAt(position++);
+        switch (character) {
+            case 'd':
+                return DIGIT;
+            case 'D':
+                return complement(DIGIT);
+            case 'w':
+                return WORD;
+            case 'W':
+                return complement(WORD);
+            case 's':
+                return WHITESPACE;
+            case 'S':
+                return complement(WHITESPACE);
+            case 't':
+                return single('\t');
+            case 'n':
+                return single('\n');
+            case 'r':
+                return single('\r');
+            case 'f':
+                return single('\f');
+            default:
+                if (Character.isLetterOrDigit(character)) {
+                    throw error("The escape sequence \\" + character + " is not supported");
+                }
+                return single(character);
+        }
+    }
+
+    private boolean consume(char character) {
+        if (position < pattern.length() && pattern.charAt(position) == character) {
+            position++;
+            return true;
+        }
+        return false;
+    }
+
+    private IllegalArgumentException error(String message) {
+        return new IllegalArgumentException(message + " in " + pattern);
+    }
+
+    private static int[] single(char character) {
+        return new int[]{character, character};
+    }
+
+    /** Merges the given ranges into sorted, disjoint ranges. */
+    private static int[] union(List<int[]> ranges) {
+        List<int[]> pairs = new ArrayList<>();
+        for (int[] range : ranges) {
+            for (int i = 0; i < range.length; i += 2) {
+                pairs.add(new int[]{range[i], range[i + 1]});
+            }
+        }
+        pairs.sort((first, second) -> Integer.compare(first[0], second[0]));
+        int[] result = new int[pairs.size() * 2];
+        int count = 0;
+        for (int[] pair : pairs) {
+            if (count > 0 && pair[0] <= result[count - 1] + 1) {
+                result[count - 1] = Math.max(result[count - 1], pair[1]);
+            } else {
+                result[count++] = pair[0];
+                result[count++] = pair[1];
+            }
+        }
+        return Arrays.copyOf(result, count);
+    }
+
+    /** The characters that are not in the given sorted, disjoint ranges. */
+    private static int[] complement(int[] ranges) {
+        int[] result = new int[ranges.length + 2];
+        int count = 0;
+        int from = 0;
+        for (int i = 0; i < ranges.length; i += 2) {
+            if (ranges[i] > from) {
+                result[count++] = from;
+                result[count++] = ranges[i] - 1;
+            }
+            from = ranges[i + 1] + 1;
+        }
+        if (from <= MAX_CHARACTER) {
+            result[count++] = from;
+            result[count++] = MAX_CHARACTER;
+        }
+        return Arrays.copyOf(result, count);
+    }
+
+    private static Node characters(int[] ranges) {
+        return (automaton, next) -> automaton.addCharacter(ranges, next);
+    }
+
+    private static Node concatenation(List<Node> parts) {
+        return (automaton, next) -> {
+            int start = next;
+            for (int i = parts.size() - 1; i >= 0; i--) {
+                start = parts.get(i).compile(automaton, start);
+            }
+            return start;
+        };
+    }
+
+    private static Node star(Node node) {
+        return (automaton, next) -> {
+            int split = automaton.addSplit(-1, next);
+            automaton.setFirst(split, node.compile(automaton, split));
+            return split;
+        };
+    }
+
+    private static Node plus(Node node) {
+        return (automaton, next) -> {
+            int split = automaton.addSplit(-1, next);
+            int start = node.compile(automaton, split);
+            automaton.setFirst(split, start);
+            return start;
+        };
+    }
+
+    private static Node optional(Node node) {
+        return (automaton, next) -> automaton.addSplit(node.compile(automaton, next), next);
+    }
+
+    /** A parsed part of a pattern, compiled with the state that follows it. */
+    @FunctionalInterface
+    private interface Node {
+        /** Adds the states of this part to the automaton and returns its start state. */
+        int compile(PatternAutomaton automaton, int next);
+    }
+}
@@ -0,0 +1,201 @@
+package com.teamscale.buildbreaker.suppression;
+
+import com.teamscale.buildbreaker.evaluation.Finding;
+import com.teamscale.buildbreaker.evaluation.FindingConsumer;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Suppresses findings whose uniform path, group, category or message matches one of many patterns, e.g. generated
+ * code or accepted categories. Each line of a suppressions file is a pattern of the form {@code <field>:<glob>} or
+ * {@code <field>:regex:<regex>}, where the field is {@code path}, {@code group}, {@code category} or {@code message}
+ * (see {@link PatternParser} for the syntax). Empty lines and lines starting with {@code #} are ignored.
+ * <p>
+ * The patterns of each field are compiled into one {@link PatternAutomaton}, so checking a finding takes time
+ * proportional to the length of its fields, regardless of the number of patterns. For each pattern, the number of
+ * findings it matched is counted, so unused or too broad patterns can be spotted.
+ * <p>
+ * Not thread-safe.
+ */
+public class Suppressions {
+
+    private static final String REGEX_PREFIX = "regex:";
+
+    private enum Field {
+        PATH,
+        GROUP,
+        CATEGORY,
+        MESSAGE
+    }
+
+    /** The patterns as given in the file. */
+    private final List<String> patterns = new ArrayList<>();
+
+    /** The automaton of each field, or {@code null} if the field has no patterns. */
+    private final PatternAutomaton[] automata = new PatternAutomaton[Field.values().length];
+
+    private int[] suppressedFindingsByPattern;
+    private int suppressedFindings;
+
+    /**
+     * Reads and compiles the patterns in the given suppressions file.
+     *
+     * @throws IOException if the file cannot be read or contains an invalid pattern
+     */
+    public static Suppressions read(Path file) throws IOException {
+        return compile(Files.readAllLines(file, StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Compiles the given lines of a suppressions file.
+     *
+     * @throws IOException if a line is not a valid pattern. The message names the line.
+     */
+    static Suppressions compile(List<String> lines) throws IOException {
+        Suppressions suppressions = new Suppressions();
+        for (int i = 0; i < lines.size(); i++) {
+            String line = lines.get(i).trim();
+            if (line.isEmpty() || line.startsWith("#")) {
+                continue;
+            }
+            try {
+                suppressions.add(line);
+            } catch (IllegalArgumentException e) {
+                throw new IOException("Invalid suppression in line " + (i + 1) + ": " + e.getMessage(), e);
+            }
+        }
+        suppressions.suppressedFindingsByPattern = new int[suppressions.patterns.size()];
+        return suppressions;
+    }
+
+    private void add(String line) {
+        int separator = line.indexOf(':');
+        Field field = null;
+        if (separator > 0) {
+            String fieldName = line.substring(0, separator);
+            for (Field candidate : Field.values()) {
+                if (candidate.name().equalsIgnoreCase(fieldName)) {
+                    field = candidate;
+                }
+            }
+        }
+        if (field == null) {
+            throw new IllegalArgumentException(
+                    "Expected <field>:<pattern> with a field of path, group, category or message but was " + line);
+        }
+        PatternAutomaton automaton = automata[field.ordinal()];
+        if (automaton == null) {
+            automaton = new PatternAutomaton();
+            automata[field.ordinal()] = automaton;
+        }
+        String pattern = line.substring(separator + 1);
+        int matchState = automaton.addMatch(patterns.size());
+        if (pattern.startsWith(REGEX_PREFIX)) {
+            PatternParser.addRegex(automaton, pattern.substring(REGEX_PREFIX.length()), matchState);
+        } else {
+            PatternParser.addGlob(automaton, pattern, field == Field.PATH, matchState);
+        }
+        patterns.add(line);
+    }
+
+    /** The number of patterns. */
+    public int size() {
+        return patterns.size();
+    }
+
+    /** Whether the given finding matches any pattern. Counts the finding for each matching pattern if it does. */
+    public boolean suppresses(Finding finding) {
+        boolean suppressed = count(Field.PATH, finding.uniformPath);
+        suppressed |= count(Field.GROUP, finding.group);
+        suppressed |= count(Field.CATEGORY, finding.category);
+        suppressed |= count(Field.MESSAGE, finding.message);
+        if (suppressed) {
+            suppressedFindings++;
+        }
+        return suppressed;
+    }
+
+    private boolean count(Field field, String value) {
+        PatternAutomaton automaton = automata[field.ordinal()];
+        if (automaton == null) {
+            return false;
+        }
+        int[] matchedPatterns = automaton.match(value);
+        for (int pattern : matchedPatterns) {
+            suppressedFindingsByPattern[pattern]++;
+        }
+        return matchedPatterns.length > 0;
+    }
+
+    /**
+     * Returns a consumer that passes all findings that are not {@linkplain #suppresses(Finding) suppressed} on to the
+     * given consumer.
+     */
+    public FindingConsumer filter(FindingConsumer consumer) {
+        return new FindingConsumer() {
+            @Override
+            public void acceptAddedFinding(Finding finding) {
+                if (!suppresses(finding)) {
+                    consumer.acceptAddedFinding(finding);
+                }
+            }
+
+            @Override
+            public void acceptFindingInChangedCode(Finding finding) {
+                if (!suppresses(finding)) {
+                    consumer.acceptFindingInChangedCode(finding);
+                }
+            }
+
+            @Override
+            public boolean isDone() {
+                return consumer.isDone();
+            }
+        };
+    }
+
+    /** The number of findings that matched at least one pattern. */
+    public int getSuppressedFindings() {
+        return suppressedFindings;
+    }
+
+    /** The number of findings that matched the pattern at the given index, in the order of the file. */
+    public int getSuppressedFindings(int pattern) {
+        return suppressedFindingsByPattern[pattern];
+    }
+
+    /**
+     * Writes the number of suppressed findings and, for each pattern that matched findings, how many it matched, most
+     * first. A finding that matches several patterns is counted for each of them.
+     */
+    public void writeStatisticsTo(Appendable out) throws IOException {
+        out.append("Suppressed ").append(String.valueOf(suppressedFindings)).append(" findings with ")
+                .append(String.valueOf(patterns.size())).append(" patterns.\n");
+        List<Integer> usedPatterns = new ArrayList<>();
+        for (int pattern = 0; pattern < patterns.size(); pattern++) {
+            if (suppressedFindingsByPattern[pattern] > 0) {
+                usedPatterns.add(pattern);
+            }
+        }
+        usedPatterns.sort((first, second) -> {
+            int byCount = Integer.compare(suppressedFindingsByPattern[second], suppressedFindingsByPattern[first]);
+            if (byCount != 0) {
+                return byCount;
+            }
+            return Integer.compare(first, second);
+        });
+        for (int pattern : usedPatterns) {
+            out.append('\t').append(patterns.get(pattern)).append(": ")
+                    .append(String.valueOf(suppressedFindingsByPattern[pattern])).append('\n');
+        }
+        int unusedPatterns = patterns.size() - usedPatterns.size();
+        if (unusedPatterns > 0) {
+            out.append(String.valueOf(unusedPatterns)).append(" patterns matched no findings.\n");
+        }
+    }
+}
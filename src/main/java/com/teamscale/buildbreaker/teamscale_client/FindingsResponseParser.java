@@ -0,0 +1,262 @@
+package com.teamscale.buildbreaker.teamscale_client;
+
+import com.squareup.moshi.JsonDataException;
+import com.squareup.moshi.JsonEncodingException;
+import com.squareup.moshi.JsonReader;
+import com.teamscale.buildbreaker.evaluation.Finding;
+import com.teamscale.buildbreaker.evaluation.FindingConsumer;
+import com.teamscale.buildbreaker.evaluation.ProblemCategory;
+import com.teamscale.buildbreaker.jfr.FlightEvents;
+import com.teamscale.buildbreaker.jfr.ParseEvent;
+import com.teamscale.buildbreaker.teamscale_client.exceptions.ParserException;
+import okio.BufferedSource;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.util.function.Consumer;
+
+/**
+ * Decodes the responses of the finding-churn and findings-delta endpoints token by token directly from the response
+ * stream and hands every {@link Finding} to a {@link FindingConsumer} as soon as it has been read. Neither the
+ * response body nor an intermediate JSON tree is ever held in memory.
+ *
+ * @implNote The delta APIs are not yet public APIs (<a href="https://cqse.atlassian.net/browse/TS-44014">TS-44014</a>)
+ * and their JSON format changed with Teamscale 2025.6. From 2025.6 on, each section is an object wrapping a
+ * {@code findings} array, while 2025.5 and below (as well as the finding-churn list) return plain arrays. The format
+ * is detected per section from the first token, so the response never needs to be read twice.
+ */
+class FindingsResponseParser {
+
+    private static final String ADDED_FINDINGS = "addedFindings";
+    private static final String FINDINGS_IN_CHANGED_CODE = "findingsInChangedCode";
+
+    private static final JsonReader.Options SECTION_NAMES = JsonReader.Options.of(ADDED_FINDINGS, FINDINGS_IN_CHANGED_CODE);
+    private static final JsonReader.Options WRAPPER_NAMES = JsonReader.Options.of("findings");
+    private static final JsonReader.Options FINDING_NAMES =
+            JsonReader.Options.of("id", "groupName", "categoryName", "message", "location", "assessment");
+    private static final JsonReader.Options LOCATION_NAMES = JsonReader.Options.of("uniformPath");
+    private static final JsonReader.Options RATING_NAMES = JsonReader.Options.of("YELLOW", "RED");
+
+    private static final String UNDEFINED_UNIFORM_PATH = "<undefined>";
+
+    /** {@link ParseEvent#format} of sections that are plain arrays (2025.5 and below). */
+    private static final String PLAIN_ARRAY_FORMAT = "plain-array";
+
+    /** {@link ParseEvent#format} of sections that wrap a {@code findings} array (2025.6 and up). */
+    private static final String WRAPPED_FORMAT = "wrapped";
+
+    /** {@link ParseEvent#format} of responses whose sections use different formats. */
+    private static final String MIXED_FORMAT = "mixed";
+
+    private FindingsResponseParser() {
+        // Prevent instantiation
+    }
+
+    /**
+     * Reads a findings response from the given source and passes all contained findings to the consumer. Stops
+     * reading as soon as the consumer {@linkplain FindingConsumer#isDone() is done}, leaving the rest of the response
+     * unread and unvalidated.
+     *
+     * @throws ParserException if the response is not valid JSON or does not have the expected structure
+     */
+    static void parse(BufferedSource source, FindingConsumer consumer) throws IOException, ParserException {
+        JsonReader reader = JsonReader.of(source);
+        Object event = FlightEvents.beginParse();
+        try {
+            boolean addedFindingsRead = false;
+            boolean findingsInChangedCodeRead = false;
+            String format = null;
+            int findingCount = 0;
+            reader.beginObject();
+            while (!consumer.isDone() && reader.hasNext()) {
+                switch (reader.selectName(SECTION_NAMES)) {
+                    case 0:
+                        format = combineFormats(format, reader.peek());
+                        findingCount += readSection(reader, consumer::acceptAddedFinding, consumer);
+                        addedFindingsRead = true;
+                        break;
+                    case 1:
+                        format = combineFormats(format, reader.peek());
+                        findingCount += readSection(reader, consumer::acceptFindingInChangedCode, consumer);
+                        findingsInChangedCodeRead = true;
+                        break;
+                    default:
+                        reader.skipName();
+                        reader.skipValue();
+                }
+            }
+            if (!consumer.isDone()) {
+                reader.endObject();
+                if (!addedFindingsRead) {
+                    throw new JsonDataException("Missing '" + ADDED_FINDINGS + "' at " + reader.getPath());
+                }
+                if (!findingsInChangedCodeRead) {
+                    throw new JsonDataException("Missing '" + FINDINGS_IN_CHANGED_CODE + "' at " + reader.getPath());
+                }
+            }
+            FlightEvents.commitParse(event, ParseEvent.FINDINGS, format, findingCount);
+        } catch (JsonDataException | JsonEncodingException e) {
+            throw new ParserException("Could not parse findings JSON response: " + e.getMessage() +
+                    "\n\nPlease contact CQSE with an error report.", e);
+        } catch (EOFException e) {
+            throw new ParserException("Findings JSON response ended unexpectedly at " + reader.getPath() +
+                    "\n\nPlease contact CQSE with an error report.", e);
+        }
+    }
+
+    /**
+     * Returns the format of a response given the format of its sections so far and the first token of the next section.
+     */
+    private static String combineFormats(String format, JsonReader.Token sectionToken) {
+        String sectionFormat = sectionToken == JsonReader.Token.BEGIN_OBJECT ? WRAPPED_FORMAT : PLAIN_ARRAY_FORMAT;
+        if (format == null || format.equals(sectionFormat)) {
+            return sectionFormat;
+        }
+        return MIXED_FORMAT;
+    }
+
+    /**
+     * Reads a section and returns the number of findings it contained. Returns early, without reading the rest of the
+     * section, once the consumer is done.
+     */
+    private static int readSection(JsonReader reader, Consumer<Finding> sectionConsumer, FindingConsumer consumer) throws IOException {
+        int findingCount = 0;
+        switch (reader.peek()) {
+            case BEGIN_ARRAY:
+                // 2025.5 and below
+                findingCount = readFindings(reader, sectionConsumer, consumer);
+                break;
+            case BEGIN_OBJECT:
+                // 2025.6 and up
+                boolean findingsRead = false;
+                reader.beginObject();
+                while (reader.hasNext()) {
+                    if (reader.selectName(WRAPPER_NAMES) == 0) {
+                        findingCount = readFindings(reader, sectionConsumer, consumer);
+                        if (consumer.isDone()) {
+                            return findingCount;
+                        }
+                        findingsRead = true;
+                    } else {
+                        reader.skipName();
+                        reader.skipValue();
+                    }
+                }
+                reader.endObject();
+                if (!findingsRead) {
+                    throw new JsonDataException("Missing 'findings' at " + reader.getPath());
+                }
+                break;
+            default:
+                throw new JsonDataException("Expected an array or object but was " + reader.peek() + " at " + reader.getPath());
+        }
+        return findingCount;
+    }
+
+    private static int readFindings(JsonReader reader, Consumer<Finding> sectionConsumer, FindingConsumer consumer) throws IOException {
+        int findingCount = 0;
+        reader.beginArray();
+        while (reader.hasNext()) {
+            sectionConsumer.accept(readFinding(reader));
+            findingCount++;
+            if (consumer.isDone()) {
+                return findingCount;
+            }
+        }
+        reader.endArray();
+        return findingCount;
+    }
+
+    private static Finding readFinding(JsonReader reader) throws IOException {
+        String id = null;
+        String group = null;
+        String category = null;
+        String message = null;
+        String uniformPath = UNDEFINED_UNIFORM_PATH;
+        ProblemCategory assessment = null;
+
+        reader.beginObject();
+        while (reader.hasNext()) {
+            switch (reader.selectName(FINDING_NAMES)) {
+                case 0:
+                    id = nextStringOrNull(reader);
+                    break;
+                case 1:
+                    group = nextStringOrNull(reader);
+                    break;
+                case 2:
+                    category = nextStringOrNull(reader);
+                    break;
+                case 3:
+                    message = nextStringOrNull(reader);
+                    break;
+                case 4:
+                    uniformPath = readUniformPath(reader);
+                    break;
+                case 5:
+                    assessment = readAssessment(reader);
+                    break;
+                default:
+                    reader.skipName();
+                    reader.skipValue();
+            }
+        }
+        requireField(id, "id", reader);
+        requireField(group, "groupName", reader);
+        requireField(category, "categoryName", reader);
+        requireField(message, "message", reader);
+        requireField(assessment, "assessment", reader);
+        reader.endObject();
+        return new Finding(id, group, category, message, uniformPath, assessment);
+    }
+
+    private static String readUniformPath(JsonReader reader) throws IOException {
+        if (reader.peek() == JsonReader.Token.NULL) {
+            reader.nextNull();
+            return UNDEFINED_UNIFORM_PATH;
+        }
+        String uniformPath = UNDEFINED_UNIFORM_PATH;
+        reader.beginObject();
+        while (reader.hasNext()) {
+            if (reader.selectName(LOCATION_NAMES) == 0) {
+                String value = nextStringOrNull(reader);
+                if (value != null) {
+                    uniformPath = value;
+                }
+            } else {
+                reader.skipName();
+                reader.skipValue();
+            }
+        }
+        reader.endObject();
+        return uniformPath;
+    }
+
+    private static ProblemCategory readAssessment(JsonReader reader) throws IOException {
+        if (reader.peek() == JsonReader.Token.NULL) {
+            return reader.nextNull();
+        }
+        switch (reader.selectString(RATING_NAMES)) {
+            case 0:
+                return ProblemCategory.WARNING;
+            case 1:
+                return ProblemCategory.ERROR;
+            default:
+                return ProblemCategory.fromRatingString(reader.nextString());
+        }
+    }
+
+    /** Reads a string (numbers are returned in their textual representation) or {@code null}. */
+    private static String nextStringOrNull(JsonReader reader) throws IOException {
+        if (reader.peek() == JsonReader.Token.NULL) {
+            return reader.nextNull();
+        }
+        return reader.nextString();
+    }
+
+    private static void requireField(Object value, String fieldName, JsonReader reader) {
+        if (value == null) {
+            throw new JsonDataException("Missing '" + fieldName + "' in finding at " + reader.getPath());
+        }
+    }
+}
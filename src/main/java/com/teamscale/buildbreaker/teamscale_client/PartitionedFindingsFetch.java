@@ -0,0 +1,303 @@
+package com.teamscale.buildbreaker.teamscale_client;
+
+import com.teamscale.buildbreaker.evaluation.Finding;
+import com.teamscale.buildbreaker.evaluation.FindingConsumer;
+import com.teamscale.buildbreaker.teamscale_client.exceptions.HttpRedirectException;
+import com.teamscale.buildbreaker.teamscale_client.exceptions.HttpStatusCodeException;
+import com.teamscale.buildbreaker.teamscale_client.exceptions.ParserException;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Fetches the findings of a scope with one delta request per uniform path partition instead of one request for the
+ * whole scope, so Teamscale computes and sends several smaller responses in parallel. At most a given number of
+ * requests run at the same time.
+ * <p>
+ * The findings are merged while they are received: the findings of the first unfinished partition are passed on
+ * directly, those of later partitions are buffered until all partitions before them are finished. The findings
+ * therefore arrive in the same order for every run, partition by partition. Each partition only contributes findings
+ * that are in the scope and start with the partition's prefix. If a partition is a prefix of another one, findings of
+ * the overlapping partitions are passed on only once, by their {@link Finding#id}. Otherwise, each finding is received
+ * for exactly one partition, so the IDs are not tracked. The result is the same as for a single request whose scope is restricted to
+ * the partitions. Findings outside all partitions are not fetched.
+ */
+public class PartitionedFindingsFetch {
+
+    /** Directories of version control systems, which contain no findings. */
+    private static final Set<String> VERSION_CONTROL_DIRECTORIES = new HashSet<>(Arrays.asList(".git", ".svn", ".hg"));
+
+    private final UniformPathFilter scope;
+    private final List<String> partitions;
+    private final int maxConcurrentRequests;
+
+    /** Whether a partition is a prefix of another one, so findings may be received for several partitions. */
+    private final boolean overlapping;
+
+    private final Object lock = new Object();
+    private FindingConsumer consumer;
+    private final Set<String> passedFindingIds = new HashSet<>();
+    private int duplicateFindings;
+
+    /** The partition whose findings are passed on directly. */
+    private int currentPartition;
+    private boolean[] finishedPartitions;
+    private List<List<BufferedFinding>> buffers;
+    private boolean aborted;
+
+    public PartitionedFindingsFetch(UniformPathFilter scope, List<String> partitions, int maxConcurrentRequests) {
+        this.scope = scope;
+        this.partitions = partitions;
+        this.maxConcurrentRequests = maxConcurrentRequests;
+        this.overlapping = hasOverlappingPartitions(partitions);
+    }
+
+    /**
+     * Whether one of the given partitions is a prefix of another one. In sorted order, all partitions that start with
+     * a partition directly follow it, so only neighbors need to be compared.
+     */
+    private static boolean hasOverlappingPartitions(List<String> partitions) {
+        List<String> sorted = new ArrayList<>(partitions);
+        Collections.sort(sorted);
+        for (int i = 1; i < sorted.size(); i++) {
+            if (sorted.get(i).startsWith(sorted.get(i - 1))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Returns a partition for each entry of the given local directory, e.g. the checkout of the repository, with the
+     * entry's name appended to the given base uniform path. Directories end with a slash. Partitions are sorted by
+     * name, so the findings arrive in the same order on every machine.
+     */
+    public static List<String> discoverPartitions(Path directory, String baseUniformPath) throws IOException {
+        String base = baseUniformPath.isEmpty() || baseUniformPath.endsWith("/") ? baseUniformPath :
+                baseUniformPath + "/";
+        List<String> partitions = new ArrayList<>();
+        try (DirectoryStream<Path> entries = Files.newDirectoryStream(directory)) {
+            for (Path entry : entries) {
+                String name = entry.getFileName().toString();
+                if (Files.isDirectory(entry)) {
+                    if (!VERSION_CONTROL_DIRECTORIES.contains(name)) {
+                        partitions.add(base + name + "/");
+                    }
+                } else {
+                    partitions.add(base + name);
+                }
+            }
+        }
+        Collections.sort(partitions);
+        return partitions;
+    }
+
+    /** Fetches the findings of a single partition, given as a filter, and passes them to the consumer. */
+    @FunctionalInterface
+    public interface PartitionFetch {
+        void fetch(UniformPathFilter partitionFilter, FindingConsumer consumer) throws IOException, HttpRedirectException, HttpStatusCodeException, ParserException;
+    }
+
+    /**
+     * Fetches the findings of all partitions with the given fetch and passes them to the consumer, which is only ever
+     * called by one thread at a time. Stops fetching as soon as the consumer {@linkplain FindingConsumer#isDone() is
+     * done} or a partition fails.
+     *
+     * @throws IOException if this thread is interrupted, or as any of the other exceptions if a partition failed
+     */
+    public void fetch(PartitionFetch fetch, FindingConsumer consumer) throws IOException, HttpRedirectException, HttpStatusCodeException, ParserException {
+        this.consumer = consumer;
+        passedFindingIds.clear();
+        duplicateFindings = 0;
+        currentPartition = 0;
+        aborted = false;
+        finishedPartitions = new boolean[partitions.size()];
+        buffers = new ArrayList<>();
+        for (int i = 0; i < partitions.size(); i++) {
+            buffers.add(new ArrayList<>());
+        }
+        ExecutorService executor = Executors.newFixedThreadPool(Math.max(1, Math.min(maxConcurrentRequests, partitions.size())));
+        try {
+            List<Future<?>> results = new ArrayList<>();
+            for (int i = 0; i < partitions.size(); i++) {
+                int partition = i;
+                results.add(executor.submit(() -> {
+                    try {
+                        fetchPartition(fetch, partition);
+                    } catch (Exception e) {
+                        // Lets the other partitions stop at their next finding
+                        abort();
+                        throw e;
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> result : results) {
+                awaitPartition(result);
+            }
+        } finally {
+            abort();
+            executor.shutdownNow();
+        }
+    }
+
+    private void abort() {
+        synchronized (lock) {
+            aborted = true;
+        }
+    }
+
+    private void fetchPartition(PartitionFetch fetch, int partition) throws IOException, HttpRedirectException, HttpStatusCodeException, ParserException {
+        String prefix = partitions.get(partition);
+        UniformPathFilter partitionFilter = restrictScope(prefix);
+        if (partitionFilter != null && !isDone()) {
+            fetch.fetch(partitionFilter, new FindingConsumer() {
+                @Override
+                public void acceptAddedFinding(Finding finding) {
+                    accept(partition, prefix, finding, false);
+                }
+
+                @Override
+                public void acceptFindingInChangedCode(Finding finding) {
+                    accept(partition, prefix, finding, true);
+                }
+
+                @Override
+                public boolean isDone() {
+                    return PartitionedFindingsFetch.this.isDone();
+                }
+            });
+        }
+        finishPartition(partition);
+    }
+
+    /**
+     * The filter to request the findings of the given partition with, or {@code null} if the partition is outside the
+     * scope. It only includes paths, and the findings are filtered by the scope and the partition when they are
+     * received, since an excluded path of the scope may be shorter than the partition.
+     */
+    private UniformPathFilter restrictScope(String prefix) {
+        List<String> includedPrefixes = scope.getIncludedPrefixes();
+        if (includedPrefixes.isEmpty()) {
+            return UniformPathFilter.including(prefix);
+        }
+        List<String> restricted = new ArrayList<>();
+        for (String included : includedPrefixes) {
+            if (prefix.startsWith(included)) {
+                return UniformPathFilter.including(prefix);
+            }
+            if (included.startsWith(prefix)) {
+                restricted.add(included);
+            }
+        }
+        if (restricted.isEmpty()) {
+            return null;
+        }
+        return UniformPathFilter.of(restricted, Collections.emptyList());
+    }
+
+    private void accept(int partition, String prefix, Finding finding, boolean inChangedCode) {
+        if (!finding.uniformPath.startsWith(prefix) || !scope.matches(finding.uniformPath)) {
+            return;
+        }
+        synchronized (lock) {
+            if (aborted) {
+                return;
+            }
+            if (partition == currentPartition) {
+                passOn(finding, inChangedCode);
+            } else {
+                buffers.get(partition).add(new BufferedFinding(finding, inChangedCode));
+            }
+        }
+    }
+
+    /** Marks the partition as finished and passes on the buffered findings of the partitions that are next. */
+    private void finishPartition(int partition) {
+        synchronized (lock) {
+            finishedPartitions[partition] = true;
+            while (currentPartition < partitions.size() && finishedPartitions[currentPartition]) {
+                currentPartition++;
+                if (currentPartition < partitions.size()) {
+                    for (BufferedFinding buffered : buffers.get(currentPartition)) {
+                        passOn(buffered.finding, buffered.inChangedCode);
+                    }
+                    buffers.set(currentPartition, Collections.emptyList());
+                }
+            }
+        }
+    }
+
+    private void passOn(Finding finding, boolean inChangedCode) {
+        if (aborted || consumer.isDone()) {
+            return;
+        }
+        if (overlapping && !passedFindingIds.add(finding.id)) {
+            duplicateFindings++;
+        } else if (inChangedCode) {
+            consumer.acceptFindingInChangedCode(finding);
+        } else {
+            consumer.acceptAddedFinding(finding);
+        }
+    }
+
+    private boolean isDone() {
+        synchronized (lock) {
+            return aborted || consumer.isDone();
+        }
+    }
+
+    /** The number of findings that were received for more than one partition and passed on only once. */
+    public int getDuplicateFindings() {
+        synchronized (lock) {
+            return duplicateFindings;
+        }
+    }
+
+    private void awaitPartition(Future<?> result) throws IOException, HttpRedirectException, HttpStatusCodeException, ParserException {
+        try {
+            result.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for the findings of a partition");
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            } else if (cause instanceof HttpRedirectException) {
+                throw (HttpRedirectException) cause;
+            } else if (cause instanceof HttpStatusCodeException) {
+                throw (HttpStatusCodeException) cause;
+            } else if (cause instanceof ParserException) {
+                throw (ParserException) cause;
+            } else if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new IllegalStateException("Unexpected failure while fetching the findings of a partition", cause);
+        }
+    }
+
+    /** A finding of a partition that is received before the partitions before it are finished. */
+    private static class BufferedFinding {
+        private final Finding finding;
+        private final boolean inChangedCode;
+
+        private BufferedFinding(Finding finding, boolean inChangedCode) {
+            this.finding = finding;
+            this.inChangedCode = inChangedCode;
+        }
+    }
+}
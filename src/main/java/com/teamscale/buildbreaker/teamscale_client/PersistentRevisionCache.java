@@ -0,0 +1,207 @@
+package com.teamscale.buildbreaker.teamscale_client;
+
+import okhttp3.HttpUrl;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.zip.CRC32;
+
+/**
+ * Caches the {@code branch:timestamp} of revisions on disk so that repeated invocations (e.g. several pipeline stages
+ * building the same commit) do not have to resolve the same revision again. This is safe because the branch and
+ * timestamp of a revision never change once Teamscale knows it.
+ * <p>
+ * The cache file is append-only: each line holds server URL, project, revision, {@code branch:timestamp} and a
+ * checksum, separated by tabs. Lines that are read again later (cache hits) are appended once more, so the order of
+ * the last occurrences in the file reflects how recently an entry was used. When the file has grown to twice the
+ * configured number of entries, it is compacted to the most recently used entries. Each process only counts the lines
+ * it read and appended itself, so a shared file may grow larger before one of the processes compacts it.
+ * <p>
+ * Several processes on the same machine may share one cache file. Appends and compaction are guarded by an exclusive
+ * lock on a sibling {@code .lock} file; readers do not lock and skip lines that are incomplete or corrupt. Since a file
+ * lock is held by the whole JVM, instances in the same JVM (e.g. of parallel batch entries) additionally synchronize
+ * on a monitor per lock file before acquiring it. Problems
+ * with the cache file are reported but never fail the build, since the cache is only an optimization.
+ */
+public class PersistentRevisionCache {
+
+    private static final String SEPARATOR = "\t";
+
+    /** The monitors that serialize the instances of this JVM that use the same lock file. */
+    private static final Map<Path, Object> LOCK_FILE_MONITORS = new ConcurrentHashMap<>();
+
+    private final Path cacheFile;
+    private final Path lockFile;
+    private final int maxEntries;
+
+    /** Entries in least-recently-used order, loaded lazily on first access. */
+    private Map<String, String> entries;
+
+    /**
+     * The number of lines in the cache file as far as known to this process: the lines read on loading plus the lines
+     * appended by this process. Appends of other processes are not counted, so with a shared cache file, the file may
+     * grow beyond twice the configured number of entries before this process compacts it. Compacting recounts the
+     * lines.
+     */
+    private int lineCount;
+
+    public PersistentRevisionCache(Path cacheFile, int maxEntries) {
+        this.cacheFile = cacheFile.toAbsolutePath().normalize();
+        this.lockFile = this.cacheFile.resolveSibling(this.cacheFile.getFileName() + ".lock");
+        this.maxEntries = maxEntries;
+    }
+
+    /**
+     * Returns the cached {@code branch:timestamp} for the given revision or {@code null} if it is not cached.
+     */
+    public synchronized String get(HttpUrl teamscaleServerUrl, String project, String revision) {
+        loadIfNecessary();
+        String key = toKey(teamscaleServerUrl, project, revision);
+        String branchAndTimestamp = entries.get(key);
+        if (branchAndTimestamp != null) {
+            // Mark the entry as recently used for other processes, too
+            append(key, branchAndTimestamp);
+        }
+        return branchAndTimestamp;
+    }
+
+    /** Stores the resolved {@code branch:timestamp} of the given revision. */
+    public synchronized void put(HttpUrl teamscaleServerUrl, String project, String revision, String branchAndTimestamp) {
+        loadIfNecessary();
+        String key = toKey(teamscaleServerUrl, project, revision);
+        entries.put(key, branchAndTimestamp);
+        append(key, branchAndTimestamp);
+    }
+
+    private static String toKey(HttpUrl teamscaleServerUrl, String project, String revision) {
+        return teamscaleServerUrl + SEPARATOR + project + SEPARATOR + revision;
+    }
+
+    private void loadIfNecessary() {
+        if (entries != null) {
+            return;
+        }
+        entries = new BoundedLruMap(maxEntries);
+        try {
+            lineCount = readInto(entries);
+        } catch (IOException e) {
+            System.err.println("Could not read the revision cache " + cacheFile + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * Reads all valid lines of the cache file into the given map in file order and returns the number of lines.
+     */
+    private int readInto(Map<String, String> target) throws IOException {
+        if (!Files.exists(cacheFile)) {
+            return 0;
+        }
+        int lines = 0;
+        try (BufferedReader reader = Files.newBufferedReader(cacheFile, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                lines++;
+                int checksumSeparator = line.lastIndexOf(SEPARATOR);
+                int valueSeparator = line.lastIndexOf(SEPARATOR, checksumSeparator - 1);
+                if (valueSeparator <= 0) {
+                    continue;
+                }
+                String content = line.substring(0, checksumSeparator);
+                if (!checksum(content).equals(line.substring(checksumSeparator + 1))) {
+                    // Incomplete line of a concurrent writer or a corrupt file
+                    continue;
+                }
+                String key = line.substring(0, valueSeparator);
+                // Re-insert so the entry moves to the position of its last occurrence
+                target.remove(key);
+                target.put(key, line.substring(valueSeparator + 1, checksumSeparator));
+            }
+        }
+        return lines;
+    }
+
+    private void append(String key, String branchAndTimestamp) {
+        String content = key + SEPARATOR + branchAndTimestamp;
+        String line = content + SEPARATOR + checksum(content) + "\n";
+        try {
+            Files.createDirectories(cacheFile.getParent());
+            // Locking a file twice in one JVM throws an OverlappingFileLockException instead of waiting
+            synchronized (LOCK_FILE_MONITORS.computeIfAbsent(lockFile, file -> new Object())) {
+                try (FileChannel lockChannel = FileChannel.open(lockFile, StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+                     FileLock ignored = lockChannel.lock()) {
+                    Files.write(cacheFile, line.getBytes(StandardCharsets.UTF_8), StandardOpenOption.CREATE,
+                            StandardOpenOption.APPEND);
+                    lineCount++;
+                    if (lineCount > 2 * maxEntries) {
+                        compact();
+                    }
+                }
+            }
+        } catch (IOException | OverlappingFileLockException e) {
+            System.err.println("Could not write the revision cache " + cacheFile + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * Rewrites the cache file with only the most recently used entries. Must be called while holding the lock.
+     */
+    private void compact() throws IOException {
+        Map<String, String> currentEntries = new BoundedLruMap(maxEntries);
+        readInto(currentEntries);
+
+        List<String> lines = new ArrayList<>(currentEntries.size());
+        for (Map.Entry<String, String> entry : currentEntries.entrySet()) {
+            String content = entry.getKey() + SEPARATOR + entry.getValue();
+            lines.add(content + SEPARATOR + checksum(content));
+        }
+        Path temporaryFile = Files.createTempFile(cacheFile.getParent(), cacheFile.getFileName().toString(), ".tmp");
+        try {
+            try (BufferedWriter writer = Files.newBufferedWriter(temporaryFile, StandardCharsets.UTF_8)) {
+                for (String line : lines) {
+                    writer.write(line);
+                    writer.write('\n');
+                }
+            }
+            Files.move(temporaryFile, cacheFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temporaryFile);
+        }
+        entries = currentEntries;
+        lineCount = lines.size();
+    }
+
+    private static String checksum(String content) {
+        CRC32 crc = new CRC32();
+        crc.update(content.getBytes(StandardCharsets.UTF_8));
+        return Long.toHexString(crc.getValue());
+    }
+
+    /** Map in access order that evicts its least recently used entry once it exceeds its capacity. */
+    private static class BoundedLruMap extends LinkedHashMap<String, String> {
+        private final int capacity;
+
+        private BoundedLruMap(int capacity) {
+            super(16, 0.75f, true);
+            this.capacity = capacity;
+        }
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, String> eldest) {
+            return size() > capacity;
+        }
+    }
+}
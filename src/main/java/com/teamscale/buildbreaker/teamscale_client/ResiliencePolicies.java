@@ -0,0 +1,192 @@
+package com.teamscale.buildbreaker.teamscale_client;
+
+import net.jodah.failsafe.CircuitBreaker;
+import net.jodah.failsafe.Failsafe;
+import net.jodah.failsafe.FailsafeExecutor;
+import net.jodah.failsafe.RetryPolicy;
+import net.jodah.failsafe.event.ExecutionAttemptedEvent;
+import okhttp3.Response;
+
+import javax.net.ssl.SSLException;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.PrintStream;
+import java.net.SocketTimeoutException;
+import java.net.UnknownHostException;
+import java.time.Duration;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.time.temporal.ChronoUnit;
+import java.util.Set;
+
+/**
+ * Failsafe policies that protect the build from transient Teamscale failures.
+ * <p>
+ * Idempotent requests that fail with a network error or a status code that indicates a temporarily overloaded or
+ * unavailable server (429, 502, 503, 504) are retried with exponential, jittered backoff. A {@code Retry-After} header
+ * sent with such a response is honored instead of the backoff, limited to the maximum retry delay. All requests pass a
+ * circuit breaker that opens after a number of consecutive failed attempts, so that further requests of this run fail
+ * immediately instead of adding load to a server that keeps failing.
+ * <p>
+ * Failures that will not go away by retrying (unknown hosts, SSL problems, all other status codes) are passed through
+ * without retries.
+ */
+public class ResiliencePolicies {
+
+    private static final Set<Integer> TRANSIENT_STATUS_CODES = Set.of(429, 502, 503, 504);
+
+    private final RetryPolicy<Response> retryPolicy;
+    private final CircuitBreaker<Response> circuitBreaker;
+    private final PrintStream out;
+
+    /**
+     * @param maxRetries                     the number of retries after the first failed attempt. 0 disables retries.
+     * @param retryDelay                     the delay before the first retry. Doubles with each further retry.
+     * @param maxRetryDelay                  the upper limit for the delay between two attempts.
+     * @param jitterFactor                   the fraction in [0, 1) by which delays are randomly varied.
+     * @param circuitBreakerFailureThreshold the number of consecutive failed attempts after which the circuit breaker
+     *                                       opens. 0 disables the circuit breaker.
+     * @param circuitBreakerDelay            how long the circuit breaker stays open before it lets a trial request
+     *                                       pass.
+     * @param out                            the output of the run, to which retries are reported.
+     */
+    public ResiliencePolicies(int maxRetries, Duration retryDelay, Duration maxRetryDelay, double jitterFactor,
+                              int circuitBreakerFailureThreshold, Duration circuitBreakerDelay, PrintStream out) {
+        this.out = out;
+        retryPolicy = new RetryPolicy<Response>()
+                .handleIf(ResiliencePolicies::isTransientFailure)
+                .handleResultIf(ResiliencePolicies::isTransientFailure)
+                .withMaxRetries(maxRetries)
+                .withDelay((response, failure, context) -> computeRetryAfterDelay(response, maxRetryDelay, jitterFactor))
+                .onRetry(this::reportRetry);
+        if (maxRetries > 0) {
+            if (retryDelay.compareTo(maxRetryDelay) < 0) {
+                retryPolicy.withBackoff(retryDelay.toMillis(), maxRetryDelay.toMillis(), ChronoUnit.MILLIS);
+            } else {
+                retryPolicy.withDelay(maxRetryDelay);
+            }
+            if (jitterFactor > 0) {
+                retryPolicy.withJitter(jitterFactor);
+            }
+        }
+
+        if (circuitBreakerFailureThreshold > 0) {
+            circuitBreaker = new CircuitBreaker<Response>()
+                    .handleIf(ResiliencePolicies::isTransientFailure)
+                    .handleResultIf(ResiliencePolicies::isTransientFailure)
+                    .withFailureThreshold(circuitBreakerFailureThreshold)
+                    .withDelay(circuitBreakerDelay);
+        } else {
+            circuitBreaker = null;
+        }
+    }
+
+    /** Policies that neither retry requests nor open a circuit. */
+    public static ResiliencePolicies none() {
+        // Never retries, so nothing is reported
+        return new ResiliencePolicies(0, Duration.ZERO, Duration.ZERO, 0, 0, Duration.ZERO, System.err);
+    }
+
+    /** The executor for requests that may safely be sent several times. */
+    FailsafeExecutor<Response> forIdempotentRequests() {
+        if (circuitBreaker == null) {
+            return Failsafe.with(retryPolicy);
+        }
+        // The retry policy is the outer policy, so every single attempt is recorded by the circuit breaker and an
+        // open circuit ends the retries
+        return Failsafe.with(retryPolicy, circuitBreaker);
+    }
+
+    /** The executor for requests that must not be repeated, e.g. because they trigger an action on the server. */
+    FailsafeExecutor<Response> forNonIdempotentRequests() {
+        if (circuitBreaker == null) {
+            return Failsafe.with(new RetryPolicy<Response>().withMaxRetries(0));
+        }
+        return Failsafe.with(circuitBreaker);
+    }
+
+    /** The delay for which the circuit breaker stays open. */
+    Duration getCircuitBreakerDelay() {
+        if (circuitBreaker == null) {
+            return Duration.ZERO;
+        }
+        return circuitBreaker.getDelay();
+    }
+
+    private static boolean isTransientFailure(Throwable failure) {
+        if (failure instanceof UnknownHostException || failure instanceof SSLException) {
+            return false;
+        }
+        if (failure instanceof InterruptedIOException && !(failure instanceof SocketTimeoutException)) {
+            // The thread was interrupted, not the connection
+            return false;
+        }
+        return failure instanceof IOException;
+    }
+
+    private static boolean isTransientFailure(Response response) {
+        return response != null && TRANSIENT_STATUS_CODES.contains(response.code());
+    }
+
+    /**
+     * Returns the delay requested by the server via {@code Retry-After} or {@code null} to fall back to the backoff.
+     * <p>
+     * Failsafe applies the jitter to this delay as well, so it is scaled up such that even the shortest jittered
+     * delay does not retry earlier than the server asked for.
+     */
+    private static Duration computeRetryAfterDelay(Response response, Duration maxRetryDelay, double jitterFactor) {
+        if (response == null) {
+            return null;
+        }
+        Duration retryAfter = parseRetryAfter(response.header("Retry-After"));
+        if (retryAfter == null) {
+            return null;
+        }
+        Duration delay = Duration.ofMillis((long) Math.ceil(retryAfter.toMillis() / (1 - jitterFactor)));
+        if (delay.compareTo(maxRetryDelay) > 0) {
+            return maxRetryDelay;
+        }
+        return delay;
+    }
+
+    /**
+     * Parses the value of a {@code Retry-After} header, which is either a number of seconds or an HTTP date. Returns
+     * {@code null} if the header is missing or malformed.
+     */
+    static Duration parseRetryAfter(String retryAfter) {
+        if (retryAfter == null) {
+            return null;
+        }
+        try {
+            long seconds = Long.parseLong(retryAfter.trim());
+            return Duration.ofSeconds(Math.max(0, seconds));
+        } catch (NumberFormatException e) {
+            // Not a number of seconds, try HTTP date
+        }
+        try {
+            ZonedDateTime retryTime = ZonedDateTime.parse(retryAfter.trim(), DateTimeFormatter.RFC_1123_DATE_TIME);
+            Duration delay = Duration.between(ZonedDateTime.now(retryTime.getZone()), retryTime);
+            if (delay.isNegative()) {
+                return Duration.ZERO;
+            }
+            return delay;
+        } catch (DateTimeParseException e) {
+            return null;
+        }
+    }
+
+    private void reportRetry(ExecutionAttemptedEvent<Response> event) {
+        Response failedResponse = event.getLastResult();
+        String reason;
+        if (failedResponse != null) {
+            reason = "HTTP status code " + failedResponse.code();
+            // The response is discarded, so it must be closed to release its connection
+            failedResponse.close();
+        } else {
+            reason = String.valueOf(event.getLastFailure());
+        }
+        out.println("Request to Teamscale failed (" + reason + "), retrying (attempt " +
+                (event.getAttemptCount() + 1) + ").");
+    }
+}
@@ -6,14 +6,28 @@ import com.jayway.jsonpath.PathNotFoundException;
 import com.teamscale.buildbreaker.commandline.autodetect_revision.GitChecker;
 import com.teamscale.buildbreaker.commandline.autodetect_revision.SvnChecker;
 import com.teamscale.buildbreaker.evaluation.Finding;
+import com.teamscale.buildbreaker.evaluation.FindingConsumer;
+import com.teamscale.buildbreaker.evaluation.FindingsCollector;
 import com.teamscale.buildbreaker.evaluation.MetricViolation;
 import com.teamscale.buildbreaker.evaluation.ProblemCategory;
+import com.teamscale.buildbreaker.jfr.FlightEvents;
+import com.teamscale.buildbreaker.jfr.ParseEvent;
+import com.teamscale.buildbreaker.metrics.RequestMetrics;
+import com.teamscale.buildbreaker.metrics.RequestMetrics.CacheStatus;
+import com.teamscale.buildbreaker.metrics.RequestMetricsListener;
+import com.teamscale.buildbreaker.metrics.RunMetrics;
+import com.teamscale.buildbreaker.metrics.RunMetrics.Counter;
 import com.teamscale.buildbreaker.teamscale_client.exceptions.CommitCouldNotBeResolvedException;
 import com.teamscale.buildbreaker.teamscale_client.exceptions.HttpRedirectException;
 import com.teamscale.buildbreaker.teamscale_client.exceptions.HttpStatusCodeException;
 import com.teamscale.buildbreaker.teamscale_client.exceptions.ParserException;
 import com.teamscale.buildbreaker.teamscale_client.exceptions.RepositoryNotFoundException;
 import com.teamscale.buildbreaker.teamscale_client.exceptions.TooManyCommitsException;
+import net.jodah.failsafe.CircuitBreakerOpenException;
+import net.jodah.failsafe.FailsafeException;
+import net.jodah.failsafe.FailsafeExecutor;
+import okhttp3.Cache;
+import okhttp3.Call;
 import okhttp3.Credentials;
 import okhttp3.HttpUrl;
 import okhttp3.OkHttpClient;
@@ -21,17 +35,21 @@ import okhttp3.Request;
 import okhttp3.RequestBody;
 import okhttp3.Response;
 import okhttp3.ResponseBody;
+import okio.BufferedSource;
 import org.conqat.lib.commons.assessment.Assessment;
 import org.conqat.lib.commons.assessment.ETrafficLightColor;
 import org.conqat.lib.commons.collections.Pair;
 import org.conqat.lib.commons.string.StringUtils;
 
 import java.io.IOException;
+import java.io.InterruptedIOException;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
 import java.util.function.Supplier;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
-import java.util.stream.Collectors;
 
 /**
  * This class acts as a client for interacting with the Teamscale API.
@@ -49,23 +67,79 @@ public class TeamscaleClient implements AutoCloseable {
     private final String user;
     private final String accessKey;
     private final String project;
-    Map<String, String> timestampRevisionCache = new HashMap<>();
+    /** Resolved {@code branch:timestamp} per revision. Safe for concurrent use. */
+    final Map<String, String> timestampRevisionCache = new ConcurrentHashMap<>();
+    /**
+     * Revision resolutions that are currently in flight. Concurrent requests for the same revision wait for the
+     * pending resolution instead of sending their own request.
+     */
+    private final Map<String, CompletableFuture<String>> pendingRevisionResolutions = new ConcurrentHashMap<>();
+    /** Optional cache of resolved revisions that is shared across runs. May be {@code null}. */
+    private PersistentRevisionCache persistentRevisionCache;
+    /** Retry and circuit breaker policies applied to all requests. */
+    private ResiliencePolicies resiliencePolicies = ResiliencePolicies.none();
+    /** Receives the metrics of all requests. May be {@code null}. */
+    private RunMetrics runMetrics;
+    /** Calls whose response has not been consumed yet, so they can be {@linkplain #cancelPendingRequests() cancelled}. */
+    private final Set<Call> activeCalls = ConcurrentHashMap.newKeySet();
 
     public TeamscaleClient(OkHttpClient client, HttpUrl teamscaleServerUrl, String user, String accessKey, String project) {
-        this.client = client;
+        // Shares the connection pool, dispatcher and cache with the given client. The listener only records requests
+        // tagged with RequestMetrics, i.e. while metrics or flight recorder events are collected.
+        this.client = client.newBuilder().eventListenerFactory(RequestMetricsListener.FACTORY).build();
         this.teamscaleServerUrl = teamscaleServerUrl;
         this.user = user;
         this.accessKey = accessKey;
         this.project = project;
     }
 
+    /**
+     * Sets a cache of resolved revisions that outlives this client, so that revisions resolved in earlier runs do not
+     * have to be resolved again.
+     */
+    public void setPersistentRevisionCache(PersistentRevisionCache persistentRevisionCache) {
+        this.persistentRevisionCache = persistentRevisionCache;
+    }
+
+    /**
+     * Sets the policies that decide whether failed requests are retried and when to stop sending requests to a
+     * failing server. By default, no request is retried.
+     */
+    public void setResiliencePolicies(ResiliencePolicies resiliencePolicies) {
+        this.resiliencePolicies = resiliencePolicies;
+    }
+
+    /**
+     * Records the durations, transferred bytes, retries and cache usage of all further requests, as well as revision
+     * cache hits, in the given metrics. The metrics should belong to a single run, so clients that are shared by
+     * several runs should not record metrics.
+     */
+    public void setRunMetrics(RunMetrics runMetrics) {
+        this.runMetrics = runMetrics;
+    }
+
     /**
      * @return a pair with added findings (first) and findings in changed code (second) received via the findings-churn api for a single commit ({@code api/projects/{project}/finding-churn/list}).
      * @throws HttpRedirectException   if a redirect is encountered
      * @throws HttpStatusCodeException if an HTTP error code was returned by Teamscale
      * @throws ParserException         if there was an error parsing Teamscale's response
      */
-    public Pair<List<Finding>, List<Finding>> fetchFindingsUsingCommitDetails(String branchAndTimestamp, String uniformPath) throws IOException, HttpRedirectException, HttpStatusCodeException, ParserException {
+    public Pair<List<Finding>, List<Finding>> fetchFindingsUsingCommitDetails(String branchAndTimestamp, UniformPathFilter uniformPathFilter) throws IOException, HttpRedirectException, HttpStatusCodeException, ParserException {
+        FindingsCollector collector = new FindingsCollector();
+        fetchFindingsUsingCommitDetails(branchAndTimestamp, uniformPathFilter, collector);
+        return collector.getFindings();
+    }
+
+    /**
+     * Streams the added findings and findings in changed code of a single commit received via the findings-churn api
+     * ({@code api/projects/{project}/finding-churn/list}) to the given consumer while the response is being read. The
+     * endpoint does not support filtering by uniform path, so all findings are downloaded and filtered here.
+     *
+     * @throws HttpRedirectException   if a redirect is encountered
+     * @throws HttpStatusCodeException if an HTTP error code was returned by Teamscale
+     * @throws ParserException         if there was an error parsing Teamscale's response
+     */
+    public void fetchFindingsUsingCommitDetails(String branchAndTimestamp, UniformPathFilter uniformPathFilter, FindingConsumer consumer) throws IOException, HttpRedirectException, HttpStatusCodeException, ParserException {
         HttpUrl.Builder builder =
                 teamscaleServerUrl.newBuilder()
                         .addPathSegment("api")
@@ -76,8 +150,8 @@ public class TeamscaleClient implements AutoCloseable {
                         .addQueryParameter("t", branchAndTimestamp);
         HttpUrl url = builder.build();
         Request request = createAuthenticatedGetRequest(url);
-        String response = sendRequest(request);
-        return parseCommitFindingResponse(response, uniformPath);
+        FindingConsumer filteringConsumer = filterFindingLocations(consumer, uniformPathFilter);
+        sendRequest("finding-churn/list", request, source -> FindingsResponseParser.parse(source, filteringConsumer));
     }
 
     /**
@@ -87,18 +161,35 @@ public class TeamscaleClient implements AutoCloseable {
      * @throws ParserException         if there was an error parsing Teamscale's response
      * @implNote The API we use here is not yet a public API (<a href="https://cqse.atlassian.net/browse/TS-44014">TS-44014</a>), so we don't use a versioned endpoint.
      */
-    public Pair<List<Finding>, List<Finding>> fetchFindingsUsingLinearDelta(String startBranchAndTimestamp, String endBranchAndTimestamp, String uniformPath) throws IOException, HttpRedirectException, HttpStatusCodeException, ParserException {
+    public Pair<List<Finding>, List<Finding>> fetchFindingsUsingLinearDelta(String startBranchAndTimestamp, String endBranchAndTimestamp, UniformPathFilter uniformPathFilter) throws IOException, HttpRedirectException, HttpStatusCodeException, ParserException {
+        FindingsCollector collector = new FindingsCollector();
+        fetchFindingsUsingLinearDelta(startBranchAndTimestamp, endBranchAndTimestamp, uniformPathFilter, collector);
+        return collector.getFindings();
+    }
+
+    /**
+     * Streams the added findings and findings in changed code received via the linear delta endpoint
+     * ({@code /api/projects/{project}/findings/delta}) to the given consumer while the response is being read. The
+     * endpoint only accepts a single uniform path, so Teamscale is asked for the
+     * {@linkplain UniformPathFilter#getCommonUniformPath() common uniform path} and the findings are filtered further here.
+     *
+     * @throws HttpRedirectException   if a redirect is encountered
+     * @throws HttpStatusCodeException if an HTTP error code was returned by Teamscale
+     * @throws ParserException         if there was an error parsing Teamscale's response
+     */
+    public void fetchFindingsUsingLinearDelta(String startBranchAndTimestamp, String endBranchAndTimestamp, UniformPathFilter uniformPathFilter, FindingConsumer consumer) throws IOException, HttpRedirectException, HttpStatusCodeException, ParserException {
         HttpUrl.Builder builder =
                 teamscaleServerUrl.newBuilder().addPathSegments("api/projects").addPathSegment(project)
                         .addPathSegments("findings/delta")
                         .addQueryParameter("t2", endBranchAndTimestamp)
                         .addQueryParameter("t1", startBranchAndTimestamp)
-                        .addQueryParameter("uniform-path", uniformPath);
+                        .addQueryParameter("uniform-path", uniformPathFilter.getCommonUniformPath());
 
         HttpUrl url = builder.build();
         Request request = createAuthenticatedGetRequest(url);
-        String response = sendRequest(request);
-        return parseDeltaFindingsResponse(response);
+        FindingConsumer filteringConsumer = uniformPathFilter.isSingleUniformPath() ? consumer :
+                filterFindingLocations(consumer, uniformPathFilter);
+        sendRequest("findings/delta", request, source -> FindingsResponseParser.parse(source, filteringConsumer));
     }
 
     /**
@@ -108,8 +199,22 @@ public class TeamscaleClient implements AutoCloseable {
      * @throws ParserException         if there was an error parsing Teamscale's response
      * @implNote The API we use here is not yet a public API (<a href="https://cqse.atlassian.net/browse/TS-44014">TS-44014</a>), so we don't use a versioned endpoint.
      */
-    public Pair<List<Finding>, List<Finding>> fetchFindingsUsingBranchMergeDelta(String sourceBranchAndTimestamp, String targetBranchAndTimestamp, String uniformPath) throws IOException, HttpRedirectException, HttpStatusCodeException, ParserException {
+    public Pair<List<Finding>, List<Finding>> fetchFindingsUsingBranchMergeDelta(String sourceBranchAndTimestamp, String targetBranchAndTimestamp, UniformPathFilter uniformPathFilter) throws IOException, HttpRedirectException, HttpStatusCodeException, ParserException {
+        FindingsCollector collector = new FindingsCollector();
+        fetchFindingsUsingBranchMergeDelta(sourceBranchAndTimestamp, targetBranchAndTimestamp, uniformPathFilter, collector);
+        return collector.getFindings();
+    }
 
+    /**
+     * Streams the added findings and findings in changed code received via the branch merge delta endpoint
+     * ({@code /api/projects/{project}/merge-requests/findings-churn}) to the given consumer while the response is
+     * being read. All included uniform paths are sent to Teamscale, and excluded paths are filtered out here.
+     *
+     * @throws HttpRedirectException   if a redirect is encountered
+     * @throws HttpStatusCodeException if an HTTP error code was returned by Teamscale
+     * @throws ParserException         if there was an error parsing Teamscale's response
+     */
+    public void fetchFindingsUsingBranchMergeDelta(String sourceBranchAndTimestamp, String targetBranchAndTimestamp, UniformPathFilter uniformPathFilter, FindingConsumer consumer) throws IOException, HttpRedirectException, HttpStatusCodeException, ParserException {
         HttpUrl.Builder builder =
                 teamscaleServerUrl.newBuilder()
                         .addPathSegments("api/projects")
@@ -117,40 +222,51 @@ public class TeamscaleClient implements AutoCloseable {
                         .addPathSegments("merge-requests/finding-churn")
                         .addQueryParameter("source", sourceBranchAndTimestamp)
                         .addQueryParameter("target", targetBranchAndTimestamp);
-        if(!uniformPath.isEmpty()) {
-            builder.addQueryParameter("included-paths", uniformPath);
+        for (String includedPath : uniformPathFilter.getIncludedPrefixes()) {
+            builder.addQueryParameter("included-paths", includedPath);
         }
 
         HttpUrl url = builder.build();
         Request request = createAuthenticatedGetRequest(url);
-        String response = sendRequest(request);
-        return parseDeltaFindingsResponse(response);
+        FindingConsumer filteringConsumer = uniformPathFilter.getExcludedPrefixes().isEmpty() ? consumer :
+                filterFindingLocations(consumer, uniformPathFilter);
+        sendRequest("merge-requests/finding-churn", request, source -> FindingsResponseParser.parse(source, filteringConsumer));
     }
 
     /**
      * @return a list of metric violations received from the metric assessment endpoint ({@code api/projects/{project}/metric-assessments}).
+     * Metric assessments cannot be filtered by path, so they are requested for the
+     * {@linkplain UniformPathFilter#getCommonUniformPath() common uniform path} of the filter.
      * @throws HttpRedirectException   if a redirect is encountered
      * @throws HttpStatusCodeException if an HTTP error code was returned by Teamscale
      * @throws ParserException         if there was an error parsing Teamscale's response
      */
-    public List<MetricViolation> fetchMetricAssessments(String branchAndTimestamp, String thresholdConfig, String uniformPath) throws IOException, HttpRedirectException, HttpStatusCodeException, ParserException {
+    public List<MetricViolation> fetchMetricAssessments(String branchAndTimestamp, String thresholdConfig, UniformPathFilter uniformPathFilter) throws IOException, HttpRedirectException, HttpStatusCodeException, ParserException {
         HttpUrl.Builder builder =
                 teamscaleServerUrl.newBuilder()
                         .addPathSegments("api/projects")
                         .addPathSegment(project)
                         .addPathSegment("metric-assessments")
-                        .addQueryParameter("uniform-path", uniformPath)
+                        .addQueryParameter("uniform-path", uniformPathFilter.getCommonUniformPath())
                         .addQueryParameter("t", branchAndTimestamp)
                         .addQueryParameter("configuration-name", thresholdConfig);
         HttpUrl url = builder.build();
         Request request = createAuthenticatedGetRequest(url);
-        String response = sendRequest(request);
+        String response = sendRequest("metric-assessments", request);
+        Object event = FlightEvents.beginParse();
+        List<MetricViolation> metricViolations;
+        String format;
         if(response.contains("formattedTextValue")) {
             // With TS v2024.9 the response scheme of this internal api endpoint has changed,
             // removing the value "formattedTextValue". See TS-44526
-            return parseMetricResponsePreTS20249(response);
+            metricViolations = parseMetricResponsePreTS20249(response);
+            format = "pre-2024.9";
+        } else {
+            metricViolations = parseMetricResponse(response);
+            format = "2024.9";
         }
-        return parseMetricResponse(response);
+        FlightEvents.commitParse(event, ParseEvent.METRIC_ASSESSMENTS, format, metricViolations.size());
+        return metricViolations;
     }
 
     /**
@@ -159,11 +275,73 @@ public class TeamscaleClient implements AutoCloseable {
      * @throws HttpStatusCodeException           if an HTTP error code was returned by Teamscale
      * @throws CommitCouldNotBeResolvedException if an error happened during parsing of the responses
      * @throws TooManyCommitsException           If more than one commit was found
+     * @implNote Results are cached, and also stored in the {@link PersistentRevisionCache} if one is set. This method may be called concurrently: if the same revision is requested while
+     * it is being resolved, the caller waits for the pending resolution instead of sending a second request.
      */
     public String fetchTimestampForRevision(String revision) throws IOException, TooManyCommitsException, HttpRedirectException, HttpStatusCodeException, CommitCouldNotBeResolvedException {
-        if (timestampRevisionCache.containsKey(revision)) {
-            return timestampRevisionCache.get(revision);
+        String cachedBranchWithTimestamp = timestampRevisionCache.get(revision);
+        if (cachedBranchWithTimestamp != null) {
+            countIfRecording(Counter.REVISION_CACHE_HITS);
+            return cachedBranchWithTimestamp;
+        }
+
+        CompletableFuture<String> resolution = new CompletableFuture<>();
+        CompletableFuture<String> pendingResolution = pendingRevisionResolutions.putIfAbsent(revision, resolution);
+        if (pendingResolution != null) {
+            return awaitPendingResolution(pendingResolution);
         }
+        try {
+            // Another resolution may have finished between the cache lookup and registering ours
+            String branchWithTimestamp = timestampRevisionCache.get(revision);
+            if (branchWithTimestamp == null && persistentRevisionCache != null) {
+                branchWithTimestamp = persistentRevisionCache.get(teamscaleServerUrl, project, revision);
+                if (branchWithTimestamp != null) {
+                    countIfRecording(Counter.PERSISTENT_REVISION_CACHE_HITS);
+                }
+            }
+            if (branchWithTimestamp == null) {
+                branchWithTimestamp = requestTimestampForRevision(revision);
+                if (persistentRevisionCache != null) {
+                    persistentRevisionCache.put(teamscaleServerUrl, project, revision, branchWithTimestamp);
+                }
+            }
+            timestampRevisionCache.put(revision, branchWithTimestamp);
+            resolution.complete(branchWithTimestamp);
+            return branchWithTimestamp;
+        } catch (IOException | TooManyCommitsException | HttpRedirectException | HttpStatusCodeException | CommitCouldNotBeResolvedException | RuntimeException e) {
+            resolution.completeExceptionally(e);
+            throw e;
+        } finally {
+            pendingRevisionResolutions.remove(revision, resolution);
+        }
+    }
+
+    private static String awaitPendingResolution(CompletableFuture<String> pendingResolution) throws IOException, TooManyCommitsException, HttpRedirectException, HttpStatusCodeException, CommitCouldNotBeResolvedException {
+        try {
+            return pendingResolution.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for a pending revision resolution");
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            } else if (cause instanceof TooManyCommitsException) {
+                throw (TooManyCommitsException) cause;
+            } else if (cause instanceof HttpRedirectException) {
+                throw (HttpRedirectException) cause;
+            } else if (cause instanceof HttpStatusCodeException) {
+                throw (HttpStatusCodeException) cause;
+            } else if (cause instanceof CommitCouldNotBeResolvedException) {
+                throw (CommitCouldNotBeResolvedException) cause;
+            } else if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new IllegalStateException("Unexpected failure while resolving a revision", cause);
+        }
+    }
+
+    private String requestTimestampForRevision(String revision) throws IOException, TooManyCommitsException, HttpRedirectException, HttpStatusCodeException, CommitCouldNotBeResolvedException {
         HttpUrl.Builder builder =
                 teamscaleServerUrl.newBuilder()
                         .addPathSegment("api")
@@ -175,7 +353,7 @@ public class TeamscaleClient implements AutoCloseable {
                         .addPathSegment("commits");
         HttpUrl url = builder.build();
         Request request = createAuthenticatedGetRequest(url);
-        String commitDescriptorsJson = sendRequest(request);
+        String commitDescriptorsJson = sendRequest("revision/commits", request);
         long braceCount = commitDescriptorsJson.chars().filter(c -> c == '{').count();
         if (braceCount == 0) {
             throw new CommitCouldNotBeResolvedException(revision);
@@ -190,9 +368,7 @@ public class TeamscaleClient implements AutoCloseable {
             throw new CommitCouldNotBeResolvedException(revision);
         }
 
-        String branchWithTimestamp = branchName + ":" + timestamp;
-        timestampRevisionCache.put(revision, branchWithTimestamp);
-        return branchWithTimestamp;
+        return branchName + ":" + timestamp;
     }
 
     /**
@@ -214,7 +390,7 @@ public class TeamscaleClient implements AutoCloseable {
         HttpUrl url = builder.build();
         Request request = new Request.Builder().header("Authorization", Credentials.basic(user, accessKey)).url(url)
                 .post(RequestBody.create(null, new byte[]{})).build();
-        sendRequest(request);
+        sendRequest("post-commit-hook", request);
     }
 
     public AnalysisState fetchAnalysisState(String branch) throws IOException, HttpRedirectException, HttpStatusCodeException {
@@ -226,7 +402,7 @@ public class TeamscaleClient implements AutoCloseable {
                         .addPathSegment(branch);
         HttpUrl url = builder.build();
         Request request = createAuthenticatedGetRequest(url);
-        String analysisStateJson = sendRequest(request);
+        String analysisStateJson = sendRequest("branch-analysis-state", request);
         DocumentContext context = JsonPath.parse(analysisStateJson);
         long lastFinishedTimestamp;
         try {
@@ -244,66 +420,33 @@ public class TeamscaleClient implements AutoCloseable {
         return new AnalysisState(lastFinishedTimestamp, state, rollbackId);
     }
 
-    private Pair<List<Finding>, List<Finding>> parseCommitFindingResponse(String response, String uniformPath) throws ParserException {
-        try {
-            Pair<List<Finding>, List<Finding>> result = tryParseFindingsResponse(response, "$.addedFindings.*", "$.findingsInChangedCode.*");
-            return Pair.createPair(filterFindingLocations(result.getFirst(), uniformPath), filterFindingLocations(result.getSecond(), uniformPath));
-        } catch (ParserException | PathNotFoundException e) {
-            throw new ParserException("Could not parse findings JSON response:\n" + response + "\n\nPlease contact CQSE with an error report.", e);
-        }
-    }
-
-    private List<Finding> filterFindingLocations(List<Finding> findings, String uniformPath) {
-        return findings.stream().filter(finding -> finding.uniformPath.startsWith(uniformPath)).collect(Collectors.toList());
-    }
-
-    /**
-     * @implNote The APIs we use in {@link #fetchFindingsUsingBranchMergeDelta} and {@link #fetchFindingsUsingLinearDelta}
-     * are not yet public APIs (<a href="https://cqse.atlassian.net/browse/TS-44014">TS-44014</a>).
-     * In 2025.6, the returned JSON format actually changed, and thus we need to support both the old and new version.
-     * We first try with JSON format from 2025.6 and up, and if it fails, we try with the legacy JSON format from 2025.5 and below.
-     */
-    private Pair<List<Finding>, List<Finding>> parseDeltaFindingsResponse(String response) throws ParserException {
-        // 2025.6 and up
-        try {
-            return tryParseFindingsResponse(response, "$.addedFindings.findings", "$.findingsInChangedCode.findings");
-        } catch (PathNotFoundException e) {
-            // We continue below to reduce nesting
+    private static FindingConsumer filterFindingLocations(FindingConsumer consumer, UniformPathFilter uniformPathFilter) {
+        if (uniformPathFilter.isAll()) {
+            return consumer;
         }
+        return new FindingConsumer() {
+            @Override
+            public void acceptAddedFinding(Finding finding) {
+                if (uniformPathFilter.matches(finding.uniformPath)) {
+                    consumer.acceptAddedFinding(finding);
+                }
+            }
 
-        // 2025.5 and below
-        try {
-            return tryParseFindingsResponse(response, "$.addedFindings.*", "$.findingsInChangedCode.*");
-        } catch (ParserException | PathNotFoundException e) {
-            throw new ParserException("Could not parse findings JSON response:\n" + response + "\n\nPlease contact CQSE with an error report.", e);
-        }
-    }
-
-    private static Pair<List<Finding>, List<Finding>> tryParseFindingsResponse(String response, String addedFindingsJsonPath, String findingsInChangedCodeJsonPath) throws ParserException, PathNotFoundException {
-        DocumentContext findingsJson = JsonPath.parse(response);
-        Pair<List<Finding>, List<Finding>> result = Pair.createPair(new ArrayList<>(), new ArrayList<>());
-        result.getFirst().addAll(parseFindings(findingsJson.read(addedFindingsJsonPath)));
-        result.getSecond().addAll(parseFindings(findingsJson.read(findingsInChangedCodeJsonPath)));
-        return result;
-    }
+            @Override
+            public void acceptFindingInChangedCode(Finding finding) {
+                if (uniformPathFilter.matches(finding.uniformPath)) {
+                    consumer.acceptFindingInChangedCode(finding);
+                }
+            }
 
-    private static List<Finding> parseFindings(List<Map<String, Object>> findingsRaw) throws ParserException {
-        try {
-            return findingsRaw.stream().map(findingMap -> {
-                String id = findingMap.get("id").toString();
-                String group = findingMap.get("groupName").toString();
-                String category = findingMap.get("categoryName").toString();
-                String message = findingMap.get("message").toString();
-                String uniformPath = ((Map<String, String>) findingMap.getOrDefault("location", new HashMap<>())).getOrDefault("uniformPath", "<undefined>");
-                ProblemCategory assessment = ProblemCategory.fromRatingString((String) findingMap.get("assessment"));
-                return new Finding(id, group, category, message, uniformPath, assessment);
-            }).collect(Collectors.toList());
-        } catch (ClassCastException e) {
-            throw new ParserException(e);
-        }
+            @Override
+            public boolean isDone() {
+                return consumer.isDone();
+            }
+        };
     }
 
-    private List<MetricViolation> parseMetricResponsePreTS20249(String response) throws ParserException {
+    static List<MetricViolation> parseMetricResponsePreTS20249(String response) throws ParserException {
         List<MetricViolation> result = new ArrayList<>();
         try {
             DocumentContext metricAssessments = JsonPath.parse(response);
@@ -326,7 +469,7 @@ public class TeamscaleClient implements AutoCloseable {
         }
     }
 
-    private List<MetricViolation> parseMetricResponse(String response) throws ParserException {
+    static List<MetricViolation> parseMetricResponse(String response) throws ParserException {
         List<MetricViolation> result = new ArrayList<>();
         try {
             DocumentContext metricAssessments = JsonPath.parse(response);
@@ -382,10 +525,127 @@ public class TeamscaleClient implements AutoCloseable {
         return null;
     }
 
-    private String sendRequest(Request request) throws IOException, HttpRedirectException, HttpStatusCodeException {
-        try (Response response = client.newCall(request).execute()) {
+    /**
+     * Sends the request and returns the response body as a string.
+     *
+     * @param endpoint identifies the endpoint in the {@link #runMetrics}
+     */
+    private String sendRequest(String endpoint, Request request) throws IOException, HttpRedirectException, HttpStatusCodeException {
+        Object event = FlightEvents.beginRequest();
+        RequestMetrics metrics = new RequestMetrics(endpoint);
+        long startNanos = System.nanoTime();
+        Request trackedRequest = track(request, metrics, event);
+        try (Response response = execute(trackedRequest, metrics)) {
+            recordResponse(metrics, response);
             handleErrors(response);
             return readBodySafe(response);
+        } finally {
+            activeCalls.removeIf(call -> call.request() == trackedRequest);
+            finishRequest(request, metrics, startNanos, event);
+        }
+    }
+
+    /**
+     * Sends the request and lets the given reader consume the response body as a stream, without materializing it
+     * as a string first.
+     *
+     * @param endpoint identifies the endpoint in the {@link #runMetrics}
+     */
+    private void sendRequest(String endpoint, Request request, ResponseBodyReader bodyReader) throws IOException, HttpRedirectException, HttpStatusCodeException, ParserException {
+        Object event = FlightEvents.beginRequest();
+        RequestMetrics metrics = new RequestMetrics(endpoint);
+        long startNanos = System.nanoTime();
+        Request trackedRequest = track(request, metrics, event);
+        try (Response response = execute(trackedRequest, metrics)) {
+            recordResponse(metrics, response);
+            handleErrors(response);
+            ResponseBody body = response.body();
+            if (body == null) {
+                throw new ParserException("Teamscale did not send a response body for " + request.url());
+            }
+            long processingStartNanos = System.nanoTime();
+            try {
+                bodyReader.read(body.source());
+            } finally {
+                metrics.recordProcessing(System.nanoTime() - processingStartNanos);
+            }
+        } finally {
+            activeCalls.removeIf(call -> call.request() == trackedRequest);
+            finishRequest(request, metrics, startNanos, event);
+        }
+    }
+
+    /**
+     * Attaches the metrics to the request, so the {@link RequestMetricsListener} can record its network timings and
+     * transferred bytes, if they are needed for the {@link #runMetrics} or the given event.
+     */
+    private Request track(Request request, RequestMetrics metrics, Object event) {
+        if (runMetrics == null && event == null) {
+            return request;
+        }
+        return request.newBuilder().tag(RequestMetrics.class, metrics).build();
+    }
+
+    private void recordResponse(RequestMetrics metrics, Response response) {
+        CacheStatus cacheStatus = CacheStatus.NONE;
+        if (response.cacheResponse() != null) {
+            // The cache either answered on its own or after the server confirmed the cached response is still valid
+            cacheStatus = response.networkResponse() == null ? CacheStatus.HIT : CacheStatus.CONDITIONAL_HIT;
+        } else if (client.cache() != null && response.request().method().equals("GET")) {
+            cacheStatus = CacheStatus.MISS;
+        }
+        metrics.recordResponse(response.code(), cacheStatus);
+    }
+
+    private void finishRequest(Request request, RequestMetrics metrics, long startNanos, Object event) {
+        if (event != null) {
+            FlightEvents.commitRequest(event, metrics.endpoint, request.method(), metrics.getStatusCode(),
+                    metrics.getAttempts(), metrics.getBytesSent(), metrics.getBytesReceived());
+        }
+        if (runMetrics == null) {
+            return;
+        }
+        metrics.recordTotal(System.nanoTime() - startNanos);
+        runMetrics.addRequest(metrics);
+    }
+
+    private void countIfRecording(Counter counter) {
+        if (runMetrics != null) {
+            runMetrics.increment(counter);
+        }
+    }
+
+    /**
+     * Executes the request under the {@link #resiliencePolicies}. Only GET requests are retried. Retries end as soon
+     * as a response that is not a transient failure has been received, so a response body is never read twice.
+     */
+    private Response execute(Request request, RequestMetrics metrics) throws IOException {
+        FailsafeExecutor<Response> executor;
+        if ("GET".equals(request.method())) {
+            executor = resiliencePolicies.forIdempotentRequests();
+        } else {
+            executor = resiliencePolicies.forNonIdempotentRequests();
+        }
+        try {
+            return executor.get(() -> {
+                metrics.recordAttempt();
+                Call call = client.newCall(request);
+                activeCalls.add(call);
+                return call.execute();
+            });
+        } catch (CircuitBreakerOpenException e) {
+            throw new IOException("Teamscale failed too many consecutive requests. No further requests are sent for " +
+                    resiliencePolicies.getCircuitBreakerDelay().getSeconds() + " seconds.", e);
+        } catch (FailsafeException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            }
+            if (cause instanceof InterruptedException) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Interrupted while waiting to retry a request to Teamscale");
+            }
+            throw e;
         }
     }
 
@@ -435,10 +695,34 @@ public class TeamscaleClient implements AutoCloseable {
         return remoteRepositoryUrl;
     }
 
+    /** Consumes a response body from its stream. */
+    @FunctionalInterface
+    private interface ResponseBodyReader {
+        void read(BufferedSource source) throws IOException, ParserException;
+    }
+
+    /**
+     * Cancels all requests that are currently being sent or whose response is still being read. The threads waiting
+     * for them fail with an {@link IOException}. Requests sent afterwards are not affected.
+     */
+    public void cancelPendingRequests() {
+        for (Call call : activeCalls) {
+            call.cancel();
+        }
+    }
+
     @Override
     public void close() {
         client.dispatcher().executorService().shutdownNow();
         client.connectionPool().evictAll();
+        Cache cache = client.cache();
+        if (cache != null) {
+            try {
+                cache.close();
+            } catch (IOException e) {
+                System.err.println("Could not close the HTTP cache: " + e.getMessage());
+            }
+        }
 
     }
 }
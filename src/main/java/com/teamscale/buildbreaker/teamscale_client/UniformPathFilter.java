@@ -0,0 +1,180 @@
+package com.teamscale.buildbreaker.teamscale_client;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Decides which uniform paths are of interest, given any number of included and excluded uniform path prefixes. A
+ * path matches a prefix if it starts with it, like a single {@code --uniform-path} always did. If several prefixes
+ * match, the longest one decides, so a directory can be excluded from an included directory and a subdirectory can be
+ * included again. If no prefix matches, the path is included only if there are no included prefixes at all.
+ * <p>
+ * The prefixes are compiled into a trie over their characters, so {@link #matches(String)} takes time proportional to
+ * the length of the path, regardless of the number of prefixes.
+ */
+public class UniformPathFilter {
+
+    /** Includes every path. */
+    public static final UniformPathFilter ALL = new UniformPathFilter(Collections.emptyList(), Collections.emptyList());
+
+    private final List<String> includedPrefixes;
+    private final List<String> excludedPrefixes;
+    private final Node root = new Node();
+
+    private UniformPathFilter(List<String> includedPrefixes, List<String> excludedPrefixes) {
+        this.includedPrefixes = includedPrefixes;
+        this.excludedPrefixes = excludedPrefixes;
+        for (String prefix : includedPrefixes) {
+            root.insert(prefix).decision = Decision.INCLUDE;
+        }
+        // Inserted last, so a prefix that is both included and excluded is excluded
+        for (String prefix : excludedPrefixes) {
+            root.insert(prefix).decision = Decision.EXCLUDE;
+        }
+        root.decision = includedPrefixes.isEmpty() ? Decision.INCLUDE : Decision.EXCLUDE;
+    }
+
+    /** Creates a filter from the given prefixes. Empty prefixes are ignored. */
+    public static UniformPathFilter of(List<String> includedPrefixes, List<String> excludedPrefixes) {
+        List<String> included = withoutEmpty(includedPrefixes);
+        List<String> excluded = withoutEmpty(excludedPrefixes);
+        if (included.isEmpty() && excluded.isEmpty()) {
+            return ALL;
+        }
+        return new UniformPathFilter(included, excluded);
+    }
+
+    /** Creates a filter that only includes paths with the given prefix, or all paths if it is empty. */
+    public static UniformPathFilter including(String prefix) {
+        return of(Collections.singletonList(prefix), Collections.emptyList());
+    }
+
+    private static List<String> withoutEmpty(List<String> prefixes) {
+        List<String> result = new ArrayList<>();
+        for (String prefix : prefixes) {
+            if (prefix != null && !prefix.isEmpty()) {
+                result.add(prefix);
+            }
+        }
+        return Collections.unmodifiableList(result);
+    }
+
+    /** Whether this filter includes every path. */
+    public boolean isAll() {
+        return includedPrefixes.isEmpty() && excludedPrefixes.isEmpty();
+    }
+
+    /** Whether the given path is included by this filter. */
+    public boolean matches(String uniformPath) {
+        Node node = root;
+        Decision decision = root.decision;
+        for (int i = 0; i < uniformPath.length() && node != null; i++) {
+            node = node.child(uniformPath.charAt(i));
+            if (node != null && node.decision != null) {
+                decision = node.decision;
+            }
+        }
+        return decision == Decision.INCLUDE;
+    }
+
+    /**
+     * Whether this filter includes exactly the paths in its {@linkplain #getCommonUniformPath() common uniform path},
+     * i.e. it includes at most one prefix and excludes none.
+     */
+    public boolean isSingleUniformPath() {
+        return includedPrefixes.size() <= 1 && excludedPrefixes.isEmpty();
+    }
+
+    /** The non-empty included prefixes. */
+    public List<String> getIncludedPrefixes() {
+        return includedPrefixes;
+    }
+
+    /** The non-empty excluded prefixes. */
+    public List<String> getExcludedPrefixes() {
+        return excludedPrefixes;
+    }
+
+    /**
+     * The most specific single uniform path that contains all included paths, for endpoints that only accept one
+     * uniform path. This is the included prefix itself if there is only one, otherwise the deepest directory that
+     * contains all included prefixes, or the empty string (the whole project) if there is none.
+     */
+    public String getCommonUniformPath() {
+        if (includedPrefixes.isEmpty()) {
+            return "";
+        }
+        if (includedPrefixes.size() == 1) {
+            return includedPrefixes.get(0);
+        }
+        String common = includedPrefixes.get(0);
+        for (String prefix : includedPrefixes) {
+            int length = 0;
+            while (length < common.length() && length < prefix.length() &&
+                    common.charAt(length) == prefix.charAt(length)) {
+                length++;
+            }
+            common = common.substring(0, length);
+        }
+        // The common characters may end within a path segment, e.g. "src/ma" for "src/main/" and "src/maven/"
+        int lastSeparator = common.lastIndexOf('/');
+        if (lastSeparator < 0) {
+            return "";
+        }
+        return common.substring(0, lastSeparator);
+    }
+
+    private enum Decision {
+        INCLUDE,
+        EXCLUDE
+    }
+
+    /** A node of the trie. The children are kept sorted by their character for binary search. */
+    private static class Node {
+        private char[] keys = new char[0];
+        private Node[] children = new Node[0];
+
+        /** The decision for paths whose longest matching prefix ends at this node, if a prefix ends here. */
+        private Decision decision;
+
+        private Node child(char key) {
+            int index = Arrays.binarySearch(keys, key);
+            if (index < 0) {
+                return null;
+            }
+            return children[index];
+        }
+
+        /** Returns the node at which the given prefix ends, creating the nodes on the way as needed. */
+        private Node insert(String prefix) {
+            Node node = this;
+            for (int i = 0; i < prefix.length(); i++) {
+                node = node.childOrCreate(prefix.charAt(i));
+            }
+            return node;
+        }
+
+        private Node childOrCreate(char key) {
+            int index = Arrays.binarySearch(keys, key);
+            if (index >= 0) {
+                return children[index];
+            }
+            int insertionPoint = -index - 1;
+            Node child = new Node();
+            char[] newKeys = new char[keys.length + 1];
+            Node[] newChildren = new Node[children.length + 1];
+            System.arraycopy(keys, 0, newKeys, 0, insertionPoint);
+            System.arraycopy(children, 0, newChildren, 0, insertionPoint);
+            newKeys[insertionPoint] = key;
+            newChildren[insertionPoint] = child;
+            System.arraycopy(keys, insertionPoint, newKeys, insertionPoint + 1, keys.length - insertionPoint);
+            System.arraycopy(children, insertionPoint, newChildren, insertionPoint + 1,
+                    children.length - insertionPoint);
+            keys = newKeys;
+            children = newChildren;
+            return child;
+        }
+    }
+}
@@ -1,6 +1,10 @@
 package com.teamscale.buildbreaker.teamscale_client.exceptions;
 
 public class ParserException extends Exception {
+    public ParserException(String message) {
+        super(message);
+    }
+
     public ParserException(String message, Throwable cause) {
         super(message, cause);
     }
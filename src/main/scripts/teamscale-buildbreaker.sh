@@ -0,0 +1,51 @@
+#!/usr/bin/env sh
+# Starts the shaded jar of the Teamscale Build-Breaker on the JVM. If a class-data-sharing (CDS) archive with the same
+# name as the jar is located next to it, it is used to skip most of the class loading and verification at startup.
+#
+# Usage:
+#   teamscale-buildbreaker.sh <options>              Runs the build-breaker with the given options
+#   teamscale-buildbreaker.sh --create-cds-archive   (Re-)creates the CDS archive for the current JDK (13 or newer)
+#
+# Environment variables:
+#   JAVA                 The java executable. Default: $JAVA_HOME/bin/java or java from the PATH
+#   JAVA_OPTS            Additional JVM options
+#   BUILDBREAKER_CDS     Set to false to not use the CDS archive
+set -e
+
+dir=$(cd "$(dirname "$0")" && pwd)
+jar="$dir/teamscale-buildbreaker.jar"
+if [ ! -f "$jar" ]; then
+    jar=$(ls "$dir"/teamscale-buildbreaker-*-shaded.jar 2>/dev/null | head -n 1)
+fi
+if [ ! -f "$jar" ]; then
+    echo "No teamscale-buildbreaker jar found in $dir" >&2
+    exit 1
+fi
+archive="${jar%.jar}.jsa"
+
+if [ -z "$JAVA" ]; then
+    if [ -n "$JAVA_HOME" ]; then
+        JAVA="$JAVA_HOME/bin/java"
+    else
+        JAVA=java
+    fi
+fi
+
+if [ "$1" = "--create-cds-archive" ]; then
+    # The class path must be the jar only, exactly as for the runs below, otherwise the archive is not used
+    exec "$JAVA" -XX:ArchiveClassesAtExit="$archive" -cp "$jar" \
+        com.teamscale.buildbreaker.commandline.CdsTrainingRun > /dev/null
+fi
+
+jvm_options="-Xshare:auto"
+if [ "$BUILDBREAKER_CDS" != "false" ] && [ -f "$archive" ]; then
+    # An archive that was created by a different JDK or for a different jar is silently ignored
+    jvm_options="$jvm_options -XX:SharedArchiveFile=$archive"
+fi
+if [ "$1" != "daemon" ]; then
+    # A single run is too short to benefit from the optimizing compiler, whereas the daemon runs long enough
+    jvm_options="$jvm_options -XX:TieredStopAtLevel=1 -XX:+UseSerialGC"
+fi
+
+# shellcheck disable=SC2086
+exec "$JAVA" $jvm_options $JAVA_OPTS -jar "$jar" "$@"
@@ -0,0 +1,66 @@
+package com.teamscale.buildbreaker.commandline;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.Instant;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AnalysisPollingStrategyTest {
+
+    private static final Instant START = Instant.parse("2024-02-05T10:00:00Z");
+
+    /** Without jitter (the random value 0.5 maps to a factor of 1). */
+    private static AnalysisPollingStrategy createStrategy(Duration timeout) {
+        return new AnalysisPollingStrategy(Duration.ofSeconds(1), Duration.ofSeconds(30), START.plus(timeout), () -> 0.5);
+    }
+
+    @Test
+    void backsOffExponentiallyUpToMaximum() {
+        AnalysisPollingStrategy strategy = createStrategy(Duration.ofHours(1));
+        strategy.recordPoll(START, 1000);
+
+        assertThat(strategy.nextDelay(START, 5000)).contains(Duration.ofSeconds(1));
+        assertThat(strategy.nextDelay(START, 5000)).contains(Duration.ofSeconds(2));
+        assertThat(strategy.nextDelay(START, 5000)).contains(Duration.ofSeconds(4));
+        assertThat(strategy.nextDelay(START, 5000)).contains(Duration.ofSeconds(8));
+        assertThat(strategy.nextDelay(START, 5000)).contains(Duration.ofSeconds(16));
+        assertThat(strategy.nextDelay(START, 5000)).contains(Duration.ofSeconds(30));
+        assertThat(strategy.nextDelay(START, 5000)).contains(Duration.ofSeconds(30));
+    }
+
+    @Test
+    void appliesJitterInBothDirections() {
+        AnalysisPollingStrategy lowStrategy = new AnalysisPollingStrategy(Duration.ofSeconds(10), Duration.ofSeconds(30),
+                START.plus(Duration.ofHours(1)), () -> 0);
+        AnalysisPollingStrategy highStrategy = new AnalysisPollingStrategy(Duration.ofSeconds(10), Duration.ofSeconds(30),
+                START.plus(Duration.ofHours(1)), () -> 0.999);
+
+        assertThat(lowStrategy.nextDelay(START, 5000)).contains(Duration.ofSeconds(8));
+        assertThat(highStrategy.nextDelay(START, 5000).get()).isBetween(Duration.ofMillis(11_990), Duration.ofSeconds(12));
+    }
+
+    @Test
+    void estimatesRemainingTimeFromAnalysisProgress() {
+        AnalysisPollingStrategy strategy = createStrategy(Duration.ofHours(1));
+        strategy.recordPoll(START, 100_000);
+        assertThat(strategy.estimateRemainingTime(200_000)).isEmpty();
+
+        // 10 seconds of commit history were analyzed within 5 seconds, 20 seconds of history remain
+        strategy.recordPoll(START.plusSeconds(5), 110_000);
+
+        assertThat(strategy.estimateRemainingTime(130_000)).contains(Duration.ofSeconds(10));
+        assertThat(strategy.nextDelay(START.plusSeconds(5), 130_000)).contains(Duration.ofSeconds(10));
+    }
+
+    @Test
+    void neverWaitsBeyondDeadline() {
+        AnalysisPollingStrategy strategy = createStrategy(Duration.ofSeconds(20));
+        strategy.recordPoll(START, 1000);
+
+        assertThat(strategy.nextDelay(START.plusSeconds(19), 5000)).contains(Duration.ofSeconds(1));
+        assertThat(strategy.nextDelay(START.plusSeconds(19).plusMillis(500), 5000)).contains(Duration.ofMillis(500));
+        assertThat(strategy.nextDelay(START.plusSeconds(20), 5000)).isEmpty();
+    }
+}
@@ -0,0 +1,131 @@
+package com.teamscale.buildbreaker.commandline;
+
+import okhttp3.mockwebserver.Dispatcher;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import picocli.CommandLine;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class BatchBuildBreakerTest {
+
+    private static final String RED_METRIC_RESPONSE = "[{\"metrics\":{\"m1\":{\"displayName\":\"Clone Coverage\"," +
+            "\"rating\":\"RED\",\"formattedTextValue\":\"50%\"," +
+            "\"metricThresholds\":{\"thresholdYellow\":\"10\",\"thresholdRed\":\"20\"}}}}]";
+
+    private MockWebServer server;
+    private final ByteArrayOutputStream output = new ByteArrayOutputStream();
+
+    @BeforeEach
+    void setUp() throws Exception {
+        server = new MockWebServer();
+        server.setDispatcher(new Dispatcher() {
+            @Override
+            public MockResponse dispatch(RecordedRequest request) {
+                String path = request.getPath();
+                if (path.contains("/branch-analysis-state/")) {
+                    return new MockResponse().setBody("{\"timestamp\":1597845940000,\"state\":\"LIVE_ANALYSIS\"}");
+                }
+                if (path.contains("/projects/red/metric-assessments")) {
+                    return new MockResponse().setBody(RED_METRIC_RESPONSE);
+                }
+                if (path.contains("/metric-assessments")) {
+                    return new MockResponse().setBody("[]");
+                }
+                return new MockResponse().setResponseCode(404);
+            }
+        });
+        server.start();
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        server.shutdown();
+    }
+
+    private int runBatch(String input) {
+        BatchBuildBreaker batch = new BatchBuildBreaker(
+                new ByteArrayInputStream(input.getBytes(StandardCharsets.UTF_8)), new PrintStream(output, true));
+        return new CommandLine(batch).execute("--max-concurrency", "2", "--server", server.url("/").toString(),
+                "--user", "build", "--accesskey", "key");
+    }
+
+    private String getOutput() {
+        return new String(output.toByteArray(), StandardCharsets.UTF_8);
+    }
+
+    @Test
+    void evaluatesAllEntriesAndAggregatesExitCodes() {
+        int exitCode = runBatch("# components\n" +
+                "-p clean --branch-and-timestamp main:1597845930000 -t -o default\n" +
+                "\n" +
+                "-p red --branch-and-timestamp main:1597845930000 -t -o default\n");
+
+        assertThat(exitCode).isEqualTo(1);
+        assertThat(getOutput())
+                .contains("=== Exit code of entry in line 2: 0")
+                .contains("=== Exit code of entry in line 4: 1")
+                .contains("Clone Coverage")
+                .contains("Summary of 2 entries:");
+        assertThat(getOutput().indexOf("line 2")).isLessThan(getOutput().indexOf("line 4"));
+        assertThat(server.getRequestCount()).isEqualTo(4);
+    }
+
+    @Test
+    void reportsInvalidEntryWithoutAbortingOtherEntries() {
+        int exitCode = runBatch("-p clean --branch-and-timestamp main:1597845930000 -t -o default\n" +
+                "-p broken --no-such-option\n");
+
+        assertThat(exitCode).isEqualTo(BatchBuildBreaker.EXIT_CODE_ENTRY_FAILED);
+        assertThat(getOutput())
+                .contains("=== Exit code of entry in line 1: 0")
+                .contains("Unknown option: '--no-such-option'")
+                .contains("line 2: exit code 2 (failed)");
+    }
+
+    @Test
+    void usesTheConnectionOptionsOfEachEntry(@TempDir Path tempDir) {
+        Path cacheDirectory = tempDir.resolve("http-cache");
+
+        int exitCode = runBatch("-p clean --branch-and-timestamp main:1597845930000 -t -o default\n" +
+                "-p clean --branch-and-timestamp main:1597845930000 -t -o default --http-cache-dir " +
+                cacheDirectory + "\n");
+
+        assertThat(exitCode).isEqualTo(0);
+        assertThat(getOutput()).contains("HTTP cache: ");
+        assertThat(Files.isDirectory(cacheDirectory)).isTrue();
+    }
+
+    @Test
+    void writesTheFlightRecordingRequestedByAnEntry(@TempDir Path tempDir) {
+        Path recordingFile = tempDir.resolve("entry.jfr");
+
+        int exitCode = runBatch("-p clean --branch-and-timestamp main:1597845930000 -t -o default --jfr " +
+                recordingFile + "\n");
+
+        assertThat(exitCode).isEqualTo(0);
+        assertThat(getOutput()).contains("Flight recording written to " + recordingFile);
+        assertThat(Files.isRegularFile(recordingFile)).isTrue();
+    }
+
+    @Test
+    void splitsOptionsAtWhitespaceOutsideOfQuotes() {
+        assertThat(BatchEntry.splitArguments(" -p  my-project -o \"Teamscale Default\" --uniform-path 'src/a b'"))
+                .containsExactly("-p", "my-project", "-o", "Teamscale Default", "--uniform-path", "src/a b");
+        assertThatThrownBy(() -> BatchEntry.splitArguments("-o \"unterminated"))
+                .hasMessageContaining("Unterminated quote");
+    }
+}
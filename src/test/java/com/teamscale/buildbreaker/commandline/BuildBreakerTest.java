@@ -0,0 +1,107 @@
+package com.teamscale.buildbreaker.commandline;
+
+import com.teamscale.buildbreaker.evaluation.EvaluationResult;
+import com.teamscale.buildbreaker.evaluation.ProblemCategory;
+import okhttp3.OkHttpClient;
+import okhttp3.mockwebserver.Dispatcher;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import picocli.CommandLine;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class BuildBreakerTest {
+
+    private static final String RED_METRIC_RESPONSE = "[{\"metrics\":{\"m1\":{\"displayName\":\"Clone Coverage\"," +
+            "\"rating\":\"RED\",\"formattedTextValue\":\"50%\"," +
+            "\"metricThresholds\":{\"thresholdYellow\":\"10\",\"thresholdRed\":\"20\"}}}}]";
+
+    private static final String FINDINGS_RESPONSE = "{\"addedFindings\":[" +
+            "{\"id\":\"f1\",\"groupName\":\"Bugs\",\"categoryName\":\"NPE\",\"message\":\"Possible NPE\"," +
+            "\"location\":{\"uniformPath\":\"src/Service.java\"},\"assessment\":\"YELLOW\"}]," +
+            "\"findingsInChangedCode\":[]}";
+
+    private MockWebServer server;
+    private volatile boolean findingsFail;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        server = new MockWebServer();
+        server.setDispatcher(new Dispatcher() {
+            @Override
+            public MockResponse dispatch(RecordedRequest request) {
+                String path = request.getPath();
+                if (path.contains("/branch-analysis-state/")) {
+                    return new MockResponse().setBody("{\"timestamp\":1597845940000,\"state\":\"LIVE_ANALYSIS\"}");
+                }
+                if (path.contains("/metric-assessments")) {
+                    return new MockResponse().setBody(RED_METRIC_RESPONSE);
+                }
+                if (path.contains("/finding-churn/list") && !findingsFail) {
+                    return new MockResponse().setBody(FINDINGS_RESPONSE);
+                }
+                return new MockResponse().setResponseCode(404);
+            }
+        });
+        server.start();
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        server.shutdown();
+    }
+
+    @Test
+    void concurrentEvaluationMatchesSequentialEvaluation() throws Exception {
+        ByteArrayOutputStream sequentialOutput = new ByteArrayOutputStream();
+        EvaluationResult sequentialResult = evaluate(sequentialOutput, "--fail-on-yellow-findings");
+        ByteArrayOutputStream concurrentOutput = new ByteArrayOutputStream();
+        EvaluationResult concurrentResult = evaluate(concurrentOutput, "--fail-on-yellow-findings",
+                "--concurrent-evaluation");
+
+        assertThat(concurrentResult.toStatusCode()).isEqualTo(sequentialResult.toStatusCode()).isEqualTo(1);
+        assertThat(concurrentResult.toString()).isEqualTo(sequentialResult.toString());
+        assertThat(concurrentResult.getViolationCount(ProblemCategory.ERROR)).isEqualTo(1);
+        assertThat(concurrentResult.getViolationCount(ProblemCategory.WARNING)).isEqualTo(1);
+        assertThat(toString(concurrentOutput)).isEqualTo(toString(sequentialOutput))
+                .contains("Clone Coverage", "Possible NPE");
+    }
+
+    @Test
+    void concurrentEvaluationReportsFailureOfOneSection() {
+        findingsFail = true;
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+
+        assertThatThrownBy(() -> evaluate(output, "--concurrent-evaluation"))
+                .hasMessageContaining("does not seem to exist in Teamscale");
+        assertThat(toString(output)).contains("Clone Coverage", "Evaluating findings for the current commit...");
+    }
+
+    private EvaluationResult evaluate(ByteArrayOutputStream output, String... additionalArguments) throws Exception {
+        List<String> arguments = new ArrayList<>(Arrays.asList("--server", server.url("/").toString(), "--user",
+                "build", "--accesskey", "key", "-p", "test-project", "--branch-and-timestamp", "main:1597845930000",
+                "-t", "-o", "default", "-f"));
+        arguments.addAll(Arrays.asList(additionalArguments));
+        BuildBreaker buildBreaker = new BuildBreaker();
+        new CommandLine(buildBreaker).parseArgs(arguments.toArray(new String[0]));
+        buildBreaker.validateOptions();
+        buildBreaker.setTeamscaleClient(buildBreaker.createTeamscaleClient(new OkHttpClient(), new PrintStream(output, true)));
+        return buildBreaker.evaluate(new PrintStream(output, true));
+    }
+
+    private static String toString(ByteArrayOutputStream output) {
+        return new String(output.toByteArray(), StandardCharsets.UTF_8);
+    }
+}
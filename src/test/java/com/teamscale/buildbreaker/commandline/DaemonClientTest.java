@@ -0,0 +1,50 @@
+package com.teamscale.buildbreaker.commandline;
+
+import org.junit.jupiter.api.Test;
+import picocli.CommandLine.Model.CommandSpec;
+
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class DaemonClientTest {
+
+    private final CommandSpec spec = CommandSpec.forAnnotatedObject(new BuildBreaker());
+
+    @Test
+    void findsShortOptionsFollowingPicocliRules() {
+        assertThat(hasCommit("-c", "abc")).isTrue();
+        assertThat(hasCommit("-cabc")).isTrue();
+        assertThat(hasCommit("-c=abc")).isTrue();
+        assertThat(hasCommit("-tcabc")).isTrue();
+        assertThat(hasCommit("--commit=abc")).isTrue();
+    }
+
+    @Test
+    void ignoresValuesOfOtherOptions() {
+        assertThat(hasCommit("-o", "-custom-config", "-t")).isFalse();
+        assertThat(hasCommit("-ocustom")).isFalse();
+        assertThat(hasCommit("-p", "c")).isFalse();
+    }
+
+    @Test
+    void resolvesFilesAgainstTheWorkingDirectoryOfTheClient() {
+        String workingDirectory = Paths.get("").toAbsolutePath().toString();
+        List<String> arguments = new ArrayList<>(Arrays.asList("--revision-cache", "revisions",
+                "--http-cache-dir=cache", "--jfr", "run.jfr", "--trusted-keystore", "keystore.jks;pass;word"));
+
+        DaemonClient.resolveFiles(arguments);
+
+        assertThat(arguments).containsExactly("--revision-cache", Paths.get(workingDirectory, "revisions").toString(),
+                "--http-cache-dir=" + Paths.get(workingDirectory, "cache"), "--jfr",
+                Paths.get(workingDirectory, "run.jfr").toString(), "--trusted-keystore",
+                Paths.get(workingDirectory, "keystore.jks") + ";pass;word");
+    }
+
+    private boolean hasCommit(String... arguments) {
+        return DaemonClient.hasOption(spec, Arrays.asList(arguments), "-c", "--commit");
+    }
+}
@@ -0,0 +1,119 @@
+package com.teamscale.buildbreaker.commandline;
+
+import com.teamscale.buildbreaker.commandline.DaemonProtocol.DaemonAddress;
+import okhttp3.mockwebserver.Dispatcher;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import picocli.CommandLine;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class DaemonServerTest {
+
+    private static final String RED_METRIC_RESPONSE = "[{\"metrics\":{\"m1\":{\"displayName\":\"Clone Coverage\"," +
+            "\"rating\":\"RED\",\"formattedTextValue\":\"50%\"," +
+            "\"metricThresholds\":{\"thresholdYellow\":\"10\",\"thresholdRed\":\"20\"}}}}]";
+
+    @TempDir
+    Path tempDir;
+
+    private MockWebServer server;
+    private Path daemonFile;
+    private CompletableFuture<Integer> daemon;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        server = new MockWebServer();
+        server.setDispatcher(new Dispatcher() {
+            @Override
+            public MockResponse dispatch(RecordedRequest request) {
+                String path = request.getPath();
+                if (path.contains("/branch-analysis-state/")) {
+                    return new MockResponse().setBody("{\"timestamp\":1597845940000,\"state\":\"LIVE_ANALYSIS\"}");
+                }
+                if (path.contains("/projects/red/metric-assessments")) {
+                    return new MockResponse().setBody(RED_METRIC_RESPONSE);
+                }
+                if (path.contains("/metric-assessments")) {
+                    return new MockResponse().setBody("[]");
+                }
+                return new MockResponse().setResponseCode(404);
+            }
+        });
+        server.start();
+
+        daemonFile = tempDir.resolve("daemon");
+        daemon = CompletableFuture.supplyAsync(() -> new CommandLine(new DaemonServer())
+                .execute("--daemon-file", daemonFile.toString(), "--idle-timeout", "PT1M"));
+        for (int i = 0; i < 100 && !Files.exists(daemonFile); i++) {
+            Thread.sleep(50);
+        }
+        assertThat(daemonFile).exists();
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        Files.deleteIfExists(daemonFile);
+        daemon.get(10, TimeUnit.SECONDS);
+        server.shutdown();
+    }
+
+    private int forward(String token, List<String> arguments, ByteArrayOutputStream output) throws IOException {
+        DaemonAddress address = DaemonProtocol.readDaemonFile(daemonFile);
+        return DaemonClient.forward(new Socket(InetAddress.getLoopbackAddress(), address.port), token, arguments,
+                output);
+    }
+
+    private List<String> argumentsForProject(String project) {
+        return List.of("--server", server.url("/").toString(), "--user", "build", "--accesskey", "key", "-p", project,
+                "--branch-and-timestamp", "main:1597845930000", "-t", "-o", "default");
+    }
+
+    @Test
+    void evaluatesRequestsAndStreamsOutputBack() throws Exception {
+        String token = DaemonProtocol.readDaemonFile(daemonFile).token;
+
+        ByteArrayOutputStream cleanOutput = new ByteArrayOutputStream();
+        assertThat(forward(token, argumentsForProject("clean"), cleanOutput)).isEqualTo(0);
+
+        ByteArrayOutputStream redOutput = new ByteArrayOutputStream();
+        assertThat(forward(token, argumentsForProject("red"), redOutput)).isEqualTo(1);
+        assertThat(new String(redOutput.toByteArray(), StandardCharsets.UTF_8)).contains("Clone Coverage");
+
+        ByteArrayOutputStream invalidOutput = new ByteArrayOutputStream();
+        assertThat(forward(token, List.of("-p", "clean"), invalidOutput)).isEqualTo(2);
+        assertThat(new String(invalidOutput.toByteArray(), StandardCharsets.UTF_8))
+                .contains("Missing required options");
+    }
+
+    @Test
+    void rejectsRequestsWithWrongToken() {
+        assertThatThrownBy(() -> forward("wrong", argumentsForProject("clean"), new ByteArrayOutputStream()))
+                .isInstanceOf(IOException.class);
+        assertThat(server.getRequestCount()).isEqualTo(0);
+    }
+
+    @Test
+    void stopsWhenDaemonFileIsDeleted() throws Exception {
+        Files.delete(daemonFile);
+
+        assertThat(daemon.get(10, TimeUnit.SECONDS)).isEqualTo(0);
+    }
+}
@@ -0,0 +1,84 @@
+package com.teamscale.buildbreaker.commandline;
+
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.Response;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class OkHttpClientUtilsTest {
+
+    private MockWebServer server;
+    private OkHttpClient client;
+
+    @BeforeEach
+    void setUp(@TempDir Path cacheDirectory) throws Exception {
+        server = new MockWebServer();
+        server.start();
+        client = OkHttpClientUtils.createClient(false, null, null, cacheDirectory, 1024 * 1024);
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        client.cache().close();
+        server.shutdown();
+    }
+
+    private String get() throws IOException {
+        Request request = new Request.Builder().url(server.url("/api/projects/p/branch-analysis-state/main")).build();
+        try (Response response = client.newCall(request).execute()) {
+            return response.body().string();
+        }
+    }
+
+    @Test
+    void reusesCachedBodyWhenTeamscaleAnswersNotModified() throws Exception {
+        server.enqueue(new MockResponse().setBody("{\"state\":\"LIVE_ANALYSIS\"}").addHeader("ETag", "\"v1\""));
+        server.enqueue(new MockResponse().setResponseCode(304).addHeader("ETag", "\"v1\""));
+
+        assertThat(get()).isEqualTo("{\"state\":\"LIVE_ANALYSIS\"}");
+        assertThat(get()).isEqualTo("{\"state\":\"LIVE_ANALYSIS\"}");
+
+        server.takeRequest();
+        assertThat(server.takeRequest().getHeader("If-None-Match")).isEqualTo("\"v1\"");
+        assertThat(client.cache().hitCount()).isEqualTo(1);
+        assertThat(client.cache().requestCount()).isEqualTo(2);
+    }
+
+    @Test
+    void revalidatesEvenIfTeamscaleAllowsCaching() throws Exception {
+        server.enqueue(new MockResponse().setBody("old").addHeader("Cache-Control", "max-age=3600")
+                .addHeader("Last-Modified", "Mon, 05 Feb 2024 10:00:00 GMT"));
+        server.enqueue(new MockResponse().setBody("new").addHeader("Last-Modified", "Mon, 05 Feb 2024 11:00:00 GMT"));
+
+        assertThat(get()).isEqualTo("old");
+        assertThat(get()).isEqualTo("new");
+
+        server.takeRequest();
+        RecordedRequest revalidation = server.takeRequest();
+        assertThat(revalidation.getHeader("If-Modified-Since")).isEqualTo("Mon, 05 Feb 2024 10:00:00 GMT");
+        assertThat(client.cache().hitCount()).isEqualTo(0);
+    }
+
+    @Test
+    void doesNotCacheResponsesWithoutValidators() throws Exception {
+        server.enqueue(new MockResponse().setBody("first"));
+        server.enqueue(new MockResponse().setBody("second"));
+
+        assertThat(get()).isEqualTo("first");
+        assertThat(get()).isEqualTo("second");
+
+        server.takeRequest();
+        assertThat(server.takeRequest().getHeader("If-None-Match")).isNull();
+    }
+}
@@ -0,0 +1,56 @@
+package com.teamscale.buildbreaker.evaluation;
+
+import org.junit.jupiter.api.Test;
+
+import static com.teamscale.buildbreaker.evaluation.ProblemCategory.ERROR;
+import static com.teamscale.buildbreaker.evaluation.ProblemCategory.WARNING;
+import static org.assertj.core.api.Assertions.assertThat;
+
+class FindingStoreTest {
+
+	@Test
+	void recreatesStoredFindings() {
+		FindingStore store = new FindingStore();
+		for (int i = 0; i < 1000; i++) {
+			store.acceptAddedFinding(new Finding("id-" + i, "Group " + (i % 3), "Category " + (i % 7),
+					"Message " + (i % 11), "src/File" + (i % 13) + ".java", i % 2 == 0 ? ERROR : WARNING));
+		}
+		store.acceptFindingInChangedCode(new Finding("changed", "Group 0", "Category 0", "Message 0",
+				"src/File0.java", WARNING));
+
+		assertThat(store.size()).isEqualTo(1001);
+		Finding finding = store.get(500);
+		assertThat(finding.id).isEqualTo("id-500");
+		assertThat(finding.group).isEqualTo("Group 2");
+		assertThat(finding.category).isEqualTo("Category 3");
+		assertThat(finding.message).isEqualTo("Message 5");
+		assertThat(finding.uniformPath).isEqualTo("src/File6.java");
+		assertThat(finding.assessment).isEqualTo(ERROR);
+		assertThat(store.isInChangedCode(500)).isFalse();
+		assertThat(store.isInChangedCode(1000)).isTrue();
+		assertThat(store.getAssessment(1000)).isEqualTo(WARNING);
+	}
+
+	@Test
+	void storesRepeatedStringsOnce() {
+		StringDictionary dictionary = new StringDictionary();
+		for (int i = 0; i < 10000; i++) {
+			assertThat(dictionary.encode("value " + (i % 100))).isEqualTo(i % 100);
+		}
+		assertThat(dictionary.size()).isEqualTo(100);
+		assertThat(dictionary.decode(42)).isEqualTo("value 42");
+	}
+
+	@Test
+	void evaluatesLikeListsOfFindings() {
+		FindingStore store = new FindingStore();
+		store.acceptAddedFinding(new Finding("added-err", "G", "C", "M", "a/A.java", ERROR));
+		store.acceptAddedFinding(new Finding("added-warn", "G", "C", "M", "a/B.java", WARNING));
+		store.acceptFindingInChangedCode(new Finding("changed-err", "G", "C", "M", "a/C.java", ERROR));
+
+		EvaluationResult result = new FindingsEvaluator().evaluate(store, false, false, ViolationListener.NONE);
+
+		assertThat(result.toStatusCode()).isEqualTo(1);
+		assertThat(result.toString()).contains("added-err").doesNotContain("added-warn", "changed-err");
+	}
+}
@@ -0,0 +1,79 @@
+package com.teamscale.buildbreaker.evaluation;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static com.teamscale.buildbreaker.evaluation.ProblemCategory.ERROR;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class FindingsBaselineTest {
+
+	@TempDir
+	Path tempDir;
+
+	@Test
+	void containsRecordedFindings() throws IOException {
+		Path file = tempDir.resolve("baseline.bin");
+		FindingsBaseline.Recorder recorder = new FindingsBaseline.Recorder();
+		for (int i = 0; i < 5000; i++) {
+			recorder.acceptAddedFinding(createFinding("added-" + i));
+		}
+		recorder.acceptFindingInChangedCode(createFinding("changed"));
+		recorder.acceptFindingInChangedCode(createFinding("changed"));
+
+		assertThat(recorder.write(file)).isEqualTo(5001);
+
+		FindingsBaseline baseline = FindingsBaseline.read(file);
+		assertThat(baseline.size()).isEqualTo(5001);
+		assertThat(baseline.contains("added-0")).isTrue();
+		assertThat(baseline.contains("added-4999")).isTrue();
+		assertThat(baseline.contains("changed")).isTrue();
+		assertThat(baseline.contains("added-5000")).isFalse();
+		assertThat(Files.size(file)).isEqualTo(16 + 5001 * 8L);
+	}
+
+	@Test
+	void filtersFindingsInBaseline() throws IOException {
+		Path file = tempDir.resolve("baseline.bin");
+		FindingsBaseline.Recorder recorder = new FindingsBaseline.Recorder();
+		recorder.acceptAddedFinding(createFinding("old"));
+		recorder.write(file);
+		FindingsBaseline baseline = FindingsBaseline.read(file);
+		FindingsCollector collector = new FindingsCollector();
+
+		FindingConsumer filter = baseline.filter(collector);
+		filter.acceptAddedFinding(createFinding("old"));
+		filter.acceptAddedFinding(createFinding("new"));
+		filter.acceptFindingInChangedCode(createFinding("old"));
+
+		assertThat(collector.getFindings().getFirst()).extracting(finding -> finding.id).containsExactly("new");
+		assertThat(collector.getFindings().getSecond()).isEmpty();
+		assertThat(baseline.getIgnoredFindings()).isEqualTo(2);
+	}
+
+	@Test
+	void emptyBaselineContainsNothing() throws IOException {
+		Path file = tempDir.resolve("baseline.bin");
+		new FindingsBaseline.Recorder().write(file);
+
+		assertThat(FindingsBaseline.read(file).contains("any")).isFalse();
+	}
+
+	@Test
+	void rejectsOtherFiles() throws IOException {
+		Path file = tempDir.resolve("other.txt");
+		Files.write(file, "not a baseline at all".getBytes());
+
+		assertThatThrownBy(() -> FindingsBaseline.read(file)).isInstanceOf(IOException.class)
+				.hasMessageContaining("not a findings baseline");
+	}
+
+	private static Finding createFinding(String id) {
+		return new Finding(id, "TestGroup", "TestCategory", "Test message", "path/to/File.java", ERROR);
+	}
+}
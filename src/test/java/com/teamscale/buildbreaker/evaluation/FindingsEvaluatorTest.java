@@ -3,6 +3,7 @@ package com.teamscale.buildbreaker.evaluation;
 import org.conqat.lib.commons.collections.Pair;
 import org.junit.jupiter.api.Test;
 
+import java.io.IOException;
 import java.util.Collections;
 import java.util.List;
 
@@ -127,6 +128,54 @@ class FindingsEvaluatorTest {
 		assertThat(result.toString()).contains("warn-2");
 	}
 
+	@Test
+	void limitedOutputOmitsWarningsBeforeErrors() throws IOException {
+		Finding error = createFinding("err-1", ERROR);
+		Finding warning1 = createFinding("warn-1", WARNING);
+		Finding warning2 = createFinding("warn-2", WARNING);
+		EvaluationResult result = evaluator.evaluate(
+				Pair.createPair(List.of(error, warning1, warning2), Collections.emptyList()), true, false);
+
+		StringBuilder output = new StringBuilder();
+		result.writeTo(output, 2);
+
+		assertThat(output.toString()).contains("warn-1", "err-1", "... and 1 more warnings");
+		assertThat(output.toString()).doesNotContain("warn-2");
+		assertThat(result.summarizeFindings().isEmpty()).isFalse();
+	}
+
+	@Test
+	void violationsAreOnlyFormattedWhenWritten() throws IOException {
+		int[] formatCount = {0};
+		Finding error = new Finding("err-1", "TestGroup", "TestCategory", "Test message", "path/to/File.java", ERROR) {
+			@Override
+			public String toString() {
+				formatCount[0]++;
+				return super.toString();
+			}
+		};
+		EvaluationResult result = evaluator.evaluate(
+				Pair.createPair(List.of(error, error), Collections.emptyList()), false, false);
+
+		assertThat(result.toStatusCode()).isEqualTo(1);
+		assertThat(result.getViolationCount(ERROR)).isEqualTo(2);
+		assertThat(formatCount[0]).isZero();
+
+		result.writeTo(new StringBuilder(), 1);
+		assertThat(formatCount[0]).isEqualTo(1);
+	}
+
+	@Test
+	void violationsAreListedInOrderOfEvaluationIncludingDuplicates() {
+		Finding second = createFinding("err-2", ERROR);
+		Finding first = createFinding("err-1", ERROR);
+		EvaluationResult result = evaluator.evaluate(
+				Pair.createPair(List.of(second, first, second), Collections.emptyList()), false, false);
+
+		assertThat(result.getViolationCount(ERROR)).isEqualTo(3);
+		assertThat(result.toString()).isEqualTo("*ERRORS*\n" + second + "\n" + first + "\n" + second);
+	}
+
 	private static Finding createFinding(String id, ProblemCategory assessment) {
 		return new Finding(id, "TestGroup", "TestCategory", "Test message", "path/to/File.java", assessment);
 	}
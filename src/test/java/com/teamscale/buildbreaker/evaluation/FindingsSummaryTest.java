@@ -0,0 +1,79 @@
+package com.teamscale.buildbreaker.evaluation;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+
+import static com.teamscale.buildbreaker.evaluation.ProblemCategory.ERROR;
+import static com.teamscale.buildbreaker.evaluation.ProblemCategory.WARNING;
+import static org.assertj.core.api.Assertions.assertThat;
+
+class FindingsSummaryTest {
+
+	@Test
+	void countsByGroupCategoryAndTopLevelDirectory() throws IOException {
+		FindingsSummary summary = new FindingsSummary();
+		summary.add(createFinding("Smells", "Unused", "src/main/A.java", ERROR));
+		summary.add(createFinding("Smells", "Unused", "src/main/B.java", WARNING));
+		summary.add(createFinding("Bugs", "NPE", "test/C.java", ERROR));
+		summary.add(createFinding("Bugs", "NPE", "D.java", ERROR));
+
+		String text = write(summary, 10);
+
+		assertThat(text).contains("4 finding violations (3 errors, 1 warnings)");
+		assertThat(text).contains("By group:\n\tBugs: 2\n\tSmells: 2\n");
+		assertThat(text).contains("By category:\n\tNPE: 2\n\tUnused: 2\n");
+		assertThat(text).contains("By top-level directory:\n\tsrc: 2\n\t<root>: 1\n\ttest: 1\n");
+	}
+
+	@Test
+	void listsFilesWithMostViolationsFirst() throws IOException {
+		FindingsSummary summary = new FindingsSummary();
+		summary.add(createFinding("Smells", "Unused", "src/A.java", ERROR));
+		summary.add(createFinding("Smells", "Unused", "src/B.java", ERROR));
+		summary.add(createFinding("Smells", "Unused", "src/B.java", ERROR));
+		summary.add(createFinding("Smells", "Unused", "src/C.java", ERROR));
+
+		String text = write(summary, 1);
+
+		assertThat(text).endsWith("Files with the most violations:\n\tsrc/B.java: 2\n");
+	}
+
+	@Test
+	void keepsFrequentFilesWhenTrackingIsExhausted() throws IOException {
+		FindingsSummary summary = new FindingsSummary();
+		for (int i = 0; i < 100; i++) {
+			summary.add(createFinding("Smells", "Unused", "src/Hot.java", ERROR));
+		}
+		for (int i = 0; i < 10 * FindingsSummary.MAX_TRACKED_FILES; i++) {
+			summary.add(createFinding("Smells", "Unused", "src/Cold" + i + ".java", ERROR));
+		}
+
+		String text = write(summary, 1);
+
+		assertThat(text).endsWith("Files with the most violations:\n\tsrc/Hot.java: 100\n");
+	}
+
+	@Test
+	void mergesSummaries() throws IOException {
+		FindingsSummary first = new FindingsSummary();
+		first.add(createFinding("Smells", "Unused", "src/A.java", ERROR));
+		FindingsSummary second = new FindingsSummary();
+		second.add(createFinding("Smells", "Unused", "src/A.java", WARNING));
+
+		first.addAll(second);
+
+		assertThat(write(first, 1)).contains("2 finding violations (1 errors, 1 warnings)")
+				.endsWith("\tsrc/A.java: 2\n");
+	}
+
+	private static String write(FindingsSummary summary, int maxFiles) throws IOException {
+		StringBuilder text = new StringBuilder();
+		summary.writeTo(text, maxFiles);
+		return text.toString();
+	}
+
+	private static Finding createFinding(String group, String category, String uniformPath, ProblemCategory assessment) {
+		return new Finding(uniformPath + "-" + category, group, category, "Test message", uniformPath, assessment);
+	}
+}
@@ -0,0 +1,51 @@
+package com.teamscale.buildbreaker.evaluation;
+
+import org.junit.jupiter.api.Test;
+
+import static com.teamscale.buildbreaker.evaluation.ProblemCategory.ERROR;
+import static com.teamscale.buildbreaker.evaluation.ProblemCategory.WARNING;
+import static org.assertj.core.api.Assertions.assertThat;
+
+class StreamingFindingsEvaluatorTest {
+
+	@Test
+	void evaluatesLikeFindingsEvaluator() {
+		StreamingFindingsEvaluator evaluator = new StreamingFindingsEvaluator(true, false, false);
+		evaluator.acceptAddedFinding(createFinding("err-1", ERROR));
+		evaluator.acceptAddedFinding(createFinding("warn-1", WARNING));
+		evaluator.acceptFindingInChangedCode(createFinding("changed-err", ERROR));
+
+		assertThat(evaluator.isDone()).isFalse();
+		assertThat(evaluator.getResult().toStatusCode()).isEqualTo(1);
+		assertThat(evaluator.getResult().toString()).contains("err-1", "warn-1");
+		assertThat(evaluator.getResult().toString()).doesNotContain("changed-err");
+	}
+
+	@Test
+	void isDoneAfterFirstErrorInFailFastMode() {
+		StreamingFindingsEvaluator evaluator = new StreamingFindingsEvaluator(true, false, true);
+		evaluator.acceptAddedFinding(createFinding("warn-1", WARNING));
+		assertThat(evaluator.isDone()).isFalse();
+
+		evaluator.acceptAddedFinding(createFinding("err-1", ERROR));
+		assertThat(evaluator.isDone()).isTrue();
+
+		evaluator.acceptAddedFinding(createFinding("err-2", ERROR));
+		assertThat(evaluator.getResult().toString()).contains("warn-1", "err-1");
+		assertThat(evaluator.getResult().toString()).doesNotContain("err-2");
+	}
+
+	@Test
+	void ignoredFindingsDoNotStopEvaluation() {
+		StreamingFindingsEvaluator evaluator = new StreamingFindingsEvaluator(false, false, true);
+		evaluator.acceptAddedFinding(createFinding("warn-1", WARNING));
+		evaluator.acceptFindingInChangedCode(createFinding("changed-err", ERROR));
+
+		assertThat(evaluator.isDone()).isFalse();
+		assertThat(evaluator.getResult().toStatusCode()).isEqualTo(0);
+	}
+
+	private static Finding createFinding(String id, ProblemCategory assessment) {
+		return new Finding(id, "TestGroup", "TestCategory", "Test message", "path/to/File.java", assessment);
+	}
+}
@@ -0,0 +1,83 @@
+package com.teamscale.buildbreaker.jfr;
+
+import com.teamscale.buildbreaker.evaluation.MetricViolation;
+import com.teamscale.buildbreaker.evaluation.MetricsEvaluator;
+import com.teamscale.buildbreaker.teamscale_client.TeamscaleClient;
+import com.teamscale.buildbreaker.teamscale_client.UniformPathFilter;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import okhttp3.OkHttpClient;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class FlightRecordingTest {
+
+    private static final String METRIC_RESPONSE = "[{\"metrics\":{\"m1\":{\"displayName\":\"Clone Coverage\"," +
+            "\"rating\":\"RED\",\"formattedTextValue\":\"50%\"," +
+            "\"metricThresholds\":{\"thresholdYellow\":\"10\",\"thresholdRed\":\"20\"}}}}]";
+
+    @Test
+    void recordsRequestParseAndEvaluationEvents(@TempDir Path tempDir) throws Exception {
+        Path file = tempDir.resolve("run.jfr");
+        MockWebServer server = new MockWebServer();
+        server.enqueue(new MockResponse().setBody(METRIC_RESPONSE));
+        server.start();
+        try (TeamscaleClient client = new TeamscaleClient(new OkHttpClient(), server.url("/"), "user", "key",
+                "test-project")) {
+            try (FlightRecording ignored = FlightRecording.start(file)) {
+                List<MetricViolation> violations = client.fetchMetricAssessments("main:1", "default", UniformPathFilter.ALL);
+                new MetricsEvaluator().evaluate(violations, false);
+            }
+        } finally {
+            server.shutdown();
+        }
+
+        List<RecordedEvent> events = RecordingFile.readAllEvents(file).stream()
+                .filter(event -> event.getEventType().getName().startsWith("com.teamscale.buildbreaker."))
+                .collect(Collectors.toList());
+        assertThat(events).extracting(event -> event.getEventType().getName()).containsExactly(
+                "com.teamscale.buildbreaker.Request", "com.teamscale.buildbreaker.Parse",
+                "com.teamscale.buildbreaker.Evaluation");
+
+        RecordedEvent request = events.get(0);
+        assertThat(request.getString("endpoint")).isEqualTo("metric-assessments");
+        assertThat(request.getInt("statusCode")).isEqualTo(200);
+        assertThat(request.getLong("bytesReceived")).isEqualTo(METRIC_RESPONSE.length());
+
+        RecordedEvent parse = events.get(1);
+        assertThat(parse.getString("format")).isEqualTo("pre-2024.9");
+        assertThat(parse.getInt("items")).isEqualTo(1);
+
+        RecordedEvent evaluation = events.get(2);
+        assertThat(evaluation.getString("evaluator")).isEqualTo("metrics");
+        assertThat(evaluation.getInt("violations")).isEqualTo(1);
+        assertThat(evaluation.getInt("statusCode")).isEqualTo(1);
+    }
+
+    @Test
+    void createsEventsOnlyWhileRecording(@TempDir Path tempDir) throws Exception {
+        assertThat(FlightEvents.beginRequest()).isNull();
+        try (FlightRecording ignored = FlightRecording.start(tempDir.resolve("run.jfr"))) {
+            assertThat(FlightEvents.beginRequest()).isInstanceOf(RequestEvent.class);
+        }
+        assertThat(FlightEvents.beginRequest()).isNull();
+    }
+
+    @Test
+    void keepsCreatingEventsUntilAllOverlappingRecordingsAreStopped(@TempDir Path tempDir) throws Exception {
+        FlightRecording first = FlightRecording.start(tempDir.resolve("first.jfr"));
+        try (FlightRecording ignored = FlightRecording.start(tempDir.resolve("second.jfr"))) {
+            first.close();
+            assertThat(FlightEvents.beginRequest()).isInstanceOf(RequestEvent.class);
+        }
+        assertThat(FlightEvents.beginRequest()).isNull();
+    }
+}
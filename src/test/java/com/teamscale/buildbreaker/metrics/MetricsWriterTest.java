@@ -0,0 +1,99 @@
+package com.teamscale.buildbreaker.metrics;
+
+import com.teamscale.buildbreaker.metrics.RunMetrics.Counter;
+import com.teamscale.buildbreaker.metrics.RunMetrics.Phase;
+import com.teamscale.buildbreaker.metrics.RunMetrics.PhaseTimer;
+import com.teamscale.buildbreaker.teamscale_client.ResiliencePolicies;
+import com.teamscale.buildbreaker.teamscale_client.TeamscaleClient;
+import okhttp3.OkHttpClient;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class MetricsWriterTest {
+
+    private static final String ANALYSIS_STATE = "{\"timestamp\":1597845940000,\"state\":\"LIVE_ANALYSIS\"}";
+
+    private MockWebServer server;
+    private TeamscaleClient client;
+    private RunMetrics metrics;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        server = new MockWebServer();
+        server.start();
+        client = new TeamscaleClient(new OkHttpClient(), server.url("/"), "user", "key", "test-project");
+        client.setResiliencePolicies(new ResiliencePolicies(1, Duration.ofMillis(1), Duration.ofMillis(1), 0, 0,
+                Duration.ofMinutes(1), System.err));
+        metrics = new RunMetrics();
+        client.setRunMetrics(metrics);
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        client.close();
+        server.shutdown();
+    }
+
+    @Test
+    void recordsRequestsWithRetriesAndTransferredBytes() throws Exception {
+        server.enqueue(new MockResponse().setResponseCode(503));
+        server.enqueue(new MockResponse().setBody(ANALYSIS_STATE));
+
+        client.fetchAnalysisState("main");
+
+        assertThat(metrics.getRequests()).hasSize(1);
+        RequestMetrics request = metrics.getRequests().get(0);
+        assertThat(request.endpoint).isEqualTo("branch-analysis-state");
+        assertThat(request.getStatusCode()).isEqualTo(200);
+        assertThat(request.getAttempts()).isEqualTo(2);
+        assertThat(request.getCacheStatus()).isEqualTo(RequestMetrics.CacheStatus.NONE);
+        assertThat(request.getBytesReceived()).isEqualTo(ANALYSIS_STATE.length());
+        assertThat(request.getTotalNanos()).isPositive();
+    }
+
+    @Test
+    void writesJson(@TempDir Path tempDir) throws Exception {
+        server.enqueue(new MockResponse().setBody(ANALYSIS_STATE));
+        try (PhaseTimer ignored = metrics.startPhase(Phase.WAIT_FOR_ANALYSIS)) {
+            client.fetchAnalysisState("main");
+        }
+        metrics.increment(Counter.ANALYSIS_POLLS);
+
+        Path file = tempDir.resolve("metrics/run.json");
+        MetricsWriter.write(metrics, 1, file, MetricsFormat.JSON);
+
+        String json = new String(Files.readAllBytes(file), StandardCharsets.UTF_8);
+        assertThat(json).contains("\"exitCode\": 1", "\"wait_for_analysis\":", "\"analysis_polls\": 1",
+                "\"requests\": 1", "\"endpoint\": \"branch-analysis-state\"", "\"statusCode\": 200");
+    }
+
+    @Test
+    void writesOpenMetrics(@TempDir Path tempDir) throws Exception {
+        server.enqueue(new MockResponse().setBody(ANALYSIS_STATE));
+        client.fetchAnalysisState("main");
+        metrics.increment(Counter.ANALYSIS_POLLS);
+
+        Path file = tempDir.resolve("metrics.txt");
+        MetricsWriter.write(metrics, 0, file, MetricsFormat.OPENMETRICS);
+
+        String openMetrics = new String(Files.readAllBytes(file), StandardCharsets.UTF_8);
+        assertThat(openMetrics).contains("teamscale_buildbreaker_exit_code 0\n",
+                "teamscale_buildbreaker_phase_duration_seconds{phase=\"wait_for_analysis\"}",
+                "teamscale_buildbreaker_analysis_polls_total 1\n",
+                "teamscale_buildbreaker_endpoint_requests_total{endpoint=\"branch-analysis-state\"} 1\n",
+                "teamscale_buildbreaker_received_bytes_total{endpoint=\"branch-analysis-state\"} " +
+                        ANALYSIS_STATE.length() + "\n");
+        assertThat(openMetrics).endsWith("# EOF\n");
+    }
+}
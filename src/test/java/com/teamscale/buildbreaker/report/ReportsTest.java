@@ -0,0 +1,125 @@
+package com.teamscale.buildbreaker.report;
+
+import com.jayway.jsonpath.DocumentContext;
+import com.jayway.jsonpath.JsonPath;
+import com.teamscale.buildbreaker.evaluation.Finding;
+import com.teamscale.buildbreaker.evaluation.FindingsEvaluator;
+import com.teamscale.buildbreaker.evaluation.MetricViolation;
+import com.teamscale.buildbreaker.evaluation.MetricsEvaluator;
+import com.teamscale.buildbreaker.evaluation.ProblemCategory;
+import org.conqat.lib.commons.collections.Pair;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import javax.xml.parsers.DocumentBuilderFactory;
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ReportsTest {
+
+    private static final Finding ERROR_FINDING = new Finding("F1", "Bugs", "Null Pointer", "Possible <NPE> & more",
+            "src/main/Service.java", ProblemCategory.ERROR);
+    private static final Finding WARNING_FINDING = new Finding("F2", "Smells", "Unused", "Unused variable",
+            "src/main/Util.java", ProblemCategory.WARNING);
+    private static final Finding NO_PROBLEM_FINDING = new Finding("F3", "Smells", "Naming", "Fine name",
+            "src/main/Green.java", ProblemCategory.NO_PROBLEM);
+    private static final MetricViolation METRIC_VIOLATION = new MetricViolation("Clone coverage", "0.1", "0.2",
+            "0.25", ProblemCategory.ERROR);
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void writesViolationsSeenByTheEvaluators() throws Exception {
+        Path json = tempDir.resolve("report.json");
+
+        evaluate(Collections.singletonMap(ReportFormat.JSON, json), false);
+
+        DocumentContext report = JsonPath.parse(new String(Files.readAllBytes(json), StandardCharsets.UTF_8));
+        assertThat(report.<List<String>>read("$.violations[*].type")).containsExactly("metric", "finding");
+        assertThat(report.<String>read("$.violations[1].id")).isEqualTo("F1");
+        assertThat(report.<Integer>read("$.errors")).isEqualTo(2);
+        // Yellow findings are no violations without --fail-on-yellow-findings
+        assertThat(report.<Integer>read("$.warnings")).isEqualTo(0);
+    }
+
+    @Test
+    void writesSarif() throws Exception {
+        Path sarif = tempDir.resolve("reports/report.sarif");
+
+        evaluate(Collections.singletonMap(ReportFormat.SARIF, sarif), true);
+
+        DocumentContext report = JsonPath.parse(new String(Files.readAllBytes(sarif), StandardCharsets.UTF_8));
+        assertThat(report.<String>read("$.version")).isEqualTo("2.1.0");
+        assertThat(report.<List<String>>read("$.runs[0].results[*].level")).containsExactly("error", "error", "warning");
+        assertThat(report.<String>read("$.runs[0].results[1].locations[0].physicalLocation.artifactLocation.uri"))
+                .isEqualTo("src/main/Service.java");
+        assertThat(report.<String>read("$.runs[0].results[2].partialFingerprints.teamscaleFindingId"))
+                .isEqualTo("F2");
+    }
+
+    @Test
+    void writesWellFormedJUnitXml() throws Exception {
+        Path junit = tempDir.resolve("report.xml");
+
+        evaluate(Collections.singletonMap(ReportFormat.JUNIT, junit), true);
+
+        org.w3c.dom.Document document = DocumentBuilderFactory.newInstance().newDocumentBuilder()
+                .parse(junit.toFile());
+        assertThat(document.getElementsByTagName("testcase").getLength()).isEqualTo(3);
+        assertThat(document.getElementsByTagName("failure").item(1).getAttributes().getNamedItem("message")
+                .getNodeValue()).isEqualTo("Possible <NPE> & more");
+    }
+
+    @Test
+    void omitsFindingsWithoutProblem() throws Exception {
+        Map<ReportFormat, Path> files = new EnumMap<>(ReportFormat.class);
+        files.put(ReportFormat.JSON, tempDir.resolve("report.json"));
+        files.put(ReportFormat.JUNIT, tempDir.resolve("report.xml"));
+
+        try (Reports reports = Reports.open(files, System.out)) {
+            new FindingsEvaluator().evaluate(Pair.createPair(List.of(NO_PROBLEM_FINDING, ERROR_FINDING),
+                    Collections.emptyList()), true, false, reports);
+        }
+
+        DocumentContext report = JsonPath.parse(new String(Files.readAllBytes(files.get(ReportFormat.JSON)),
+                StandardCharsets.UTF_8));
+        assertThat(report.<List<String>>read("$.violations[*].id")).containsExactly("F1");
+        org.w3c.dom.Document document = DocumentBuilderFactory.newInstance().newDocumentBuilder()
+                .parse(files.get(ReportFormat.JUNIT).toFile());
+        assertThat(document.getElementsByTagName("testcase").getLength()).isEqualTo(1);
+        assertThat(new String(Files.readAllBytes(files.get(ReportFormat.JUNIT)), StandardCharsets.UTF_8))
+                .doesNotContain("F3", "NO_PROBLEM");
+    }
+
+    @Test
+    void reportsFailuresWithoutFailing() throws Exception {
+        Files.createFile(tempDir.resolve("file"));
+        Map<ReportFormat, Path> files = new EnumMap<>(ReportFormat.class);
+        files.put(ReportFormat.JSON, tempDir.resolve("file/report.json"));
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+
+        try (Reports reports = Reports.open(files, new PrintStream(output, true))) {
+            reports.onFindingViolation(ERROR_FINDING);
+        }
+
+        assertThat(output.toString()).startsWith("Failed to write the JSON report to ");
+    }
+
+    private static void evaluate(Map<ReportFormat, Path> files, boolean failOnYellow) {
+        try (Reports reports = Reports.open(files, System.out)) {
+            new MetricsEvaluator().evaluate(Collections.singletonList(METRIC_VIOLATION), failOnYellow, reports);
+            new FindingsEvaluator().evaluate(Pair.createPair(List.of(ERROR_FINDING, WARNING_FINDING),
+                    Collections.emptyList()), failOnYellow, false, reports);
+        }
+    }
+}
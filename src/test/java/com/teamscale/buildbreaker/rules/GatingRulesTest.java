@@ -0,0 +1,108 @@
+package com.teamscale.buildbreaker.rules;
+
+import com.teamscale.buildbreaker.evaluation.EvaluationResult;
+import com.teamscale.buildbreaker.evaluation.Finding;
+import com.teamscale.buildbreaker.evaluation.FindingStore;
+import com.teamscale.buildbreaker.evaluation.MetricViolation;
+import com.teamscale.buildbreaker.evaluation.ProblemCategory;
+import com.teamscale.buildbreaker.evaluation.ViolationListener;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class GatingRulesTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void countsMatchesOfEachRule() throws Exception {
+        GatingRules rules = readRules("{\"rules\": [" +
+                "{\"name\": \"Core\", \"maxCount\": 2, \"findings\": {\"assessment\": \"red\", \"section\": \"any\", \"pathPrefix\": \"src/core/\"}}," +
+                "{\"name\": \"Naming\", \"severity\": \"warning\", \"findings\": {\"category\": \"Naming\", \"section\": \"changed\"}}," +
+                "{\"name\": \"Unused\", \"findings\": {\"category\": \"Unused\"}}]}");
+        FindingStore findings = new FindingStore();
+        findings.acceptAddedFinding(finding("F1", "Bugs", "src/core/A.java", ProblemCategory.ERROR));
+        findings.acceptAddedFinding(finding("F2", "Bugs", "src/core/B.java", ProblemCategory.ERROR));
+        findings.acceptFindingInChangedCode(finding("F3", "Bugs", "src/core/C.java", ProblemCategory.ERROR));
+        findings.acceptAddedFinding(finding("F4", "Bugs", "src/util/D.java", ProblemCategory.ERROR));
+        findings.acceptFindingInChangedCode(finding("F5", "Naming", "src/util/E.java", ProblemCategory.WARNING));
+        findings.acceptFindingInChangedCode(finding("F6", "Unused", "src/util/E.java", ProblemCategory.WARNING));
+
+        List<Finding> reported = new ArrayList<>();
+        EvaluationResult result = rules.evaluateFindings(findings, false, new ViolationListener() {
+            @Override
+            public void onFindingViolation(Finding finding) {
+                reported.add(finding);
+            }
+        });
+
+        assertThat(result.getViolationCount(ProblemCategory.ERROR)).isEqualTo(1);
+        assertThat(result.getViolationCount(ProblemCategory.WARNING)).isEqualTo(1);
+        assertThat(result.toString()).contains("Rule 'Core': 3 matches, at most 2 allowed")
+                .contains("Rule 'Naming': 1 matches, at most 0 allowed").doesNotContain("Unused");
+        assertThat(reported).extracting(finding -> finding.id).containsExactly("F1", "F2", "F3", "F5");
+        assertThat(result.toStatusCode()).isEqualTo(1);
+    }
+
+    @Test
+    void parallelEvaluationHasTheSameResult() throws Exception {
+        GatingRules rules = readRules("{\"rules\": [" +
+                "{\"name\": \"Red\", \"maxCount\": 10, \"findings\": {\"assessment\": \"red\"}}," +
+                "{\"name\": \"Core\", \"maxCount\": 100000, \"findings\": {\"pathPrefix\": \"src/core/\", \"section\": \"any\"}}]}");
+        FindingStore findings = new FindingStore();
+        for (int i = 0; i < 5 * GatingRules.PARALLEL_THRESHOLD; i++) {
+            findings.acceptAddedFinding(finding("F" + i, "Bugs", "src/" + (i % 3 == 0 ? "core" : "util") + "/A.java",
+                    i % 2 == 0 ? ProblemCategory.ERROR : ProblemCategory.WARNING));
+        }
+
+        String sequential = rules.evaluateFindings(findings, false, ViolationListener.NONE).toString();
+        String parallel = rules.evaluateFindings(findings, true, ViolationListener.NONE).toString();
+
+        assertThat(parallel).isEqualTo(sequential).contains("Rule 'Red': 40960 matches").contains("F0")
+                .doesNotContain("Rule 'Core'");
+    }
+
+    @Test
+    void matchesMetrics() throws Exception {
+        GatingRules rules = readRules("{\"rules\": [{\"metrics\": {\"metric\": \"Clone Coverage\", \"rating\": \"red\"}}]}");
+        List<MetricViolation> metrics = Arrays.asList(
+                new MetricViolation("Clone Coverage", "0.1", "0.2", "0.25", ProblemCategory.ERROR),
+                new MetricViolation("Comment Completeness", "0.5", "0.3", "0.2", ProblemCategory.ERROR));
+
+        EvaluationResult result = rules.evaluateMetrics(metrics, ViolationListener.NONE);
+
+        assertThat(result.toString()).contains("Rule 'Rule 1': 1 matches").contains("Clone Coverage")
+                .doesNotContain("Comment Completeness");
+    }
+
+    @Test
+    void rejectsInvalidRules() {
+        assertThatThrownBy(() -> readRules("{\"rules\": [{\"maxCount\": 1}]}"))
+                .isInstanceOf(IOException.class).hasMessageContaining("must match findings or metrics");
+        assertThatThrownBy(() -> readRules("{\"rules\": [{\"findings\": {\"assessment\": \"orange\"}}]}"))
+                .isInstanceOf(IOException.class).hasMessageContaining("expected red or yellow but was orange");
+        assertThatThrownBy(() -> readRules("{\"rules\": [{\"findings\": {\"path\": \"src/\"}}]}"))
+                .isInstanceOf(IOException.class).hasMessageContaining("unknown property path");
+    }
+
+    private GatingRules readRules(String json) throws IOException {
+        Path file = tempDir.resolve("rules.json");
+        Files.write(file, json.getBytes(StandardCharsets.UTF_8));
+        return GatingRules.read(file);
+    }
+
+    private static Finding finding(String id, String category, String uniformPath, ProblemCategory assessment) {
+        return new Finding(id, "Group", category, "Message", uniformPath, assessment);
+    }
+}
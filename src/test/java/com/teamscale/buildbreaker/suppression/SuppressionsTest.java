@@ -0,0 +1,120 @@
+package com.teamscale.buildbreaker.suppression;
+
+import com.teamscale.buildbreaker.evaluation.Finding;
+import com.teamscale.buildbreaker.evaluation.FindingsCollector;
+import com.teamscale.buildbreaker.evaluation.ProblemCategory;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.regex.Pattern;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class SuppressionsTest {
+
+    @Test
+    void suppressesMatchingFindingsAndCountsThemPerPattern() throws Exception {
+        Suppressions suppressions = Suppressions.compile(Arrays.asList(
+                "# Generated code",
+                "path:src/gen/**",
+                "",
+                "path:**/*.pb.java",
+                "category:Naming",
+                "message:regex:Unused (?:import|variable) .*",
+                "group:Unused"));
+        FindingsCollector collector = new FindingsCollector();
+
+        suppressions.filter(collector).acceptAddedFinding(finding("src/gen/a/Model.java", "Bugs", "Null"));
+        suppressions.filter(collector).acceptAddedFinding(finding("src/gen/Model.pb.java", "Naming", "Bad name"));
+        suppressions.filter(collector).acceptAddedFinding(finding("src/main/Model.java", "Bugs", "Unused import x"));
+        suppressions.filter(collector).acceptFindingInChangedCode(finding("src/main/Model.java", "Bugs", "Null"));
+        suppressions.filter(collector).acceptFindingInChangedCode(finding("src/main/gen.java", "Naming2", "Unused"));
+
+        assertThat(collector.getFindings().getFirst()).isEmpty();
+        assertThat(collector.getFindings().getSecond()).hasSize(2);
+        assertThat(suppressions.size()).isEqualTo(5);
+        assertThat(suppressions.getSuppressedFindings()).isEqualTo(3);
+        assertThat(suppressions.getSuppressedFindings(0)).isEqualTo(2);
+        assertThat(suppressions.getSuppressedFindings(1)).isEqualTo(1);
+        assertThat(suppressions.getSuppressedFindings(2)).isEqualTo(1);
+        assertThat(suppressions.getSuppressedFindings(3)).isEqualTo(1);
+        assertThat(suppressions.getSuppressedFindings(4)).isEqualTo(0);
+
+        StringBuilder statistics = new StringBuilder();
+        suppressions.writeStatisticsTo(statistics);
+        assertThat(statistics.toString()).isEqualTo("Suppressed 3 findings with 5 patterns.\n" +
+                "\tpath:src/gen/**: 2\n" +
+                "\tpath:**/*.pb.java: 1\n" +
+                "\tcategory:Naming: 1\n" +
+                "\tmessage:regex:Unused (?:import|variable) .*: 1\n" +
+                "1 patterns matched no findings.\n");
+    }
+
+    @Test
+    void pathGlobsRespectDirectories() throws Exception {
+        Suppressions suppressions = Suppressions.compile(Arrays.asList("path:src/*.java", "path:src/**/gen/?.java"));
+
+        assertThat(suppressions.suppresses(finding("src/A.java", "Bugs", "Null"))).isTrue();
+        assertThat(suppressions.suppresses(finding("src/main/A.java", "Bugs", "Null"))).isFalse();
+        assertThat(suppressions.suppresses(finding("src/gen/A.java", "Bugs", "Null"))).isTrue();
+        assertThat(suppressions.suppresses(finding("src/a/b/gen/A.java", "Bugs", "Null"))).isTrue();
+        assertThat(suppressions.suppresses(finding("src/gen/AB.java", "Bugs", "Null"))).isFalse();
+    }
+
+    @Test
+    void regexesMatchLikeJavaRegexes() {
+        List<String> regexes = Arrays.asList("a*b", "(?:ab|cd)+e?", "[a-c]+\\d*", "x.*y", "[^/]*\\.java", "^foo$",
+                "(a|b)*c", "\\w+\\s\\w+", "[]a-]+", "(a*)*b", "", "a?", "[\\d_]+");
+        List<String> values = Arrays.asList("", "b", "aaab", "ab", "abcde", "cdcde", "abc12", "c", "x123y", "xyz",
+                "Foo.java", "src/Foo.java", "foo", "ababc", "hello world", "]a-", "a", "_1_", "-");
+        PatternAutomaton automaton = new PatternAutomaton();
+        for (int i = 0; i < regexes.size(); i++) {
+            PatternParser.addRegex(automaton, regexes.get(i), automaton.addMatch(i));
+        }
+
+        for (String value : values) {
+            List<Integer> expected = new ArrayList<>();
+            for (int i = 0; i < regexes.size(); i++) {
+                if (Pattern.matches(regexes.get(i), value)) {
+                    expected.add(i);
+                }
+            }
+            assertThat(automaton.match(value)).as(value)
+                    .containsExactly(expected.stream().mapToInt(Integer::intValue).toArray());
+        }
+    }
+
+    @Test
+    void matchesThousandsOfPatternsBeyondTheStateCache() throws Exception {
+        List<String> lines = new ArrayList<>();
+        for (int i = 0; i < 5000; i++) {
+            lines.add("path:src/module" + i + "/**/*Test.java");
+        }
+        Suppressions suppressions = Suppressions.compile(lines);
+
+        for (int i = 0; i < 2 * PatternAutomaton.MAX_CACHED_STATES; i++) {
+            String module = "src/module" + (i % 6000);
+            assertThat(suppressions.suppresses(finding(module + "/a/FooTest.java", "Bugs", "Null")))
+                    .isEqualTo(i % 6000 < 5000);
+            assertThat(suppressions.suppresses(finding(module + "/a/Foo.java", "Bugs", "Null"))).isFalse();
+        }
+    }
+
+    @Test
+    void rejectsInvalidPatterns() {
+        assertThatThrownBy(() -> Suppressions.compile(Arrays.asList("path:src/**", "src/gen/**")))
+                .isInstanceOf(IOException.class).hasMessageContaining("line 2");
+        assertThatThrownBy(() -> Suppressions.compile(Arrays.asList("message:regex:a{2}")))
+                .isInstanceOf(IOException.class).hasMessageContaining("Bounded repetitions are not supported");
+        assertThatThrownBy(() -> Suppressions.compile(Arrays.asList("message:regex:(a")))
+                .isInstanceOf(IOException.class).hasMessageContaining("Unclosed group");
+    }
+
+    private static Finding finding(String uniformPath, String category, String message) {
+        return new Finding("id", "Group", category, message, uniformPath, ProblemCategory.ERROR);
+    }
+}
@@ -0,0 +1,139 @@
+package com.teamscale.buildbreaker.teamscale_client;
+
+import com.teamscale.buildbreaker.evaluation.Finding;
+import com.teamscale.buildbreaker.evaluation.FindingsCollector;
+import com.teamscale.buildbreaker.evaluation.ProblemCategory;
+import com.teamscale.buildbreaker.evaluation.StreamingFindingsEvaluator;
+import com.teamscale.buildbreaker.evaluation.ViolationListener;
+import com.teamscale.buildbreaker.teamscale_client.exceptions.HttpStatusCodeException;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class PartitionedFindingsFetchTest {
+
+    private static final List<Finding> ALL_FINDINGS = List.of(
+            finding("F1", "src/a/One.java"),
+            finding("F2", "src/a/gen/Two.java"),
+            finding("F3", "src/b/Three.java"),
+            finding("F4", "src/c/Four.java"),
+            finding("F5", "test/Five.java"));
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void mergesPartitionsInOrderAndDeduplicatesFindings() throws Exception {
+        UniformPathFilter scope = UniformPathFilter.of(List.of("src/"), List.of("src/a/gen/"));
+        PartitionedFindingsFetch fetch = new PartitionedFindingsFetch(scope,
+                List.of("src/b/", "src/a/", "src/", "test/"), 4);
+        Map<String, UniformPathFilter> requestedFilters = new ConcurrentHashMap<>();
+        CountDownLatch firstPartitionReleased = new CountDownLatch(1);
+        FindingsCollector collector = new FindingsCollector();
+
+        fetch.fetch((filter, consumer) -> {
+            String partition = filter.getIncludedPrefixes().get(0);
+            requestedFilters.put(partition, filter);
+            if (partition.equals("src/b/")) {
+                // The other partitions finish first, but their findings must still come after these
+                awaitRelease(firstPartitionReleased);
+            } else if (partition.equals("src/")) {
+                firstPartitionReleased.countDown();
+            }
+            for (Finding finding : ALL_FINDINGS) {
+                if (filter.matches(finding.uniformPath)) {
+                    consumer.acceptAddedFinding(finding);
+                }
+            }
+        }, collector);
+
+        assertThat(requestedFilters).containsOnlyKeys("src/b/", "src/a/", "src/");
+        assertThat(collector.getFindings().getFirst()).extracting(finding -> finding.id)
+                .containsExactly("F3", "F1", "F4");
+        assertThat(fetch.getDuplicateFindings()).isEqualTo(2);
+    }
+
+    @Test
+    void stopsAllPartitionsWhenTheConsumerIsDone() throws Exception {
+        PartitionedFindingsFetch fetch = new PartitionedFindingsFetch(UniformPathFilter.ALL,
+                List.of("src/a/", "src/b/", "src/c/"), 1);
+        StreamingFindingsEvaluator evaluator = new StreamingFindingsEvaluator(false, false, true,
+                ViolationListener.NONE);
+        AtomicInteger requests = new AtomicInteger();
+
+        fetch.fetch((filter, consumer) -> {
+            requests.incrementAndGet();
+            for (Finding finding : ALL_FINDINGS) {
+                if (filter.matches(finding.uniformPath) && !consumer.isDone()) {
+                    consumer.acceptAddedFinding(finding);
+                }
+            }
+        }, evaluator);
+
+        assertThat(evaluator.getResult().hasErrors()).isTrue();
+        assertThat(requests).hasValue(1);
+    }
+
+    @Test
+    void rethrowsTheFailureOfAPartition() {
+        PartitionedFindingsFetch fetch = new PartitionedFindingsFetch(UniformPathFilter.ALL,
+                List.of("src/a/", "src/b/"), 2);
+
+        assertThatThrownBy(() -> fetch.fetch((filter, consumer) -> {
+            if (filter.getIncludedPrefixes().get(0).equals("src/b/")) {
+                throw new HttpStatusCodeException(500, "Internal Server Error");
+            }
+        }, new FindingsCollector())).isInstanceOf(HttpStatusCodeException.class);
+    }
+
+    @Test
+    void doesNotTrackFindingIdsOfDisjointPartitions() throws Exception {
+        PartitionedFindingsFetch fetch = new PartitionedFindingsFetch(UniformPathFilter.ALL,
+                List.of("src/a/", "src/b/"), 2);
+        FindingsCollector collector = new FindingsCollector();
+
+        // Only overlapping partitions can deliver a finding twice, so findings that share an ID are all passed on
+        fetch.fetch((filter, consumer) -> consumer.acceptAddedFinding(
+                finding("F1", filter.getIncludedPrefixes().get(0) + "One.java")), collector);
+
+        assertThat(collector.getFindings().getFirst()).extracting(finding -> finding.uniformPath)
+                .containsExactly("src/a/One.java", "src/b/One.java");
+        assertThat(fetch.getDuplicateFindings()).isZero();
+    }
+
+    @Test
+    void discoversPartitionsInALocalDirectory() throws Exception {
+        Files.createDirectories(tempDir.resolve("module-b"));
+        Files.createDirectories(tempDir.resolve("module-a"));
+        Files.createDirectories(tempDir.resolve(".git"));
+        Files.createFile(tempDir.resolve("pom.xml"));
+
+        assertThat(PartitionedFindingsFetch.discoverPartitions(tempDir, "src"))
+                .containsExactly("src/module-a/", "src/module-b/", "src/pom.xml");
+        assertThat(PartitionedFindingsFetch.discoverPartitions(tempDir, ""))
+                .containsExactly("module-a/", "module-b/", "pom.xml");
+    }
+
+    private static void awaitRelease(CountDownLatch latch) {
+        try {
+            assertThat(latch.await(10, TimeUnit.SECONDS)).isTrue();
+        } catch (InterruptedException e) {
+            throw new AssertionError(e);
+        }
+    }
+
+    private static Finding finding(String id, String uniformPath) {
+        return new Finding(id, "Group", "Category", "Message", uniformPath, ProblemCategory.ERROR);
+    }
+}
@@ -0,0 +1,112 @@
+package com.teamscale.buildbreaker.teamscale_client;
+
+import okhttp3.HttpUrl;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PersistentRevisionCacheTest {
+
+    private static final HttpUrl SERVER = HttpUrl.get("https://teamscale.example.com/");
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void returnsEntriesWrittenByAnotherInstance() {
+        Path cacheFile = tempDir.resolve("revisions");
+        new PersistentRevisionCache(cacheFile, 10).put(SERVER, "project", "abc123", "main:1707123456000");
+
+        PersistentRevisionCache cache = new PersistentRevisionCache(cacheFile, 10);
+
+        assertThat(cache.get(SERVER, "project", "abc123")).isEqualTo("main:1707123456000");
+    }
+
+    @Test
+    void separatesEntriesByServerAndProject() {
+        PersistentRevisionCache cache = new PersistentRevisionCache(tempDir.resolve("revisions"), 10);
+        cache.put(SERVER, "project", "abc123", "main:1707123456000");
+
+        assertThat(cache.get(SERVER, "other-project", "abc123")).isNull();
+        assertThat(cache.get(HttpUrl.get("https://other.example.com/"), "project", "abc123")).isNull();
+    }
+
+    @Test
+    void evictsLeastRecentlyUsedEntriesWhenCompacting() {
+        Path cacheFile = tempDir.resolve("revisions");
+        PersistentRevisionCache cache = new PersistentRevisionCache(cacheFile, 2);
+        cache.put(SERVER, "project", "rev1", "main:1");
+        cache.put(SERVER, "project", "rev2", "main:2");
+        cache.get(SERVER, "project", "rev1");
+        cache.put(SERVER, "project", "rev3", "main:3");
+        cache.put(SERVER, "project", "rev4", "main:4");
+
+        PersistentRevisionCache reloadedCache = new PersistentRevisionCache(cacheFile, 2);
+
+        assertThat(reloadedCache.get(SERVER, "project", "rev2")).isNull();
+        assertThat(reloadedCache.get(SERVER, "project", "rev3")).isEqualTo("main:3");
+        assertThat(reloadedCache.get(SERVER, "project", "rev4")).isEqualTo("main:4");
+    }
+
+    @Test
+    void allowsConcurrentWritesOfInstancesSharingAFile() throws Exception {
+        Path cacheFile = tempDir.resolve("revisions");
+        int instances = 4;
+        int revisionsPerInstance = 50;
+        ExecutorService executor = Executors.newFixedThreadPool(instances);
+        try {
+            CountDownLatch start = new CountDownLatch(1);
+            List<Future<?>> writes = new ArrayList<>();
+            for (int i = 0; i < instances; i++) {
+                PersistentRevisionCache cache = new PersistentRevisionCache(tempDir.resolve("./revisions"), 1000);
+                int instance = i;
+                writes.add(executor.submit(() -> {
+                    start.await();
+                    for (int revision = 0; revision < revisionsPerInstance; revision++) {
+                        cache.put(SERVER, "project", instance + "-" + revision, "main:" + revision);
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> write : writes) {
+                write.get(30, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        PersistentRevisionCache reloadedCache = new PersistentRevisionCache(cacheFile, 1000);
+        for (int i = 0; i < instances; i++) {
+            for (int revision = 0; revision < revisionsPerInstance; revision++) {
+                assertThat(reloadedCache.get(SERVER, "project", i + "-" + revision)).isEqualTo("main:" + revision);
+            }
+        }
+    }
+
+    @Test
+    void ignoresIncompleteAndCorruptLines() throws Exception {
+        Path cacheFile = tempDir.resolve("revisions");
+        new PersistentRevisionCache(cacheFile, 10).put(SERVER, "project", "abc123", "main:1707123456000");
+        Files.write(cacheFile, ("garbage\n" + SERVER + "\tproject\tabc123\tmain:17071\t0\n" + SERVER + "\tproject\tdef")
+                .getBytes(StandardCharsets.UTF_8), StandardOpenOption.APPEND);
+
+        PersistentRevisionCache cache = new PersistentRevisionCache(cacheFile, 10);
+
+        assertThat(cache.get(SERVER, "project", "abc123")).isEqualTo("main:1707123456000");
+        assertThat(cache.get(SERVER, "project", "def")).isNull();
+    }
+}
@@ -3,6 +3,7 @@ package com.teamscale.buildbreaker.teamscale_client;
 import com.teamscale.buildbreaker.evaluation.Finding;
 import com.teamscale.buildbreaker.evaluation.MetricViolation;
 import com.teamscale.buildbreaker.evaluation.ProblemCategory;
+import com.teamscale.buildbreaker.evaluation.StreamingFindingsEvaluator;
 import com.teamscale.buildbreaker.teamscale_client.exceptions.CommitCouldNotBeResolvedException;
 import com.teamscale.buildbreaker.teamscale_client.exceptions.HttpRedirectException;
 import com.teamscale.buildbreaker.teamscale_client.exceptions.HttpStatusCodeException;
@@ -13,13 +14,25 @@ import okhttp3.OkHttpClient;
 import okhttp3.mockwebserver.MockResponse;
 import okhttp3.mockwebserver.MockWebServer;
 import okhttp3.mockwebserver.RecordedRequest;
+import okhttp3.mockwebserver.SocketPolicy;
 import org.conqat.lib.commons.collections.Pair;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
-
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.Duration;
 import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
@@ -75,7 +88,7 @@ class TeamscaleClientTest {
         void buildsCorrectRequest() throws Exception {
             enqueueJsonResponse(commitFindingsResponse("", ""));
 
-            client.fetchFindingsUsingCommitDetails("main:1234567890", "");
+            client.fetchFindingsUsingCommitDetails("main:1234567890", UniformPathFilter.ALL);
 
             RecordedRequest request = server.takeRequest();
             assertThat(request.getPath())
@@ -91,7 +104,7 @@ class TeamscaleClientTest {
             enqueueJsonResponse(commitFindingsResponse(finding, ""));
 
             Pair<List<Finding>, List<Finding>> result =
-                    client.fetchFindingsUsingCommitDetails("main:123", "");
+                    client.fetchFindingsUsingCommitDetails("main:123", UniformPathFilter.ALL);
 
             assertThat(result.getFirst()).hasSize(1);
             Finding parsed = result.getFirst().get(0);
@@ -110,7 +123,7 @@ class TeamscaleClientTest {
             enqueueJsonResponse(commitFindingsResponse("", finding));
 
             Pair<List<Finding>, List<Finding>> result =
-                    client.fetchFindingsUsingCommitDetails("main:123", "");
+                    client.fetchFindingsUsingCommitDetails("main:123", UniformPathFilter.ALL);
 
             assertThat(result.getSecond()).hasSize(1);
             assertThat(result.getSecond().get(0).id).isEqualTo("f2");
@@ -126,7 +139,7 @@ class TeamscaleClientTest {
             enqueueJsonResponse(commitFindingsResponse(matching + "," + nonMatching, ""));
 
             Pair<List<Finding>, List<Finding>> result =
-                    client.fetchFindingsUsingCommitDetails("main:123", "src/main");
+                    client.fetchFindingsUsingCommitDetails("main:123", UniformPathFilter.including("src/main"));
 
             assertThat(result.getFirst()).hasSize(1);
             assertThat(result.getFirst().get(0).id).isEqualTo("f1");
@@ -137,12 +150,26 @@ class TeamscaleClientTest {
             enqueueJsonResponse(commitFindingsResponse("", ""));
 
             Pair<List<Finding>, List<Finding>> result =
-                    client.fetchFindingsUsingCommitDetails("main:123", "");
+                    client.fetchFindingsUsingCommitDetails("main:123", UniformPathFilter.ALL);
 
             assertThat(result.getFirst()).isEmpty();
             assertThat(result.getSecond()).isEmpty();
         }
 
+        @Test
+        void stopsReadingAtFirstErrorInFailFastMode() throws Exception {
+            String error = findingJson("f1", "Bugs", "NPE", "Possible NPE", "src/Service.java", "RED");
+            // Anything after the first error is never read, so it does not even have to be valid
+            enqueueJsonResponse("{\"addedFindings\":[" + error + ",{\"id\":");
+            StreamingFindingsEvaluator evaluator = new StreamingFindingsEvaluator(false, false, true);
+
+            client.fetchFindingsUsingCommitDetails("main:123", UniformPathFilter.ALL, evaluator);
+
+            assertThat(evaluator.isDone()).isTrue();
+            assertThat(evaluator.getResult().toStatusCode()).isEqualTo(1);
+            assertThat(evaluator.getResult().toString()).contains("f1");
+        }
+
     }
 
     @Nested
@@ -152,7 +179,7 @@ class TeamscaleClientTest {
         void buildsCorrectRequest() throws Exception {
             enqueueJsonResponse(deltaFindingsResponse("", ""));
 
-            client.fetchFindingsUsingLinearDelta("main:100", "main:200", "src/");
+            client.fetchFindingsUsingLinearDelta("main:100", "main:200", UniformPathFilter.including("src/"));
 
             RecordedRequest request = server.takeRequest();
             assertThat(request.getPath()).contains("/api/projects/test-project/findings/delta");
@@ -161,13 +188,28 @@ class TeamscaleClientTest {
             assertThat(request.getPath()).contains("uniform-path=src%2F");
         }
 
+        @Test
+        void requestsCommonUniformPathAndFiltersMultiplePaths() throws Exception {
+            String first = findingJson("f1", "Group", "Cat", "msg1", "src/main/A.java", "RED");
+            String second = findingJson("f2", "Group", "Cat", "msg2", "src/test/B.java", "RED");
+            String other = findingJson("f3", "Group", "Cat", "msg3", "src/docs/C.java", "RED");
+            enqueueJsonResponse(deltaFindingsResponse(first + "," + second + "," + other, ""));
+
+            Pair<List<Finding>, List<Finding>> result = client.fetchFindingsUsingLinearDelta("main:100", "main:200",
+                    UniformPathFilter.of(List.of("src/main/", "src/test/"), List.of()));
+
+            RecordedRequest request = server.takeRequest();
+            assertThat(request.getPath()).endsWith("uniform-path=src");
+            assertThat(result.getFirst()).extracting(finding -> finding.id).containsExactly("f1", "f2");
+        }
+
         @Test
         void parsesNewFormatResponse() throws Exception {
             String finding = findingJson("f1", "Group", "Cat", "msg", "src/A.java", "RED");
             enqueueJsonResponse(deltaFindingsResponse(finding, ""));
 
             Pair<List<Finding>, List<Finding>> result =
-                    client.fetchFindingsUsingLinearDelta("main:100", "main:200", "");
+                    client.fetchFindingsUsingLinearDelta("main:100", "main:200", UniformPathFilter.ALL);
 
             assertThat(result.getFirst()).hasSize(1);
             assertThat(result.getFirst().get(0).id).isEqualTo("f1");
@@ -180,7 +222,7 @@ class TeamscaleClientTest {
             enqueueJsonResponse(commitFindingsResponse(finding, ""));
 
             Pair<List<Finding>, List<Finding>> result =
-                    client.fetchFindingsUsingLinearDelta("main:100", "main:200", "");
+                    client.fetchFindingsUsingLinearDelta("main:100", "main:200", UniformPathFilter.ALL);
 
             assertThat(result.getFirst()).hasSize(1);
             assertThat(result.getFirst().get(0).id).isEqualTo("f1");
@@ -195,7 +237,7 @@ class TeamscaleClientTest {
             enqueueJsonResponse(deltaFindingsResponse(added1 + "," + added2, changed1));
 
             Pair<List<Finding>, List<Finding>> result =
-                    client.fetchFindingsUsingLinearDelta("main:100", "main:200", "");
+                    client.fetchFindingsUsingLinearDelta("main:100", "main:200", UniformPathFilter.ALL);
 
             assertThat(result.getFirst()).hasSize(2);
             assertThat(result.getSecond()).hasSize(1);
@@ -206,9 +248,42 @@ class TeamscaleClientTest {
             enqueueJsonResponse("{\"unexpected\":\"format\"}");
 
             assertThatThrownBy(() ->
-                    client.fetchFindingsUsingLinearDelta("main:100", "main:200", ""))
+                    client.fetchFindingsUsingLinearDelta("main:100", "main:200", UniformPathFilter.ALL))
                     .isInstanceOf(ParserException.class);
         }
+
+        @Test
+        void throwsParserExceptionOnMalformedJson() {
+            enqueueJsonResponse("{\"addedFindings\":{\"findings\":[{\"id\":");
+
+            assertThatThrownBy(() ->
+                    client.fetchFindingsUsingLinearDelta("main:100", "main:200", UniformPathFilter.ALL))
+                    .isInstanceOf(ParserException.class);
+        }
+
+        @Test
+        void throwsParserExceptionWhenFindingLacksRequiredField() {
+            enqueueJsonResponse(deltaFindingsResponse("{\"id\":\"f1\",\"assessment\":\"RED\"}", ""));
+
+            assertThatThrownBy(() ->
+                    client.fetchFindingsUsingLinearDelta("main:100", "main:200", UniformPathFilter.ALL))
+                    .isInstanceOf(ParserException.class)
+                    .hasMessageContaining("groupName");
+        }
+
+        @Test
+        void ignoresUnknownFieldsAndHandlesMissingLocation() throws Exception {
+            enqueueJsonResponse("{\"addedFindings\":{\"count\":1,\"findings\":[{\"id\":42,\"groupName\":\"G\","
+                    + "\"categoryName\":\"C\",\"message\":\"m\",\"assessment\":\"RED\",\"extra\":{\"a\":[1,2]}}]},"
+                    + "\"removedFindings\":{\"findings\":[]},\"findingsInChangedCode\":{\"findings\":[]}}");
+
+            Pair<List<Finding>, List<Finding>> result =
+                    client.fetchFindingsUsingLinearDelta("main:100", "main:200", UniformPathFilter.ALL);
+
+            assertThat(result.getFirst()).hasSize(1);
+            assertThat(result.getFirst().get(0).id).isEqualTo("42");
+            assertThat(result.getFirst().get(0).uniformPath).isEqualTo("<undefined>");
+        }
     }
 
     @Nested
@@ -218,7 +293,7 @@ class TeamscaleClientTest {
         void buildsCorrectRequest() throws Exception {
             enqueueJsonResponse(deltaFindingsResponse("", ""));
 
-            client.fetchFindingsUsingBranchMergeDelta("feature:100", "main:200", "src/");
+            client.fetchFindingsUsingBranchMergeDelta("feature:100", "main:200", UniformPathFilter.including("src/"));
 
             RecordedRequest request = server.takeRequest();
             assertThat(request.getPath())
@@ -228,11 +303,25 @@ class TeamscaleClientTest {
             assertThat(request.getPath()).contains("included-paths=src%2F");
         }
 
+        @Test
+        void sendsAllIncludedPathsAndFiltersExcludedPaths() throws Exception {
+            String included = findingJson("f1", "Group", "Cat", "msg1", "src/main/A.java", "RED");
+            String excluded = findingJson("f2", "Group", "Cat", "msg2", "src/main/generated/B.java", "RED");
+            enqueueJsonResponse(deltaFindingsResponse(included + "," + excluded, ""));
+
+            Pair<List<Finding>, List<Finding>> result = client.fetchFindingsUsingBranchMergeDelta("feature:100",
+                    "main:200", UniformPathFilter.of(List.of("src/main/", "lib/"), List.of("src/main/generated/")));
+
+            RecordedRequest request = server.takeRequest();
+            assertThat(request.getPath()).contains("included-paths=src%2Fmain%2F", "included-paths=lib%2F");
+            assertThat(result.getFirst()).extracting(finding -> finding.id).containsExactly("f1");
+        }
+
         @Test
         void omitsIncludedPathsWhenUniformPathIsEmpty() throws Exception {
             enqueueJsonResponse(deltaFindingsResponse("", ""));
 
-            client.fetchFindingsUsingBranchMergeDelta("feature:100", "main:200", "");
+            client.fetchFindingsUsingBranchMergeDelta("feature:100", "main:200", UniformPathFilter.ALL);
 
             RecordedRequest request = server.takeRequest();
             assertThat(request.getPath()).doesNotContain("included-paths");
@@ -245,7 +334,7 @@ class TeamscaleClientTest {
             enqueueJsonResponse(deltaFindingsResponse(addedFinding, changedFinding));
 
             Pair<List<Finding>, List<Finding>> result =
-                    client.fetchFindingsUsingBranchMergeDelta("feature:100", "main:200", "");
+                    client.fetchFindingsUsingBranchMergeDelta("feature:100", "main:200", UniformPathFilter.ALL);
 
             assertThat(result.getFirst()).hasSize(1);
             assertThat(result.getFirst().get(0).assessment).isEqualTo(ProblemCategory.ERROR);
@@ -259,7 +348,7 @@ class TeamscaleClientTest {
             enqueueJsonResponse(commitFindingsResponse(finding, ""));
 
             Pair<List<Finding>, List<Finding>> result =
-                    client.fetchFindingsUsingBranchMergeDelta("feature:100", "main:200", "");
+                    client.fetchFindingsUsingBranchMergeDelta("feature:100", "main:200", UniformPathFilter.ALL);
 
             assertThat(result.getFirst()).hasSize(1);
             assertThat(result.getFirst().get(0).id).isEqualTo("f1");
@@ -273,7 +362,7 @@ class TeamscaleClientTest {
         void buildsCorrectRequest() throws Exception {
             enqueueJsonResponse("[]");
 
-            client.fetchMetricAssessments("main:123", "default", "src/");
+            client.fetchMetricAssessments("main:123", "default", UniformPathFilter.including("src/"));
 
             RecordedRequest request = server.takeRequest();
             assertThat(request.getPath()).contains("/api/projects/test-project/metric-assessments");
@@ -293,7 +382,7 @@ class TeamscaleClientTest {
             enqueueJsonResponse(response);
 
             List<MetricViolation> result =
-                    client.fetchMetricAssessments("main:123", "config", "");
+                    client.fetchMetricAssessments("main:123", "config", UniformPathFilter.ALL);
 
             assertThat(result).hasSize(1);
             MetricViolation violation = result.get(0);
@@ -317,7 +406,7 @@ class TeamscaleClientTest {
             enqueueJsonResponse(response);
 
             List<MetricViolation> result =
-                    client.fetchMetricAssessments("main:123", "config", "");
+                    client.fetchMetricAssessments("main:123", "config", UniformPathFilter.ALL);
 
             assertThat(result).hasSize(1);
             assertThat(result.get(0).displayName).isEqualTo("Bad Metric");
@@ -335,7 +424,7 @@ class TeamscaleClientTest {
             enqueueJsonResponse(response);
 
             List<MetricViolation> result =
-                    client.fetchMetricAssessments("main:123", "config", "");
+                    client.fetchMetricAssessments("main:123", "config", UniformPathFilter.ALL);
 
             assertThat(result).hasSize(1);
             MetricViolation violation = result.get(0);
@@ -358,7 +447,7 @@ class TeamscaleClientTest {
             enqueueJsonResponse(response);
 
             List<MetricViolation> result =
-                    client.fetchMetricAssessments("main:123", "config", "");
+                    client.fetchMetricAssessments("main:123", "config", UniformPathFilter.ALL);
 
             assertThat(result).hasSize(1);
             MetricViolation violation = result.get(0);
@@ -381,7 +470,7 @@ class TeamscaleClientTest {
             enqueueJsonResponse(response);
 
             List<MetricViolation> result =
-                    client.fetchMetricAssessments("main:123", "config", "");
+                    client.fetchMetricAssessments("main:123", "config", UniformPathFilter.ALL);
 
             assertThat(result).hasSize(1);
             MetricViolation metricViolation = result.get(0);
@@ -404,7 +493,7 @@ class TeamscaleClientTest {
             enqueueJsonResponse(response);
 
             List<MetricViolation> result =
-                    client.fetchMetricAssessments("main:123", "config", "");
+                    client.fetchMetricAssessments("main:123", "config", UniformPathFilter.ALL);
 
             assertThat(result).isEmpty();
         }
@@ -414,7 +503,7 @@ class TeamscaleClientTest {
             enqueueJsonResponse("[]");
 
             List<MetricViolation> result =
-                    client.fetchMetricAssessments("main:123", "config", "");
+                    client.fetchMetricAssessments("main:123", "config", UniformPathFilter.ALL);
 
             assertThat(result).isEmpty();
         }
@@ -464,6 +553,41 @@ class TeamscaleClientTest {
             assertThat(server.getRequestCount()).isEqualTo(1);
         }
 
+        @Test
+        void sendsSingleRequestForConcurrentResolutionsOfSameRevision() throws Exception {
+            server.enqueue(new MockResponse()
+                    .setBody("[{\"branchName\":\"main\",\"timestamp\":1707123456000}]")
+                    .setBodyDelay(200, TimeUnit.MILLISECONDS));
+
+            ExecutorService executor = Executors.newFixedThreadPool(2);
+            try {
+                Future<String> first = executor.submit(() -> client.fetchTimestampForRevision("abc123"));
+                Future<String> second = executor.submit(() -> client.fetchTimestampForRevision("abc123"));
+
+                assertThat(first.get()).isEqualTo("main:1707123456000");
+                assertThat(second.get()).isEqualTo("main:1707123456000");
+                assertThat(server.getRequestCount()).isEqualTo(1);
+            } finally {
+                executor.shutdownNow();
+            }
+        }
+
+        @Test
+        void usesPersistentCacheFromPreviousRun(@TempDir Path tempDir) throws Exception {
+            Path cacheFile = tempDir.resolve("revisions");
+            enqueueJsonResponse("[{\"branchName\":\"main\",\"timestamp\":1707123456000}]");
+            client.setPersistentRevisionCache(new PersistentRevisionCache(cacheFile, 10));
+            client.fetchTimestampForRevision("abc123");
+
+            try (TeamscaleClient nextRunClient = new TeamscaleClient(
+                    new OkHttpClient(), server.url("/"), "user", "key", "test-project")) {
+                nextRunClient.setPersistentRevisionCache(new PersistentRevisionCache(cacheFile, 10));
+
+                assertThat(nextRunClient.fetchTimestampForRevision("abc123")).isEqualTo("main:1707123456000");
+                assertThat(server.getRequestCount()).isEqualTo(1);
+            }
+        }
+
         @Test
         void doesNotUseCacheForDifferentRevisions() throws Exception {
             enqueueJsonResponse("[{\"branchName\":\"main\",\"timestamp\":100}]");
@@ -621,7 +745,7 @@ class TeamscaleClientTest {
                     .setBody("Not Found"));
 
             assertThatThrownBy(() ->
-                    client.fetchFindingsUsingCommitDetails("main:123", ""))
+                    client.fetchFindingsUsingCommitDetails("main:123", UniformPathFilter.ALL))
                     .isInstanceOf(HttpStatusCodeException.class)
                     .satisfies(e -> {
                         HttpStatusCodeException ex = (HttpStatusCodeException) e;
@@ -636,7 +760,7 @@ class TeamscaleClientTest {
                     .setBody("Unauthorized"));
 
             assertThatThrownBy(() ->
-                    client.fetchMetricAssessments("main:123", "config", ""))
+                    client.fetchMetricAssessments("main:123", "config", UniformPathFilter.ALL))
                     .isInstanceOf(HttpStatusCodeException.class)
                     .satisfies(e -> {
                         HttpStatusCodeException ex = (HttpStatusCodeException) e;
@@ -679,4 +803,112 @@ class TeamscaleClientTest {
                     });
         }
     }
+
+    @Nested
+    class Resilience {
+
+        private static final String ANALYSIS_STATE_JSON = "{\"timestamp\":1707000000000,\"state\":\"LIVE_ANALYSIS\"}";
+
+        private final ByteArrayOutputStream output = new ByteArrayOutputStream();
+
+        private void useResiliencePolicies(int maxRetries, Duration maxRetryDelay, int circuitBreakerFailureThreshold) {
+            client.setResiliencePolicies(new ResiliencePolicies(maxRetries, Duration.ofMillis(10), maxRetryDelay, 0,
+                    circuitBreakerFailureThreshold, Duration.ofMinutes(1), new PrintStream(output, true)));
+        }
+
+        @Test
+        void retriesGetRequestsOnTransientStatusCodes() throws Exception {
+            useResiliencePolicies(3, Duration.ofMillis(50), 0);
+            server.enqueue(new MockResponse().setResponseCode(503));
+            server.enqueue(new MockResponse().setResponseCode(429));
+            enqueueJsonResponse(ANALYSIS_STATE_JSON);
+
+            AnalysisState state = client.fetchAnalysisState("main");
+
+            assertThat(state.state).isEqualTo("LIVE_ANALYSIS");
+            assertThat(server.getRequestCount()).isEqualTo(3);
+            assertThat(new String(output.toByteArray(), StandardCharsets.UTF_8)).contains(
+                    "Request to Teamscale failed (HTTP status code 503), retrying (attempt 2).",
+                    "Request to Teamscale failed (HTTP status code 429), retrying (attempt 3).");
+        }
+
+        @Test
+        void retriesGetRequestsOnConnectionFailures() throws Exception {
+            useResiliencePolicies(3, Duration.ofMillis(50), 0);
+            server.enqueue(new MockResponse().setSocketPolicy(SocketPolicy.DISCONNECT_AT_START));
+            enqueueJsonResponse(ANALYSIS_STATE_JSON);
+
+            AnalysisState state = client.fetchAnalysisState("main");
+
+            assertThat(state.state).isEqualTo("LIVE_ANALYSIS");
+        }
+
+        @Test
+        void reportsLastStatusCodeWhenRetriesAreExhausted() {
+            useResiliencePolicies(2, Duration.ofMillis(50), 0);
+            for (int i = 0; i < 3; i++) {
+                server.enqueue(new MockResponse().setResponseCode(502).setBody("Bad Gateway " + i));
+            }
+
+            assertThatThrownBy(() -> client.fetchAnalysisState("main"))
+                    .isInstanceOfSatisfying(HttpStatusCodeException.class, e -> {
+                        assertThat(e.getStatusCode()).isEqualTo(502);
+                        assertThat(e.getResponseBody()).isEqualTo("Bad Gateway 2");
+                    });
+            assertThat(server.getRequestCount()).isEqualTo(3);
+        }
+
+        @Test
+        void doesNotRetryOtherStatusCodes() {
+            useResiliencePolicies(3, Duration.ofMillis(50), 0);
+            server.enqueue(new MockResponse().setResponseCode(500));
+
+            assertThatThrownBy(() -> client.fetchAnalysisState("main")).isInstanceOf(HttpStatusCodeException.class);
+            assertThat(server.getRequestCount()).isEqualTo(1);
+        }
+
+        @Test
+        void doesNotRetryPostRequests() {
+            useResiliencePolicies(3, Duration.ofMillis(50), 0);
+            server.enqueue(new MockResponse().setResponseCode(503));
+
+            assertThatThrownBy(() -> client.triggerCommitHookEvent("https://github.com/org/repo.git"))
+                    .isInstanceOf(HttpStatusCodeException.class);
+            assertThat(server.getRequestCount()).isEqualTo(1);
+        }
+
+        @Test
+        void waitsAsRequestedByRetryAfterHeader() throws Exception {
+            useResiliencePolicies(1, Duration.ofSeconds(5), 0);
+            server.enqueue(new MockResponse().setResponseCode(503).addHeader("Retry-After", "1"));
+            enqueueJsonResponse(ANALYSIS_STATE_JSON);
+
+            long start = System.nanoTime();
+            client.fetchAnalysisState("main");
+
+            assertThat(Duration.ofNanos(System.nanoTime() - start)).isGreaterThanOrEqualTo(Duration.ofSeconds(1));
+        }
+
+        @Test
+        void stopsSendingRequestsOnceCircuitIsOpen() {
+            useResiliencePolicies(0, Duration.ofMillis(50), 2);
+            server.enqueue(new MockResponse().setResponseCode(503));
+            server.enqueue(new MockResponse().setResponseCode(503));
+
+            assertThatThrownBy(() -> client.fetchAnalysisState("main")).isInstanceOf(HttpStatusCodeException.class);
+            assertThatThrownBy(() -> client.fetchAnalysisState("main")).isInstanceOf(HttpStatusCodeException.class);
+            assertThatThrownBy(() -> client.fetchAnalysisState("main"))
+                    .isInstanceOf(IOException.class)
+                    .hasMessageContaining("No further requests are sent for 60 seconds");
+            assertThat(server.getRequestCount()).isEqualTo(2);
+        }
+
+        @Test
+        void parsesRetryAfterInSecondsAndAsHttpDate() {
+            assertThat(ResiliencePolicies.parseRetryAfter("120")).isEqualTo(Duration.ofMinutes(2));
+            assertThat(ResiliencePolicies.parseRetryAfter("Wed, 21 Oct 2015 07:28:00 GMT")).isEqualTo(Duration.ZERO);
+            assertThat(ResiliencePolicies.parseRetryAfter("soon")).isNull();
+            assertThat(ResiliencePolicies.parseRetryAfter(null)).isNull();
+        }
+    }
 }
@@ -0,0 +1,78 @@
+package com.teamscale.buildbreaker.teamscale_client;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class UniformPathFilterTest {
+
+    @Test
+    void includesEverythingWithoutPrefixes() {
+        UniformPathFilter filter = UniformPathFilter.of(List.of("", ""), List.of());
+
+        assertThat(filter.isAll()).isTrue();
+        assertThat(filter.matches("src/Main.java")).isTrue();
+        assertThat(filter.matches("")).isTrue();
+        assertThat(filter.getCommonUniformPath()).isEmpty();
+    }
+
+    @Test
+    void matchesCharacterPrefixesLikeStartsWith() {
+        UniformPathFilter filter = UniformPathFilter.including("src/ma");
+
+        assertThat(filter.matches("src/main/Foo.java")).isTrue();
+        assertThat(filter.matches("src/maven/Bar.java")).isTrue();
+        assertThat(filter.matches("src/m")).isFalse();
+        assertThat(filter.matches("test/FooTest.java")).isFalse();
+    }
+
+    @Test
+    void includesAnyOfSeveralPrefixes() {
+        UniformPathFilter filter = UniformPathFilter.of(List.of("src/main/", "lib/", "build.gradle"), List.of());
+
+        assertThat(filter.matches("src/main/Foo.java")).isTrue();
+        assertThat(filter.matches("lib/util/Bar.java")).isTrue();
+        assertThat(filter.matches("build.gradle")).isTrue();
+        assertThat(filter.matches("src/test/FooTest.java")).isFalse();
+    }
+
+    @Test
+    void longestMatchingPrefixDecides() {
+        UniformPathFilter filter = UniformPathFilter.of(List.of("src/", "src/generated/keep/"),
+                List.of("src/generated/"));
+
+        assertThat(filter.matches("src/Main.java")).isTrue();
+        assertThat(filter.matches("src/generated/Parser.java")).isFalse();
+        assertThat(filter.matches("src/generated/keep/Ast.java")).isTrue();
+        assertThat(filter.matches("test/MainTest.java")).isFalse();
+    }
+
+    @Test
+    void excludesOnlyExcludedPrefixesWithoutIncludes() {
+        UniformPathFilter filter = UniformPathFilter.of(List.of(), List.of("test/", "docs/"));
+
+        assertThat(filter.matches("src/Main.java")).isTrue();
+        assertThat(filter.matches("test/MainTest.java")).isFalse();
+        assertThat(filter.matches("docs/index.md")).isFalse();
+        assertThat(filter.isSingleUniformPath()).isFalse();
+    }
+
+    @Test
+    void exclusionWinsForIdenticalPrefixes() {
+        UniformPathFilter filter = UniformPathFilter.of(List.of("src/"), List.of("src/"));
+
+        assertThat(filter.matches("src/Main.java")).isFalse();
+    }
+
+    @Test
+    void commonUniformPathEndsAtDirectoryBoundary() {
+        assertThat(UniformPathFilter.including("src/main").getCommonUniformPath()).isEqualTo("src/main");
+        assertThat(UniformPathFilter.of(List.of("src/main/", "src/maven/"), List.of()).getCommonUniformPath())
+                .isEqualTo("src");
+        assertThat(UniformPathFilter.of(List.of("a/b/c/", "a/b/d/", "a/b/e"), List.of()).getCommonUniformPath())
+                .isEqualTo("a/b");
+        assertThat(UniformPathFilter.of(List.of("src/", "lib/"), List.of()).getCommonUniformPath()).isEmpty();
+    }
+}